@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * The JSON serialization of the component models. The models are serialized with a single {@link ObjectMapper}, and an
+ * {@link ObjectWriter} is built once per model type, so that the introspection of the models and the serializers are shared by all
+ * the requests instead of being created each time a model is rendered. Both are thread-safe.
+ */
+public final class JsonWriters {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    private JsonWriters() {}
+
+    /**
+     * Returns the object mapper shared by the components, for example to build JSON nodes. It must not be reconfigured.
+     *
+     * @return the object mapper
+     */
+    public static ObjectMapper getObjectMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Returns the writer of the given type.
+     *
+     * @param type the type of the serialized values
+     * @return the writer
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * Serializes the given value with the writer of its type.
+     *
+     * @param value the value
+     * @return the JSON string
+     * @throws JsonProcessingException if the value cannot be serialized
+     */
+    public static String writeValueAsString(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return MAPPER.writeValueAsString(null);
+        }
+        return writerFor(value.getClass()).writeValueAsString(value);
+    }
+
+    /**
+     * Serializes the given value as the single property of a JSON object, like <code>{"name":value}</code>, without serializing the
+     * value in a separate string first.
+     *
+     * @param name the name of the property
+     * @param value the value of the property
+     * @return the JSON string
+     * @throws JsonProcessingException if the value cannot be serialized
+     */
+    public static String writeValueAsProperty(String name, Object value) throws JsonProcessingException {
+        StringWriter out = new StringWriter();
+        try {
+            writeValueAsProperty(out, name, value);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            // not thrown by a StringWriter
+            throw JsonMappingException.fromUnexpectedIOE(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Streams the given value as the single property of a JSON object to the given writer.
+     *
+     * @param out the writer
+     * @param name the name of the property
+     * @param value the value of the property
+     * @throws IOException if the value cannot be serialized or written
+     */
+    public static void writeValueAsProperty(Writer out, String name, Object value) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+            // the writer is owned by the caller, for example the writer of the HTL script
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName(String.valueOf(name));
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                writerFor(value.getClass()).writeValue(generator, value);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -16,9 +16,6 @@ package com.adobe.cq.commerce.core.components.internal.datalayer;
 import java.util.Date;
 import java.util.Map;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.lang3.StringUtils;
-
 import com.adobe.cq.commerce.core.components.models.product.Asset;
 import com.adobe.cq.wcm.core.components.models.datalayer.AssetData;
 
@@ -31,8 +28,7 @@ public class AssetDataImpl implements AssetData {
 
     @Override
     public String getId() {
-        return StringUtils.join(asset.getType(), DataLayerComponent.ID_SEPARATOR, StringUtils.substring(DigestUtils.sha256Hex(asset
-            .getPath()), 0, 10));
+        return DataLayerIds.generateId(asset.getType(), asset.getPath());
     }
 
     @Override
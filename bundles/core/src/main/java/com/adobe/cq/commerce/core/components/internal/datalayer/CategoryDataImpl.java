@@ -13,9 +13,6 @@
  ******************************************************************************/
 package com.adobe.cq.commerce.core.components.internal.datalayer;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.lang3.StringUtils;
-
 import com.adobe.cq.commerce.core.components.datalayer.CategoryData;
 import com.adobe.cq.commerce.core.components.internal.models.v1.product.AssetImpl;
 import com.adobe.cq.wcm.core.components.models.datalayer.AssetData;
@@ -33,7 +30,7 @@ public class CategoryDataImpl implements CategoryData {
 
     @Override
     public String getId() {
-        return StringUtils.join("category", DataLayerComponent.ID_SEPARATOR, StringUtils.substring(DigestUtils.sha256Hex(id), 0, 10));
+        return DataLayerIds.generateId("category", id);
     }
 
     @Override
@@ -21,10 +21,10 @@ import org.apache.sling.api.resource.ValueMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.cq.commerce.core.components.internal.JsonWriters;
 import com.adobe.cq.wcm.core.components.models.datalayer.ComponentData;
 import com.day.cq.commons.jcr.JcrConstants;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class ComponentDataImpl implements ComponentData {
     private static final Logger LOGGER = LoggerFactory.getLogger(ComponentDataImpl.class);
@@ -100,9 +100,7 @@ public class ComponentDataImpl implements ComponentData {
     @Override
     public String getJson() {
         try {
-            return String.format("{\"%s\":%s}",
-                getId(),
-                new ObjectMapper().writeValueAsString(this));
+            return JsonWriters.writeValueAsProperty(getId(), this);
         } catch (JsonProcessingException e) {
             LOGGER.error("Unable to generate dataLayer JSON string", e);
         }
@@ -15,11 +15,9 @@ package com.adobe.cq.commerce.core.components.internal.datalayer;
 
 import javax.inject.Inject;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.resource.Resource;
-import org.apache.sling.api.resource.ValueMap;
-import org.apache.sling.caconfig.ConfigurationBuilder;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.Self;
 
 import com.adobe.cq.commerce.core.components.datalayer.CategoryData;
 import com.adobe.cq.wcm.core.components.models.datalayer.AssetData;
@@ -32,26 +30,32 @@ public abstract class DataLayerComponent {
     @Inject
     protected Resource resource;
 
+    @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private DataLayerContext dataLayerContext;
+
     private String id;
     private Boolean dataLayerEnabled;
     private ComponentData componentData;
 
     private boolean isDataLayerEnabled() {
         if (dataLayerEnabled == null) {
-            dataLayerEnabled = false;
-            if (resource != null) {
-                ConfigurationBuilder builder = resource.adaptTo(ConfigurationBuilder.class);
-                if (builder != null) {
-                    ValueMap dataLayerConfig = builder
-                        .name("com.adobe.cq.wcm.core.components.internal.DataLayerConfig").asValueMap();
-                    dataLayerEnabled = dataLayerConfig.get("enabled", false);
-                }
-            }
+            DataLayerContext context = getDataLayerContext();
+            dataLayerEnabled = context != null ? context.isDataLayerEnabled(resource)
+                : DataLayerContext.resolveDataLayerEnabled(resource);
         }
 
         return dataLayerEnabled;
     }
 
+    /**
+     * Returns the data layer context of the request, which resolves the data layer configuration once for all the components.
+     *
+     * @return the data layer context, or <code>null</code> to resolve the configuration for this component only
+     */
+    protected DataLayerContext getDataLayerContext() {
+        return dataLayerContext;
+    }
+
     public ComponentData getData() {
         if (!isDataLayerEnabled()) {
             return null;
@@ -67,10 +71,7 @@ public abstract class DataLayerComponent {
     }
 
     protected String generateId() {
-        String resourceType = resource.getResourceType();
-        String prefix = StringUtils.substringAfterLast(resourceType, "/");
-        String path = resource.getPath();
-        return StringUtils.join(prefix, ID_SEPARATOR, StringUtils.substring(DigestUtils.sha256Hex(path), 0, 10));
+        return DataLayerIds.generateComponentId(resource.getResourceType(), resource.getPath());
     }
 
     public String getId() {
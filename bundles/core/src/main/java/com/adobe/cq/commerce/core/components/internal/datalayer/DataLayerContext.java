@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.datalayer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.caconfig.ConfigurationBuilder;
+import org.apache.sling.models.annotations.Model;
+
+import com.day.cq.commons.jcr.JcrConstants;
+
+/**
+ * Resolves the data layer configuration once per request for all the components of a page, and for the list items of the
+ * components which all share the content resource of the same product or category page. The configuration is resolved for the page
+ * of a resource, as the context-aware configurations are defined on pages.
+ */
+@Model(
+    adaptables = SlingHttpServletRequest.class,
+    cache = true)
+public class DataLayerContext {
+
+    static final String DATA_LAYER_CONFIG = "com.adobe.cq.wcm.core.components.internal.DataLayerConfig";
+
+    private final Map<String, Boolean> dataLayerEnabled = new HashMap<>();
+
+    /**
+     * Returns <code>true</code> if the data layer is enabled for the given resource.
+     *
+     * @param resource the resource of a component
+     * @return <code>true</code> if the data layer is enabled
+     */
+    public boolean isDataLayerEnabled(Resource resource) {
+        if (resource == null) {
+            return false;
+        }
+        String pagePath = StringUtils.substringBefore(resource.getPath(), "/" + JcrConstants.JCR_CONTENT);
+        return dataLayerEnabled.computeIfAbsent(pagePath, path -> resolveDataLayerEnabled(resource));
+    }
+
+    static boolean resolveDataLayerEnabled(Resource resource) {
+        if (resource != null) {
+            ConfigurationBuilder builder = resource.adaptTo(ConfigurationBuilder.class);
+            if (builder != null) {
+                ValueMap dataLayerConfig = builder.name(DATA_LAYER_CONFIG).asValueMap();
+                return dataLayerConfig.get("enabled", false);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.datalayer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Generates the data layer IDs of the components, items, assets and categories. An ID is made of a prefix and of the first
+ * characters of the SHA-256 hash of a path or SKU, which is kept in memory as the same paths and SKUs are rendered by every request.
+ * The IDs are unchanged so that the analytics data stays continuous.
+ */
+public final class DataLayerIds {
+
+    static final int MAX_HASHES = 10000;
+    private static final int HASH_LENGTH = 10;
+
+    // cleared when full, as the hashes are cheap to compute again
+    private static final Map<String, String> HASHES = new ConcurrentHashMap<>();
+
+    private DataLayerIds() {}
+
+    /**
+     * Returns the data layer ID for the given prefix and value.
+     *
+     * @param prefix the prefix of the ID, for example the type of the component
+     * @param value the path or SKU identifying the component
+     * @return the ID
+     */
+    public static String generateId(String prefix, String value) {
+        return StringUtils.join(prefix, DataLayerComponent.ID_SEPARATOR, hash(value));
+    }
+
+    /**
+     * Returns the data layer ID of a component with the given resource type and path.
+     *
+     * @param resourceType the resource type of the component
+     * @param path the path of the component
+     * @return the ID
+     */
+    public static String generateComponentId(String resourceType, String path) {
+        return generateId(StringUtils.substringAfterLast(resourceType, "/"), path);
+    }
+
+    static String hash(String value) {
+        String hash = HASHES.get(value);
+        if (hash == null) {
+            hash = StringUtils.substring(DigestUtils.sha256Hex(value), 0, HASH_LENGTH);
+            if (HASHES.size() >= MAX_HASHES) {
+                HASHES.clear();
+            }
+            HASHES.put(value, hash);
+        }
+        return hash;
+    }
+
+    static int size() {
+        return HASHES.size();
+    }
+}
@@ -14,17 +14,33 @@
 
 package com.adobe.cq.commerce.core.components.internal.models.v1;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.NumberFormat;
 import java.util.Currency;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.gson.QueryDeserializer;
+
 public class Utils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Utils.class);
 
+    // NumberFormat is not thread-safe, so each thread keeps its own formatters
+    private static final ThreadLocal<Map<String, NumberFormat>> PRICE_FORMATTERS = ThreadLocal.withInitial(HashMap::new);
+
+    // the placeholder data is the same for all the requests, so it is parsed once
+    private static final Map<String, Query> PLACEHOLDER_QUERIES = new ConcurrentHashMap<>();
+
     /**
      * Builds a NumberFormat instance used for formatting prices based on the given
      * locale and currency code. If the given currency code is not valid in respect to
@@ -50,4 +66,43 @@ public class Utils {
 
         return formatter;
     }
+
+    /**
+     * Returns a NumberFormat instance used for formatting prices based on the given locale and currency code, like
+     * {@link #buildPriceFormatter(Locale, String)}. The formatter is built once per thread, locale and currency, so it must only be used
+     * by the calling thread and must not be modified.
+     *
+     * @param locale Price locale
+     * @param currencyCode Additional currency code
+     * @return Price formatter
+     */
+    public static NumberFormat getPriceFormatter(Locale locale, String currencyCode) {
+        String key = locale + "|" + currencyCode;
+        return PRICE_FORMATTERS.get().computeIfAbsent(key, k -> buildPriceFormatter(locale, currencyCode));
+    }
+
+    /**
+     * Returns the GraphQL response stored in the given placeholder file of the bundle, which is rendered by the components in the
+     * AEM Sites editor when they are not configured. The file is parsed once and the response is shared by all the components, so
+     * it must not be modified.
+     *
+     * @param placeholderPath The path of the placeholder file in the bundle
+     * @return The GraphQL response
+     * @throws IOException if the placeholder file cannot be read
+     */
+    public static Query getPlaceholderQuery(String placeholderPath) throws IOException {
+        Query query = PLACEHOLDER_QUERIES.get(placeholderPath);
+        if (query == null) {
+            InputStream data = Utils.class.getClassLoader().getResourceAsStream(placeholderPath);
+            if (data == null) {
+                throw new IOException("Placeholder data not found: " + placeholderPath);
+            }
+            try (InputStream in = data) {
+                String json = IOUtils.toString(in, StandardCharsets.UTF_8);
+                query = QueryDeserializer.getGson().fromJson(json, Query.class);
+            }
+            PLACEHOLDER_QUERIES.put(placeholderPath, query);
+        }
+        return query;
+    }
 }
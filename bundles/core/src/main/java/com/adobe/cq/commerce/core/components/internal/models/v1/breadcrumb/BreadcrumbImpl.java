@@ -18,9 +18,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -34,12 +36,16 @@ import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.Via;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.via.ForcedResourceType;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
 import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerComponent;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeIndex;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
 import com.adobe.cq.commerce.core.components.models.breadcrumb.Breadcrumb;
 import com.adobe.cq.commerce.core.components.models.navigation.Navigation;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
@@ -51,7 +57,6 @@ import com.adobe.cq.commerce.magento.graphql.CategoryInterface;
 import com.adobe.cq.wcm.core.components.models.NavigationItem;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.designer.Style;
-import com.shopify.graphql.support.ID;
 
 import static com.adobe.cq.wcm.core.components.models.Navigation.PN_STRUCTURE_DEPTH;
 
@@ -70,12 +75,18 @@ public class BreadcrumbImpl extends DataLayerComponent implements Breadcrumb {
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
     @Inject
     private UrlProvider urlProvider;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private CategoryTreeService categoryTreeService;
+
     @ScriptVariable
     private Page currentPage;
 
@@ -127,44 +138,40 @@ public class BreadcrumbImpl extends DataLayerComponent implements Breadcrumb {
         // For product and category pages, we fetch the breadcrumbs
         boolean isProductPage = isProductPage(page);
         boolean isCategoryPage = isCategoryPage(page);
-        List<? extends CategoryInterface> categoriesBreadcrumbs = null;
-        if (isProductPage) {
-            categoriesBreadcrumbs = fetchProductBreadcrumbs();
-        } else if (isCategoryPage) {
-            categoriesBreadcrumbs = fetchCategoryBreadcrumbs();
-        } else if (isSpecificPage(page)) {
-            return; // it's a specific product or category page, it has already been processed by the generic product or category page
-        } else {
-            items.add(item);
-            return; // we reached a content page
+        if (!isProductPage && !isCategoryPage) {
+            if (!isSpecificPage(page)) {
+                items.add(item); // we reached a content page
+            }
+            return; // a specific product or category page has already been processed by the generic product or category page
         }
 
-        if (CollectionUtils.isEmpty(categoriesBreadcrumbs)) {
+        // For products and categories, we display the category path in the breadcrumb
+        List<String> names = new ArrayList<>();
+        List<Map<String, String>> params = new ArrayList<>();
+
+        // The path of a category is built from the category tree of the navigation if the category is part of it, without querying the
+        // breadcrumbs. It is only complete if the root of the tree is the root category of the store, so the breadcrumbs are queried
+        // otherwise. The breadcrumbs of a product are part of the product query shared by the components of the page.
+        CategoryTreeIndex tree = isCategoryPage ? getCategoryTree() : null;
+        CategoryTreeIndex.Node categoryNode = tree != null ? findCategory(tree) : null;
+
+        if (categoryNode != null && hasFullPath(categoryNode)) {
+            addCategoryPath(categoryNode, names, params);
+        } else if (!addCategoryBreadcrumbs(isProductPage ? fetchProductBreadcrumbs() : fetchCategoryBreadcrumbs(), isProductPage,
+            names, params)) {
             return;
         }
 
-        // A product can be in multiple categories so we select the "primary" category
-        CategoryInterface categoryBreadcrumb = categoriesBreadcrumbs.get(0);
-        if (isProductPage) {
-            categoriesBreadcrumbs.sort(getCategoryInterfaceComparator());
-            categoryBreadcrumb = categoriesBreadcrumbs.get(0);
+        // The URLs of all the categories are generated at once, only the last category can be active
+        List<String> urls = urlProvider.toCategoryUrls(request, categoryPage, params);
+        for (int i = 0; i < urls.size(); i++) {
+            boolean isActive = isCategoryPage && i == urls.size() - 1;
+            items.add(new NavigationItemImpl(names.get(i), urls.get(i), isActive, this.getId(), categoryPage.getContentResource()));
         }
 
-        // For products and categories, we display the category path in the breadcrumb
-        List<com.adobe.cq.commerce.magento.graphql.Breadcrumb> breadcrumbs = categoryBreadcrumb.getBreadcrumbs();
-        if (breadcrumbs != null) {
-            int max = Integer.min(structureDepth, breadcrumbs.size());
-            for (int i = 0; i < max; i++) {
-                addBreadcrumbItem(breadcrumbs.get(i), false);
-            }
-        }
-
-        // The category itself is not included by Magento in the breadcrumb, so we also add it
-        addCategoryItem(categoryBreadcrumb, isCategoryPage);
-
         // We finally add the product if it's a product page
         if (isProductPage) {
-            Pair<ProductIdentifierType, String> identifier = urlProvider.getProductIdentifier(request);
+            Pair<ProductIdentifierType, String> identifier = pageContext.getProductIdentifier();
             ParamsBuilder paramsBuilder = new ParamsBuilder();
             if (ProductIdentifierType.SKU.equals(identifier.getLeft())) {
                 paramsBuilder.sku(identifier.getRight());
@@ -180,49 +187,116 @@ public class BreadcrumbImpl extends DataLayerComponent implements Breadcrumb {
         }
     }
 
-    private void addBreadcrumbItem(com.adobe.cq.commerce.magento.graphql.Breadcrumb b, boolean isActive) {
-        addCategoryItem(b.getCategoryUid(), b.getCategoryUrlKey(), b.getCategoryUrlPath(), b.getCategoryName(),
-            isActive);
+    private boolean addCategoryBreadcrumbs(List<? extends CategoryInterface> categoriesBreadcrumbs, boolean isProductPage,
+        List<String> names, List<Map<String, String>> params) {
+        if (CollectionUtils.isEmpty(categoriesBreadcrumbs)) {
+            return false;
+        }
+
+        // A product can be in multiple categories so we select the "primary" category
+        CategoryInterface categoryBreadcrumb = categoriesBreadcrumbs.get(0);
+        if (isProductPage) {
+            categoriesBreadcrumbs.sort(getCategoryInterfaceComparator());
+            categoryBreadcrumb = categoriesBreadcrumbs.get(0);
+        }
+
+        List<com.adobe.cq.commerce.magento.graphql.Breadcrumb> breadcrumbs = categoryBreadcrumb.getBreadcrumbs();
+        if (breadcrumbs != null) {
+            int max = Integer.min(structureDepth, breadcrumbs.size());
+            for (int i = 0; i < max; i++) {
+                com.adobe.cq.commerce.magento.graphql.Breadcrumb b = breadcrumbs.get(i);
+                names.add(b.getCategoryName());
+                params.add(toCategoryParams(b.getCategoryUid().toString(), b.getCategoryUrlKey(), b.getCategoryUrlPath()));
+            }
+        }
+
+        // The category itself is not included by Magento in the breadcrumb, so we also add it
+        names.add(categoryBreadcrumb.getName());
+        params.add(toCategoryParams(categoryBreadcrumb.getUid().toString(), categoryBreadcrumb.getUrlKey(), categoryBreadcrumb
+            .getUrlPath()));
+        return true;
     }
 
-    private void addCategoryItem(CategoryInterface category, boolean isActive) {
-        addCategoryItem(category.getUid(), category.getUrlKey(), category.getUrlPath(), category.getName(), isActive);
+    private void addCategoryPath(CategoryTreeIndex.Node category, List<String> names, List<Map<String, String>> params) {
+        // The parents of the category below the root of the tree, like the Magento breadcrumbs
+        LinkedList<CategoryTreeIndex.Node> parents = new LinkedList<>();
+        for (CategoryTreeIndex.Node parent = category.getParent(); parent != null && parent.getLevel() > 0; parent = parent
+            .getParent()) {
+            parents.addFirst(parent);
+        }
+
+        int max = Integer.min(structureDepth, parents.size());
+        for (CategoryTreeIndex.Node parent : parents.subList(0, max)) {
+            names.add(parent.getName());
+            params.add(toCategoryParams(parent.getUid(), parent.getUrlKey(), parent.getUrlPath()));
+        }
+
+        names.add(category.getName());
+        params.add(toCategoryParams(category.getUid(), category.getUrlKey(), category.getUrlPath()));
     }
 
-    private void addCategoryItem(ID uid, String urlKey, String urlPath, String name, boolean isActive) {
-        Map<String, String> params = new ParamsBuilder()
-            .uid(uid.toString())
+    private Map<String, String> toCategoryParams(String uid, String urlKey, String urlPath) {
+        return new ParamsBuilder()
+            .uid(uid)
             .urlKey(urlKey)
             .urlPath(urlPath)
             .map();
+    }
+
+    @Override
+    public Comparator<CategoryInterface> getCategoryInterfaceComparator() {
+        // The depth of each url_path is only computed once while sorting
+        Map<String, Integer> depths = new HashMap<>();
+        return getDepthComparator(c -> depths.computeIfAbsent(c.getUrlPath(), BreadcrumbImpl::getDepth));
+    }
 
-        String url = urlProvider.toCategoryUrl(request, categoryPage, params);
-        NavigationItemImpl categoryItem = new NavigationItemImpl(name, url, isActive, this.getId(), categoryPage.getContentResource());
-        items.add(categoryItem);
+    private static int getDepth(String urlPath) {
+        return StringUtils.countMatches(urlPath, '/') + 1;
     }
 
     /**
-     * Returns the categories that exceed the maximum depth first.
-     * This will be reversed later, see below.
+     * Returns <code>true</code> if the parents of the category in the tree are all its parents below the root category of the store,
+     * like in its url_path.
      */
-    private Function<CategoryInterface, Integer> structureDepthKey = c -> c.getUrlPath().split("/").length > structureDepth ? -1 : 1;
+    private static boolean hasFullPath(CategoryTreeIndex.Node category) {
+        return category.getUrlPath() != null && getDepth(category.getUrlPath()) == category.getLevel();
+    }
 
     /**
-     * Orders the categories with deepest url path first.
-     * This will be reversed later, see below.
+     * Orders the categories that exceed the maximum depth last, and then the categories with the deepest path first.
      */
-    private Function<CategoryInterface, Integer> depthKey = c -> c.getUrlPath().split("/").length;
-
-    @Override
-    public Comparator<CategoryInterface> getCategoryInterfaceComparator() {
+    private <T> Comparator<T> getDepthComparator(ToIntFunction<T> depth) {
         return Comparator
-            .comparing(structureDepthKey)
-            .thenComparing(depthKey)
+            .<T>comparingInt(c -> depth.applyAsInt(c) > structureDepth ? -1 : 1)
+            .thenComparingInt(depth)
             .reversed();
     }
 
+    private CategoryTreeIndex getCategoryTree() {
+        if (categoryTreeService == null || magentoGraphqlClient == null) {
+            return null;
+        }
+
+        // The root category is configured like for the navigation, on the catalog page or in the configuration of the store. Only the
+        // tree already cached for the navigation is used, so the breadcrumb does not fetch another tree.
+        String rootCategoryIdentifier = CategoryTreeService.getRootCategoryIdentifier(currentPage);
+        return rootCategoryIdentifier != null ? categoryTreeService.getCachedTree(magentoGraphqlClient, rootCategoryIdentifier) : null;
+    }
+
+    private CategoryTreeIndex.Node findCategory(CategoryTreeIndex tree) {
+        Pair<CategoryIdentifierType, String> identifier = pageContext.getCategoryIdentifier();
+        if (StringUtils.isEmpty(identifier.getRight())) {
+            return null;
+        }
+
+        if (CategoryIdentifierType.URL_PATH.equals(identifier.getLeft())) {
+            return tree.getByUrlPath(identifier.getRight().replaceAll("_", "/"));
+        }
+        return tree.getByUid(identifier.getRight());
+    }
+
     private List<? extends CategoryInterface> fetchProductBreadcrumbs() {
-        Pair<ProductIdentifierType, String> identifier = urlProvider.getProductIdentifier(request);
+        Pair<ProductIdentifierType, String> identifier = pageContext.getProductIdentifier();
         if (StringUtils.isEmpty(identifier.getRight())) {
             return null;
         }
@@ -233,12 +307,13 @@ public class BreadcrumbImpl extends DataLayerComponent implements Breadcrumb {
 
         retriever = new BreadcrumbRetriever(magentoGraphqlClient);
         retriever.setProductIdentifier(identifier.getLeft(), identifier.getRight());
+        retriever.setProductRetriever(pageContext.getProductRetriever());
 
         return retriever.fetchCategoriesBreadcrumbs();
     }
 
     private List<? extends CategoryInterface> fetchCategoryBreadcrumbs() {
-        Pair<CategoryIdentifierType, String> identifier = urlProvider.getCategoryIdentifier(request);
+        Pair<CategoryIdentifierType, String> identifier = pageContext.getCategoryIdentifier();
         if (StringUtils.isEmpty(identifier.getRight())) {
             return null;
         }
@@ -255,7 +330,7 @@ public class BreadcrumbImpl extends DataLayerComponent implements Breadcrumb {
 
     private boolean isProductPage(Page page) {
         if (productPage == null) {
-            productPage = SiteNavigation.getProductPage(currentPage);
+            productPage = pageContext.getProductPage();
         }
         // The product page might be in a Launch so we use 'endsWith' to compare the paths, for example
         // - product page: /content/launches/2020/09/15/mylaunch/content/venia/us/en/products/category-page
@@ -265,7 +340,7 @@ public class BreadcrumbImpl extends DataLayerComponent implements Breadcrumb {
 
     private boolean isCategoryPage(Page page) {
         if (categoryPage == null) {
-            categoryPage = SiteNavigation.getCategoryPage(currentPage);
+            categoryPage = pageContext.getCategoryPage();
         }
         // See comment above
         return categoryPage != null ? categoryPage.getPath().endsWith(page.getPath()) : false;
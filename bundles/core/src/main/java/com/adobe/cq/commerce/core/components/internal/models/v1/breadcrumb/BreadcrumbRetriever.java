@@ -18,6 +18,7 @@ import java.util.List;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractCategoryRetriever;
+import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductRetriever;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractRetriever;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.CategoryIdentifierType;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ProductIdentifierType;
@@ -46,6 +47,8 @@ public class BreadcrumbRetriever extends AbstractRetriever {
     private String categoryIdentifier;
     private CategoryIdentifierType categoryIdentifierType;
 
+    private AbstractProductRetriever productRetriever;
+
     BreadcrumbRetriever(MagentoGraphqlClient client) {
         super(client);
     }
@@ -99,12 +102,32 @@ public class BreadcrumbRetriever extends AbstractRetriever {
         this.categoryIdentifierType = categoryIdentifierType;
     }
 
+    /**
+     * Set the retriever of the product of the page, the product name and categories are then taken from the product it fetches.
+     * The product query of the retriever must fetch the <code>uid</code>, <code>url_path</code>, <code>name</code> and
+     * <code>breadcrumbs</code> fields of the categories.
+     *
+     * @param productRetriever The product retriever.
+     */
+    protected void setProductRetriever(AbstractProductRetriever productRetriever) {
+        this.productRetriever = productRetriever;
+    }
+
     @Override
     protected void populate() {
         if (productIdentifier == null && categoryIdentifier == null) {
             return;
         }
 
+        if (productIdentifier != null && productRetriever != null) {
+            ProductInterface product = productRetriever.fetchProduct();
+            if (product != null) {
+                productName = product.getName();
+                categories = product.getCategories();
+            }
+            return;
+        }
+
         GraphqlResponse<Query, Error> response = executeQuery();
         Query rootQuery = response.getData();
 
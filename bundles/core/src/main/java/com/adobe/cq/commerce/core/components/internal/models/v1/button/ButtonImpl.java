@@ -32,10 +32,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.CategoryIdentifierType;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ParamsBuilder;
-import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.magento.graphql.CategoryInterface;
 import com.adobe.cq.wcm.core.components.models.Button;
 import com.day.cq.wcm.api.Page;
@@ -94,6 +94,9 @@ public class ButtonImpl implements Button {
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Inject
     private UrlProvider urlProvider;
 
@@ -118,7 +121,7 @@ public class ButtonImpl implements Button {
         switch (linkType) {
             case PRODUCT: {
                 if (!productSlug.equals(DEFAULT_LINK)) {
-                    productPage = SiteNavigation.getProductPage(currentPage);
+                    productPage = pageContext.getProductPage();
                     if (productPage == null) {
                         productPage = currentPage;
                     }
@@ -133,7 +136,7 @@ public class ButtonImpl implements Button {
 
             case CATEGORY: {
                 if (!categoryId.equals(DEFAULT_LINK)) {
-                    categoryPage = SiteNavigation.getCategoryPage(currentPage);
+                    categoryPage = pageContext.getCategoryPage();
                     if (categoryPage == null) {
                         categoryPage = currentPage;
                     }
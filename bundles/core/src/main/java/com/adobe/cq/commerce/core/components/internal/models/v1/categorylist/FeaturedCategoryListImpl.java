@@ -40,13 +40,13 @@ import com.adobe.cq.commerce.core.components.internal.datalayer.CategoryListData
 import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerComponent;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.CommerceIdentifierImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.TitleTypeProvider;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
 import com.adobe.cq.commerce.core.components.models.categorylist.FeaturedCategoryList;
 import com.adobe.cq.commerce.core.components.models.categorylist.FeaturedCategoryListItem;
 import com.adobe.cq.commerce.core.components.models.common.CommerceIdentifier;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractCategoriesRetriever;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ParamsBuilder;
-import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.magento.graphql.CategoryTree;
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
@@ -83,6 +83,9 @@ public class FeaturedCategoryListImpl extends DataLayerComponent implements Feat
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -95,7 +98,7 @@ public class FeaturedCategoryListImpl extends DataLayerComponent implements Feat
 
     @PostConstruct
     private void initModel() {
-        categoryPage = SiteNavigation.getCategoryPage(currentPage);
+        categoryPage = pageContext.getCategoryPage();
         if (categoryPage == null) {
             categoryPage = currentPage;
         }
@@ -151,13 +154,18 @@ public class FeaturedCategoryListImpl extends DataLayerComponent implements Feat
         }
 
         List<CategoryTree> categories = categoriesRetriever.fetchCategories();
+        List<Map<String, String>> params = new ArrayList<>(categories.size());
         for (CategoryTree category : categories) {
-            ParamsBuilder paramsBuilder = new ParamsBuilder()
+            params.add(new ParamsBuilder()
                 .uid(category.getUid().toString())
-                .urlPath(category.getUrlPath());
+                .urlPath(category.getUrlPath())
+                .map());
+        }
+        List<String> urls = urlProvider.toCategoryUrls(request, categoryPage, params);
 
-            Map<String, String> params = paramsBuilder.map();
-            category.setPath(urlProvider.toCategoryUrl(request, categoryPage, params));
+        for (int i = 0; i < categories.size(); i++) {
+            CategoryTree category = categories.get(i);
+            category.setPath(urls.get(i));
 
             // Replace image if there is an asset override
             String uid = category.getUid().toString();
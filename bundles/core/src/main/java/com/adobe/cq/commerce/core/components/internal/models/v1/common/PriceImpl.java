@@ -14,7 +14,6 @@
 
 package com.adobe.cq.commerce.core.components.internal.models.v1.common;
 
-import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.util.Locale;
 
@@ -24,8 +23,6 @@ import com.adobe.cq.commerce.magento.graphql.PriceRange;
 
 public class PriceImpl implements Price {
 
-    private NumberFormat priceFormatter;
-
     private Locale locale;
 
     private String currency;
@@ -69,17 +66,14 @@ public class PriceImpl implements Price {
     }
 
     private NumberFormat getPriceFormatter() {
-        if (priceFormatter == null) {
-            priceFormatter = Utils.buildPriceFormatter(locale, currency);
-        }
-        return priceFormatter;
+        // not kept by the price, which may be created and rendered by different threads
+        return Utils.getPriceFormatter(locale, currency);
     }
 
     @Override
     public Boolean isRange() {
         if (isRange == null) {
-            isRange = finalPriceMin != null && finalPriceMax != null && new BigDecimal(finalPriceMin).compareTo(new BigDecimal(
-                finalPriceMax)) != 0;
+            isRange = finalPriceMin != null && finalPriceMax != null && finalPriceMin.doubleValue() != finalPriceMax.doubleValue();
         }
         return isRange;
     }
@@ -88,7 +82,7 @@ public class PriceImpl implements Price {
     public Boolean isDiscounted() {
         if (isDiscounted == null) {
             // discountAmountMin > 0
-            isDiscounted = discountAmountMin != null && BigDecimal.ZERO.compareTo(new BigDecimal(discountAmountMin)) < 0;
+            isDiscounted = discountAmountMin != null && discountAmountMin > 0;
         }
 
         return isDiscounted;
@@ -14,14 +14,17 @@
 
 package com.adobe.cq.commerce.core.components.internal.models.v1.common;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nullable;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
 
+import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerContext;
+import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerIds;
 import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerListItem;
 import com.adobe.cq.commerce.core.components.internal.datalayer.ProductDataImpl;
 import com.adobe.cq.commerce.core.components.models.common.CommerceIdentifier;
@@ -46,6 +49,8 @@ public class ProductListItemImpl extends DataLayerListItem implements ProductLis
     private UrlProvider urlProvider;
     private CommerceIdentifier identifier;
     private Boolean isStaged;
+    private UrlBatch urlBatch;
+    private int urlBatchIndex;
 
     public ProductListItemImpl(String sku, String slug, String name, Price price, String imageURL, Page productPage,
                                String activeVariantSku, SlingHttpServletRequest request, UrlProvider urlProvider, String parentId,
@@ -103,13 +108,37 @@ public class ProductListItemImpl extends DataLayerListItem implements ProductLis
         if (urlProvider == null) {
             return "";
         }
-        Map<String, String> params = new ParamsBuilder()
+        if (urlBatch != null) {
+            return urlBatch.getUrl(urlBatchIndex);
+        }
+
+        return urlProvider.toProductUrl(request, productPage, getUrlParams());
+    }
+
+    private Map<String, String> getUrlParams() {
+        return new ParamsBuilder()
             .sku(sku)
             .urlKey(slug)
             .variantSku(activeVariantSku)
             .map();
+    }
 
-        return urlProvider.toProductUrl(request, productPage, params);
+    /**
+     * Makes the given items generate their URLs with a single call of {@link UrlProvider#toProductUrls}, when the URL of one of
+     * them is first requested. The items must have been created for the same request and product page.
+     *
+     * @param items The items of a product list.
+     */
+    public static void batchUrls(List<? extends ProductListItem> items) {
+        UrlBatch batch = new UrlBatch();
+        for (ProductListItem item : items) {
+            if (item instanceof ProductListItemImpl && ((ProductListItemImpl) item).urlProvider != null) {
+                ProductListItemImpl batchItem = (ProductListItemImpl) item;
+                batchItem.urlBatch = batch;
+                batchItem.urlBatchIndex = batch.items.size();
+                batch.items.add(batchItem);
+            }
+        }
     }
 
     @Nullable
@@ -138,10 +167,15 @@ public class ProductListItemImpl extends DataLayerListItem implements ProductLis
         return new ProductDataImpl(this, this.productPage.getContentResource());
     }
 
+    @Override
+    protected DataLayerContext getDataLayerContext() {
+        return request != null ? request.adaptTo(DataLayerContext.class) : null;
+    }
+
     @Override
     protected String generateId() {
         String prefix = StringUtils.join(parentId, ID_SEPARATOR, ITEM_ID_PREFIX);
-        return StringUtils.join(prefix, ID_SEPARATOR, StringUtils.substring(DigestUtils.sha256Hex(getSKU()), 0, 10));
+        return DataLayerIds.generateId(prefix, getSKU());
     }
 
     @Override
@@ -173,4 +207,21 @@ public class ProductListItemImpl extends DataLayerListItem implements ProductLis
     public CommerceIdentifier getCommerceIdentifier() {
         return identifier;
     }
+
+    private static class UrlBatch {
+        private final List<ProductListItemImpl> items = new ArrayList<>();
+        private List<String> urls;
+
+        String getUrl(int index) {
+            if (urls == null) {
+                List<Map<String, String>> params = new ArrayList<>(items.size());
+                for (ProductListItemImpl item : items) {
+                    params.add(item.getUrlParams());
+                }
+                ProductListItemImpl first = items.get(0);
+                urls = first.urlProvider.toProductUrls(first.request, first.productPage, params);
+            }
+            return urls.get(index);
+        }
+    }
 }
@@ -31,6 +31,7 @@ import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.api.wrappers.ValueMapDecorator;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.injectorspecific.SlingObject;
@@ -40,6 +41,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.models.v1.product.ProductRetriever;
+import com.adobe.cq.commerce.core.components.internal.services.IdentifierResolutionService;
 import com.adobe.cq.commerce.core.components.models.contentfragment.CommerceContentFragment;
 import com.adobe.cq.commerce.core.components.models.product.Product;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractCategoryRetriever;
@@ -48,6 +52,7 @@ import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.magento.graphql.CategoryInterface;
 import com.adobe.cq.commerce.magento.graphql.CategoryTreeQuery;
 import com.adobe.cq.commerce.magento.graphql.CategoryTreeQueryDefinition;
+import com.adobe.cq.commerce.magento.graphql.ProductInterface;
 import com.adobe.cq.dam.cfm.content.FragmentRenderService;
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.wcm.core.components.models.contentfragment.ContentFragment;
@@ -96,6 +101,9 @@ public class CommerceContentFragmentImpl implements CommerceContentFragment {
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -112,6 +120,9 @@ public class CommerceContentFragmentImpl implements CommerceContentFragment {
     @Inject
     private FragmentRenderService renderService;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private IdentifierResolutionService identifierResolutionService;
+
     @ScriptVariable
     private Resource resource;
 
@@ -192,21 +203,24 @@ public class CommerceContentFragmentImpl implements CommerceContentFragment {
 
     private String findCategoryIdentifier() {
         String categoryIdentifier = null;
-        Pair<UrlProvider.CategoryIdentifierType, String> identifier = urlProvider.getCategoryIdentifier(request);
+        Pair<UrlProvider.CategoryIdentifierType, String> identifier = pageContext.getCategoryIdentifier();
         UrlProvider.CategoryIdentifierType identifierType = identifier.getLeft();
         if (UrlProvider.CategoryIdentifierType.URL_PATH.equals(identifierType) && magentoGraphqlClient != null) {
-            AbstractCategoryRetriever categoryRetriever = new AbstractCategoryRetriever(magentoGraphqlClient) {
-                @Override
-                protected CategoryTreeQueryDefinition generateCategoryQuery() {
-                    return (CategoryTreeQuery q) -> q.uid();
+            if (identifierResolutionService != null) {
+                categoryIdentifier = identifierResolutionService.getCategoryUid(magentoGraphqlClient, identifier.getRight());
+            } else {
+                AbstractCategoryRetriever categoryRetriever = new AbstractCategoryRetriever(magentoGraphqlClient) {
+                    @Override
+                    protected CategoryTreeQueryDefinition generateCategoryQuery() {
+                        return (CategoryTreeQuery q) -> q.uid();
+                    }
+                };
+                categoryRetriever.setIdentifier(identifierType, identifier.getRight());
+                CategoryInterface category = categoryRetriever.fetchCategory();
+                if (category != null) {
+                    categoryIdentifier = category.getUid().toString();
                 }
-            };
-            categoryRetriever.setIdentifier(identifierType, identifier.getRight());
-            CategoryInterface category = categoryRetriever.fetchCategory();
-            if (category != null) {
-                categoryIdentifier = category.getUid().toString();
             }
-
         } else if (UrlProvider.CategoryIdentifierType.UID.equals(identifierType)) {
             categoryIdentifier = identifier.getRight();
         }
@@ -220,10 +234,18 @@ public class CommerceContentFragmentImpl implements CommerceContentFragment {
 
     private String findProductSku() {
         String sku = null;
-        Pair<UrlProvider.ProductIdentifierType, String> identifier = urlProvider.getProductIdentifier(request);
+        Pair<UrlProvider.ProductIdentifierType, String> identifier = pageContext.getProductIdentifier();
+        ProductRetriever productRetriever = pageContext.getProductRetriever();
         if (UrlProvider.ProductIdentifierType.SKU.equals(identifier.getLeft())) {
             sku = identifier.getRight();
+        } else if (productRetriever != null && productRetriever.isPopulated()) {
+            // The product of the page was already fetched by another component
+            ProductInterface product = productRetriever.fetchProduct();
+            sku = product != null ? product.getSku() : null;
+        } else if (identifierResolutionService != null && magentoGraphqlClient != null) {
+            sku = identifierResolutionService.getSku(magentoGraphqlClient, identifier.getRight());
         } else {
+            // The product model shares the product query of the page
             Product product = request.adaptTo(Product.class);
             if (product != null && product.getFound()) {
                 sku = product.getSku();
@@ -254,7 +276,7 @@ public class CommerceContentFragmentImpl implements CommerceContentFragment {
             return null;
         }
 
-        Pair<UrlProvider.ProductIdentifierType, String> identifier = urlProvider.getProductIdentifier(request);
+        Pair<UrlProvider.ProductIdentifierType, String> identifier = pageContext.getProductIdentifier();
         String value = identifier.getRight();
         if (StringUtils.isBlank(value)) {
             return null;
@@ -35,6 +35,7 @@ import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
@@ -42,9 +43,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.models.v1.product.ProductRetriever;
+import com.adobe.cq.commerce.core.components.internal.services.ExperienceFragmentIndexService;
+import com.adobe.cq.commerce.core.components.internal.services.IdentifierResolutionService;
 import com.adobe.cq.commerce.core.components.models.experiencefragment.CommerceExperienceFragment;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractCategoryRetriever;
-import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductRetriever;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.CategoryIdentifierType;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ProductIdentifierType;
@@ -72,6 +76,9 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -96,50 +103,58 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
     @Inject
     private LiveRelationshipManager relationshipManager;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private IdentifierResolutionService identifierResolutionService;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private ExperienceFragmentIndexService experienceFragmentIndexService;
+
     private Resource xfResource;
     private String name;
     private AbstractCategoryRetriever categoryRetriever;
-    private AbstractProductRetriever productRetriever;
 
     @PostConstruct
     private void initModel() {
         if (magentoGraphqlClient != null) {
             categoryRetriever = new CategoryRetriever(magentoGraphqlClient);
-            productRetriever = new ProductRetriever(magentoGraphqlClient);
         }
 
-        String query = null;
+        List<Resource> xfs = null;
         if (SiteNavigation.isProductPage(currentPage)) {
-            query = getQueryForProduct();
+            xfs = findProductFragments();
         } else if (SiteNavigation.isCategoryPage(currentPage)) {
-            query = getQueryForCategory();
+            xfs = findCategoryFragments();
         }
 
-        if (query == null) {
+        if (xfs == null) {
             return;
         }
 
-        List<Resource> xfs = findExperienceFragments(query);
+        if (xfs.size() > 1) {
+            LOGGER.warn("Found multiple experience fragments matching {} with location {}", request.getRequestURI(), fragmentLocation);
+        }
         if (!xfs.isEmpty()) {
             xfResource = xfs.get(0);
             resolveName();
         }
     }
 
-    private String getQueryForProduct() {
+    private List<Resource> findProductFragments() {
         // Parse product identifier in URL
-        Pair<ProductIdentifierType, String> identifier = urlProvider.getProductIdentifier(request);
+        Pair<ProductIdentifierType, String> identifier = pageContext.getProductIdentifier();
         String sku = null;
 
         if (identifier.getRight() != null) {
+            // The product of the page is usually fetched before, otherwise the cached url_key is used when available
+            ProductRetriever productRetriever = pageContext.getProductRetriever();
             if (ProductIdentifierType.SKU.equals(identifier.getLeft())) {
                 sku = identifier.getRight();
+            } else if (productRetriever != null && productRetriever.isPopulated()) {
+                sku = getSku(productRetriever.fetchProduct());
+            } else if (identifierResolutionService != null && magentoGraphqlClient != null) {
+                sku = identifierResolutionService.getSku(magentoGraphqlClient, identifier.getRight());
             } else if (productRetriever != null) {
-                productRetriever.setIdentifier(identifier.getLeft(), identifier.getRight());
-                ProductInterface product = productRetriever.fetchProduct();
-                if (product != null) {
-                    sku = product.getSku();
-                }
+                sku = getSku(productRetriever.fetchProduct());
             }
         }
 
@@ -148,7 +163,14 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
             return null;
         }
 
-        return buildQueryForProduct(sku);
+        if (experienceFragmentIndexService != null) {
+            return experienceFragmentIndexService.findProductFragments(resolver, getExperienceFragmentsRoot(), sku, fragmentLocation);
+        }
+        return findExperienceFragments(buildQueryForProduct(sku));
+    }
+
+    private static String getSku(ProductInterface product) {
+        return product != null ? product.getSku() : null;
     }
 
     private String buildQueryForProduct(String sku) {
@@ -157,9 +179,10 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
             + "AND (node.[" + PN_CQ_PRODUCTS + "] = '%s' OR node.[" + PN_CQ_PRODUCTS + "] LIKE '%s#%%') "
             + "AND node.[" + PN_FRAGMENT_LOCATION + "] ";
 
-        String query = String.format(PRODUCT_QUERY_TEMPLATE, getExperienceFragmentsRoot(), sku, sku);
+        // The SKU comes from the URL, so all the values are escaped
+        String query = String.format(PRODUCT_QUERY_TEMPLATE, escape(getExperienceFragmentsRoot()), escape(sku), escape(sku));
         if (fragmentLocation != null) {
-            query += "= '" + fragmentLocation + "'";
+            query += "= '" + escape(fragmentLocation) + "'";
         } else {
             query += "IS NULL";
         }
@@ -167,14 +190,16 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
         return query;
     }
 
-    private String getQueryForCategory() {
+    private List<Resource> findCategoryFragments() {
         // Parse category identifier in URL
-        Pair<CategoryIdentifierType, String> identifier = urlProvider.getCategoryIdentifier(request);
+        Pair<CategoryIdentifierType, String> identifier = pageContext.getCategoryIdentifier();
         String categoriesIdentifier = null;
 
         if (identifier.getRight() != null) {
             if (CategoryIdentifierType.UID.equals(identifier.getLeft())) {
                 categoriesIdentifier = identifier.getRight();
+            } else if (identifierResolutionService != null && magentoGraphqlClient != null) {
+                categoriesIdentifier = identifierResolutionService.getCategoryUid(magentoGraphqlClient, identifier.getRight());
             } else if (categoryRetriever != null) {
                 categoryRetriever.setIdentifier(identifier.getLeft(), identifier.getRight());
                 CategoryInterface category = categoryRetriever.fetchCategory();
@@ -190,7 +215,11 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
             return null;
         }
 
-        return buildQueryForCategory(categoriesIdentifier);
+        if (experienceFragmentIndexService != null) {
+            return experienceFragmentIndexService.findCategoryFragments(resolver, getExperienceFragmentsRoot(), categoriesIdentifier,
+                fragmentLocation);
+        }
+        return findExperienceFragments(buildQueryForCategory(categoriesIdentifier));
     }
 
     private String buildQueryForCategory(String categoryId) {
@@ -198,9 +227,9 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
             + "AND node.[" + PN_CQ_CATEGORIES + "] = '%s' "
             + "AND node.[" + PN_FRAGMENT_LOCATION + "] ";
 
-        String query = String.format(CATEGORY_QUERY_TEMPLATE, getExperienceFragmentsRoot(), categoryId);
+        String query = String.format(CATEGORY_QUERY_TEMPLATE, escape(getExperienceFragmentsRoot()), escape(categoryId));
         if (fragmentLocation != null) {
-            query += "= '" + fragmentLocation + "'";
+            query += "= '" + escape(fragmentLocation) + "'";
         } else {
             query += "IS NULL";
         }
@@ -208,6 +237,11 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
         return query;
     }
 
+    private static String escape(String value) {
+        // A quote is escaped by another quote in the string literals of a JCR-SQL2 query
+        return value.replace("'", "''");
+    }
+
     private String getExperienceFragmentsRoot() {
         String localizationRoot = getLocalizationRoot(currentPage.getPath());
         return localizationRoot != null ? localizationRoot.replace("/content/", XF_ROOT) : XF_ROOT;
@@ -235,10 +269,6 @@ public class CommerceExperienceFragmentImpl implements CommerceExperienceFragmen
             LOGGER.error("Error looking for experience fragments", e);
         }
 
-        if (experienceFragments.size() > 1) {
-            LOGGER.warn("Found multiple experience fragments matching {} with location {}", request.getRequestURI(), fragmentLocation);
-        }
-
         return experienceFragments;
     }
 
@@ -38,7 +38,8 @@ class GraphQLCategoryProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GraphQLCategoryProvider.class);
 
-    private static final Function<CategoryTreeQuery, CategoryTreeQuery> CATEGORIES_QUERY = q -> q.uid().name().urlPath().position();
+    private static final Function<CategoryTreeQuery, CategoryTreeQuery> CATEGORIES_QUERY = q -> q.uid().name().urlPath().position()
+        .childrenCount();
     private final MagentoGraphqlClient magentoGraphqlClient;
 
     GraphQLCategoryProvider(MagentoGraphqlClient magentoGraphqlClient) {
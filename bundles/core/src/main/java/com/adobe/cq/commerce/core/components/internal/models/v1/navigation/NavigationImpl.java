@@ -16,21 +16,19 @@ package com.adobe.cq.commerce.core.components.internal.models.v1.navigation;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.Via;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.via.ForcedResourceType;
@@ -38,18 +36,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeIndex;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
+import com.adobe.cq.commerce.core.components.internal.services.IdentifierResolutionService;
+import com.adobe.cq.commerce.core.components.internal.servlets.NavigationChildrenServlet;
 import com.adobe.cq.commerce.core.components.models.navigation.Navigation;
 import com.adobe.cq.commerce.core.components.models.navigation.NavigationItem;
-import com.adobe.cq.commerce.core.components.services.ComponentsConfiguration;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ParamsBuilder;
 import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.magento.graphql.CategoryTree;
-import com.day.cq.commons.inherit.HierarchyNodeInheritanceValueMap;
-import com.day.cq.commons.inherit.InheritanceValueMap;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 import com.day.cq.wcm.api.designer.Style;
+import com.shopify.graphql.support.ID;
 
 import static com.adobe.cq.wcm.core.components.models.Navigation.PN_STRUCTURE_DEPTH;
 
@@ -59,12 +60,12 @@ import static com.adobe.cq.wcm.core.components.models.Navigation.PN_STRUCTURE_DE
     resourceType = NavigationImpl.RESOURCE_TYPE)
 public class NavigationImpl implements Navigation {
 
-    static final String PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER = "magentoRootCategoryId";
     static final String RESOURCE_TYPE = "core/cif/components/structure/navigation/v1/navigation";
     static final String ROOT_NAVIGATION_ID = "ROOT_NAVIGATION";
     static final int DEFAULT_STRUCTURE_DEPTH = 2;
     static final int MIN_STRUCTURE_DEPTH = 1;
     static final int MAX_STRUCTURE_DEPTH = 10;
+    static final int ON_DEMAND_STRUCTURE_DEPTH = 2;
     private static final Logger LOGGER = LoggerFactory.getLogger(NavigationImpl.class);
 
     @ScriptVariable
@@ -77,6 +78,9 @@ public class NavigationImpl implements Navigation {
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -86,6 +90,12 @@ public class NavigationImpl implements Navigation {
     @Inject
     private UrlProvider urlProvider;
 
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private IdentifierResolutionService identifierResolutionService;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private CategoryTreeService categoryTreeService;
+
     @ScriptVariable
     private ValueMap properties = null;
 
@@ -95,21 +105,39 @@ public class NavigationImpl implements Navigation {
     private GraphQLCategoryProvider graphQLCategoryProvider;
     private List<NavigationItem> items;
     private int structureDepth;
+    private boolean loadChildrenOnDemand;
 
     @PostConstruct
     void initModel() {
         graphQLCategoryProvider = new GraphQLCategoryProvider(magentoGraphqlClient);
-        structureDepth = properties.get(PN_STRUCTURE_DEPTH, currentStyle.get(PN_STRUCTURE_DEPTH, DEFAULT_STRUCTURE_DEPTH));
+        Boolean onDemand = properties.get(PN_LOAD_CHILDREN_ON_DEMAND, Boolean.class);
+        if (onDemand == null) {
+            onDemand = currentStyle.get(PN_LOAD_CHILDREN_ON_DEMAND, Boolean.class);
+        }
+        loadChildrenOnDemand = Boolean.TRUE.equals(onDemand);
+        structureDepth = getStructureDepth(properties, currentStyle);
+    }
+
+    /**
+     * Returns the number of levels of categories of a navigation, also used by the {@link NavigationChildrenServlet}.
+     *
+     * @param properties the properties of the navigation component
+     * @param style the properties of the policy of the navigation component
+     * @return the structure depth
+     */
+    public static int getStructureDepth(ValueMap properties, ValueMap style) {
+        int structureDepth = properties.get(PN_STRUCTURE_DEPTH, style.get(PN_STRUCTURE_DEPTH, DEFAULT_STRUCTURE_DEPTH));
         if (structureDepth < MIN_STRUCTURE_DEPTH) {
             LOGGER.warn("Navigation structure depth ({}) is bellow min value ({}). Using min value.", PN_STRUCTURE_DEPTH,
                 MIN_STRUCTURE_DEPTH);
-            structureDepth = MIN_STRUCTURE_DEPTH;
+            return MIN_STRUCTURE_DEPTH;
         }
         if (structureDepth > MAX_STRUCTURE_DEPTH) {
             LOGGER.warn("Navigation structure depth ({}) is above max value ({}). Using max value.", PN_STRUCTURE_DEPTH,
                 MAX_STRUCTURE_DEPTH);
-            structureDepth = MAX_STRUCTURE_DEPTH;
+            return MAX_STRUCTURE_DEPTH;
         }
+        return structureDepth;
     }
 
     @Override
@@ -147,7 +175,13 @@ public class NavigationImpl implements Navigation {
         }
     }
 
-    private boolean isCatalogPage(Page page) {
+    /**
+     * Returns <code>true</code> if the given page is a catalog page, also used by the {@link NavigationChildrenServlet}.
+     *
+     * @param page the page
+     * @return <code>true</code> if the page is a catalog page
+     */
+    public static boolean isCatalogPage(Page page) {
         if (page == null) {
             return false;
         }
@@ -179,44 +213,71 @@ public class NavigationImpl implements Navigation {
     }
 
     private void expandCatalogRoot(Page catalogPage, List<NavigationItem> pages) {
-        Page categoryPage = SiteNavigation.getCategoryPage(currentPage);
+        Page categoryPage = pageContext.getCategoryPage();
         if (categoryPage == null) {
             return;
         }
 
-        String rootCategoryIdentifier = readPageConfiguration(catalogPage, PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER);
-        if (rootCategoryIdentifier == null || StringUtils.isBlank(rootCategoryIdentifier)) {
-            ComponentsConfiguration properties = catalogPage.getContentResource().adaptTo(ComponentsConfiguration.class);
-            rootCategoryIdentifier = properties.get(PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER, String.class);
-        }
-
+        String rootCategoryIdentifier = CategoryTreeService.getRootCategoryIdentifier(catalogPage);
         if (rootCategoryIdentifier == null) {
-            LOGGER.warn("Magento root category UID property (" + PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER + ") not found");
+            LOGGER.warn("Magento root category UID property (" + CategoryTreeService.PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER + ") not found");
             return;
         }
 
-        List<CategoryTree> children = graphQLCategoryProvider.getChildCategories(rootCategoryIdentifier, structureDepth);
-        if (children == null || children.isEmpty()) {
+        CategoryTreeIndex tree = getCategoryTree(rootCategoryIdentifier);
+        if (tree == null || tree.getRoot().getChildren().isEmpty()) {
             LOGGER.warn("Magento top categories not found");
             return;
         }
 
-        children = children.stream().filter(c -> c != null && c.getName() != null).collect(Collectors.toList());
-        children.sort(Comparator.comparing(CategoryTree::getPosition));
+        pages.addAll(toCategoryNavigationItems(null, tree.getRoot().getChildren(), categoryPage));
+    }
 
-        for (CategoryTree child : children) {
-            Map<String, String> params = new ParamsBuilder()
-                .uid(child.getUid().toString())
+    private CategoryTreeIndex getCategoryTree(String rootCategoryIdentifier) {
+        if (categoryTreeService != null && magentoGraphqlClient != null) {
+            // The shared tree is already sorted and its url_paths are already cached by the identifier resolution service. It is also
+            // the tree from which the NavigationChildrenServlet serves the levels which are loaded on demand.
+            return categoryTreeService.getTree(magentoGraphqlClient, rootCategoryIdentifier, structureDepth);
+        }
+
+        // The deeper levels are loaded on demand by the client with the NavigationChildrenServlet
+        int depth = loadChildrenOnDemand ? Math.min(structureDepth, ON_DEMAND_STRUCTURE_DEPTH) : structureDepth;
+        List<CategoryTree> children = graphQLCategoryProvider.getChildCategories(rootCategoryIdentifier, depth);
+        if (children == null || children.isEmpty()) {
+            return null;
+        }
+        if (identifierResolutionService != null && magentoGraphqlClient != null) {
+            identifierResolutionService.warmCategories(magentoGraphqlClient, children);
+        }
+        return CategoryTreeIndex.build(new CategoryTree().setUid(new ID(rootCategoryIdentifier)).setChildren(children));
+    }
+
+    private List<NavigationItem> toCategoryNavigationItems(AbstractNavigationItem parent, List<CategoryTreeIndex.Node> children,
+        Page categoryPage) {
+        // The URLs of all the children are generated at once, for the same category page
+        List<Map<String, String>> params = new ArrayList<>(children.size());
+        for (CategoryTreeIndex.Node child : children) {
+            params.add(new ParamsBuilder()
+                .uid(child.getUid())
                 .urlKey(child.getUrlKey())
                 .urlPath(child.getUrlPath())
-                .map();
+                .map());
+        }
+        List<String> urls = urlProvider.toCategoryUrls(request, categoryPage, params);
 
-            String url = urlProvider.toCategoryUrl(request, categoryPage, params);
+        List<NavigationItem> items = new ArrayList<>(children.size());
+        for (int i = 0; i < children.size(); i++) {
+            CategoryTreeIndex.Node child = children.get(i);
+            String url = urls.get(i);
             boolean active = request.getRequestURI().equals(url);
-            CategoryNavigationItem navigationItem = new CategoryNavigationItem(null, child.getName(), url, active, child, request,
-                categoryPage);
-            pages.add(navigationItem);
+            CategoryNavigationItem item = new CategoryNavigationItem(parent, child.getName(), url, active, child, request, categoryPage);
+            if (loadChildrenOnDemand && child.getLevel() >= ON_DEMAND_STRUCTURE_DEPTH && child.getChildrenCount() > 0
+                && child.getLevel() < structureDepth) {
+                item.childrenURL = NavigationChildrenServlet.toChildrenUrl(request, resource.getPath(), child.getUid());
+            }
+            items.add(item);
         }
+        return items;
     }
 
     @Override
@@ -229,11 +290,6 @@ public class NavigationImpl implements Navigation {
         return null;
     }
 
-    private String readPageConfiguration(Page page, String propertyName) {
-        InheritanceValueMap properties = new HierarchyNodeInheritanceValueMap(page.getContentResource());
-        return properties.getInherited(propertyName, String.class);
-    }
-
     class PageNavigationItem extends AbstractNavigationItem {
         private final com.adobe.cq.wcm.core.components.models.NavigationItem wcmItem;
 
@@ -277,11 +333,12 @@ public class NavigationImpl implements Navigation {
     }
 
     class CategoryNavigationItem extends AbstractNavigationItem implements NavigationItem {
-        private CategoryTree category;
+        private CategoryTreeIndex.Node category;
         private SlingHttpServletRequest request;
         private Page categoryPage;
+        private String childrenURL;
 
-        CategoryNavigationItem(AbstractNavigationItem parent, String title, String url, boolean active, CategoryTree category,
+        CategoryNavigationItem(AbstractNavigationItem parent, String title, String url, boolean active, CategoryTreeIndex.Node category,
                                SlingHttpServletRequest request, Page categoryPage) {
             super(parent, title, url, active);
             this.category = category;
@@ -292,33 +349,21 @@ public class NavigationImpl implements Navigation {
         @Override
         public List<NavigationItem> getItems() {
 
-            if (category == null) {
+            if (category == null || childrenURL != null) {
                 return Collections.emptyList();
             }
 
-            List<CategoryTree> children = category.getChildren();
-            if (children == null || children.isEmpty()) {
+            List<CategoryTreeIndex.Node> children = category.getChildren();
+            if (children.isEmpty()) {
                 return Collections.emptyList();
             }
 
-            children = children.stream().filter(c -> c != null && c.getName() != null).collect(Collectors.toList());
-            children.sort(Comparator.comparing(CategoryTree::getPosition));
-
-            List<NavigationItem> pages = new ArrayList<>();
-
-            for (CategoryTree child : children) {
-                Map<String, String> params = new ParamsBuilder()
-                    .uid(child.getUid().toString())
-                    .urlKey(child.getUrlKey())
-                    .urlPath(child.getUrlPath())
-                    .map();
-
-                String url = urlProvider.toCategoryUrl(request, categoryPage, params);
-                boolean active = request.getRequestURI().equals(url);
-                pages.add(new CategoryNavigationItem(this, child.getName(), url, active, child, request, categoryPage));
-            }
+            return toCategoryNavigationItems(this, children, categoryPage);
+        }
 
-            return pages;
+        @Override
+        public String getChildrenURL() {
+            return childrenURL;
         }
     }
 }
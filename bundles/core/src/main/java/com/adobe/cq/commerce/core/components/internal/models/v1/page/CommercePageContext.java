@@ -0,0 +1,228 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.models.v1.page;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
+import org.apache.sling.models.annotations.injectorspecific.Self;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.product.ProductRetriever;
+import com.adobe.cq.commerce.core.components.services.UrlProvider;
+import com.adobe.cq.commerce.core.components.services.UrlProvider.CategoryIdentifierType;
+import com.adobe.cq.commerce.core.components.services.UrlProvider.ProductIdentifierType;
+import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
+import com.adobe.cq.sightly.SightlyWCMMode;
+import com.adobe.cq.wcm.launches.utils.LaunchUtils;
+import com.day.cq.commons.Externalizer;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Holds the commerce data of the current page which is used by most of the components: the generic product, category and search
+ * results pages, the locale, the product and category identifiers of the URL, the canonical URL, the AEM Launch state, the
+ * GraphQL client and the product of the URL. The model is cached for the request, so the page hierarchy is only looked up once per
+ * request, and the values are computed the first time they are used.
+ */
+@Model(
+    adaptables = SlingHttpServletRequest.class,
+    cache = true)
+public class CommercePageContext {
+
+    @ScriptVariable(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private Page currentPage;
+
+    @ScriptVariable(name = "wcmmode", injectionStrategy = InjectionStrategy.OPTIONAL)
+    private SightlyWCMMode wcmMode;
+
+    @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private MagentoGraphqlClient magentoGraphqlClient;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private UrlProvider urlProvider;
+
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private Externalizer externalizer;
+
+    private SlingHttpServletRequest request;
+    private Pair<ProductIdentifierType, String> productIdentifier;
+    private Pair<CategoryIdentifierType, String> categoryIdentifier;
+    private ResourceResolver resourceResolver;
+    private String requestURI;
+    private boolean authorMode;
+
+    private final Map<String, Page> genericPages = new HashMap<>();
+    private Locale locale;
+    private Boolean launchPage;
+    private String canonicalUrl;
+    private ProductRetriever productRetriever;
+
+    public CommercePageContext(SlingHttpServletRequest request) {
+        this.request = request;
+    }
+
+    @PostConstruct
+    protected void initModel() {
+        if (currentPage == null) {
+            PageManager pageManager = request.getResourceResolver().adaptTo(PageManager.class);
+            currentPage = pageManager != null ? pageManager.getContainingPage(request.getResource()) : null;
+        }
+
+        // The values read from the request are computed right away, the model must not keep the request to be cacheable
+        if (urlProvider != null) {
+            productIdentifier = urlProvider.getProductIdentifier(request);
+            categoryIdentifier = urlProvider.getCategoryIdentifier(request);
+        }
+        resourceResolver = request.getResourceResolver();
+        requestURI = request.getRequestURI();
+        authorMode = wcmMode != null && !wcmMode.isDisabled();
+        request = null;
+        wcmMode = null;
+    }
+
+    /**
+     * @return The current page, or <code>null</code> if the request is not rendering a page.
+     */
+    public Page getCurrentPage() {
+        return currentPage;
+    }
+
+    /**
+     * @return The generic product page of the current page, see {@link SiteNavigation#getProductPage(Page)}.
+     */
+    public Page getProductPage() {
+        return getGenericPage("product", SiteNavigation::getProductPage);
+    }
+
+    /**
+     * @return The generic category page of the current page, see {@link SiteNavigation#getCategoryPage(Page)}.
+     */
+    public Page getCategoryPage() {
+        return getGenericPage("category", SiteNavigation::getCategoryPage);
+    }
+
+    /**
+     * @return The search results page of the current page, see {@link SiteNavigation#getSearchResultsPage(Page)}.
+     */
+    public Page getSearchResultsPage() {
+        return getGenericPage("search", SiteNavigation::getSearchResultsPage);
+    }
+
+    private Page getGenericPage(String type, Function<Page, Page> lookup) {
+        if (currentPage == null) {
+            return null;
+        }
+        if (!genericPages.containsKey(type)) {
+            genericPages.put(type, lookup.apply(currentPage));
+        }
+        return genericPages.get(type);
+    }
+
+    /**
+     * @return The language of the current page.
+     */
+    public Locale getLocale() {
+        if (locale == null && currentPage != null) {
+            locale = currentPage.getLanguage(false);
+        }
+        return locale;
+    }
+
+    /**
+     * @return The product identifier of the URL, see {@link UrlProvider#getProductIdentifier(SlingHttpServletRequest)}.
+     */
+    public Pair<ProductIdentifierType, String> getProductIdentifier() {
+        return productIdentifier;
+    }
+
+    /**
+     * @return The category identifier of the URL, see {@link UrlProvider#getCategoryIdentifier(SlingHttpServletRequest)}.
+     */
+    public Pair<CategoryIdentifierType, String> getCategoryIdentifier() {
+        return categoryIdentifier;
+    }
+
+    /**
+     * @return The externalized URL of the request, with the author domain in the AEM editor and the publish domain otherwise.
+     */
+    public String getCanonicalUrl() {
+        if (canonicalUrl == null && externalizer != null) {
+            if (authorMode) {
+                canonicalUrl = externalizer.authorLink(resourceResolver, requestURI);
+            } else {
+                canonicalUrl = externalizer.publishLink(resourceResolver, requestURI);
+            }
+        }
+        return canonicalUrl;
+    }
+
+    /**
+     * @return <code>true</code> if the current page is in an AEM Launch.
+     */
+    public boolean isLaunchPage() {
+        if (launchPage == null) {
+            launchPage = currentPage != null && LaunchUtils.isLaunchBasedPath(currentPage.getPath());
+        }
+        return launchPage;
+    }
+
+    /**
+     * @return The GraphQL client of the current page, or <code>null</code> if the page does not have any commerce configuration.
+     */
+    public MagentoGraphqlClient getMagentoGraphqlClient() {
+        return magentoGraphqlClient;
+    }
+
+    /**
+     * Returns the retriever of the product of the URL, which is shared by all the components displaying that product so the product
+     * page only sends one product query. The query has the fields used by the product, page metadata, breadcrumb, experience fragment
+     * and content fragment components, the other components add their fields with
+     * {@link ProductRetriever#extendProductQueryWith(java.util.function.Consumer)} before the product is fetched.
+     *
+     * @return The product retriever, or <code>null</code> if the URL does not have a product identifier or the page does not have any
+     *         commerce configuration.
+     */
+    public ProductRetriever getProductRetriever() {
+        if (productRetriever == null && magentoGraphqlClient != null && productIdentifier != null
+            && StringUtils.isNotBlank(productIdentifier.getRight())) {
+            productRetriever = new ProductRetriever(magentoGraphqlClient);
+            productRetriever.setIdentifier(productIdentifier.getLeft(), productIdentifier.getRight());
+            // The breadcrumb is rendered after the page metadata have fetched the product, so its fields are always queried
+            productRetriever.extendProductQueryWith(p -> p
+                .categories(c -> c
+                    .uid()
+                    .urlPath()
+                    .name()
+                    .breadcrumbs(b -> b
+                        .categoryUid()
+                        .categoryUrlPath()
+                        .categoryName())));
+        }
+        return productRetriever;
+    }
+}
@@ -17,9 +17,9 @@ package com.adobe.cq.commerce.core.components.internal.models.v1.product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.cq.commerce.core.components.internal.JsonWriters;
 import com.adobe.cq.commerce.core.components.models.product.Asset;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class AssetImpl implements Asset {
     private static final Logger LOG = LoggerFactory.getLogger(AssetImpl.class);
@@ -70,9 +70,8 @@ public class AssetImpl implements Asset {
 
     @Override
     public String asJson() {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.writeValueAsString(this);
+            return JsonWriters.writeValueAsString(this);
         } catch (JsonProcessingException e) {
             LOG.error("Cannot serialize asset at {}", this.path);
             return "";
@@ -18,20 +18,23 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.xss.XSSAPI;
@@ -40,11 +43,15 @@ import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
 import com.adobe.cq.commerce.core.components.datalayer.CategoryData;
+import com.adobe.cq.commerce.core.components.internal.JsonWriters;
 import com.adobe.cq.commerce.core.components.internal.datalayer.AssetDataImpl;
 import com.adobe.cq.commerce.core.components.internal.datalayer.CategoryDataImpl;
 import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerComponent;
+import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerIds;
 import com.adobe.cq.commerce.core.components.internal.datalayer.ProductDataImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.PriceImpl;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.services.ModelMappingService;
 import com.adobe.cq.commerce.core.components.internal.storefrontcontext.ProductStorefrontContextImpl;
 import com.adobe.cq.commerce.core.components.models.common.Price;
 import com.adobe.cq.commerce.core.components.models.product.Asset;
@@ -77,11 +84,9 @@ import com.adobe.cq.sightly.SightlyWCMMode;
 import com.adobe.cq.wcm.core.components.models.datalayer.AssetData;
 import com.adobe.cq.wcm.core.components.models.datalayer.ComponentData;
 import com.adobe.cq.wcm.launches.utils.LaunchUtils;
-import com.day.cq.commons.Externalizer;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.designer.Style;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Model(
     adaptables = SlingHttpServletRequest.class,
@@ -100,6 +105,9 @@ public class ProductImpl extends DataLayerComponent implements Product {
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -121,13 +129,14 @@ public class ProductImpl extends DataLayerComponent implements Product {
     @Inject
     private XSSAPI xssApi;
 
-    @Inject
-    private Externalizer externalizer;
+    @OSGiService(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private ModelMappingService modelMappingService;
 
     private Boolean configurable;
     private Boolean isGroupedProduct;
     private Boolean isVirtualProduct;
     private Boolean isBundleProduct;
+    private String variantMatrixJson;
     private Boolean loadClientPrice;
     private String canonicalUrl;
 
@@ -144,17 +153,21 @@ public class ProductImpl extends DataLayerComponent implements Product {
         Pair<ProductIdentifierType, String> identifier;
         if (StringUtils.isEmpty(selection)) {
             // Parse identifier in URL
-            identifier = urlProvider.getProductIdentifier(request);
+            identifier = pageContext.getProductIdentifier();
         } else {
             identifier = Pair.of(ProductIdentifierType.SKU, selection);
         }
 
-        locale = currentPage.getLanguage(false);
+        locale = pageContext.getLocale();
 
         if (magentoGraphqlClient != null) {
             if (identifier != null && StringUtils.isNotBlank(identifier.getRight())) {
-                productRetriever = new ProductRetriever(magentoGraphqlClient);
-                productRetriever.setIdentifier(identifier.getLeft(), identifier.getRight());
+                // The product of the URL is fetched once for all the components of the page
+                productRetriever = StringUtils.isEmpty(selection) ? pageContext.getProductRetriever() : null;
+                if (productRetriever == null) {
+                    productRetriever = new ProductRetriever(magentoGraphqlClient);
+                    productRetriever.setIdentifier(identifier.getLeft(), identifier.getRight());
+                }
                 loadClientPrice = properties.get(PN_LOAD_CLIENT_PRICE, currentStyle.get(PN_LOAD_CLIENT_PRICE, LOAD_CLIENT_PRICE_DEFAULT));
             } else if (!wcmMode.isDisabled()) {
                 // In AEM Sites editor, load some dummy placeholder data for the component.
@@ -167,11 +180,7 @@ public class ProductImpl extends DataLayerComponent implements Product {
             }
         }
 
-        if (!wcmMode.isDisabled()) {
-            canonicalUrl = externalizer.authorLink(resource.getResourceResolver(), request.getRequestURI());
-        } else {
-            canonicalUrl = externalizer.publishLink(resource.getResourceResolver(), request.getRequestURI());
-        }
+        canonicalUrl = pageContext.getCanonicalUrl();
     }
 
     @Override
@@ -238,15 +247,51 @@ public class ProductImpl extends DataLayerComponent implements Product {
 
     @Override
     public String getVariantsJson() {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.writeValueAsString(getVariants());
+            return JsonWriters.writeValueAsString(getVariants());
         } catch (JsonProcessingException e) {
             LOGGER.warn("Could not serialize product variants");
             return "[]";
         }
     }
 
+    @Override
+    public String getVariantMatrixJson() {
+        // The matrix is used twice by the template, and it is only built once
+        if (variantMatrixJson == null && isConfigurable()) {
+            variantMatrixJson = buildVariantMatrixJson();
+        }
+        return variantMatrixJson;
+    }
+
+    private String buildVariantMatrixJson() {
+        ConfigurableProduct product = (ConfigurableProduct) productRetriever.fetchProduct();
+
+        List<String> attributes = product.getConfigurableOptions()
+            .stream()
+            .map(ConfigurableProductOptions::getAttributeCode)
+            .collect(Collectors.toList());
+        VariantMatrix matrix = new VariantMatrix(attributes, JsonWriters.getObjectMapper(), xssApi::filterHTML);
+        for (ConfigurableVariant variant : product.getVariants()) {
+            SimpleProduct variantProduct = variant.getProduct();
+            Map<String, Integer> variantAttributes = new HashMap<>();
+            for (ConfigurableAttributeOption option : variant.getAttributes()) {
+                variantAttributes.put(option.getCode(), option.getValueIndex());
+            }
+            matrix.addVariant(variantProduct.getSku(), getVariantId(variantProduct), variantProduct.getName(),
+                variantProduct.getDescription() != null ? variantProduct.getDescription().getHtml() : null,
+                new PriceImpl(variantProduct.getPriceRange(), locale), filterAndSortAssets(variantProduct.getMediaGallery()),
+                ProductStockStatus.IN_STOCK.equals(variantProduct.getStockStatus()), variantProduct.getColor(), variantAttributes);
+        }
+
+        try {
+            return JsonWriters.writeValueAsString(matrix);
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Could not serialize product variants");
+            return "{}";
+        }
+    }
+
     @Override
     public List<Variant> getVariants() {
         // Don't return any variants if the current product is not of type ConfigurableProduct.
@@ -255,7 +300,7 @@ public class ProductImpl extends DataLayerComponent implements Product {
         }
         ConfigurableProduct product = (ConfigurableProduct) productRetriever.fetchProduct();
 
-        return product.getVariants().parallelStream().map(this::mapVariant).collect(Collectors.toList());
+        return map(product.getVariants(), this::mapVariant);
     }
 
     @Override
@@ -266,11 +311,11 @@ public class ProductImpl extends DataLayerComponent implements Product {
         }
         GroupedProduct product = (GroupedProduct) productRetriever.fetchProduct();
 
-        return product.getItems()
-            .parallelStream()
+        List<GroupedProductItem> items = product.getItems()
+            .stream()
             .sorted(Comparator.comparing(GroupedProductItem::getPosition))
-            .map(this::mapGroupedProductItem)
             .collect(Collectors.toList());
+        return map(items, this::mapGroupedProductItem);
     }
 
     @Override
@@ -280,9 +325,8 @@ public class ProductImpl extends DataLayerComponent implements Product {
 
     @Override
     public String getAssetsJson() {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.writeValueAsString(getAssets());
+            return JsonWriters.writeValueAsString(getAssets());
         } catch (JsonProcessingException e) {
             LOGGER.error(e.getMessage(), e);
             return "";
@@ -321,8 +365,7 @@ public class ProductImpl extends DataLayerComponent implements Product {
         SimpleProduct product = variant.getProduct();
 
         VariantImpl productVariant = new VariantImpl();
-        productVariant.setId(
-            StringUtils.join("product", ID_SEPARATOR, StringUtils.substring(DigestUtils.sha256Hex(product.getSku()), 0, 10)));
+        productVariant.setId(getVariantId(product));
         productVariant.setName(product.getName());
         productVariant.setDescription(safeDescription(product));
         productVariant.setSku(product.getSku());
@@ -341,6 +384,10 @@ public class ProductImpl extends DataLayerComponent implements Product {
         return productVariant;
     }
 
+    private String getVariantId(SimpleProduct product) {
+        return DataLayerIds.generateId("product", product.getSku());
+    }
+
     private GroupItem mapGroupedProductItem(com.adobe.cq.commerce.magento.graphql.GroupedProductItem item) {
         ProductInterface product = item.getProduct();
 
@@ -354,9 +401,19 @@ public class ProductImpl extends DataLayerComponent implements Product {
         return groupedProductItem;
     }
 
+    /**
+     * Maps the items of the product with the model mapping service, which maps large lists in parallel, or sequentially without it.
+     */
+    private <T, R> List<R> map(List<T> items, Function<T, R> mapper) {
+        if (modelMappingService != null) {
+            return modelMappingService.map(items, mapper);
+        }
+        return items.stream().map(mapper).collect(Collectors.toList());
+    }
+
     private List<Asset> filterAndSortAssets(List<MediaGalleryInterface> assets) {
         return assets == null ? Collections.emptyList()
-            : assets.parallelStream()
+            : assets.stream()
                 .filter(a -> (a.getDisabled() == null || !a.getDisabled()) && a instanceof ProductImage)
                 .map(this::mapAsset)
                 .sorted(Comparator.comparing(a -> a.getPosition() == null ? Integer.MAX_VALUE : a.getPosition()))
@@ -383,7 +440,7 @@ public class ProductImpl extends DataLayerComponent implements Product {
 
     private VariantAttribute mapVariantAttribute(ConfigurableProductOptions option) {
         // Get list of values
-        List<VariantValue> values = option.getValues().parallelStream().map(this::mapVariantValue).collect(Collectors.toList());
+        List<VariantValue> values = option.getValues().stream().map(this::mapVariantValue).collect(Collectors.toList());
 
         // Create attribute map
         VariantAttributeImpl attribute = new VariantAttributeImpl();
@@ -433,7 +490,7 @@ public class ProductImpl extends DataLayerComponent implements Product {
 
     @Override
     protected String generateId() {
-        return StringUtils.join("product", ID_SEPARATOR, StringUtils.substring(DigestUtils.sha256Hex(getSku()), 0, 10));
+        return DataLayerIds.generateId("product", getSku());
     }
 
     @Override
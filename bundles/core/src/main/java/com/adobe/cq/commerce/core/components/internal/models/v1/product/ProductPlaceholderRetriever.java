@@ -15,25 +15,18 @@
 package com.adobe.cq.commerce.core.components.internal.models.v1.product;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-
-import org.apache.commons.io.IOUtils;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.Utils;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductRetriever;
 import com.adobe.cq.commerce.magento.graphql.ProductInterfaceQueryDefinition;
-import com.adobe.cq.commerce.magento.graphql.Query;
-import com.adobe.cq.commerce.magento.graphql.gson.QueryDeserializer;
 
 class ProductPlaceholderRetriever extends AbstractProductRetriever {
 
     ProductPlaceholderRetriever(MagentoGraphqlClient client, String placeholderPath) throws IOException {
         super(client);
 
-        String json = IOUtils.toString(getClass().getClassLoader().getResourceAsStream(placeholderPath), StandardCharsets.UTF_8);
-        Query rootQuery = QueryDeserializer.getGson().fromJson(json, Query.class);
-
-        product = rootQuery.getProducts().getItems().get(0);
+        product = Utils.getPlaceholderQuery(placeholderPath).getProducts().getItems().get(0);
     }
 
     @Override
@@ -14,19 +14,64 @@
 
 package com.adobe.cq.commerce.core.components.internal.models.v1.product;
 
+import java.util.function.Consumer;
+
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductRetriever;
 import com.adobe.cq.commerce.magento.graphql.BundleProductQueryDefinition;
 import com.adobe.cq.commerce.magento.graphql.GroupedProductQueryDefinition;
+import com.adobe.cq.commerce.magento.graphql.ProductInterfaceQuery;
 import com.adobe.cq.commerce.magento.graphql.ProductInterfaceQueryDefinition;
+import com.adobe.cq.commerce.magento.graphql.SimpleProductQuery;
 import com.adobe.cq.commerce.magento.graphql.SimpleProductQueryDefinition;
 
-class ProductRetriever extends AbstractProductRetriever {
+/**
+ * Retrieves the product of the product component. The retriever of the product of the URL is shared by the components of the page,
+ * see {@link com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext#getProductRetriever()}, so the query
+ * hooks of a component can be added after the product was fetched by another component. The product is then fetched again with the
+ * fields of all the hooks.
+ */
+public class ProductRetriever extends AbstractProductRetriever {
+
+    private boolean populated;
 
-    ProductRetriever(MagentoGraphqlClient client) {
+    public ProductRetriever(MagentoGraphqlClient client) {
         super(client);
     }
 
+    /**
+     * @return <code>true</code> if the product query was executed, the hooks added from now on require another query.
+     */
+    public boolean isPopulated() {
+        return populated;
+    }
+
+    @Override
+    public void extendProductQueryWith(Consumer<ProductInterfaceQuery> productQueryHook) {
+        super.extendProductQueryWith(productQueryHook);
+        invalidate();
+    }
+
+    @Override
+    public void extendVariantQueryWith(Consumer<SimpleProductQuery> variantQueryHook) {
+        super.extendVariantQueryWith(variantQueryHook);
+        invalidate();
+    }
+
+    @Override
+    protected void populate() {
+        super.populate();
+        populated = true;
+    }
+
+    private void invalidate() {
+        if (populated) {
+            product = null;
+            query = null;
+            populated = false;
+        }
+    }
+
     private SimpleProductQueryDefinition generateSimpleProductQuery() {
         return q -> {
             q.sku()
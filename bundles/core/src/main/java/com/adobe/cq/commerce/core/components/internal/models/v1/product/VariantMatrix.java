@@ -0,0 +1,123 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.models.v1.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.adobe.cq.commerce.core.components.models.common.Price;
+import com.adobe.cq.commerce.core.components.models.product.Asset;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The variants of a configurable product in a compact format. The names, descriptions, prices and asset lists are stored once in
+ * tables, and each variant is a row with the following columns:
+ * <ol>
+ * <li>the SKU</li>
+ * <li>the id</li>
+ * <li>the position of the name in {@link #getNames()}</li>
+ * <li>the position of the description in {@link #getDescriptions()}</li>
+ * <li>the position of the price in {@link #getPrices()}</li>
+ * <li>the position of the assets in {@link #getAssets()}</li>
+ * <li>the stock status</li>
+ * <li>the color</li>
+ * <li>the combination of attribute values, which is the list of the value indexes of the {@link #getAttributes()} joined with
+ * commas</li>
+ * </ol>
+ * Each variant keeps its own combination, so a variant whose combination is the same as the one of a previous variant still has
+ * its attribute values. The client indexes the variants by combination, and the first variant of a combination is selected.
+ */
+@JsonPropertyOrder({ "attributes", "names", "descriptions", "prices", "assets", "variants" })
+class VariantMatrix {
+
+    private final List<String> attributes;
+    private final ObjectMapper mapper;
+    private final Function<String, String> descriptionFilter;
+
+    private final List<List<Object>> variants = new ArrayList<>();
+    private final Table<String> names = new Table<>();
+    private final Table<String> descriptions = new Table<>();
+    private final Map<String, String> filteredDescriptions = new HashMap<>();
+    private final Table<JsonNode> prices = new Table<>();
+    private final Table<JsonNode> assets = new Table<>();
+
+    /**
+     * @param attributes the codes of the configurable attributes
+     * @param mapper the mapper used to compare the prices and assets
+     * @param descriptionFilter the function which filters the HTML of the descriptions, it is applied once per distinct description
+     */
+    VariantMatrix(List<String> attributes, ObjectMapper mapper, Function<String, String> descriptionFilter) {
+        this.attributes = attributes;
+        this.mapper = mapper;
+        this.descriptionFilter = descriptionFilter;
+    }
+
+    void addVariant(String sku, String id, String name, String description, Price price, List<Asset> variantAssets, Boolean inStock,
+        Integer color, Map<String, Integer> variantAttributes) {
+        String filteredDescription = description != null
+            ? filteredDescriptions.computeIfAbsent(description, descriptionFilter)
+            : null;
+
+        String combination = attributes.stream()
+            .map(code -> variantAttributes.containsKey(code) ? String.valueOf(variantAttributes.get(code)) : "")
+            .collect(Collectors.joining(","));
+
+        variants.add(Arrays.asList(sku, id, names.add(name), descriptions.add(filteredDescription),
+            prices.add(mapper.valueToTree(price)), assets.add(mapper.valueToTree(variantAssets)), inStock, color, combination));
+    }
+
+    public List<String> getAttributes() {
+        return attributes;
+    }
+
+    public List<String> getNames() {
+        return names.values;
+    }
+
+    public List<String> getDescriptions() {
+        return descriptions.values;
+    }
+
+    public List<JsonNode> getPrices() {
+        return prices.values;
+    }
+
+    public List<JsonNode> getAssets() {
+        return assets.values;
+    }
+
+    public List<List<Object>> getVariants() {
+        return variants;
+    }
+
+    private static class Table<T> {
+        private final List<T> values = new ArrayList<>();
+        private final Map<T, Integer> positions = new HashMap<>();
+
+        int add(T value) {
+            return positions.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+}
@@ -44,6 +44,7 @@ import com.adobe.cq.commerce.core.components.internal.models.v1.common.CommerceI
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.PriceImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.ProductListItemImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.TitleTypeProvider;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
 import com.adobe.cq.commerce.core.components.models.common.Price;
 import com.adobe.cq.commerce.core.components.models.common.ProductListItem;
 import com.adobe.cq.commerce.core.components.models.productcarousel.ProductCarousel;
@@ -76,6 +77,9 @@ public class ProductCarouselImpl extends DataLayerComponent implements ProductCa
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -107,7 +111,7 @@ public class ProductCarouselImpl extends DataLayerComponent implements ProductCa
         }
 
         List<String> productSkus = Arrays.asList(productSkuList);
-        productPage = SiteNavigation.getProductPage(currentPage);
+        productPage = pageContext.getProductPage();
         if (productPage == null) {
             productPage = currentPage;
         }
@@ -187,6 +191,7 @@ public class ProductCarouselImpl extends DataLayerComponent implements ProductCa
                 }
             }
         }
+        ProductListItemImpl.batchUrls(carouselProductList);
         return carouselProductList;
     }
 
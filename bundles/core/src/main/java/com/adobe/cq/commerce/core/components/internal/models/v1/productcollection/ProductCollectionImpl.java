@@ -16,6 +16,7 @@ package com.adobe.cq.commerce.core.components.internal.models.v1.productcollecti
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -28,16 +29,16 @@ import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 
 import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerComponent;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
 import com.adobe.cq.commerce.core.components.models.common.ProductListItem;
 import com.adobe.cq.commerce.core.components.models.productcollection.ProductCollection;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
-import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.core.search.internal.models.SearchOptionsImpl;
 import com.adobe.cq.commerce.core.search.internal.models.SearchResultsSetImpl;
 import com.adobe.cq.commerce.core.search.models.SearchResultsSet;
 import com.adobe.cq.commerce.core.search.services.SearchResultsService;
+import com.adobe.cq.commerce.magento.graphql.ProductInterfaceQuery;
 import com.adobe.cq.wcm.launches.utils.LaunchUtils;
-import com.day.cq.commons.Externalizer;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.designer.Style;
 
@@ -59,6 +60,8 @@ public class ProductCollectionImpl extends DataLayerComponent implements Product
 
     @Self
     protected SlingHttpServletRequest request;
+    @Self
+    protected CommercePageContext pageContext;
     @ScriptVariable
     protected ValueMap properties;
     @ScriptVariable
@@ -69,8 +72,6 @@ public class ProductCollectionImpl extends DataLayerComponent implements Product
     protected SearchResultsService searchResultsService;
     @Inject
     protected UrlProvider urlProvider;
-    @Inject
-    protected Externalizer externalizer;
 
     protected SearchOptionsImpl searchOptions;
     protected SearchResultsSet searchResultsSet;
@@ -82,7 +83,7 @@ public class ProductCollectionImpl extends DataLayerComponent implements Product
         paginationType = properties.get(PN_PAGINATION_TYPE, currentStyle.get(PN_PAGINATION_TYPE, PAGINATION_TYPE_DEFAULT));
 
         // get product template page
-        productPage = SiteNavigation.getProductPage(currentPage);
+        productPage = pageContext.getProductPage();
         if (productPage == null) {
             productPage = currentPage;
         }
@@ -139,4 +140,30 @@ public class ProductCollectionImpl extends DataLayerComponent implements Product
         }
         return searchResultsSet;
     }
+
+    /**
+     * Returns the products of the requested page with a products-only query: the category query and the aggregations are skipped
+     * because a "load more" request only renders additional items.
+     * Not OSGi exported but public so the {@code LoadMoreServlet} can use it.
+     *
+     * @return The product list items of the requested page.
+     */
+    @Nonnull
+    public Collection<ProductListItem> getLoadMoreProducts() {
+        if (searchOptions == null) {
+            return getProducts();
+        }
+
+        SearchOptionsImpl loadMoreOptions = new SearchOptionsImpl(searchOptions);
+        loadMoreOptions.setAggregationsEnabled(false);
+        return searchResultsService.performSearch(loadMoreOptions, resource, productPage, request, getProductQueryHook())
+            .getProductListItems();
+    }
+
+    /**
+     * @return The hook used to extend the products query of this component, or <code>null</code> if the query is not extended.
+     */
+    protected Consumer<ProductInterfaceQuery> getProductQueryHook() {
+        return null;
+    }
 }
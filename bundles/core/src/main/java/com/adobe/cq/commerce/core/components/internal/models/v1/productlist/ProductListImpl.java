@@ -97,14 +97,10 @@ public class ProductListImpl extends ProductCollectionImpl implements ProductLis
         Map<String, String> searchFilters = createFilterMap(request.getParameterMap());
 
         // Parse category identifier from URL
-        Pair<CategoryIdentifierType, String> identifier = urlProvider.getCategoryIdentifier(request);
+        Pair<CategoryIdentifierType, String> identifier = pageContext.getCategoryIdentifier();
         boolean isAuthorInstance = wcmMode != null && !wcmMode.isDisabled();
 
-        if (isAuthorInstance) {
-            canonicalUrl = externalizer.authorLink(resource.getResourceResolver(), request.getRequestURI());
-        } else {
-            canonicalUrl = externalizer.publishLink(resource.getResourceResolver(), request.getRequestURI());
-        }
+        canonicalUrl = pageContext.getCanonicalUrl();
 
         // get GraphQL client and query data
         if (magentoGraphqlClient != null) {
@@ -205,11 +201,26 @@ public class ProductListImpl extends ProductCollectionImpl implements ProductLis
         return searchResultsSet;
     }
 
+    @Nonnull
+    @Override
+    public Collection<ProductListItem> getLoadMoreProducts() {
+        // Without the category_uid parameter of the pager links, the category must be fetched to scope the products query
+        if (usePlaceholderData || searchOptions == null
+            || !searchOptions.getAttributeFilters().containsKey(SearchOptionsImpl.CATEGORY_UID_PARAMETER_ID)) {
+            return getProducts();
+        }
+        return super.getLoadMoreProducts();
+    }
+
+    @Override
+    protected Consumer<ProductInterfaceQuery> getProductQueryHook() {
+        return categoryRetriever != null ? categoryRetriever.getProductQueryHook() : null;
+    }
+
     private Pair<CategoryInterface, SearchResultsSet> getCategorySearchResultsSet() {
         if (categorySearchResultsSet == null) {
-            Consumer<ProductInterfaceQuery> productQueryHook = categoryRetriever != null ? categoryRetriever.getProductQueryHook() : null;
             categorySearchResultsSet = searchResultsService
-                .performSearch(searchOptions, resource, productPage, request, productQueryHook, categoryRetriever);
+                .performSearch(searchOptions, resource, productPage, request, getProductQueryHook(), categoryRetriever);
         }
         return categorySearchResultsSet;
     }
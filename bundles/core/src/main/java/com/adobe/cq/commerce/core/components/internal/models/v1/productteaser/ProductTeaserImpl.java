@@ -37,6 +37,7 @@ import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerCompone
 import com.adobe.cq.commerce.core.components.internal.datalayer.ProductDataImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.CommerceIdentifierImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.PriceImpl;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
 import com.adobe.cq.commerce.core.components.models.common.CommerceIdentifier;
 import com.adobe.cq.commerce.core.components.models.common.Price;
 import com.adobe.cq.commerce.core.components.models.productteaser.ProductTeaser;
@@ -71,6 +72,9 @@ public class ProductTeaserImpl extends DataLayerComponent implements ProductTeas
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -102,9 +106,9 @@ public class ProductTeaserImpl extends DataLayerComponent implements ProductTeas
 
     @PostConstruct
     protected void initModel() {
-        locale = currentPage.getLanguage(false);
+        locale = pageContext.getLocale();
 
-        productPage = SiteNavigation.getProductPage(currentPage);
+        productPage = pageContext.getProductPage();
         if (productPage == null) {
             productPage = currentPage;
         }
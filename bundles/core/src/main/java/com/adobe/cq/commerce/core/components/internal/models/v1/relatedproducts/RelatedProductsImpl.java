@@ -41,6 +41,8 @@ import com.adobe.cq.commerce.core.components.internal.models.v1.common.CommerceI
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.PriceImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.ProductListItemImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.TitleTypeProvider;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.models.v1.product.ProductRetriever;
 import com.adobe.cq.commerce.core.components.internal.models.v1.relatedproducts.RelatedProductsRetriever.RelationType;
 import com.adobe.cq.commerce.core.components.models.common.CommerceIdentifier;
 import com.adobe.cq.commerce.core.components.models.common.CommerceIdentifier.EntityType;
@@ -51,7 +53,6 @@ import com.adobe.cq.commerce.core.components.models.productcarousel.ProductCarou
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductsRetriever;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ProductIdentifierType;
-import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.magento.graphql.ProductInterface;
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
@@ -77,6 +78,9 @@ public class RelatedProductsImpl extends DataLayerComponent implements ProductCa
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self(injectionStrategy = InjectionStrategy.OPTIONAL)
     private MagentoGraphqlClient magentoGraphqlClient;
 
@@ -105,7 +109,7 @@ public class RelatedProductsImpl extends DataLayerComponent implements ProductCa
             return;
         }
 
-        productPage = SiteNavigation.getProductPage(currentPage);
+        productPage = pageContext.getProductPage();
         if (productPage == null) {
             productPage = currentPage;
         }
@@ -133,14 +137,22 @@ public class RelatedProductsImpl extends DataLayerComponent implements ProductCa
             skuOrSlug = product; // The picker is configured to return the SKU
             productIdentifierType = ProductIdentifierType.SKU;
         } else {
-            Pair<ProductIdentifierType, String> identifier = urlProvider.getProductIdentifier(request);
+            Pair<ProductIdentifierType, String> identifier = pageContext.getProductIdentifier();
             skuOrSlug = identifier.getRight();
             productIdentifierType = identifier.getLeft();
         }
 
         relationType = relationTypeProperty != null ? RelationType.valueOf(relationTypeProperty) : RelationType.RELATED_PRODUCTS;
-        productsRetriever = new RelatedProductsRetriever(magentoGraphqlClient, relationType, productIdentifierType);
-        productsRetriever.setIdentifiers(Collections.singletonList(skuOrSlug));
+        RelatedProductsRetriever relatedProductsRetriever = new RelatedProductsRetriever(magentoGraphqlClient, relationType,
+            productIdentifierType);
+        relatedProductsRetriever.setIdentifiers(Collections.singletonList(skuOrSlug));
+
+        // The related products of the product of the URL are fetched with the product, if it was not fetched yet
+        ProductRetriever productRetriever = product == null ? pageContext.getProductRetriever() : null;
+        if (productRetriever != null && !productRetriever.isPopulated()) {
+            relatedProductsRetriever.setProductRetriever(productRetriever);
+        }
+        productsRetriever = relatedProductsRetriever;
     }
 
     @Override
@@ -166,6 +178,7 @@ public class RelatedProductsImpl extends DataLayerComponent implements ProductCa
                 LOGGER.error("Failed to instantiate product " + (product != null ? product.getSku() : null), e);
             }
         }
+        ProductListItemImpl.batchUrls(carouselProductList);
         return carouselProductList;
     }
 
@@ -14,9 +14,11 @@
 
 package com.adobe.cq.commerce.core.components.internal.models.v1.relatedproducts;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductRetriever;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductsRetriever;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ProductIdentifierType;
 import com.adobe.cq.commerce.magento.graphql.ConfigurableProductQueryDefinition;
@@ -48,6 +50,7 @@ class RelatedProductsRetriever extends AbstractProductsRetriever {
 
     private RelationType relationtype;
     private ProductIdentifierType productIdentifierType;
+    private AbstractProductRetriever productRetriever;
 
     RelatedProductsRetriever(MagentoGraphqlClient client, RelationType relationType, ProductIdentifierType productIdentifierType) {
         super(client);
@@ -55,6 +58,27 @@ class RelatedProductsRetriever extends AbstractProductsRetriever {
         this.productIdentifierType = productIdentifierType;
     }
 
+    /**
+     * Fetches the related products with the query of the given product retriever instead of a separate query. This must be called
+     * before the product retriever fetches the product.
+     *
+     * @param productRetriever The retriever of the product for which the related products are fetched.
+     */
+    void setProductRetriever(AbstractProductRetriever productRetriever) {
+        this.productRetriever = productRetriever;
+        productRetriever.extendProductQueryWith(p -> generateRelationQuery().define(p));
+    }
+
+    private ProductInterfaceQueryDefinition generateRelationQuery() {
+        if (RelationType.UPSELL_PRODUCTS.equals(relationtype)) {
+            return p -> p.upsellProducts(generateProductQuery());
+        } else if (RelationType.CROSS_SELL_PRODUCTS.equals(relationtype)) {
+            return p -> p.crosssellProducts(generateProductQuery());
+        } else {
+            return p -> p.relatedProducts(generateProductQuery());
+        }
+    }
+
     @Override
     protected String generateQuery(List<String> identifiers) {
         FilterEqualTypeInput input = new FilterEqualTypeInput().setEq(identifiers.get(0));
@@ -66,28 +90,27 @@ class RelatedProductsRetriever extends AbstractProductsRetriever {
         }
         QueryQuery.ProductsArgumentsDefinition searchArgs = s -> s.filter(filter);
 
-        ProductInterfaceQueryDefinition def;
-        if (RelationType.UPSELL_PRODUCTS.equals(relationtype)) {
-            def = p -> p.upsellProducts(generateProductQuery());
-        } else if (RelationType.CROSS_SELL_PRODUCTS.equals(relationtype)) {
-            def = p -> p.crosssellProducts(generateProductQuery());
-        } else {
-            def = p -> p.relatedProducts(generateProductQuery());
-        }
-
-        ProductsQueryDefinition queryArgs = q -> q.items(def);
+        ProductsQueryDefinition queryArgs = q -> q.items(generateRelationQuery());
         return Operations.query(query -> query.products(searchArgs, queryArgs)).toString();
     }
 
     @Override
     protected void populate() {
-        super.populate();
-        if (products == null || products.isEmpty()) {
-            return;
+        ProductInterface product;
+        if (productRetriever != null) {
+            product = productRetriever.fetchProduct();
+            if (product == null) {
+                products = Collections.emptyList();
+                return;
+            }
+        } else {
+            super.populate();
+            if (products == null || products.isEmpty()) {
+                return;
+            }
+            product = products.get(0);
         }
 
-        ProductInterface product = products.get(0);
-
         if (RelationType.UPSELL_PRODUCTS.equals(relationtype)) {
             products = product.getUpsellProducts();
         } else if (RelationType.CROSS_SELL_PRODUCTS.equals(relationtype)) {
@@ -14,14 +14,13 @@
 
 package com.adobe.cq.commerce.core.components.internal.models.v1.searchbar;
 
-import javax.inject.Inject;
-
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.Self;
 
 import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerComponent;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
 import com.adobe.cq.commerce.core.components.models.searchbar.Searchbar;
-import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.day.cq.wcm.api.Page;
 
 /**
@@ -36,15 +35,15 @@ import com.day.cq.wcm.api.Page;
 public class SearchbarImpl extends DataLayerComponent implements Searchbar {
     static final String RESOURCE_TYPE = "core/cif/components/commerce/searchbar/v1/searchbar";
 
-    @Inject
-    private Page currentPage;
+    @Self
+    private CommercePageContext pageContext;
 
     private Page searchResultsPage;
 
     @Override
     public String getSearchResultsPageUrl() {
         if (searchResultsPage == null) {
-            searchResultsPage = SiteNavigation.getSearchResultsPage(currentPage);
+            searchResultsPage = pageContext.getSearchResultsPage();
         }
 
         return searchResultsPage.getPath() + ".html";
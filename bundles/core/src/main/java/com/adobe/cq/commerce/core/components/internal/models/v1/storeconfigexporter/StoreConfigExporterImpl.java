@@ -23,19 +23,22 @@ import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.injectorspecific.InjectionStrategy;
+import org.apache.sling.models.annotations.injectorspecific.ScriptVariable;
 import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.JsonWriters;
+import com.adobe.cq.commerce.core.components.internal.servlets.ClientPriceServlet;
 import com.adobe.cq.commerce.core.components.models.storeconfigexporter.StoreConfigExporter;
 import com.adobe.cq.commerce.core.components.services.ComponentsConfiguration;
 import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.graphql.client.GraphqlClientConfiguration;
 import com.adobe.cq.commerce.graphql.client.HttpMethod;
 import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.designer.Style;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 @Model(
@@ -52,6 +55,11 @@ public class StoreConfigExporterImpl implements StoreConfigExporter {
     private static final String STORE_CODE_PROPERTY = "magentoStore";
     private static final String GRAPHQL_ENDPOINT_PROPERTY = "magentoGraphqlEndpoint";
 
+    /**
+     * The property of the page policy enabling the {@link ClientPriceServlet} for the client-side prices.
+     */
+    static final String PN_CLIENT_PRICE_ENDPOINT = "clientPriceEndpoint";
+
     @Self
     private SlingHttpServletRequest request;
 
@@ -64,6 +72,9 @@ public class StoreConfigExporterImpl implements StoreConfigExporter {
     @Inject
     private Resource resource;
 
+    @ScriptVariable(injectionStrategy = InjectionStrategy.OPTIONAL)
+    private Style currentStyle;
+
     private String storeView;
     private String graphqlEndpoint = "/magento/graphql";
     private HttpMethod method = HttpMethod.POST;
@@ -106,17 +117,24 @@ public class StoreConfigExporterImpl implements StoreConfigExporter {
             return EMPTY_JSON_OBJECT;
         }
 
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode objectNode = mapper.createObjectNode();
+        ObjectNode objectNode = JsonWriters.getObjectMapper().createObjectNode();
         httpHeaders.entrySet().stream().forEach(entry -> objectNode.put(entry.getKey(), entry.getValue()));
         try {
-            return mapper.writeValueAsString(objectNode);
+            return JsonWriters.writeValueAsString(objectNode);
         } catch (JsonProcessingException e) {
             LOGGER.error(e.getMessage(), e);
             return EMPTY_JSON_OBJECT;
         }
     }
 
+    @Override
+    public String getPriceUrl() {
+        if (currentStyle == null || !currentStyle.get(PN_CLIENT_PRICE_ENDPOINT, false)) {
+            return null;
+        }
+        return ClientPriceServlet.toPricesUrl(request, currentPage);
+    }
+
     @Override
     public String getStoreRootUrl() {
         if (storeRootPage == null) {
@@ -37,12 +37,12 @@ import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.CommerceIdentifierImpl;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
 import com.adobe.cq.commerce.core.components.models.common.CommerceIdentifier;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractCategoriesRetriever;
 import com.adobe.cq.commerce.core.components.models.teaser.CommerceTeaser;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ParamsBuilder;
-import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
 import com.adobe.cq.commerce.magento.graphql.CategoryTree;
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
@@ -78,6 +78,9 @@ public class CommerceTeaserImpl implements CommerceTeaser {
     @Self
     private SlingHttpServletRequest request;
 
+    @Self
+    private CommercePageContext pageContext;
+
     @Self
     @Via(type = ResourceSuperType.class)
     private Teaser wcmTeaser;
@@ -109,8 +112,8 @@ public class CommerceTeaserImpl implements CommerceTeaser {
                 categoriesRetriever.setIdentifiers(categoryIds);
             }
 
-            Page productPage = SiteNavigation.getProductPage(currentPage);
-            Page categoryPage = SiteNavigation.getCategoryPage(currentPage);
+            Page productPage = pageContext.getProductPage();
+            Page categoryPage = pageContext.getCategoryPage();
 
             // build teaser action items for all configured actions
             for (Resource action : configuredActions) {
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+
+/**
+ * An immutable category tree, built once from a Magento category tree. The children of each category are filtered and sorted by
+ * position when the tree is built, and the categories are indexed by UID and url_path, so the components rendering the tree do not
+ * need to sort or search it.
+ */
+public final class CategoryTreeIndex {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static final Comparator<CategoryTree> BY_POSITION = Comparator.comparing(CategoryTree::getPosition, Comparator
+        .nullsLast(Comparator.naturalOrder()));
+
+    private final Node root;
+    private final Map<String, Node> byUid;
+    private final Map<String, Node> byUrlPath;
+    private final long version;
+
+    private CategoryTreeIndex(Node root, Map<String, Node> byUid, Map<String, Node> byUrlPath) {
+        this.root = root;
+        this.byUid = Collections.unmodifiableMap(byUid);
+        this.byUrlPath = Collections.unmodifiableMap(byUrlPath);
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Builds the index of the given category tree. The children without name are skipped, like they are not rendered.
+     *
+     * @param category the root category, fetched with its <code>uid</code>, <code>name</code>, <code>url_key</code>,
+     *            <code>url_path</code>, <code>position</code> and optionally <code>children_count</code> fields
+     * @return the index
+     */
+    public static CategoryTreeIndex build(CategoryTree category) {
+        Map<String, Node> byUid = new HashMap<>();
+        Map<String, Node> byUrlPath = new HashMap<>();
+        Node root = new Node(null, category, byUid, byUrlPath);
+        return new CategoryTreeIndex(root, byUid, byUrlPath);
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * @param uid the UID of a category
+     * @return the category of the tree with this UID, or <code>null</code>
+     */
+    public Node getByUid(String uid) {
+        return uid != null ? byUid.get(uid) : null;
+    }
+
+    /**
+     * @param urlPath the url_path of a category
+     * @return the category of the tree with this url_path, or <code>null</code>
+     */
+    public Node getByUrlPath(String urlPath) {
+        return urlPath != null ? byUrlPath.get(urlPath) : null;
+    }
+
+    /**
+     * @param other another category tree
+     * @return <code>true</code> if both trees have the same categories, with the same fields, in the same order
+     */
+    public boolean hasSameContent(CategoryTreeIndex other) {
+        return other != null && root.hasSameContent(other.root);
+    }
+
+    /**
+     * @return a number identifying this build of the tree, which changes every time the tree is rebuilt
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public static final class Node {
+        private final Node parent;
+        private final String uid;
+        private final String name;
+        private final String urlKey;
+        private final String urlPath;
+        private final Integer position;
+        private final int level;
+        private final int childrenCount;
+        private final List<Node> children;
+
+        private Node(Node parent, CategoryTree category, Map<String, Node> byUid, Map<String, Node> byUrlPath) {
+            this.parent = parent;
+            this.uid = category.getUid() != null ? category.getUid().toString() : null;
+            this.name = category.getName();
+            this.urlKey = category.getUrlKey();
+            this.urlPath = category.getUrlPath();
+            this.position = category.getPosition();
+            this.level = parent != null ? parent.level + 1 : 0;
+            this.childrenCount = NumberUtils.toInt(category.getChildrenCount());
+
+            if (uid != null) {
+                byUid.putIfAbsent(uid, this);
+            }
+            if (urlPath != null) {
+                byUrlPath.putIfAbsent(urlPath, this);
+            }
+
+            List<CategoryTree> categories = category.getChildren();
+            if (categories == null || categories.isEmpty()) {
+                this.children = Collections.emptyList();
+            } else {
+                List<CategoryTree> sorted = new ArrayList<>(categories.size());
+                for (CategoryTree child : categories) {
+                    if (child != null && child.getName() != null) {
+                        sorted.add(child);
+                    }
+                }
+                sorted.sort(BY_POSITION);
+
+                List<Node> nodes = new ArrayList<>(sorted.size());
+                for (CategoryTree child : sorted) {
+                    nodes.add(new Node(this, child, byUid, byUrlPath));
+                }
+                this.children = Collections.unmodifiableList(nodes);
+            }
+        }
+
+        /**
+         * @return the parent category, or <code>null</code> for the root of the tree
+         */
+        public Node getParent() {
+            return parent;
+        }
+
+        public String getUid() {
+            return uid;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getUrlKey() {
+            return urlKey;
+        }
+
+        public String getUrlPath() {
+            return urlPath;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        /**
+         * @return the distance to the root of the tree, <code>0</code> for the root
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * @return the number of children of the category in the catalog, including the children which were not fetched with the tree
+         */
+        public int getChildrenCount() {
+            return childrenCount;
+        }
+
+        /**
+         * @return the children with a name, sorted by position
+         */
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        private boolean hasSameContent(Node other) {
+            if (!Objects.equals(uid, other.uid) || !Objects.equals(name, other.name) || !Objects.equals(urlKey, other.urlKey)
+                || !Objects.equals(urlPath, other.urlPath) || !Objects.equals(position, other.position)
+                || childrenCount != other.childrenCount || children.size() != other.children.size()) {
+                return false;
+            }
+            for (int i = 0; i < children.size(); i++) {
+                if (!children.get(i).hasSameContent(other.children.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
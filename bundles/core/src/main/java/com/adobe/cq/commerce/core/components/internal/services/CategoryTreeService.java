@@ -0,0 +1,272 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.services.ComponentsConfiguration;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.CategoryFilterInput;
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+import com.adobe.cq.commerce.magento.graphql.CategoryTreeQuery;
+import com.adobe.cq.commerce.magento.graphql.CategoryTreeQueryDefinition;
+import com.adobe.cq.commerce.magento.graphql.FilterEqualTypeInput;
+import com.adobe.cq.commerce.magento.graphql.Operations;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+import com.day.cq.commons.inherit.HierarchyNodeInheritanceValueMap;
+import com.day.cq.commons.inherit.InheritanceValueMap;
+import com.day.cq.wcm.api.Page;
+
+/**
+ * Keeps the category trees rendered by the navigation of each store in memory, as {@link CategoryTreeIndex}es keyed by root
+ * category UID and depth. A tree is fetched the first time it is requested and refreshed in the background when it is older than
+ * the configured refresh interval. The previous tree keeps being served until the new one is complete.
+ * The trees are not cached for preview requests, as the staged catalog may differ.
+ */
+@Component(service = CategoryTreeService.class)
+@Designate(ocd = CategoryTreeServiceConfiguration.class)
+public class CategoryTreeService {
+
+    public static final String PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER = "magentoRootCategoryId";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CategoryTreeService.class);
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY)
+    private IdentifierResolutionService identifierResolutionService;
+
+    private final AtomicLong generation = new AtomicLong();
+    private Map<String, StoreTree> trees = StoreCaches.createLruMap(CategoryTreeServiceConfiguration.DEFAULT_MAX_TREES);
+    private ExecutorService executor;
+    private long refreshInterval;
+
+    @Activate
+    protected void activate(CategoryTreeServiceConfiguration configuration) {
+        trees = StoreCaches.createLruMap(configuration.maxTrees());
+        refreshInterval = TimeUnit.SECONDS.toMillis(configuration.refreshInterval());
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CIF category tree cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        executor.shutdownNow();
+        trees.clear();
+    }
+
+    /**
+     * Returns the UID of the root category of the category trees rendered for the given page. It is configured on the page or one of
+     * its ancestors, like the catalog page, or in the configuration of the store.
+     *
+     * @param page the page
+     * @return the UID of the root category, or <code>null</code> if it is not configured
+     */
+    public static String getRootCategoryIdentifier(Page page) {
+        Resource contentResource = page != null ? page.getContentResource() : null;
+        if (contentResource == null) {
+            return null;
+        }
+
+        InheritanceValueMap pageProperties = new HierarchyNodeInheritanceValueMap(contentResource);
+        String rootCategoryIdentifier = pageProperties.getInherited(PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER, String.class);
+        if (StringUtils.isBlank(rootCategoryIdentifier)) {
+            ComponentsConfiguration configuration = contentResource.adaptTo(ComponentsConfiguration.class);
+            rootCategoryIdentifier = configuration != null ? configuration.get(PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER, String.class) : null;
+        }
+        return StringUtils.isNotBlank(rootCategoryIdentifier) ? rootCategoryIdentifier : null;
+    }
+
+    /**
+     * Returns the category tree of the store of the given GraphQL client. The tree is fetched with the calling thread the first time
+     * it is requested, and then refreshed in the background.
+     *
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param rootUid the UID of the root category
+     * @param depth the number of levels of descendants of the root category
+     * @return the category tree, or <code>null</code> if the root category is not found
+     */
+    public CategoryTreeIndex getTree(MagentoGraphqlClient magentoGraphqlClient, String rootUid, int depth) {
+        if (magentoGraphqlClient == null || StringUtils.isBlank(rootUid)) {
+            return null;
+        }
+
+        if (StoreCaches.isPreview(magentoGraphqlClient)) {
+            return fetchTree(magentoGraphqlClient, rootUid, depth);
+        }
+
+        String key = StoreCaches.getStoreKey(magentoGraphqlClient) + "|" + rootUid + "|" + depth;
+        StoreTree storeTree = trees.computeIfAbsent(key, k -> new StoreTree(depth));
+
+        if (storeTree.tree == null) {
+            synchronized (storeTree) {
+                if (storeTree.tree == null && System.currentTimeMillis() - storeTree.lastBuild > refreshInterval) {
+                    refresh(storeTree, magentoGraphqlClient, rootUid, depth);
+                }
+                return storeTree.tree;
+            }
+        }
+
+        if (System.currentTimeMillis() - storeTree.lastBuild > refreshInterval && storeTree.building.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        refresh(storeTree, magentoGraphqlClient, rootUid, depth);
+                    } finally {
+                        storeTree.building.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException x) {
+                storeTree.building.set(false);
+            }
+        }
+
+        return storeTree.tree;
+    }
+
+    /**
+     * Returns the deepest category tree of the given root which is already cached for the store of the given GraphQL client, like the
+     * tree of the navigation, without fetching any tree. Components which only read the trees use it to not fetch another tree.
+     *
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param rootUid the UID of the root category
+     * @return the category tree, or <code>null</code> if no tree of the root category is cached
+     */
+    public CategoryTreeIndex getCachedTree(MagentoGraphqlClient magentoGraphqlClient, String rootUid) {
+        if (magentoGraphqlClient == null || StringUtils.isBlank(rootUid) || StoreCaches.isPreview(magentoGraphqlClient)) {
+            return null;
+        }
+
+        String prefix = StoreCaches.getStoreKey(magentoGraphqlClient) + "|" + rootUid + "|";
+        StoreTree deepest = null;
+        synchronized (trees) {
+            for (Map.Entry<String, StoreTree> entry : trees.entrySet()) {
+                StoreTree storeTree = entry.getValue();
+                if (entry.getKey().startsWith(prefix) && storeTree.tree != null && (deepest == null || storeTree.depth > deepest.depth)) {
+                    deepest = storeTree;
+                }
+            }
+        }
+        return deepest != null ? deepest.tree : null;
+    }
+
+    /**
+     * Returns a number which changes every time the content of any of the cached category trees changes, when it is fetched for the
+     * first time or when a refresh returns different categories, so the content rendered from the trees can be invalidated.
+     *
+     * @return the generation of the cached trees
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    private void refresh(StoreTree storeTree, MagentoGraphqlClient magentoGraphqlClient, String rootUid, int depth) {
+        try {
+            CategoryTreeIndex tree = fetchTree(magentoGraphqlClient, rootUid, depth);
+            // An unchanged tree is kept, so the content rendered from the trees is not invalidated by every refresh
+            if (tree != null && !tree.hasSameContent(storeTree.tree)) {
+                storeTree.tree = tree;
+                generation.incrementAndGet();
+            }
+        } catch (RuntimeException x) {
+            LOGGER.error("Failed to fetch the category tree of {}", rootUid, x);
+        } finally {
+            // A failed fetch is also retried after the refresh interval, to not flood Magento with category queries
+            storeTree.lastBuild = System.currentTimeMillis();
+        }
+    }
+
+    CategoryTreeIndex fetchTree(MagentoGraphqlClient magentoGraphqlClient, String rootUid, int depth) {
+        String queryString = Operations.query(query -> query
+            .categoryList(args -> args.filters(new CategoryFilterInput().setCategoryUid(new FilterEqualTypeInput().setEq(rootUid))),
+                defineCategoriesQuery(depth)))
+            .toString();
+
+        GraphqlResponse<Query, Error> response = magentoGraphqlClient.execute(queryString);
+        if (CollectionUtils.isNotEmpty(response.getErrors())) {
+            response.getErrors()
+                .forEach(err -> LOGGER.error("An error has occurred: {} ({})", err.getMessage(), err.getCategory()));
+            return null;
+        }
+
+        List<CategoryTree> categories = response.getData().getCategoryList();
+        if (CollectionUtils.isEmpty(categories) || categories.get(0) == null) {
+            LOGGER.warn("Category not found for identifier: {}", rootUid);
+            return null;
+        }
+
+        CategoryTree root = categories.get(0);
+        if (identifierResolutionService != null) {
+            List<CategoryTree> all = new ArrayList<>();
+            collect(root, all);
+            identifierResolutionService.warmCategories(magentoGraphqlClient, all);
+        }
+        return CategoryTreeIndex.build(root);
+    }
+
+    private static void collect(CategoryTree category, List<CategoryTree> categories) {
+        categories.add(category);
+        if (category.getChildren() != null) {
+            category.getChildren().stream().filter(c -> c != null).forEach(c -> collect(c, categories));
+        }
+    }
+
+    private static CategoryTreeQueryDefinition defineCategoriesQuery(int depth) {
+        if (depth <= 0) {
+            return CategoryTreeService::defineCategoryFields;
+        } else {
+            return q -> defineCategoryFields(q).children(defineCategoriesQuery(depth - 1));
+        }
+    }
+
+    private static CategoryTreeQuery defineCategoryFields(CategoryTreeQuery query) {
+        return query.uid().name().urlKey().urlPath().position().childrenCount();
+    }
+
+    private static class StoreTree {
+        private final int depth;
+        private final AtomicBoolean building = new AtomicBoolean();
+        private volatile CategoryTreeIndex tree;
+        private volatile long lastBuild = Long.MIN_VALUE / 2;
+
+        StoreTree(int depth) {
+            this.depth = depth;
+        }
+    }
+}
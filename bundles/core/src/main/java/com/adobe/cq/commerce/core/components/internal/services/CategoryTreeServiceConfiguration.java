@@ -0,0 +1,38 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(name = "CIF Category Tree Cache configuration")
+public @interface CategoryTreeServiceConfiguration {
+
+    int DEFAULT_MAX_TREES = 100;
+    long DEFAULT_REFRESH_INTERVAL = 600;
+
+    @AttributeDefinition(
+        name = "Maximum trees",
+        description = "The maximum number of category trees kept in memory, one per store, root category and depth.",
+        type = AttributeType.INTEGER)
+    int maxTrees() default DEFAULT_MAX_TREES;
+
+    @AttributeDefinition(
+        name = "Refresh interval",
+        description = "The time in seconds after which a category tree is refreshed in the background.",
+        type = AttributeType.LONG)
+    long refreshInterval() default DEFAULT_REFRESH_INTERVAL;
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.ConfigurableProduct;
+import com.adobe.cq.commerce.magento.graphql.ConfigurableVariant;
+import com.adobe.cq.commerce.magento.graphql.FilterEqualTypeInput;
+import com.adobe.cq.commerce.magento.graphql.GroupedProduct;
+import com.adobe.cq.commerce.magento.graphql.GroupedProductItem;
+import com.adobe.cq.commerce.magento.graphql.Operations;
+import com.adobe.cq.commerce.magento.graphql.PriceRange;
+import com.adobe.cq.commerce.magento.graphql.ProductAttributeFilterInput;
+import com.adobe.cq.commerce.magento.graphql.ProductInterface;
+import com.adobe.cq.commerce.magento.graphql.ProductInterfaceQuery;
+import com.adobe.cq.commerce.magento.graphql.ProductPriceQueryDefinition;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+
+/**
+ * Fetches the prices of the products rendered with client-side prices. The prices of all the products requested by a page are
+ * fetched with a single price-only query, and kept in memory for a short time, so the pages of a store share the prices of the
+ * products they display. The prices are the prices of guest customers, and are not cached for preview requests, as the staged
+ * catalog may differ.
+ */
+@Component(service = ClientPriceService.class)
+@Designate(ocd = ClientPriceServiceConfiguration.class)
+public class ClientPriceService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientPriceService.class);
+
+    private Map<String, ProductPrices> prices = StoreCaches.createLruMap(ClientPriceServiceConfiguration.DEFAULT_MAX_ENTRIES);
+    private long ttl = TimeUnit.SECONDS.toMillis(ClientPriceServiceConfiguration.DEFAULT_TTL);
+    private int maxSkus = ClientPriceServiceConfiguration.DEFAULT_MAX_SKUS;
+
+    @Activate
+    protected void activate(ClientPriceServiceConfiguration configuration) {
+        prices = StoreCaches.createLruMap(configuration.maxEntries());
+        ttl = TimeUnit.SECONDS.toMillis(configuration.ttl());
+        maxSkus = Math.max(1, configuration.maxSkus());
+    }
+
+    /**
+     * @return the time in seconds during which the prices are kept in memory
+     */
+    public long getTtl() {
+        return TimeUnit.MILLISECONDS.toSeconds(ttl);
+    }
+
+    /**
+     * Returns the prices of the products with the given SKUs. The prices which are not in memory are fetched with a single query.
+     *
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param skus the SKUs of the products, only the first SKUs up to the configured maximum are used
+     * @param includeVariants <code>true</code> to return the prices of the variants of the configurable products
+     * @return the prices of each product found, by SKU, including the prices of its variants or grouped items
+     */
+    public Map<String, ProductPrices> getPrices(MagentoGraphqlClient magentoGraphqlClient, Collection<String> skus,
+        boolean includeVariants) {
+        List<String> requested = new ArrayList<>(new LinkedHashSet<>(skus));
+        requested.removeIf(StringUtils::isBlank);
+        if (requested.size() > maxSkus) {
+            requested = requested.subList(0, maxSkus);
+        }
+
+        boolean cache = !StoreCaches.isPreview(magentoGraphqlClient);
+        String storeKey = StoreCaches.getStoreKey(magentoGraphqlClient) + "|" + includeVariants + "|";
+        long now = System.currentTimeMillis();
+
+        Map<String, ProductPrices> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String sku : requested) {
+            ProductPrices productPrices = cache ? prices.get(storeKey + sku) : null;
+            if (productPrices != null && now - productPrices.time <= ttl) {
+                result.put(sku, productPrices);
+            } else {
+                missing.add(sku);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, ProductPrices> fetched = fetchPrices(magentoGraphqlClient, missing, includeVariants, now);
+            for (String sku : missing) {
+                // the products which are not found are also kept, to not query them again for each request
+                ProductPrices productPrices = fetched != null ? fetched.get(sku) : null;
+                if (productPrices == null) {
+                    productPrices = new ProductPrices(now, null);
+                }
+                if (cache && fetched != null) {
+                    prices.put(storeKey + sku, productPrices);
+                }
+                result.put(sku, productPrices);
+            }
+        }
+
+        result.values().removeIf(p -> p.getPrices().isEmpty());
+        return result;
+    }
+
+    /**
+     * Returns the fetched prices by SKU, or <code>null</code> if the prices could not be fetched.
+     */
+    private Map<String, ProductPrices> fetchPrices(MagentoGraphqlClient magentoGraphqlClient, List<String> skus, boolean includeVariants,
+        long now) {
+        ProductAttributeFilterInput filter = new ProductAttributeFilterInput().setSku(new FilterEqualTypeInput().setIn(skus));
+        String queryString = Operations.query(query -> query
+            .products(args -> args.filter(filter).pageSize(skus.size()), products -> products
+                .items(item -> defineProductPrices(item, includeVariants))))
+            .toString();
+
+        GraphqlResponse<Query, Error> response;
+        try {
+            response = magentoGraphqlClient.execute(queryString);
+        } catch (RuntimeException x) {
+            LOGGER.error("Failed to fetch the prices of {}", skus, x);
+            return null;
+        }
+        if (CollectionUtils.isNotEmpty(response.getErrors())) {
+            response.getErrors()
+                .forEach(err -> LOGGER.error("An error has occurred: {} ({})", err.getMessage(), err.getCategory()));
+            return null;
+        }
+        if (response.getData() == null || response.getData().getProducts() == null) {
+            return null;
+        }
+
+        Map<String, ProductPrices> fetched = new LinkedHashMap<>();
+        for (ProductInterface product : response.getData().getProducts().getItems()) {
+            ProductPrices productPrices = new ProductPrices(now, product.getGraphQlTypeName());
+            productPrices.add(product.getSku(), product.getPriceRange());
+            if (product instanceof ConfigurableProduct && ((ConfigurableProduct) product).getVariants() != null) {
+                for (ConfigurableVariant variant : ((ConfigurableProduct) product).getVariants()) {
+                    productPrices.add(variant.getProduct().getSku(), variant.getProduct().getPriceRange());
+                }
+            } else if (product instanceof GroupedProduct && ((GroupedProduct) product).getItems() != null) {
+                for (GroupedProductItem item : ((GroupedProduct) product).getItems()) {
+                    productPrices.add(item.getProduct().getSku(), item.getProduct().getPriceRange());
+                }
+            }
+            fetched.put(product.getSku(), productPrices);
+        }
+        return fetched;
+    }
+
+    private static void defineProductPrices(ProductInterfaceQuery item, boolean includeVariants) {
+        ProductPriceQueryDefinition price = p -> p
+            .regularPrice(r -> r.value().currency())
+            .finalPrice(f -> f.value().currency())
+            .discount(d -> d.amountOff().percentOff());
+
+        item.sku()
+            .priceRange(r -> r.minimumPrice(price))
+            .onConfigurableProduct(cp -> {
+                cp.priceRange(r -> r.maximumPrice(price));
+                if (includeVariants) {
+                    cp.variants(v -> v.product(p -> p.sku().priceRange(r -> r.minimumPrice(price))));
+                }
+            })
+            .onGroupedProduct(gp -> gp
+                .items(i -> i.product(p -> p.sku().priceRange(r -> r.minimumPrice(price)))))
+            .onBundleProduct(bp -> bp
+                .priceRange(r -> r.maximumPrice(price)));
+    }
+
+    /**
+     * The price ranges of a product, and of its variants or grouped items, by SKU.
+     */
+    public static class ProductPrices {
+        private final long time;
+        private final String type;
+        private final Map<String, PriceRange> prices = new LinkedHashMap<>();
+
+        ProductPrices(long time, String type) {
+            this.time = time;
+            this.type = type;
+        }
+
+        private void add(String sku, PriceRange priceRange) {
+            if (sku != null && priceRange != null && priceRange.getMinimumPrice() != null) {
+                prices.put(sku, priceRange);
+            }
+        }
+
+        /**
+         * @return the GraphQL type of the product
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the price ranges of the product and of its variants or grouped items, by SKU
+         */
+        public Map<String, PriceRange> getPrices() {
+            return Collections.unmodifiableMap(prices);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(name = "CIF Client Price Cache configuration")
+public @interface ClientPriceServiceConfiguration {
+
+    int DEFAULT_MAX_ENTRIES = 10000;
+    long DEFAULT_TTL = 60;
+    int DEFAULT_MAX_SKUS = 100;
+
+    @AttributeDefinition(
+        name = "Maximum entries",
+        description = "The maximum number of products whose prices are kept in memory, for all the stores.",
+        type = AttributeType.INTEGER)
+    int maxEntries() default DEFAULT_MAX_ENTRIES;
+
+    @AttributeDefinition(
+        name = "Time to live",
+        description = "The time in seconds during which the prices of a product are served from memory.",
+        type = AttributeType.LONG)
+    long ttl() default DEFAULT_TTL;
+
+    @AttributeDefinition(
+        name = "Maximum SKUs",
+        description = "The maximum number of products whose prices are fetched by a single client request.",
+        type = AttributeType.INTEGER)
+    int maxSkus() default DEFAULT_MAX_SKUS;
+}
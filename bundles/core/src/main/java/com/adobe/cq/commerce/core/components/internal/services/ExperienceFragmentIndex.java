@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+
+import com.adobe.cq.commerce.core.components.models.experiencefragment.CommerceExperienceFragment;
+import com.day.cq.commons.jcr.JcrConstants;
+
+/**
+ * Immutable index of the experience fragments below an experience fragments root. The index maps the fragment location and each
+ * <code>cq:products</code> or <code>cq:categories</code> value of a page content to its path, so that a lookup returns the same
+ * pages as the JCR-SQL2 query done by the commerce experience fragment component, in the order of the page tree.
+ */
+class ExperienceFragmentIndex {
+
+    private static final String NT_PAGE_CONTENT = "cq:PageContent";
+    private static final char VARIANT_SEPARATOR = '#';
+
+    private final Map<Pair<String, String>, List<String>> products = new HashMap<>();
+    private final Map<Pair<String, String>, List<String>> categories = new HashMap<>();
+
+    private ExperienceFragmentIndex() {}
+
+    /**
+     * Builds the index of the experience fragments below the given root.
+     *
+     * @param root the experience fragments root, can be <code>null</code> if it does not exist
+     * @return the index
+     */
+    static ExperienceFragmentIndex build(Resource root) {
+        ExperienceFragmentIndex index = new ExperienceFragmentIndex();
+        if (root != null) {
+            index.addPages(root);
+        }
+        return index;
+    }
+
+    private void addPages(Resource resource) {
+        for (Resource child : resource.getChildren()) {
+            if (JcrConstants.JCR_CONTENT.equals(child.getName())) {
+                addPageContent(child);
+            } else {
+                addPages(child);
+            }
+        }
+    }
+
+    private void addPageContent(Resource pageContent) {
+        ValueMap properties = pageContent.getValueMap();
+        if (!NT_PAGE_CONTENT.equals(properties.get(JcrConstants.JCR_PRIMARYTYPE, String.class))) {
+            return;
+        }
+
+        String path = pageContent.getPath();
+        String location = properties.get(CommerceExperienceFragment.PN_FRAGMENT_LOCATION, String.class);
+        for (String sku : properties.get(CommerceExperienceFragment.PN_CQ_PRODUCTS, new String[0])) {
+            // the values are either a SKU or a SKU followed by the SKU of a variant
+            add(products, location, sku, path);
+            for (int i = sku.indexOf(VARIANT_SEPARATOR); i >= 0; i = sku.indexOf(VARIANT_SEPARATOR, i + 1)) {
+                add(products, location, sku.substring(0, i), path);
+            }
+        }
+        for (String uid : properties.get(CommerceExperienceFragment.PN_CQ_CATEGORIES, new String[0])) {
+            add(categories, location, uid, path);
+        }
+    }
+
+    private static void add(Map<Pair<String, String>, List<String>> map, String location, String value, String path) {
+        List<String> paths = map.computeIfAbsent(Pair.of(location, value), key -> new ArrayList<>(1));
+        if (paths.isEmpty() || !paths.get(paths.size() - 1).equals(path)) {
+            paths.add(path);
+        }
+    }
+
+    /**
+     * @param sku the SKU of the product
+     * @param location the fragment location, or <code>null</code> for the fragments without location
+     * @return the paths of the page contents of the fragments of the product
+     */
+    List<String> getProductFragments(String sku, String location) {
+        return products.getOrDefault(Pair.of(location, sku), Collections.emptyList());
+    }
+
+    /**
+     * @param uid the UID of the category
+     * @param location the fragment location, or <code>null</code> for the fragments without location
+     * @return the paths of the page contents of the fragments of the category
+     */
+    List<String> getCategoryFragments(String uid, String location) {
+        return categories.getOrDefault(Pair.of(location, uid), Collections.emptyList());
+    }
+}
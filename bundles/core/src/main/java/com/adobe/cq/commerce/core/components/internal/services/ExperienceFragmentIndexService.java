@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.serviceusermapping.ServiceUserMapped;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches an {@link ExperienceFragmentIndex} for each experience fragments root, so that the commerce experience fragment component
+ * finds the fragments of a product or category without a query. An index is removed from the cache when a resource below its root,
+ * or one of the parents of the root, is changed, and it is rebuilt the next time it is used. The indexes are shared by all the
+ * requests, so they are built with a service user which can read all the fragments, and the fragments of a lookup are resolved
+ * with the resolver of the request.
+ */
+@Component(
+    service = { ExperienceFragmentIndexService.class, ResourceChangeListener.class },
+    property = {
+        ResourceChangeListener.PATHS + "=" + ExperienceFragmentIndexService.XF_ROOT,
+        ResourceChangeListener.CHANGES + "=ADDED",
+        ResourceChangeListener.CHANGES + "=CHANGED",
+        ResourceChangeListener.CHANGES + "=REMOVED"
+    })
+public class ExperienceFragmentIndexService implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    static final String XF_ROOT = "/content/experience-fragments";
+    static final String SUBSERVICE_NAME = "cif-components-index";
+    static final int MAX_INDEXES = 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExperienceFragmentIndexService.class);
+    private static final Map<String, Object> AUTH_INFO = Collections.singletonMap(ResourceResolverFactory.SUBSERVICE,
+        SUBSERVICE_NAME);
+
+    @Reference(target = "(" + ServiceUserMapped.SUBSERVICENAME + "=" + SUBSERVICE_NAME + ")")
+    private ServiceUserMapped serviceUserMapped;
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private final PathIndexCache<ExperienceFragmentIndex> indexes = new PathIndexCache<>(MAX_INDEXES);
+
+    /**
+     * Returns the page contents of the experience fragments of a product below the given root, like the query of the page contents
+     * whose <code>cq:products</code> property is the SKU or starts with the SKU followed by <code>#</code>.
+     *
+     * @param resolver The resource resolver of the request, used to resolve the fragments.
+     * @param root The experience fragments root.
+     * @param sku The SKU of the product.
+     * @param fragmentLocation The fragment location, or <code>null</code> for the fragments without location.
+     * @return The page content resources of the matching experience fragments.
+     */
+    public List<Resource> findProductFragments(ResourceResolver resolver, String root, String sku, String fragmentLocation) {
+        return toResources(resolver, getIndex(resolver, root).getProductFragments(sku, fragmentLocation));
+    }
+
+    /**
+     * Returns the page contents of the experience fragments of a category below the given root, like the query of the page contents
+     * whose <code>cq:categories</code> property is the category UID.
+     *
+     * @param resolver The resource resolver of the request, used to resolve the fragments.
+     * @param root The experience fragments root.
+     * @param uid The UID of the category.
+     * @param fragmentLocation The fragment location, or <code>null</code> for the fragments without location.
+     * @return The page content resources of the matching experience fragments.
+     */
+    public List<Resource> findCategoryFragments(ResourceResolver resolver, String root, String uid, String fragmentLocation) {
+        return toResources(resolver, getIndex(resolver, root).getCategoryFragments(uid, fragmentLocation));
+    }
+
+    private static List<Resource> toResources(ResourceResolver resolver, List<String> paths) {
+        // The resources are resolved with the resolver of the request, so the fragments that the user cannot read are not returned
+        List<Resource> resources = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            Resource resource = resolver.getResource(path);
+            if (resource != null) {
+                resources.add(resource);
+            }
+        }
+        return resources;
+    }
+
+    ExperienceFragmentIndex getIndex(ResourceResolver resolver, String root) {
+        String path = StringUtils.removeEnd(root, "/");
+        ExperienceFragmentIndex index = resolverFactory != null ? indexes.get(path, () -> buildIndex(path)) : null;
+        // Without service user, the index is built with the resolver of the request and it is not shared
+        return index != null ? index : ExperienceFragmentIndex.build(resolver.getResource(path));
+    }
+
+    private ExperienceFragmentIndex buildIndex(String path) {
+        try (ResourceResolver serviceResolver = resolverFactory.getServiceResourceResolver(AUTH_INFO)) {
+            return ExperienceFragmentIndex.build(serviceResolver.getResource(path));
+        } catch (LoginException e) {
+            LOGGER.error("Cannot get the service resource resolver to index the experience fragments of {}", path, e);
+        }
+        return null;
+    }
+
+    boolean isCached(String root) {
+        return indexes.contains(root);
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        for (ResourceChange change : changes) {
+            indexes.invalidate(change.getPath());
+        }
+    }
+}
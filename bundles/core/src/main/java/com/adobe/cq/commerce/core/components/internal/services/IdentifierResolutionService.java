@@ -0,0 +1,246 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.CategoryFilterInput;
+import com.adobe.cq.commerce.magento.graphql.CategoryInterface;
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+import com.adobe.cq.commerce.magento.graphql.FilterEqualTypeInput;
+import com.adobe.cq.commerce.magento.graphql.Operations;
+import com.adobe.cq.commerce.magento.graphql.ProductAttributeFilterInput;
+import com.adobe.cq.commerce.magento.graphql.ProductInterface;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+
+/**
+ * Resolves the product url_keys to SKUs and the category url_paths to UIDs, for the components which only need the SKU or UID of
+ * the product or category of the URL. The mappings of each store are kept in memory, are warmed with the products and categories
+ * already fetched by the components, and the missing mappings of a list of identifiers are resolved with a single query.
+ * The mappings are not cached for preview requests, as the staged catalog may differ.
+ */
+@Component(service = IdentifierResolutionService.class)
+@Designate(ocd = IdentifierResolutionServiceConfiguration.class)
+public class IdentifierResolutionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdentifierResolutionService.class);
+    private static final String PRODUCT_PREFIX = "p|";
+    private static final String CATEGORY_PREFIX = "c|";
+
+    private Map<String, Entry> entries = StoreCaches.createLruMap(IdentifierResolutionServiceConfiguration.DEFAULT_MAX_ENTRIES);
+    private long ttl = TimeUnit.SECONDS.toMillis(IdentifierResolutionServiceConfiguration.DEFAULT_TTL);
+
+    @Activate
+    protected void activate(IdentifierResolutionServiceConfiguration configuration) {
+        entries = StoreCaches.createLruMap(configuration.maxEntries());
+        ttl = TimeUnit.SECONDS.toMillis(configuration.ttl());
+    }
+
+    /**
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param urlKey the url_key of a product
+     * @return the SKU of the product, or <code>null</code> if the product is not found
+     */
+    public String getSku(MagentoGraphqlClient magentoGraphqlClient, String urlKey) {
+        return getSkus(magentoGraphqlClient, Collections.singletonList(urlKey)).get(urlKey);
+    }
+
+    /**
+     * Resolves the SKUs of the given url_keys. The url_keys which are not cached are resolved with a single products query.
+     *
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param urlKeys the url_keys of the products
+     * @return the SKUs of the products found, by url_key
+     */
+    public Map<String, String> getSkus(MagentoGraphqlClient magentoGraphqlClient, Collection<String> urlKeys) {
+        return resolve(magentoGraphqlClient, PRODUCT_PREFIX, urlKeys, missing -> {
+            String queryString = Operations.query(query -> query
+                .products(args -> args
+                    .filter(new ProductAttributeFilterInput().setUrlKey(new FilterEqualTypeInput().setIn(missing)))
+                    .pageSize(missing.size()),
+                    products -> products.items(item -> item.sku().urlKey()))).toString();
+
+            Query data = execute(magentoGraphqlClient, queryString);
+            Map<String, String> resolved = new HashMap<>();
+            if (data != null && data.getProducts() != null && data.getProducts().getItems() != null) {
+                for (ProductInterface product : data.getProducts().getItems()) {
+                    resolved.put(product.getUrlKey(), product.getSku());
+                }
+            }
+            return resolved;
+        });
+    }
+
+    /**
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param urlPath the url_path of a category
+     * @return the UID of the category, or <code>null</code> if the category is not found
+     */
+    public String getCategoryUid(MagentoGraphqlClient magentoGraphqlClient, String urlPath) {
+        return getCategoryUids(magentoGraphqlClient, Collections.singletonList(urlPath)).get(urlPath);
+    }
+
+    /**
+     * Resolves the UIDs of the given url_paths. The url_paths which are not cached are resolved with a single categoryList query.
+     *
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param urlPaths the url_paths of the categories
+     * @return the UIDs of the categories found, by url_path
+     */
+    public Map<String, String> getCategoryUids(MagentoGraphqlClient magentoGraphqlClient, Collection<String> urlPaths) {
+        return resolve(magentoGraphqlClient, CATEGORY_PREFIX, urlPaths, missing -> {
+            String queryString = Operations.query(query -> query
+                .categoryList(args -> args.filters(new CategoryFilterInput().setUrlPath(new FilterEqualTypeInput().setIn(missing))),
+                    category -> category.uid().urlPath())).toString();
+
+            Query data = execute(magentoGraphqlClient, queryString);
+            Map<String, String> resolved = new HashMap<>();
+            if (data != null && data.getCategoryList() != null) {
+                for (CategoryTree category : data.getCategoryList()) {
+                    resolved.put(category.getUrlPath(), category.getUid().toString());
+                }
+            }
+            return resolved;
+        });
+    }
+
+    /**
+     * Caches the url_key to SKU mappings of products fetched by a component. The products must have been fetched with their
+     * <code>sku</code> and <code>url_key</code> fields.
+     *
+     * @param magentoGraphqlClient the GraphQL client used to fetch the products
+     * @param products the products
+     */
+    public void warmProducts(MagentoGraphqlClient magentoGraphqlClient, Collection<? extends ProductInterface> products) {
+        if (products == null || isPreview(magentoGraphqlClient)) {
+            return;
+        }
+        String storeKey = getStoreKey(magentoGraphqlClient, PRODUCT_PREFIX);
+        long expiry = System.currentTimeMillis() + ttl;
+        for (ProductInterface product : products) {
+            if (product != null && product.getUrlKey() != null && product.getSku() != null) {
+                entries.put(storeKey + product.getUrlKey(), new Entry(product.getSku(), expiry));
+            }
+        }
+    }
+
+    /**
+     * Caches the url_path to UID mappings of categories fetched by a component. The categories must have been fetched with their
+     * <code>uid</code> and <code>url_path</code> fields.
+     *
+     * @param magentoGraphqlClient the GraphQL client used to fetch the categories
+     * @param categories the categories
+     */
+    public void warmCategories(MagentoGraphqlClient magentoGraphqlClient, Collection<? extends CategoryInterface> categories) {
+        if (categories == null || isPreview(magentoGraphqlClient)) {
+            return;
+        }
+        String storeKey = getStoreKey(magentoGraphqlClient, CATEGORY_PREFIX);
+        long expiry = System.currentTimeMillis() + ttl;
+        for (CategoryInterface category : categories) {
+            if (category != null && category.getUrlPath() != null && category.getUid() != null) {
+                entries.put(storeKey + category.getUrlPath(), new Entry(category.getUid().toString(), expiry));
+            }
+        }
+    }
+
+    private Map<String, String> resolve(MagentoGraphqlClient magentoGraphqlClient, String prefix, Collection<String> identifiers,
+        Resolver resolver) {
+        boolean preview = isPreview(magentoGraphqlClient);
+        String storeKey = getStoreKey(magentoGraphqlClient, prefix);
+        long now = System.currentTimeMillis();
+
+        Map<String, String> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String identifier : new LinkedHashSet<>(identifiers)) {
+            if (StringUtils.isBlank(identifier)) {
+                continue;
+            }
+            Entry entry = preview ? null : entries.get(storeKey + identifier);
+            if (entry != null && entry.expiry > now) {
+                resolved.put(identifier, entry.value);
+            } else {
+                missing.add(identifier);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, String> fetched = resolver.resolve(missing);
+            long expiry = System.currentTimeMillis() + ttl;
+            for (String identifier : missing) {
+                String value = fetched.get(identifier);
+                if (value != null) {
+                    resolved.put(identifier, value);
+                    if (!preview) {
+                        entries.put(storeKey + identifier, new Entry(value, expiry));
+                    }
+                }
+            }
+        }
+
+        return resolved;
+    }
+
+    private Query execute(MagentoGraphqlClient magentoGraphqlClient, String queryString) {
+        GraphqlResponse<Query, Error> response = magentoGraphqlClient.execute(queryString);
+        if (CollectionUtils.isNotEmpty(response.getErrors())) {
+            response.getErrors()
+                .forEach(err -> LOGGER.error("An error has occurred: {} ({})", err.getMessage(), err.getCategory()));
+            return null;
+        }
+        return response.getData();
+    }
+
+    private static boolean isPreview(MagentoGraphqlClient magentoGraphqlClient) {
+        return StoreCaches.isPreview(magentoGraphqlClient);
+    }
+
+    private static String getStoreKey(MagentoGraphqlClient magentoGraphqlClient, String prefix) {
+        return prefix + StoreCaches.getStoreKey(magentoGraphqlClient) + "|";
+    }
+
+    @FunctionalInterface
+    private interface Resolver {
+        Map<String, String> resolve(List<String> missing);
+    }
+
+    private static class Entry {
+        private final String value;
+        private final long expiry;
+
+        Entry(String value, long expiry) {
+            this.value = value;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(name = "CIF Identifier Resolution Service configuration")
+public @interface IdentifierResolutionServiceConfiguration {
+
+    int DEFAULT_MAX_ENTRIES = 10000;
+    long DEFAULT_TTL = 86400;
+
+    @AttributeDefinition(
+        name = "Maximum entries",
+        description = "The maximum number of url_key to SKU and url_path to UID mappings kept in memory.",
+        type = AttributeType.INTEGER)
+    int maxEntries() default DEFAULT_MAX_ENTRIES;
+
+    @AttributeDefinition(
+        name = "Time to live",
+        description = "The time in seconds after which a mapping is resolved again with Magento.",
+        type = AttributeType.LONG)
+    long ttl() default DEFAULT_TTL;
+}
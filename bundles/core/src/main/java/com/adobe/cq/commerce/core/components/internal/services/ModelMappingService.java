@@ -0,0 +1,160 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maps the lists of the Magento GraphQL responses to the component models. Small lists are mapped by the request thread, larger
+ * lists are split in slices mapped by a bounded pool of threads dedicated to the CIF components, instead of the common
+ * ForkJoinPool shared by the whole instance. When the pool is busy, the request thread maps the slices itself. The number of lists
+ * and slices mapped each way is exposed as a JMX MBean.
+ */
+@Component(
+    service = { ModelMappingService.class, ModelMappingServiceMBean.class },
+    property = "jmx.objectname=com.adobe.cq.commerce.core.components:type=ModelMappingService")
+@Designate(ocd = ModelMappingServiceConfiguration.class)
+public class ModelMappingService implements ModelMappingServiceMBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelMappingService.class);
+
+    private int parallelThreshold = ModelMappingServiceConfiguration.DEFAULT_PARALLEL_THRESHOLD;
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong sequentialMappings = new AtomicLong();
+    private final AtomicLong parallelMappings = new AtomicLong();
+    private final AtomicLong callerRunsSlices = new AtomicLong();
+
+    @Activate
+    protected void activate(ModelMappingServiceConfiguration configuration) {
+        parallelThreshold = Math.max(1, configuration.parallelThreshold());
+        int poolSize = configuration.poolSize();
+        if (poolSize > 0) {
+            AtomicInteger threads = new AtomicInteger();
+            executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, configuration.queueSize())), runnable -> {
+                    Thread thread = new Thread(runnable, "CIF model mapping " + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> {
+                    callerRunsSlices.incrementAndGet();
+                    runnable.run();
+                });
+            executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (executor != null) {
+            // The queued slices are still mapped, as request threads wait for them
+            executor.shutdown();
+            LOGGER.debug("Mapped {} lists sequentially and {} in parallel, {} slices mapped by the request thread",
+                sequentialMappings.get(), parallelMappings.get(), callerRunsSlices.get());
+        }
+    }
+
+    /**
+     * Maps the given list, preserving the order of the items.
+     *
+     * @param items the items to map
+     * @param mapper the function mapping each item, which must not depend on the calling thread
+     * @param <T> the type of the items
+     * @param <R> the type of the mapped items
+     * @return the mapped items
+     */
+    public <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> mapper) {
+        if (executor == null || items.size() < parallelThreshold) {
+            sequentialMappings.incrementAndGet();
+            return items.stream().map(mapper).collect(Collectors.toList());
+        }
+
+        parallelMappings.incrementAndGet();
+        int slices = Math.min(executor.getMaximumPoolSize() + 1, (items.size() + parallelThreshold - 1) / parallelThreshold);
+        int sliceSize = (items.size() + slices - 1) / slices;
+        Object[] results = new Object[items.size()];
+
+        // The first slice is mapped by the request thread while the others are mapped by the pool
+        List<Future<?>> futures = new ArrayList<>(slices - 1);
+        for (int start = sliceSize; start < items.size(); start += sliceSize) {
+            int from = start;
+            int to = Math.min(items.size(), start + sliceSize);
+            futures.add(executor.submit(() -> mapSlice(items, mapper, results, from, to)));
+        }
+        mapSlice(items, mapper, results, 0, Math.min(items.size(), sliceSize));
+
+        for (Future<?> future : futures) {
+            // A slice still queued is mapped by the request thread instead of waiting for the pool
+            if (executor.remove((Runnable) future)) {
+                callerRunsSlices.incrementAndGet();
+                ((Runnable) future).run();
+            }
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while mapping the items", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Failed to map the items", e.getCause());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> mapped = (List<R>) Arrays.asList(results);
+        return new ArrayList<>(mapped);
+    }
+
+    private static <T, R> void mapSlice(List<T> items, Function<? super T, ? extends R> mapper, Object[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = mapper.apply(items.get(i));
+        }
+    }
+
+    @Override
+    public long getSequentialMappings() {
+        return sequentialMappings.get();
+    }
+
+    @Override
+    public long getParallelMappings() {
+        return parallelMappings.get();
+    }
+
+    @Override
+    public long getCallerRunsSlices() {
+        return callerRunsSlices.get();
+    }
+}
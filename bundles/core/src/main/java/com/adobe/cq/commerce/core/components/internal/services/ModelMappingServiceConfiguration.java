@@ -0,0 +1,46 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(name = "CIF Model Mapping configuration")
+public @interface ModelMappingServiceConfiguration {
+
+    int DEFAULT_PARALLEL_THRESHOLD = 50;
+    int DEFAULT_POOL_SIZE = 4;
+    int DEFAULT_QUEUE_SIZE = 100;
+
+    @AttributeDefinition(
+        name = "Parallel threshold",
+        description = "The minimum number of items of a list mapped in parallel. Smaller lists are mapped by the request thread.",
+        type = AttributeType.INTEGER)
+    int parallelThreshold() default DEFAULT_PARALLEL_THRESHOLD;
+
+    @AttributeDefinition(
+        name = "Pool size",
+        description = "The number of threads mapping lists in parallel, shared by all the requests. 0 disables parallel mapping.",
+        type = AttributeType.INTEGER)
+    int poolSize() default DEFAULT_POOL_SIZE;
+
+    @AttributeDefinition(
+        name = "Queue size",
+        description = "The maximum number of mapping tasks waiting for a thread. When the queue is full, the request thread maps the "
+            + "items itself.",
+        type = AttributeType.INTEGER)
+    int queueSize() default DEFAULT_QUEUE_SIZE;
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+/**
+ * The statistics of the {@link ModelMappingService}, registered as a JMX MBean.
+ */
+public interface ModelMappingServiceMBean {
+
+    /**
+     * @return the number of lists mapped by the request thread only
+     */
+    long getSequentialMappings();
+
+    /**
+     * @return the number of lists split in slices mapped in parallel
+     */
+    long getParallelMappings();
+
+    /**
+     * @return the number of slices mapped by the request thread because the pool was busy
+     */
+    long getCallerRunsSlices();
+}
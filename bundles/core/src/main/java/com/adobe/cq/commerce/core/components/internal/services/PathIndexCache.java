@@ -0,0 +1,122 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A bounded cache of the indexes built from the resources below a root path. An index is removed when a resource below its root,
+ * its root or one of the parents of its root changes. The indexes are built outside of the lock of the cache, and an index is
+ * only cached if its root did not change while it was built, so a change is never hidden by a stale index.
+ *
+ * @param <T> the type of the indexes
+ */
+class PathIndexCache<T> {
+
+    private final Object lock = new Object();
+
+    // all the fields are guarded by the lock
+    private final NavigableSet<String> roots = new TreeSet<>();
+    private final Map<String, Object> builds = new HashMap<>();
+    private final Map<String, T> indexes;
+
+    PathIndexCache(int maxIndexes) {
+        indexes = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                if (size() > maxIndexes) {
+                    roots.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the index of the given root, and builds it if it is not cached.
+     *
+     * @param root the root path
+     * @param builder builds the index of the root, or returns <code>null</code> if the index cannot be built
+     * @return the index or <code>null</code> if the index cannot be built
+     */
+    T get(String root, Supplier<T> builder) {
+        Object build = new Object();
+        synchronized (lock) {
+            T index = indexes.get(root);
+            if (index != null) {
+                return index;
+            }
+            builds.put(root, build);
+        }
+
+        T index = builder.get();
+        synchronized (lock) {
+            // the build was removed if the root changed in the meantime, or replaced by a more recent build of the same root
+            if (builds.get(root) == build) {
+                builds.remove(root);
+                if (index != null) {
+                    indexes.put(root, index);
+                    roots.add(root);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Removes the indexes of the roots containing the given path, or contained in the given path.
+     *
+     * @param path the path of the changed resource
+     */
+    void invalidate(String path) {
+        synchronized (lock) {
+            if (indexes.isEmpty() && builds.isEmpty()) {
+                return;
+            }
+            // the roots containing the changed resource are its parents, so there is no need to check all the cached roots
+            for (String parent = path; StringUtils.isNotEmpty(parent); parent = StringUtils.substringBeforeLast(parent, "/")) {
+                remove(parent);
+            }
+            for (String root : new ArrayList<>(roots.subSet(path + "/", path + "0"))) {
+                remove(root);
+            }
+            if (!builds.isEmpty()) {
+                builds.keySet().removeIf(root -> root.startsWith(path + "/"));
+            }
+        }
+    }
+
+    private void remove(String root) {
+        if (indexes.remove(root) != null) {
+            roots.remove(root);
+        }
+        builds.remove(root);
+    }
+
+    boolean contains(String root) {
+        synchronized (lock) {
+            return indexes.containsKey(root);
+        }
+    }
+}
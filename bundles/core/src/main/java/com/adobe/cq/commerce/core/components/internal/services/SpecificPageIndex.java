@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.wcm.api.NameConstants;
+
+/**
+ * Immutable index of the specific pages below a generic product or category page. The index maps each <code>selectorFilter</code>
+ * value and each <code>url_path</code> of the pages including the sub-categories to the specific page, so that a lookup only
+ * depends on the number of selectors and on the length of the url_path instead of the size of the page tree.
+ * The specific pages are indexed in the order of the recursive traversal done by
+ * {@link UrlProviderImpl#toSpecificPage(Resource, Set)}, so both return the same page.
+ */
+class SpecificPageIndex {
+
+    static final String SELECTOR_FILTER_PROPERTY = "selectorFilter";
+    static final String INCLUDES_SUBCATEGORIES_PROPERTY = "includesSubCategories";
+    static final String ID_AND_URL_PATH_SEPARATOR = "|";
+
+    private final List<String> pages;
+    private final Map<String, Integer> selectors;
+    private final Map<String, Integer> urlPaths;
+    private final int firstUrlPathPage;
+
+    private SpecificPageIndex(List<String> pages, Map<String, Integer> selectors, Map<String, Integer> urlPaths) {
+        this.pages = pages;
+        this.selectors = selectors;
+        this.urlPaths = urlPaths;
+        this.firstUrlPathPage = urlPaths.values().stream().mapToInt(Integer::intValue).min().orElse(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return <code>true</code> if the generic page has at least one specific page.
+     */
+    boolean hasSpecificPages() {
+        return !pages.isEmpty();
+    }
+
+    /**
+     * Returns the path of the specific page matching one of the selectors or the current url_path.
+     *
+     * @param selectorValues the selector values to match
+     * @param currentUrlPath supplies the url_path of the current category, only called if a page including the sub-categories can
+     *            match before the pages matching the selectors
+     * @return the path of the specific page or <code>null</code> if no page matches
+     */
+    String lookup(Set<String> selectorValues, Supplier<String> currentUrlPath) {
+        int match = Integer.MAX_VALUE;
+        for (String selector : selectorValues) {
+            Integer page = selectors.get(selector);
+            if (page != null && page < match) {
+                match = page;
+            }
+        }
+
+        if (firstUrlPathPage < match) {
+            String urlPath = currentUrlPath.get();
+            if (urlPath != null) {
+                // Checks all the parent url_paths, e.g. "men" and "men/tops" for "men/tops/jackets"
+                for (int i = urlPath.indexOf('/'); i > 0; i = urlPath.indexOf('/', i + 1)) {
+                    Integer page = urlPaths.get(urlPath.substring(0, i));
+                    if (page != null && page < match) {
+                        match = page;
+                    }
+                }
+            }
+        }
+
+        return match < pages.size() ? pages.get(match) : null;
+    }
+
+    static SpecificPageIndex build(Resource page) {
+        List<String> pages = new ArrayList<>();
+        Map<String, Integer> selectors = new HashMap<>();
+        Map<String, Integer> urlPaths = new HashMap<>();
+        collect(page, pages, selectors, urlPaths);
+        return new SpecificPageIndex(pages, selectors, urlPaths);
+    }
+
+    private static void collect(Resource page, List<String> pages, Map<String, Integer> selectors, Map<String, Integer> urlPaths) {
+        Iterator<Resource> children = page.listChildren();
+        while (children.hasNext()) {
+            Resource child = children.next();
+            if (!NameConstants.NT_PAGE.equals(child.getResourceType())) {
+                continue;
+            }
+
+            // The pages deeper in the tree take precedence
+            if (child.hasChildren()) {
+                collect(child, pages, selectors, urlPaths);
+            }
+
+            Resource jcrContent = child.getChild(JcrConstants.JCR_CONTENT);
+            if (jcrContent == null) {
+                continue;
+            }
+
+            Object filter = jcrContent.getValueMap().get(SELECTOR_FILTER_PROPERTY);
+            if (filter == null) {
+                continue;
+            }
+
+            int index = pages.size();
+            pages.add(child.getPath());
+
+            // The property is saved as a String when it's a simple selection, or an array when a multi-selection is done
+            String[] selectorFilters = filter.getClass().isArray() ? ((String[]) filter) : ArrayUtils.toArray((String) filter);
+            boolean includesSubCategories = jcrContent.getValueMap().get(INCLUDES_SUBCATEGORIES_PROPERTY, false);
+
+            for (String selectorFilter : selectorFilters) {
+                // When used with the category picker and the 'idAndUrlPath' option, the values might have a format like '12|men/men-tops'
+                selectors.putIfAbsent(StringUtils.substringBefore(selectorFilter, ID_AND_URL_PATH_SEPARATOR), index);
+                String urlPath = StringUtils.substringAfter(selectorFilter, ID_AND_URL_PATH_SEPARATOR);
+                if (includesSubCategories && !urlPath.isEmpty()) {
+                    urlPaths.putIfAbsent(urlPath, index);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.serviceusermapping.ServiceUserMapped;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches a {@link SpecificPageIndex} for each generic product or category page. An index is removed from the cache when a resource
+ * below its generic page, or one of the parents of the generic page, is changed, and it is rebuilt the next time it is used.
+ * The indexes are shared by all the requests, so they are built with a service user which can read all the specific pages, and
+ * the specific page of a lookup is resolved with the resolver of the request.
+ */
+@Component(
+    service = { SpecificPageIndexService.class, ResourceChangeListener.class },
+    property = {
+        ResourceChangeListener.PATHS + "=/content",
+        ResourceChangeListener.CHANGES + "=ADDED",
+        ResourceChangeListener.CHANGES + "=CHANGED",
+        ResourceChangeListener.CHANGES + "=REMOVED"
+    })
+public class SpecificPageIndexService implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    static final String SUBSERVICE_NAME = "cif-components-index";
+    static final int MAX_INDEXES = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecificPageIndexService.class);
+    private static final Map<String, Object> AUTH_INFO = Collections.singletonMap(ResourceResolverFactory.SUBSERVICE,
+        SUBSERVICE_NAME);
+
+    @Reference(target = "(" + ServiceUserMapped.SUBSERVICENAME + "=" + SUBSERVICE_NAME + ")")
+    private ServiceUserMapped serviceUserMapped;
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private final PathIndexCache<SpecificPageIndex> indexes = new PathIndexCache<>(MAX_INDEXES);
+
+    /**
+     * Returns the specific page of the given generic page matching one of the selectors, or the url_path of the current category.
+     * This returns the same page as {@link UrlProviderImpl#toSpecificPage(Resource, Set, SlingHttpServletRequest)}.
+     *
+     * @param page The generic page resource.
+     * @param selectors The searched values of the <code>selectorFilter</code> property.
+     * @param request The current Sling HTTP Servlet request, used to get the url_path of the current category.
+     * @param params The URL parameters, used to get the url_path of the category of a link.
+     * @return If found, the specific page resource, otherwise null.
+     */
+    public Resource toSpecificPage(Resource page, Set<String> selectors, SlingHttpServletRequest request, Map<String, String> params) {
+        String path = getIndex(page).lookup(selectors, () -> UrlProviderImpl.getCurrentUrlPath(request, params));
+        if (path == null) {
+            return null;
+        }
+
+        LOGGER.debug("Page has a matching sub-page at {}", path);
+        // The resource is resolved with the resolver of the page, so the pages that the current user cannot read are not returned
+        return page.getResourceResolver().getResource(path);
+    }
+
+    /**
+     * @param page The generic page resource.
+     * @return <code>true</code> if the generic page has specific pages.
+     */
+    public boolean hasSpecificPages(Resource page) {
+        return getIndex(page).hasSpecificPages();
+    }
+
+    SpecificPageIndex getIndex(Resource page) {
+        SpecificPageIndex index = resolverFactory != null ? indexes.get(page.getPath(), () -> buildIndex(page.getPath())) : null;
+        // Without service user, the index is built with the resolver of the page and it is not shared
+        return index != null ? index : SpecificPageIndex.build(page);
+    }
+
+    private SpecificPageIndex buildIndex(String path) {
+        try (ResourceResolver serviceResolver = resolverFactory.getServiceResourceResolver(AUTH_INFO)) {
+            Resource page = serviceResolver.getResource(path);
+            if (page != null) {
+                return SpecificPageIndex.build(page);
+            }
+            LOGGER.debug("Service user {} cannot read the page {}", serviceResolver.getUserID(), path);
+        } catch (LoginException e) {
+            LOGGER.error("Cannot get the service resource resolver to index the specific pages of {}", path, e);
+        }
+        return null;
+    }
+
+    boolean isCached(String path) {
+        return indexes.contains(path);
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        for (ResourceChange change : changes) {
+            indexes.invalidate(change.getPath());
+        }
+    }
+}
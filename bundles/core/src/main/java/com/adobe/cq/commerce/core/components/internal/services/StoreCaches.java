@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+
+/**
+ * The helpers shared by the in-memory caches of the Magento data of each store. The data of a store is cached under the identifier of
+ * its GraphQL client and all the HTTP headers sent to Magento, which include the store code and the custom HTTP headers of the
+ * configuration. The data of preview requests is never cached, as the staged catalog may differ.
+ */
+public final class StoreCaches {
+
+    public static final String PREVIEW_VERSION_HEADER = "Preview-Version";
+
+    private StoreCaches() {}
+
+    /**
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @return <code>true</code> if the client fetches the staged catalog of a preview
+     */
+    public static boolean isPreview(MagentoGraphqlClient magentoGraphqlClient) {
+        return magentoGraphqlClient.getHttpHeaders().containsKey(PREVIEW_VERSION_HEADER);
+    }
+
+    /**
+     * Returns the key of the data fetched with the given client. Two clients with the same key get the same responses from Magento.
+     *
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @return the key of the store
+     */
+    public static String getStoreKey(MagentoGraphqlClient magentoGraphqlClient) {
+        String identifier = magentoGraphqlClient.getConfiguration() != null ? magentoGraphqlClient.getConfiguration().identifier() : null;
+        return identifier + "|" + new TreeMap<>(magentoGraphqlClient.getHttpHeaders());
+    }
+
+    /**
+     * Creates a thread-safe map which evicts its least recently used entry when it exceeds the given size.
+     *
+     * @param maxSize the maximum number of entries
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the map
+     */
+    public static <K, V> Map<K, V> createLruMap(int maxSize) {
+        int maxEntries = Math.max(0, maxSize);
+        return Collections.synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
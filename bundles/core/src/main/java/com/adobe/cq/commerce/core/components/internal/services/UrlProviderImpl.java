@@ -14,24 +14,21 @@
 
 package com.adobe.cq.commerce.core.components.internal.services;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,8 +36,6 @@ import org.slf4j.LoggerFactory;
 import com.adobe.cq.commerce.core.components.internal.models.v1.productlist.ProductListImpl;
 import com.adobe.cq.commerce.core.components.models.productlist.ProductList;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
-import com.day.cq.commons.jcr.JcrConstants;
-import com.day.cq.wcm.api.NameConstants;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.WCMMode;
 
@@ -50,73 +45,62 @@ public class UrlProviderImpl implements UrlProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(UrlProviderImpl.class);
 
-    private static final String SELECTOR_FILTER_PROPERTY = "selectorFilter";
-    private static final String INCLUDES_SUBCATEGORIES_PROPERTY = "includesSubCategories";
-    private static final String ID_AND_URL_PATH_SEPARATOR = "|";
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY)
+    private SpecificPageIndexService specificPageIndexService;
 
-    private String productUrlTemplate;
+    private UrlTemplate productUrlTemplate;
     private Pair<IdentifierLocation, ProductIdentifierType> productIdentifierConfig;
 
-    private String categoryUrlTemplate;
+    private UrlTemplate categoryUrlTemplate;
     private Pair<IdentifierLocation, CategoryIdentifierType> categoryIdentifierConfig;
 
     @Activate
     public void activate(UrlProviderConfiguration conf) {
-        productUrlTemplate = conf.productUrlTemplate();
+        productUrlTemplate = UrlTemplate.compile(conf.productUrlTemplate());
         productIdentifierConfig = Pair.of(conf.productIdentifierLocation(), conf.productIdentifierType());
 
-        categoryUrlTemplate = conf.categoryUrlTemplate();
+        categoryUrlTemplate = UrlTemplate.compile(conf.categoryUrlTemplate());
         categoryIdentifierConfig = Pair.of(conf.categoryIdentifierLocation(), conf.categoryIdentifierType());
     }
 
     @Override
     public String toProductUrl(SlingHttpServletRequest request, Page page, Map<String, String> params) {
-        return toUrl(request, page, params, productUrlTemplate);
+        return toUrl(new TargetPage(request, page), params, productUrlTemplate);
     }
 
     @Override
     public String toCategoryUrl(SlingHttpServletRequest request, Page page, Map<String, String> params) {
-        return toUrl(request, page, params, categoryUrlTemplate);
+        return toUrl(new TargetPage(request, page), params, categoryUrlTemplate);
     }
 
-    private String toUrl(SlingHttpServletRequest request, Page page, Map<String, String> params, String template) {
-        if (page != null) {
-            Resource pageResource = page.adaptTo(Resource.class);
-            boolean deepLink = !WCMMode.DISABLED.equals(WCMMode.fromRequest(request));
-            Set<String> selectorValues = new HashSet<>(params.values());
-            ;
-            if (deepLink) {
-                Resource subPageResource = toSpecificPage(pageResource, selectorValues, request, params);
-                if (subPageResource != null) {
-                    pageResource = subPageResource;
-                }
-            }
+    @Override
+    public List<String> toProductUrls(SlingHttpServletRequest request, Page page, List<Map<String, String>> params) {
+        return toUrls(request, page, params, productUrlTemplate);
+    }
 
-            params.put(PAGE_PARAM, pageResource.getPath());
-        }
+    @Override
+    public List<String> toCategoryUrls(SlingHttpServletRequest request, Page page, List<Map<String, String>> params) {
+        return toUrls(request, page, params, categoryUrlTemplate);
+    }
 
-        // We encode all parameters except the page path itself (we don't want to encode the path slashes)
-        for (Map.Entry<String, String> entry : params.entrySet()) {
-            if (!PAGE_PARAM.equals(entry.getKey()) && entry.getValue() != null) {
-                try {
-                    entry.setValue(URLEncoder.encode(entry.getValue().replaceAll("\\/", "_"), StandardCharsets.UTF_8.name()));
-                } catch (UnsupportedEncodingException e) {
-                    LOGGER.warn("Cannot URL-encode {}", entry.getValue());
-                }
-            }
+    private List<String> toUrls(SlingHttpServletRequest request, Page page, List<Map<String, String>> params, UrlTemplate template) {
+        TargetPage targetPage = new TargetPage(request, page);
+        List<String> urls = new ArrayList<>(params.size());
+        for (Map<String, String> p : params) {
+            urls.add(toUrl(targetPage, p, template));
         }
+        return urls;
+    }
 
-        String prefix = "${", suffix = "}"; // variables have the format ${var}
-        if (template.contains("{{")) {
-            prefix = "{{";
-            suffix = "}}"; // variables have the format {{var}}
+    private String toUrl(TargetPage targetPage, Map<String, String> params, UrlTemplate template) {
+        if (targetPage.page != null) {
+            params.put(PAGE_PARAM, targetPage.getPath(params));
         }
 
-        StringSubstitutor sub = new StringSubstitutor(params, prefix, suffix);
-        String url = sub.replace(template);
-        url = StringUtils.substringBeforeLast(url, "#" + prefix); // remove anchor if it hasn't been substituted
+        List<String> missing = new ArrayList<>(0);
+        String url = template.render(params, missing);
 
-        if (url.contains(prefix)) {
+        if (!missing.isEmpty()) {
             LOGGER.warn("Missing params for URL substitution. Resulted URL: {}", url);
         }
 
@@ -154,85 +138,28 @@ public class UrlProviderImpl implements UrlProvider {
 
     private static Resource toSpecificPage(Resource page, Set<String> selectors, SlingHttpServletRequest request,
         Map<String, String> params) {
+        String path = SpecificPageIndex.build(page).lookup(selectors, () -> getCurrentUrlPath(request, params));
+        if (path == null) {
+            return null;
+        }
 
-        ProductList productList = null;
-        String currentUrlPath = null;
-
-        Iterator<Resource> children = page.listChildren();
-        while (children.hasNext()) {
-            Resource child = children.next();
-            if (!NameConstants.NT_PAGE.equals(child.getResourceType())) {
-                continue;
-            }
-
-            if (child.hasChildren()) {
-                final Resource grandChild = toSpecificPage(child, selectors, request, params);
-                if (grandChild != null) {
-                    return grandChild;
-                }
-            }
-
-            Resource jcrContent = child.getChild(JcrConstants.JCR_CONTENT);
-            if (jcrContent == null) {
-                continue;
-            }
-
-            Object filter = jcrContent.getValueMap().get(SELECTOR_FILTER_PROPERTY);
-            if (filter == null) {
-                continue;
-            }
-
-            // The property is saved as a String when it's a simple selection, or an array when a multi-selection is done
-            String[] selectorFilters = filter.getClass().isArray() ? ((String[]) filter) : ArrayUtils.toArray((String) filter);
-
-            // When used with the category picker and the 'idAndUrlPath' option, the values might have a format like '12|men/men-tops'
-            // --> so we split them to first extract the category ids
-            Set<String> selectorFiltersSet = Arrays.asList(selectorFilters)
-                .stream()
-                .map(s -> StringUtils.substringBefore(s, ID_AND_URL_PATH_SEPARATOR))
-                .collect(Collectors.toSet());
-
-            for (String selector : selectors) {
-                if (selectorFiltersSet.contains(selector)) {
-                    LOGGER.debug("Page has a matching sub-page for selector {} at {}", selector, child.getPath());
-                    return child;
-                }
-            }
+        LOGGER.debug("Page has a matching sub-page at {}", path);
+        return page.getResourceResolver().getResource(path);
+    }
 
-            boolean includesSubCategories = jcrContent.getValueMap().get(INCLUDES_SUBCATEGORIES_PROPERTY, false);
-            if (includesSubCategories) {
-
-                List<String> urlPaths = Arrays.asList(selectorFilters)
-                    .stream()
-                    .map(s -> StringUtils.substringAfter(s, ID_AND_URL_PATH_SEPARATOR))
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
-
-                if (urlPaths.isEmpty()) {
-                    continue;
-                }
-
-                // The currentUrlPath being processed is either coming from:
-                // 1) the ProductList model when a category page is being rendered
-                // 2) the params map when the any model renders a category link
-
-                if (currentUrlPath == null) {
-                    if (params != null && params.containsKey(UrlProvider.URL_PATH_PARAM)) {
-                        currentUrlPath = params.get(UrlProvider.URL_PATH_PARAM);
-                    } else if (request != null && productList == null) {
-                        productList = request.adaptTo(ProductList.class);
-                        if (productList instanceof ProductListImpl) {
-                            currentUrlPath = ((ProductListImpl) productList).getUrlPath();
-                        }
-                    }
-                }
-
-                for (String urlPath : urlPaths) {
-                    if (StringUtils.startsWith(currentUrlPath, urlPath + "/")) {
-                        LOGGER.debug("Page has a matching sub-page for url_path {} at {}", urlPath, child.getPath());
-                        return child;
-                    }
-                }
+    /**
+     * Returns the url_path of the current category, used to match the specific pages including the sub-categories. The url_path is
+     * either coming from:
+     * 1) the params map when any model renders a category link
+     * 2) the ProductList model when a category page is being rendered
+     */
+    static String getCurrentUrlPath(SlingHttpServletRequest request, Map<String, String> params) {
+        if (params != null && params.containsKey(UrlProvider.URL_PATH_PARAM)) {
+            return params.get(UrlProvider.URL_PATH_PARAM);
+        } else if (request != null) {
+            ProductList productList = request.adaptTo(ProductList.class);
+            if (productList instanceof ProductListImpl) {
+                return ((ProductListImpl) productList).getUrlPath();
             }
         }
         return null;
@@ -265,23 +192,58 @@ public class UrlProviderImpl implements UrlProvider {
         }
     }
 
-    static class StringSubstitutor {
+    /**
+     * The page of the URLs generated for a request. The WCM mode, the index of the specific pages and the url_path of the current
+     * category are computed once, so that the URLs of a whole list can be generated with the same target page.
+     */
+    private class TargetPage {
+        private final SlingHttpServletRequest request;
+        private final Resource page;
+        private final SpecificPageIndex index;
+        private final Map<String, String> specificPagePaths = new HashMap<>();
+        private String currentUrlPath;
+        private boolean currentUrlPathResolved;
+
+        TargetPage(SlingHttpServletRequest request, Page page) {
+            this.request = request;
+            this.page = page != null ? page.adaptTo(Resource.class) : null;
+
+            boolean deepLink = !WCMMode.DISABLED.equals(WCMMode.fromRequest(request));
+            if (this.page != null && deepLink) {
+                index = specificPageIndexService != null
+                    ? specificPageIndexService.getIndex(this.page)
+                    : SpecificPageIndex.build(this.page);
+            } else {
+                index = null;
+            }
+        }
 
-        private final String[] searchList;
-        private final String[] replacementList;
+        String getPath(Map<String, String> params) {
+            if (index == null) {
+                return page.getPath();
+            }
 
-        public StringSubstitutor(Map<String, String> params, String prefix, String suffix) {
-            replacementList = params.values().toArray(new String[0]);
-            searchList = params.keySet().toArray(new String[0]);
-            if (StringUtils.isNotBlank(prefix) && StringUtils.isNotBlank(suffix)) {
-                for (int i = 0; i < searchList.length; ++i) {
-                    searchList[i] = prefix + searchList[i] + suffix;
-                }
+            String path = index.lookup(new HashSet<>(params.values()), () -> getCurrentUrlPath(params));
+            if (path == null) {
+                return page.getPath();
             }
+
+            return specificPagePaths.computeIfAbsent(path, p -> {
+                LOGGER.debug("Page has a matching sub-page at {}", p);
+                Resource specificPage = page.getResourceResolver().getResource(p);
+                return specificPage != null ? specificPage.getPath() : page.getPath();
+            });
         }
 
-        public String replace(String source) {
-            return StringUtils.replaceEach(source, searchList, replacementList);
+        private String getCurrentUrlPath(Map<String, String> params) {
+            if (params.containsKey(URL_PATH_PARAM)) {
+                return params.get(URL_PATH_PARAM);
+            }
+            if (!currentUrlPathResolved) {
+                currentUrlPath = UrlProviderImpl.getCurrentUrlPath(request, null);
+                currentUrlPathResolved = true;
+            }
+            return currentUrlPath;
         }
     }
 }
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.adobe.cq.commerce.core.components.services.UrlProvider;
+
+/**
+ * A URL template compiled into literal and variable segments. Variables have the format <code>{{var}}</code>, or
+ * <code>${var}</code> if the template does not contain any <code>{{</code>.
+ * The anchor of the template, a variable following the last <code>#</code>, is removed from the URL if the variable has no value.
+ * Variables without value are otherwise kept as-is in the URL.
+ */
+class UrlTemplate {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final String template;
+    private final String prefix;
+    private final String suffix;
+    private final String[] literals;
+    private final String[] variables;
+    private final int anchor;
+
+    private UrlTemplate(String template, String prefix, String suffix, String[] literals, String[] variables, int anchor) {
+        this.template = template;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.literals = literals;
+        this.variables = variables;
+        this.anchor = anchor;
+    }
+
+    static UrlTemplate compile(String template) {
+        String prefix = "${", suffix = "}"; // variables have the format ${var}
+        if (template.contains("{{")) {
+            prefix = "{{";
+            suffix = "}}"; // variables have the format {{var}}
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int anchor = -1;
+        int start = 0;
+        int open = template.indexOf(prefix);
+        while (open >= 0) {
+            int close = template.indexOf(suffix, open + prefix.length());
+            if (close < 0) {
+                break;
+            }
+            String literal = template.substring(start, open);
+            if (literal.endsWith("#")) {
+                anchor = variables.size();
+            }
+            literals.add(literal);
+            variables.add(template.substring(open + prefix.length(), close));
+            start = close + suffix.length();
+            open = template.indexOf(prefix, start);
+        }
+        literals.add(template.substring(start));
+
+        return new UrlTemplate(template, prefix, suffix, literals.toArray(new String[0]), variables.toArray(new String[0]), anchor);
+    }
+
+    String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Renders the URL. All the values except the page path are URL-encoded, after replacing their slashes with underscores.
+     *
+     * @param params the values of the variables
+     * @param missing if not <code>null</code>, collects the variables without value kept in the URL
+     * @return the URL
+     */
+    String render(Map<String, String> params, List<String> missing) {
+        StringBuilder url = new StringBuilder(template.length() + 64);
+        for (int i = 0; i < variables.length; i++) {
+            url.append(literals[i]);
+            String value = params.get(variables[i]);
+            if (value == null) {
+                if (i == anchor) {
+                    // remove the anchor and everything after it
+                    url.setLength(url.length() - 1);
+                    return url.toString();
+                }
+                url.append(prefix).append(variables[i]).append(suffix);
+                if (missing != null) {
+                    missing.add(variables[i]);
+                }
+            } else if (UrlProvider.PAGE_PARAM.equals(variables[i])) {
+                // We don't want to encode the path slashes
+                url.append(value);
+            } else {
+                encode(value, url);
+            }
+        }
+        return url.append(literals[variables.length]).toString();
+    }
+
+    /**
+     * Appends the value like {@link java.net.URLEncoder#encode(String, String)} with UTF-8 does, but with the slashes replaced by
+     * underscores.
+     */
+    static void encode(String value, StringBuilder out) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '/') {
+                out.append('_');
+            } else if (isUnreserved(c)) {
+                out.append(c);
+            } else if (c == ' ') {
+                out.append('+');
+            } else {
+                // Encodes the whole run of characters which need to be encoded, so that surrogate pairs are kept together
+                int end = i + 1;
+                while (end < length && !isUnreserved(value.charAt(end)) && value.charAt(end) != ' ' && value.charAt(end) != '/') {
+                    end++;
+                }
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '*'
+            || c == '_';
+    }
+}
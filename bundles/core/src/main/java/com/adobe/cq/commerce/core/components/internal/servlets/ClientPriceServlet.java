@@ -0,0 +1,149 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.Servlet;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.ClientPriceService;
+import com.adobe.cq.commerce.core.components.internal.services.ClientPriceService.ProductPrices;
+import com.adobe.cq.commerce.magento.graphql.Money;
+import com.adobe.cq.commerce.magento.graphql.PriceRange;
+import com.adobe.cq.commerce.magento.graphql.ProductDiscount;
+import com.adobe.cq.commerce.magento.graphql.ProductPrice;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.wcm.api.Page;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Returns the client-side prices of the products displayed by a page as a JSON object, like
+ * <code>page/_jcr_content.prices.json?sku=MJ01&amp;sku=MJ02</code>. The pages only use this endpoint if it is enabled in their
+ * policy, as the dispatcher must also allow its requests. The prices of each requested SKU are grouped with the prices of
+ * its variants or grouped items, in the format of the Magento GraphQL <code>price_range</code> field. All the components of a page
+ * request their prices together, and the prices are served by the {@link ClientPriceService}.
+ */
+@Component(
+    service = Servlet.class,
+    immediate = true,
+    property = {
+        "sling.servlet.methods=GET",
+        "sling.servlet.resourceTypes=core/cif/components/structure/page/v1/page",
+        "sling.servlet.extensions=json",
+        "sling.servlet.selectors=" + ClientPriceServlet.SELECTOR
+    })
+public class ClientPriceServlet extends SlingSafeMethodsServlet {
+
+    protected static final String SELECTOR = "prices";
+    protected static final String PARAMETER_SKU = "sku";
+    protected static final String PARAMETER_VARIANTS = "variants";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Reference
+    private ClientPriceService clientPriceService;
+
+    /**
+     * Returns the URL of the prices of a page.
+     *
+     * @param request the current request, used to map the path of the page
+     * @param page the page
+     * @return the URL, without the SKUs
+     */
+    public static String toPricesUrl(SlingHttpServletRequest request, Page page) {
+        return request.getResourceResolver().map(request, page.getPath() + "/" + JcrConstants.JCR_CONTENT) + "." + SELECTOR + ".json";
+    }
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        String[] skus = request.getParameterValues(PARAMETER_SKU);
+        boolean includeVariants = Boolean.parseBoolean(request.getParameter(PARAMETER_VARIANTS));
+        MagentoGraphqlClient magentoGraphqlClient = request.adaptTo(MagentoGraphqlClient.class);
+
+        Map<String, ProductPrices> prices = Collections.emptyMap();
+        if (skus != null && magentoGraphqlClient != null) {
+            List<String> skuList = Arrays.asList(skus);
+            prices = clientPriceService.getPrices(magentoGraphqlClient, skuList, includeVariants);
+        }
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "max-age=" + clientPriceService.getTtl());
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(response.getWriter())) {
+            generator.writeStartObject();
+            for (Map.Entry<String, ProductPrices> product : prices.entrySet()) {
+                generator.writeObjectFieldStart(product.getKey());
+                for (Map.Entry<String, PriceRange> price : product.getValue().getPrices().entrySet()) {
+                    generator.writeObjectFieldStart(price.getKey());
+                    generator.writeStringField("__typename", product.getValue().getType());
+                    writePrice(generator, "minimum_price", price.getValue().getMinimumPrice());
+                    writePrice(generator, "maximum_price", price.getValue().getMaximumPrice());
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writePrice(JsonGenerator generator, String name, ProductPrice price) throws IOException {
+        if (price == null) {
+            return;
+        }
+        generator.writeObjectFieldStart(name);
+        writeMoney(generator, "regular_price", price.getRegularPrice());
+        writeMoney(generator, "final_price", price.getFinalPrice());
+        ProductDiscount discount = price.getDiscount();
+        if (discount != null) {
+            generator.writeObjectFieldStart("discount");
+            writeNumber(generator, "amount_off", discount.getAmountOff());
+            writeNumber(generator, "percent_off", discount.getPercentOff());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeMoney(JsonGenerator generator, String name, Money money) throws IOException {
+        if (money == null) {
+            return;
+        }
+        generator.writeObjectFieldStart(name);
+        writeNumber(generator, "value", money.getValue());
+        generator.writeStringField("currency", money.getCurrency() != null ? money.getCurrency().toString() : null);
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, String name, Double value) throws IOException {
+        generator.writeFieldName(name);
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.models.factory.ModelFactory;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.commerce.core.components.internal.models.v1.productcollection.ProductCollectionImpl;
+import com.adobe.cq.commerce.core.components.internal.models.v1.productlist.ProductListImpl;
+import com.adobe.cq.commerce.core.components.models.common.Price;
+import com.adobe.cq.commerce.core.components.models.common.ProductListItem;
+import com.adobe.cq.commerce.core.components.models.productcollection.ProductCollection;
+import com.adobe.cq.commerce.core.components.models.productlist.ProductList;
+import com.adobe.cq.commerce.core.components.models.searchresults.SearchResults;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Returns the product items of the next page of a product collection (product list or search results) as a compact JSON array.
+ * Unlike the <code>lazy</code> HTML selector, the component is not rendered: only the products query is executed, without the
+ * category query and without the aggregations.
+ */
+@Component(
+    service = Servlet.class,
+    immediate = true,
+    property = {
+        "sling.servlet.methods=GET",
+        "sling.servlet.resourceTypes=core/cif/components/commerce/productcollection/v1/productcollection",
+        "sling.servlet.extensions=json",
+        "sling.servlet.selectors=" + LoadMoreServlet.SELECTOR
+    })
+public class LoadMoreServlet extends SlingSafeMethodsServlet {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadMoreServlet.class);
+
+    protected static final String SELECTOR = "loadmore";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Reference
+    private ModelFactory modelFactory;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        Resource resource = request.getResource();
+
+        // The models use HTL bindings like "currentStyle" which are not available in a servlet, so we use a wrapped request
+        Class<? extends ProductCollection> modelClass = resource.isResourceType(ProductListImpl.RESOURCE_TYPE) ? ProductList.class
+            : SearchResults.class;
+        ProductCollection productCollection = modelFactory.getModelFromWrappedRequest(request, resource, modelClass);
+
+        if (!(productCollection instanceof ProductCollectionImpl)) {
+            LOGGER.warn("Cannot load more products for {}", resource.getPath());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Collection<ProductListItem> products = ((ProductCollectionImpl) productCollection).getLoadMoreProducts();
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(response.getWriter())) {
+            generator.writeStartArray();
+            for (ProductListItem product : products) {
+                writeProduct(generator, product);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeProduct(JsonGenerator generator, ProductListItem product) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("sku", product.getSKU());
+        generator.writeStringField("slug", product.getSlug());
+        generator.writeStringField("title", product.getTitle());
+        generator.writeStringField("url", product.getURL());
+        generator.writeStringField("imageURL", product.getImageURL());
+        generator.writeBooleanField("staged", Boolean.TRUE.equals(product.isStaged()));
+
+        Price price = product.getPriceRange();
+        if (price != null) {
+            generator.writeObjectFieldStart("price");
+            generator.writeStringField("currency", price.getCurrency());
+            writeNumberField(generator, "regularPrice", price.getRegularPrice());
+            writeNumberField(generator, "finalPrice", price.getFinalPrice());
+            writeNumberField(generator, "regularPriceMax", price.getRegularPriceMax());
+            writeNumberField(generator, "finalPriceMax", price.getFinalPriceMax());
+            generator.writeBooleanField("discounted", Boolean.TRUE.equals(price.isDiscounted()));
+            generator.writeBooleanField("range", Boolean.TRUE.equals(price.isRange()));
+            generator.writeBooleanField("startPrice", price.isStartPrice());
+            generator.writeEndObject();
+        }
+
+        generator.writeEndObject();
+    }
+
+    private void writeNumberField(JsonGenerator generator, String name, Double value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(name, value);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.navigation.NavigationImpl;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeIndex;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
+import com.adobe.cq.commerce.core.components.services.UrlProvider;
+import com.adobe.cq.commerce.core.components.services.UrlProvider.ParamsBuilder;
+import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.day.cq.wcm.api.policies.ContentPolicy;
+import com.day.cq.wcm.api.policies.ContentPolicyManager;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Returns the child categories of a category of the navigation as a JSON array, for the navigation items which load their children
+ * on demand. The category is the suffix, like in <code>navigation.children.json/MTI=.json</code>, so the responses can be cached by
+ * the dispatcher. The child categories are served from the category tree of the navigation, as cached by the
+ * {@link CategoryTreeService}, and only the categories of this tree are accepted. Like the navigation model, the root category and
+ * the category page are those of the catalog pages below the navigation root, so the navigation can also be part of an experience
+ * fragment. The URLs of the categories are generated with the {@link UrlProvider}.
+ */
+@Component(
+    service = Servlet.class,
+    immediate = true,
+    property = {
+        "sling.servlet.methods=GET",
+        "sling.servlet.resourceTypes=core/cif/components/structure/navigation/v1/navigation",
+        "sling.servlet.extensions=json",
+        "sling.servlet.selectors=" + NavigationChildrenServlet.SELECTOR
+    })
+public class NavigationChildrenServlet extends SlingSafeMethodsServlet {
+
+    protected static final String SELECTOR = "children";
+
+    private static final String EXTENSION = ".json";
+    private static final String PN_NAVIGATION_ROOT = "navigationRoot";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Reference
+    private CategoryTreeService categoryTreeService;
+    @Reference
+    private UrlProvider urlProvider;
+
+    /**
+     * Returns the URL of the children of a category.
+     *
+     * @param request the current request, used to map the path of the navigation
+     * @param navigationPath the path of the navigation component resource
+     * @param uid the UID of the category
+     * @return the URL
+     */
+    public static String toChildrenUrl(SlingHttpServletRequest request, String navigationPath, String uid) {
+        return request.getResourceResolver().map(request, navigationPath) + "." + SELECTOR + EXTENSION + "/" + uid + EXTENSION;
+    }
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        // The suffix is /<uid>.json, the UID may contain slashes
+        String uid = StringUtils.removeEnd(StringUtils.removeStart(request.getRequestPathInfo().getSuffix(), "/"), EXTENSION);
+        PageManager pageManager = request.getResourceResolver().adaptTo(PageManager.class);
+        Page currentPage = pageManager != null ? pageManager.getContainingPage(request.getResource()) : null;
+        if (StringUtils.isBlank(uid) || currentPage == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Only the categories of the trees of the navigation are served, from the same cached trees, so any other UID does not
+        // cause a new query nor a new cached tree
+        ValueMap properties = request.getResource().getValueMap();
+        ValueMap style = getStyle(request);
+        int structureDepth = NavigationImpl.getStructureDepth(properties, style);
+        String navigationRootPath = properties.get(PN_NAVIGATION_ROOT, style.get(PN_NAVIGATION_ROOT, String.class));
+        Page navigationRoot = navigationRootPath != null
+            ? pageManager.getPage(navigationRootPath)
+            : SiteNavigation.getNavigationRootPage(currentPage);
+        MagentoGraphqlClient magentoGraphqlClient = request.adaptTo(MagentoGraphqlClient.class);
+
+        CategoryTreeIndex.Node category = null;
+        Page categoryPage = null;
+        if (navigationRoot != null && magentoGraphqlClient != null) {
+            List<Page> catalogPages = new ArrayList<>();
+            collectCatalogPages(navigationRoot, structureDepth, catalogPages);
+            for (Page catalogPage : catalogPages) {
+                String rootUid = CategoryTreeService.getRootCategoryIdentifier(catalogPage);
+                CategoryTreeIndex tree = rootUid != null
+                    ? categoryTreeService.getTree(magentoGraphqlClient, rootUid, structureDepth)
+                    : null;
+                category = tree != null ? tree.getByUid(uid) : null;
+                if (category != null) {
+                    categoryPage = SiteNavigation.getCategoryPage(catalogPage);
+                    break;
+                }
+            }
+        }
+        if (category == null || category.getLevel() >= structureDepth) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        List<CategoryTreeIndex.Node> children = category.getChildren();
+
+        List<Map<String, String>> params = new ArrayList<>(children.size());
+        for (CategoryTreeIndex.Node child : children) {
+            params.add(new ParamsBuilder()
+                .uid(child.getUid())
+                .urlKey(child.getUrlKey())
+                .urlPath(child.getUrlPath())
+                .map());
+        }
+        List<String> urls = urlProvider.toCategoryUrls(request, categoryPage, params);
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(response.getWriter())) {
+            generator.writeStartArray();
+            for (int i = 0; i < children.size(); i++) {
+                CategoryTreeIndex.Node child = children.get(i);
+                generator.writeStartObject();
+                generator.writeStringField("title", child.getName());
+                generator.writeStringField("url", urls.get(i));
+                if (child.getLevel() < structureDepth && child.getChildrenCount() > 0) {
+                    generator.writeStringField("childrenUrl", toChildrenUrl(request, request.getResource().getPath(), child.getUid()));
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static void collectCatalogPages(Page page, int levels, List<Page> catalogPages) {
+        // The navigation renders the descendants of its root down to the structure depth, and the categories below its catalog pages
+        Iterator<Page> children = page.listChildren();
+        while (children.hasNext()) {
+            Page child = children.next();
+            if (NavigationImpl.isCatalogPage(child)) {
+                catalogPages.add(child);
+            } else if (levels > 1) {
+                collectCatalogPages(child, levels - 1, catalogPages);
+            }
+        }
+    }
+
+    private static ValueMap getStyle(SlingHttpServletRequest request) {
+        ContentPolicyManager policyManager = request.getResourceResolver().adaptTo(ContentPolicyManager.class);
+        ContentPolicy policy = policyManager != null ? policyManager.getPolicy(request.getResource(), request) : null;
+        return policy != null ? policy.getProperties() : ValueMap.EMPTY;
+    }
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The markup of the navigation component rendered without any active item, with the positions where the active state of each
+ * item is applied. The markup is parsed once when it is cached, so that rendering it for a request only inserts the active CSS
+ * classes and moves the navigation of the current page to the visible tree, like the navigation model would do.
+ */
+class NavigationFragment {
+
+    static final String ACTIVE_CLASS = " cmp-navigation__item--active";
+
+    private static final String TREE_END = "</ul>";
+    private static final String SHADOW_ROOT = "categoryTree__root--shadow";
+    private static final Pattern TREE = Pattern.compile("<ul\\s+class=\"categoryTree__tree\"");
+    private static final Pattern ITEM = Pattern.compile("<li\\s+class=\"([^\"]*)\"");
+    private static final Pattern HREF = Pattern.compile("href=\"([^\"]*)\"");
+    private static final Pattern DATA_ID = Pattern.compile("data-id=\"([^\"]*)\"");
+    private static final Pattern DATA_PARENT = Pattern.compile("data-parent=\"([^\"]*)\"");
+
+    private final String html;
+    private final long generation;
+
+    // the visible tree, which shows the navigation of the current page
+    private int activeStart = -1;
+    private int activeEnd = -1;
+    private String activeId;
+
+    // the hidden trees of all the navigations, by id
+    private final Map<String, int[]> navigations = new LinkedHashMap<>();
+    private final Map<String, String> parents = new HashMap<>();
+    private final Map<String, List<Integer>> navigationItems = new LinkedHashMap<>();
+
+    // the URL of each item and the position where its active class is inserted, in document order
+    private final List<String> itemUrls = new ArrayList<>();
+    private final List<Integer> itemOffsets = new ArrayList<>();
+
+    private NavigationFragment(String html, long generation) {
+        this.html = html;
+        this.generation = generation;
+    }
+
+    /**
+     * Parses the markup of the navigation component. The active classes of the markup are removed.
+     *
+     * @param markup the markup of the navigation component
+     * @param generation the generation of the category trees used to render the markup
+     * @return the fragment
+     */
+    static NavigationFragment parse(String markup, long generation) {
+        NavigationFragment fragment = new NavigationFragment(StringUtils.remove(markup, ACTIVE_CLASS), generation);
+        fragment.parseTrees();
+        return fragment;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    private void parseTrees() {
+        int shadowRoot = html.indexOf(SHADOW_ROOT);
+        Matcher tree = TREE.matcher(html);
+        int position = 0;
+        while (tree.find(position)) {
+            int start = tree.start();
+            int tagEnd = html.indexOf('>', start);
+            int end = html.indexOf(TREE_END, start);
+            if (tagEnd < 0 || end < 0) {
+                break;
+            }
+            end += TREE_END.length();
+
+            String tag = html.substring(start, tagEnd);
+            String id = attribute(DATA_ID, tag);
+            List<Integer> items = parseItems(tagEnd, end);
+
+            if (shadowRoot < 0 || start < shadowRoot) {
+                activeStart = start;
+                activeEnd = end;
+                activeId = id;
+            } else if (id != null && !navigations.containsKey(id)) {
+                navigations.put(id, new int[] { start, end });
+                navigationItems.put(id, items);
+                String parent = attribute(DATA_PARENT, tag);
+                if (parent != null) {
+                    parents.put(id, parent);
+                }
+            }
+            position = end;
+        }
+    }
+
+    private List<Integer> parseItems(int start, int end) {
+        List<Integer> items = new ArrayList<>();
+        Matcher item = ITEM.matcher(html).region(start, end);
+        Matcher href = HREF.matcher(html);
+        while (item.find()) {
+            // the URL of the item is the first link after the start of the item
+            int classEnd = item.end(1);
+            if (!href.find(classEnd) || href.start() >= end) {
+                break;
+            }
+            items.add(itemUrls.size());
+            itemUrls.add(unescape(href.group(1)));
+            itemOffsets.add(classEnd);
+        }
+        return items;
+    }
+
+    /**
+     * Renders the fragment for the given request URI. The items linking to the URI and their parent items are active, as well as
+     * the items of pages containing the URI. The navigation containing the first item linking to the URI is shown in the visible
+     * tree.
+     *
+     * @param requestURI the request URI
+     * @return the markup
+     */
+    String render(String requestURI) {
+        String activeNavigation = null;
+        Set<String> activeUrls = new HashSet<>();
+        for (Map.Entry<String, List<Integer>> navigation : navigationItems.entrySet()) {
+            for (int item : navigation.getValue()) {
+                if (itemUrls.get(item).equals(requestURI)) {
+                    activeNavigation = navigation.getKey();
+                    break;
+                }
+            }
+            if (activeNavigation != null) {
+                break;
+            }
+        }
+
+        activeUrls.add(requestURI);
+        if (activeNavigation != null) {
+            // the parent items of a navigation are the items with the id of the navigation as URL
+            String navigation = activeNavigation;
+            while (parents.containsKey(navigation)) {
+                activeUrls.add(navigation);
+                navigation = parents.get(navigation);
+            }
+        }
+
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < itemUrls.size(); i++) {
+            String url = itemUrls.get(i);
+            if (activeUrls.contains(url) || isPageAncestor(url, requestURI)) {
+                offsets.add(itemOffsets.get(i));
+            }
+        }
+
+        boolean moveNavigation = activeNavigation != null && activeStart >= 0 && !activeNavigation.equals(activeId);
+        if (offsets.isEmpty() && !moveNavigation) {
+            return html;
+        }
+
+        StringBuilder out = new StringBuilder(html.length() + offsets.size() * ACTIVE_CLASS.length() + 1024);
+        if (moveNavigation) {
+            int[] span = navigations.get(activeNavigation);
+            append(out, 0, activeStart, offsets);
+            append(out, span[0], span[1], offsets);
+            append(out, activeEnd, html.length(), offsets);
+        } else {
+            append(out, 0, html.length(), offsets);
+        }
+        return out.toString();
+    }
+
+    private void append(StringBuilder out, int start, int end, List<Integer> offsets) {
+        int position = start;
+        for (int offset : offsets) {
+            if (offset >= start && offset < end) {
+                out.append(html, position, offset).append(ACTIVE_CLASS);
+                position = offset;
+            }
+        }
+        out.append(html, position, end);
+    }
+
+    /**
+     * A page is active when the URI is one of its descendants, like for the pages of the navigation model.
+     */
+    private static boolean isPageAncestor(String url, String requestURI) {
+        if (!url.endsWith(".html")) {
+            return false;
+        }
+        String path = url.substring(0, url.length() - ".html".length());
+        return !path.contains(".") && requestURI.startsWith(path + "/");
+    }
+
+    private static String attribute(Pattern pattern, String tag) {
+        Matcher matcher = pattern.matcher(tag);
+        return matcher.find() ? unescape(matcher.group(1)) : null;
+    }
+
+    private static String unescape(String value) {
+        return StringUtils.replace(value, "&amp;", "&");
+    }
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(name = "CIF Navigation Fragment Cache configuration")
+public @interface NavigationFragmentCacheConfiguration {
+
+    int DEFAULT_MAX_FRAGMENTS = 100;
+
+    @AttributeDefinition(
+        name = "Maximum fragments",
+        description = "The maximum number of navigation markups kept in memory, one per store, navigation root, navigation component "
+            + "and template.",
+        type = AttributeType.INTEGER)
+    int maxFragments() default DEFAULT_MAX_FRAGMENTS;
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.api.wrappers.SlingHttpServletRequestWrapper;
+import org.apache.sling.api.wrappers.SlingHttpServletResponseWrapper;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.metatype.annotations.Designate;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
+import com.adobe.cq.commerce.core.components.internal.services.StoreCaches;
+import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
+import com.day.cq.wcm.api.NameConstants;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.day.cq.wcm.api.WCMMode;
+import com.day.cq.wcm.api.components.ComponentContext;
+import com.day.cq.wcm.commons.WCMUtils;
+
+/**
+ * Caches the markup of the navigation component, which is the same on all the pages of a site except for the active items. The
+ * markup is cached per store, navigation root page, navigation component and template, which determine the depth of the
+ * navigation, and it is rendered without any active item. The active state of the current page is applied to the cached markup
+ * by a {@link NavigationFragment}, without rendering the component.
+ * The markup is invalidated when a category tree of the {@link CategoryTreeService} changes or when content is changed. It is
+ * not cached on author, for authenticated requests nor for preview requests. The filter is only active when it is configured.
+ */
+@Component(
+    service = { Filter.class, ResourceChangeListener.class },
+    configurationPolicy = ConfigurationPolicy.REQUIRE,
+    property = {
+        "sling.filter.scope=COMPONENT",
+        "sling.filter.resourceTypes=" + NavigationFragmentCacheFilter.RESOURCE_TYPE,
+        ResourceChangeListener.PATHS + "=/content",
+        ResourceChangeListener.PATHS + "=/conf",
+        ResourceChangeListener.CHANGES + "=ADDED",
+        ResourceChangeListener.CHANGES + "=CHANGED",
+        ResourceChangeListener.CHANGES + "=REMOVED"
+    })
+@Designate(ocd = NavigationFragmentCacheConfiguration.class)
+public class NavigationFragmentCacheFilter implements Filter, ResourceChangeListener, ExternalResourceChangeListener {
+
+    protected static final String RESOURCE_TYPE = "core/cif/components/structure/navigation/v1/navigation";
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY)
+    private CategoryTreeService categoryTreeService;
+
+    private final AtomicLong contentChanges = new AtomicLong();
+    private Map<String, NavigationFragment> fragments = StoreCaches.createLruMap(
+        NavigationFragmentCacheConfiguration.DEFAULT_MAX_FRAGMENTS);
+
+    @Activate
+    protected void activate(NavigationFragmentCacheConfiguration configuration) {
+        fragments = StoreCaches.createLruMap(configuration.maxFragments());
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {}
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        String key = getKey(slingRequest);
+        if (key == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long generation = categoryTreeService != null ? categoryTreeService.getGeneration() : 0;
+        long changesBefore = contentChanges.get();
+        NavigationFragment fragment = fragments.get(key);
+        if (fragment == null || fragment.getGeneration() != generation) {
+            // The navigation is rendered for a request URI which does not match any item, so none of the items is active
+            StringWriter markup = new StringWriter();
+            chain.doFilter(new SlingHttpServletRequestWrapper(slingRequest) {
+                @Override
+                public String getRequestURI() {
+                    return StringUtils.EMPTY;
+                }
+            }, new SlingHttpServletResponseWrapper((SlingHttpServletResponse) response) {
+                private final PrintWriter writer = new PrintWriter(markup);
+
+                @Override
+                public PrintWriter getWriter() {
+                    return writer;
+                }
+            });
+
+            fragment = NavigationFragment.parse(markup.toString(), generation);
+            if (StringUtils.isNotBlank(markup.toString())) {
+                // The markup is not cached if content was changed while it was rendered, as it may render the previous content
+                synchronized (fragments) {
+                    if (contentChanges.get() == changesBefore) {
+                        fragments.put(key, fragment);
+                    }
+                }
+            }
+        }
+
+        response.getWriter().write(fragment.render(slingRequest.getRequestURI()));
+    }
+
+    private static String getKey(SlingHttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || !WCMMode.DISABLED.equals(WCMMode.fromRequest(request))
+            || !request.getResource().isResourceType(RESOURCE_TYPE)) {
+            return null;
+        }
+
+        // The navigation only renders the pages and categories which are visible to the user, so it is only shared between anonymous
+        // requests
+        if (request.getAuthType() != null || request.getHeader("Authorization") != null) {
+            return null;
+        }
+
+        MagentoGraphqlClient magentoGraphqlClient = request.adaptTo(MagentoGraphqlClient.class);
+        if (magentoGraphqlClient == null || StoreCaches.isPreview(magentoGraphqlClient)) {
+            return null;
+        }
+
+        Page page = getCurrentPage(request);
+        if (page == null) {
+            return null;
+        }
+
+        Page rootPage = SiteNavigation.getNavigationRootPage(page);
+        return StoreCaches.getStoreKey(magentoGraphqlClient)
+            + "|" + (rootPage != null ? rootPage.getPath() : null)
+            + "|" + request.getResource().getPath()
+            + "|" + page.getProperties().get(NameConstants.PN_TEMPLATE, String.class);
+    }
+
+    private static Page getCurrentPage(SlingHttpServletRequest request) {
+        ComponentContext componentContext = WCMUtils.getComponentContext(request);
+        if (componentContext != null && componentContext.getPage() != null) {
+            return componentContext.getPage();
+        }
+        PageManager pageManager = request.getResourceResolver().adaptTo(PageManager.class);
+        return pageManager != null ? pageManager.getContainingPage(request.getResource()) : null;
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        // The navigation also renders pages and the configuration of the sites, so any change invalidates all the fragments
+        synchronized (fragments) {
+            contentChanges.incrementAndGet();
+            fragments.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {}
+}
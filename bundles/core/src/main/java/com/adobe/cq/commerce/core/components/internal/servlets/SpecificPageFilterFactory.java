@@ -15,6 +15,9 @@
 package com.adobe.cq.commerce.core.components.internal.servlets;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -28,10 +31,16 @@ import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.request.RequestDispatcherOptions;
 import org.apache.sling.api.resource.Resource;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.cq.commerce.core.components.internal.services.SpecificPageIndexService;
+import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
+import com.day.cq.commons.jcr.JcrConstants;
 import com.day.cq.wcm.api.WCMMode;
 
 @Component(
@@ -46,6 +55,9 @@ public class SpecificPageFilterFactory implements Filter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SpecificPageFilterFactory.class);
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY)
+    private SpecificPageIndexService specificPageIndexService;
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {}
 
@@ -67,15 +79,33 @@ public class SpecificPageFilterFactory implements Filter {
             return;
         }
 
-        // We add a specific selector to the request to forward the request to SpecificPageServlet
-        RequestDispatcherOptions options = new RequestDispatcherOptions();
-        options.setReplaceSelectors(SpecificPageServlet.SELECTOR + "." + selector);
-
         Resource page = slingRequest.getResource();
+        if (JcrConstants.JCR_CONTENT.equals(page.getName())) {
+            page = page.getParent();
+        }
+
+        // Skip filter if the page does not have any specific page, which is known without traversing the page tree
+        if (specificPageIndexService != null && !specificPageIndexService.hasSpecificPages(page)) {
+            chain.doFilter(request, response);
+            return;
+        }
 
-        LOGGER.debug("Adding {} selector for {} {}", SpecificPageServlet.SELECTOR, slingRequest.getRequestURI(), page.getPath());
+        Set<String> selectors = new HashSet<>(Arrays.asList(slingRequest.getRequestPathInfo().getSelectors()));
+        Resource specificPage = specificPageIndexService != null
+            ? specificPageIndexService.toSpecificPage(page, selectors, slingRequest, null)
+            : UrlProviderImpl.toSpecificPage(page, selectors, slingRequest);
 
-        RequestDispatcher dispatcher = slingRequest.getRequestDispatcher(page, options);
+        if (specificPage == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        LOGGER.debug("Forwarding {} to the specific page {}", slingRequest.getRequestURI(), specificPage.getPath());
+
+        // The request is forwarded once, directly to the specific page
+        RequestDispatcherOptions options = new RequestDispatcherOptions();
+        options.setReplaceSelectors(selector);
+        RequestDispatcher dispatcher = slingRequest.getRequestDispatcher(specificPage, options);
         dispatcher.forward(slingRequest, response);
     }
 
@@ -17,6 +17,7 @@ package com.adobe.cq.commerce.core.components.internal.servlets;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Set;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.Servlet;
@@ -28,9 +29,13 @@ import org.apache.sling.api.request.RequestDispatcherOptions;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.cq.commerce.core.components.internal.services.SpecificPageIndexService;
 import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
 import com.day.cq.wcm.api.WCMMode;
 
@@ -49,6 +54,9 @@ public class SpecificPageServlet extends SlingSafeMethodsServlet {
 
     protected static final String SELECTOR = "cifpage";
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY)
+    private SpecificPageIndexService specificPageIndexService;
+
     @Override
     public void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws ServletException, IOException {
 
@@ -60,7 +68,10 @@ public class SpecificPageServlet extends SlingSafeMethodsServlet {
 
         if (WCMMode.DISABLED.equals(wcmMode)) {
             LOGGER.debug("Checking sub-pages for {} {}", request.getRequestURI(), page.getPath());
-            Resource subPage = UrlProviderImpl.toSpecificPage(page.getParent(), new HashSet<String>(Arrays.asList(selectors[1])), request);
+            Set<String> selectorValues = new HashSet<>(Arrays.asList(selectors[1]));
+            Resource subPage = specificPageIndexService != null
+                ? specificPageIndexService.toSpecificPage(page.getParent(), selectorValues, request, null)
+                : UrlProviderImpl.toSpecificPage(page.getParent(), selectorValues, request);
             if (subPage != null) {
                 page = subPage;
             }
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.Servlet;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.services.UrlProvider;
+import com.adobe.cq.commerce.core.components.services.UrlProvider.ParamsBuilder;
+import com.adobe.cq.commerce.core.components.utils.SiteNavigation;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndex.Suggestion;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndex.Type;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndexService;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Returns the typeahead suggestions of the searchbar as a JSON array. The search prefix is the suffix, like in
+ * <code>searchbar.suggestions.json/jack.json</code>, so the responses can be cached by the dispatcher. The suggestions are served from
+ * the in-memory index of the {@link SuggestionIndexService}, so typeahead requests do not query Magento.
+ */
+@Component(
+    service = Servlet.class,
+    immediate = true,
+    property = {
+        "sling.servlet.methods=GET",
+        "sling.servlet.resourceTypes=core/cif/components/commerce/searchbar/v1/searchbar",
+        "sling.servlet.extensions=json",
+        "sling.servlet.selectors=" + SuggestionServlet.SELECTOR
+    })
+public class SuggestionServlet extends SlingSafeMethodsServlet {
+
+    protected static final String SELECTOR = "suggestions";
+    protected static final int MAX_SUGGESTIONS = 10;
+
+    private static final String EXTENSION = ".json";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Reference
+    private SuggestionIndexService suggestionIndexService;
+    @Reference
+    private UrlProvider urlProvider;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        // The suffix is /<prefix>.json
+        String prefix = StringUtils.removeEnd(StringUtils.removeStart(request.getRequestPathInfo().getSuffix(), "/"), EXTENSION);
+        MagentoGraphqlClient magentoGraphqlClient = request.adaptTo(MagentoGraphqlClient.class);
+
+        List<Suggestion> suggestions = Collections.emptyList();
+        if (StringUtils.isNotBlank(prefix) && magentoGraphqlClient != null) {
+            suggestions = suggestionIndexService.suggest(magentoGraphqlClient, prefix, MAX_SUGGESTIONS);
+        }
+
+        Page currentPage = null;
+        PageManager pageManager = request.getResourceResolver().adaptTo(PageManager.class);
+        if (pageManager != null) {
+            currentPage = pageManager.getContainingPage(request.getResource());
+        }
+        Page productPage = currentPage != null ? SiteNavigation.getProductPage(currentPage) : null;
+        Page categoryPage = currentPage != null ? SiteNavigation.getCategoryPage(currentPage) : null;
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(response.getWriter())) {
+            generator.writeStartArray();
+            for (Suggestion suggestion : suggestions) {
+                generator.writeStartObject();
+                generator.writeStringField("type", suggestion.getType().name().toLowerCase());
+                generator.writeStringField("label", suggestion.getLabel());
+                if (suggestion.getType() == Type.PRODUCT) {
+                    generator.writeStringField("sku", suggestion.getSku());
+                    Map<String, String> params = new ParamsBuilder()
+                        .sku(suggestion.getSku())
+                        .urlKey(suggestion.getUrlKey())
+                        .map();
+                    generator.writeStringField("url", urlProvider.toProductUrl(request, productPage, params));
+                } else {
+                    Map<String, String> params = new ParamsBuilder()
+                        .uid(suggestion.getUid())
+                        .urlKey(suggestion.getUrlKey())
+                        .urlPath(suggestion.getUrlPath())
+                        .map();
+                    generator.writeStringField("url", urlProvider.toCategoryUrl(request, categoryPage, params));
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -16,9 +16,9 @@ package com.adobe.cq.commerce.core.components.internal.storefrontcontext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.cq.commerce.core.components.internal.JsonWriters;
 import com.adobe.cq.commerce.core.components.storefrontcontext.CommerceStorefrontContext;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class AbstractCommerceStorefrontContext implements CommerceStorefrontContext {
 
@@ -27,7 +27,7 @@ public class AbstractCommerceStorefrontContext implements CommerceStorefrontCont
     @Override
     public String getJson() {
         try {
-            return new ObjectMapper().writeValueAsString(this);
+            return JsonWriters.writeValueAsString(this);
 
         } catch (JsonProcessingException e) {
             LOGGER.error("Unable to generate commerce schema JSON string", e);
@@ -33,6 +33,12 @@ public interface Navigation {
      */
     String PN_SHOW_MAIN_CATEGORIES = "showMainCategories";
 
+    /**
+     * Boolean property for rendering only the first levels of the categories and loading the deeper levels on demand.
+     * It's set on the navigation component or its policy.
+     */
+    String PN_LOAD_CHILDREN_ON_DEMAND = "loadChildrenOnDemand";
+
     /**
      * @return The navigation items to be rendered by the navigation component.
      */
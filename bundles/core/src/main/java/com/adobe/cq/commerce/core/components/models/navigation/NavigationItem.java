@@ -40,4 +40,12 @@ public interface NavigationItem {
      * @return The navigation items to be rendered by the navigation component.
      */
     List<NavigationItem> getItems();
+
+    /**
+     * @return The URL of the JSON endpoint returning the child items of this item when they are loaded on demand, or null if the
+     *         child items are rendered with this item or if this item has no child items.
+     */
+    default String getChildrenURL() {
+        return null;
+    }
 }
@@ -12,7 +12,7 @@
  *
  ******************************************************************************/
 
-@Version("1.12.0")
+@Version("1.13.0")
 package com.adobe.cq.commerce.core.components.models.navigation;
 
 import org.osgi.annotation.versioning.Version;
\ No newline at end of file
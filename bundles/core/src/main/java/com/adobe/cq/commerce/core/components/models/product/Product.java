@@ -66,6 +66,18 @@ public interface Product extends Component, PageMetadata {
 
     String getVariantsJson();
 
+    /**
+     * Returns the variants of a configurable product in a compact JSON format, to be rendered in the page instead of
+     * {@link #getVariantsJson()}. The names, descriptions, prices and assets shared by several variants are only serialized once,
+     * and each variant has its combination of attribute values.
+     *
+     * @return The JSON variant matrix, or <code>null</code> if the product is not configurable.
+     * @since com.adobe.cq.commerce.core.components.models.product 5.1.0
+     */
+    default String getVariantMatrixJson() {
+        return null;
+    }
+
     List<Variant> getVariants();
 
     List<GroupItem> getGroupedProductItems();
@@ -12,7 +12,7 @@
  *
  ******************************************************************************/
 
-@Version("5.0.0")
+@Version("5.1.0")
 package com.adobe.cq.commerce.core.components.models.product;
 
 import org.osgi.annotation.versioning.Version;
\ No newline at end of file
@@ -40,4 +40,12 @@ public interface StoreConfigExporter {
      * @return the list of custom HTTP headers configured in addition to the standard ones. This list is in JSON format.
      */
     String getHttpHeaders();
+
+    /**
+     * @return the URL of the endpoint serving the client-side prices of the page, or <code>null</code> if the client-side prices are
+     *         fetched from Magento.
+     */
+    default String getPriceUrl() {
+        return null;
+    }
 }
@@ -15,7 +15,9 @@
 package com.adobe.cq.commerce.core.components.services;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -109,6 +111,32 @@ public interface UrlProvider {
      */
     public String toCategoryUrl(SlingHttpServletRequest request, Page page, Map<String, String> params);
 
+    /**
+     * Returns the product page URLs of a list of products linked from the same page, for example the items of a product list.
+     * Implementations can compute the request and page specific parts of the URL once for the whole list.
+     * 
+     * @param request The current Sling HTTP request.
+     * @param page The target page, if any. This parameter can be null if the URL template does not use the <code>${page}</code> parameter.
+     * @param params The parameters used in the URL template, one map per product.
+     * @return The product URLs, in the order of the given parameters.
+     */
+    public default List<String> toProductUrls(SlingHttpServletRequest request, @Nullable Page page, List<Map<String, String>> params) {
+        return params.stream().map(p -> toProductUrl(request, page, p)).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the category page URLs of a list of categories linked from the same page, for example the items of a navigation.
+     * Implementations can compute the request and page specific parts of the URL once for the whole list.
+     * 
+     * @param request The current Sling HTTP request.
+     * @param page The target page, if any. This parameter can be null if the URL template does not use the <code>${page}</code> parameter.
+     * @param params The parameters used in the URL template, one map per category.
+     * @return The category URLs, in the order of the given parameters.
+     */
+    public default List<String> toCategoryUrls(SlingHttpServletRequest request, @Nullable Page page, List<Map<String, String>> params) {
+        return params.stream().map(p -> toCategoryUrl(request, page, p)).collect(Collectors.toList());
+    }
+
     /**
      * Returns the type and value of the product identifier used in the given Sling HTTP request.
      * 
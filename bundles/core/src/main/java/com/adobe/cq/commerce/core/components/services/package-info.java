@@ -13,7 +13,7 @@
  *
  ******************************************************************************/
 
-@Version("2.0.0")
+@Version("2.1.0")
 package com.adobe.cq.commerce.core.components.services;
 
 import org.osgi.annotation.versioning.Version;
\ No newline at end of file
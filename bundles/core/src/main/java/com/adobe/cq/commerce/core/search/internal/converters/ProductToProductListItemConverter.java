@@ -17,14 +17,12 @@ package com.adobe.cq.commerce.core.search.internal.converters;
 import java.util.Locale;
 import java.util.function.Function;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerComponent;
+import com.adobe.cq.commerce.core.components.internal.datalayer.DataLayerIds;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.PriceImpl;
 import com.adobe.cq.commerce.core.components.internal.models.v1.common.ProductListItemImpl;
 import com.adobe.cq.commerce.core.components.models.common.Price;
@@ -48,6 +46,7 @@ public class ProductToProductListItemConverter implements Function<ProductInterf
     private final UrlProvider urlProvider;
 
     private final SlingHttpServletRequest request;
+    private String parentId;
 
     public ProductToProductListItemConverter(final Page productPage, final SlingHttpServletRequest request, final UrlProvider urlProvider,
                                              Resource parentResource) {
@@ -58,6 +57,14 @@ public class ProductToProductListItemConverter implements Function<ProductInterf
         this.urlProvider = urlProvider;
     }
 
+    private String getParentId() {
+        // the ID of the list is computed once for all its items
+        if (parentId == null) {
+            parentId = DataLayerIds.generateComponentId(parentResource.getResourceType(), parentResource.getPath());
+        }
+        return parentId;
+    }
+
     @Override
     public ProductListItem apply(final ProductInterface product) {
         try {
@@ -65,12 +72,6 @@ public class ProductToProductListItemConverter implements Function<ProductInterf
             Price price = new PriceImpl(product.getPriceRange(), locale, isStartPrice);
             final ProductImage smallImage = product.getSmallImage();
 
-            String resourceType = parentResource.getResourceType();
-            String prefix = StringUtils.substringAfterLast(resourceType, "/");
-            String path = parentResource.getPath();
-            String parentId = StringUtils.join(prefix, DataLayerComponent.ID_SEPARATOR, StringUtils.substring(DigestUtils.sha256Hex(path),
-                0, 10));
-
             ProductListItem productListItem = new ProductListItemImpl(product.getSku(),
                 product.getUrlKey(),
                 product.getName(),
@@ -80,7 +81,7 @@ public class ProductToProductListItemConverter implements Function<ProductInterf
                 null, // search results aren't targeting specific variant
                 request,
                 urlProvider,
-                parentId,
+                getParentId(),
                 product.getStaged());
 
             return productListItem;
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.models;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable view of query parameters made of a shared base map and one or two overlay parameters. The pager and sorter links of a
+ * search all start from the same applied parameters and only change the "page" or "sort" parameters, so the base map is shared
+ * instead of being copied for every link. The base map must not be modified after the view is created.
+ */
+public class OverlayParameterMap extends AbstractMap<String, String> {
+
+    private final Map<String, String> base;
+    private final String[] keys;
+    private final String[] values;
+    private Set<Entry<String, String>> entrySet;
+
+    public OverlayParameterMap(Map<String, String> base, String key, String value) {
+        this.base = base;
+        this.keys = new String[] { key };
+        this.values = new String[] { value };
+    }
+
+    public OverlayParameterMap(Map<String, String> base, String key1, String value1, String key2, String value2) {
+        this.base = base;
+        this.keys = new String[] { key1, key2 };
+        this.values = new String[] { value1, value2 };
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0 || base.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        int size = base.size();
+        for (String key : keys) {
+            if (!base.containsKey(key)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return OverlayParameterMap.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Iterates over the base entries which are not overlaid, then over the overlay entries.
+     */
+    private class EntryIterator implements Iterator<Entry<String, String>> {
+
+        private final Iterator<Entry<String, String>> baseIterator = base.entrySet().iterator();
+        private Entry<String, String> next;
+        private int overlayIndex;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (baseIterator.hasNext()) {
+                Entry<String, String> entry = baseIterator.next();
+                if (indexOf(entry.getKey()) < 0) {
+                    next = new SimpleImmutableEntry<>(entry);
+                    return;
+                }
+            }
+            if (overlayIndex < keys.length) {
+                next = new SimpleImmutableEntry<>(keys[overlayIndex], values[overlayIndex]);
+                overlayIndex++;
+                return;
+            }
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, String> entry = next;
+            advance();
+            return entry;
+        }
+    }
+}
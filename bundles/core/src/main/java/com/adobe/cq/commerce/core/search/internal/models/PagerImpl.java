@@ -15,7 +15,7 @@
 package com.adobe.cq.commerce.core.search.internal.models;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -44,7 +44,8 @@ public class PagerImpl implements Pager {
     int currentPageIndex;
 
     public PagerImpl(final Map<String, String> existingQueryParameters, final int totalPages, final int currentPageIndex) {
-        this.existingQueryParameters = existingQueryParameters;
+        // the parameters are shared by the links of all pages, so they must not change afterwards
+        this.existingQueryParameters = Collections.unmodifiableMap(existingQueryParameters);
         this.totalPages = totalPages;
         this.currentPageIndex = currentPageIndex;
     }
@@ -65,33 +66,44 @@ public class PagerImpl implements Pager {
 
         List<PagerPage> pages = new ArrayList<>();
 
-        for (int currentIndex = 1; currentIndex <= totalPages; currentIndex++) {
-            Map<String, String> pageParameters = new HashMap<>(existingQueryParameters);
-            pageParameters.put("page", Integer.toString(currentIndex));
-            if (inDisplayRange(totalPages, currentIndex) || currentIndex == 1 || currentIndex == totalPages) {
-                pages.add(new PagerPageImpl(currentIndex, pageParameters, true));
-            }
+        // only the first page, the last page and the pages in the display range are rendered, so we don't iterate over all pages
+        int[] displayRange = getDisplayRange(totalPages);
+        int rangeStart = Math.max(displayRange[0], 2);
+        int rangeEnd = Math.min(displayRange[1], totalPages - 1);
+
+        if (totalPages >= 1) {
+            pages.add(createPage(1));
+        }
+        for (int currentIndex = rangeStart; currentIndex <= rangeEnd; currentIndex++) {
+            pages.add(createPage(currentIndex));
+        }
+        if (totalPages > 1) {
+            pages.add(createPage(totalPages));
         }
 
         return pages;
     }
 
+    private PagerPage createPage(int pageIndex) {
+        return new PagerPageImpl(pageIndex, pageParameters(pageIndex), true);
+    }
+
+    private Map<String, String> pageParameters(int pageIndex) {
+        return new OverlayParameterMap(existingQueryParameters, "page", Integer.toString(pageIndex));
+    }
+
     @Nonnull
     @Override
     public Map<String, String> getPreviousPageParameters() {
-        Integer previousPage = currentPageIndex <= 1 ? 1 : currentPageIndex - 1;
-        Map<String, String> parameters = new HashMap<>(existingQueryParameters);
-        parameters.put("page", previousPage.toString());
-        return parameters;
+        int previousPage = currentPageIndex <= 1 ? 1 : currentPageIndex - 1;
+        return pageParameters(previousPage);
     }
 
     @Nonnull
     @Override
     public Map<String, String> getNextPageParameters() {
-        Integer nextPage = currentPageIndex >= totalPages ? totalPages : currentPageIndex + 1;
-        Map<String, String> parameters = new HashMap<>(existingQueryParameters);
-        parameters.put("page", nextPage.toString());
-        return parameters;
+        int nextPage = currentPageIndex >= totalPages ? totalPages : currentPageIndex + 1;
+        return pageParameters(nextPage);
     }
 
     @Override
@@ -105,10 +117,18 @@ public class PagerImpl implements Pager {
     }
 
     private boolean inDisplayRange(int totalPages, int currentIndex) {
+        int[] displayRange = getDisplayRange(totalPages);
+        return (displayRange[0] <= currentIndex) && (currentIndex <= displayRange[1]);
+    }
+
+    /**
+     * @return the first and the last page index (inclusive) of the pages displayed around the current page
+     */
+    private int[] getDisplayRange(int totalPages) {
 
         // if the total pages is less than or equal the page max display value then all are displayable
         if (totalPages <= MAXIMUM_PAGE_DISPLAY_COUNT) {
-            return true;
+            return new int[] { 1, totalPages };
         }
 
         // if we have an even number we need to remove one as we don't want exactly the display amount before
@@ -127,7 +147,7 @@ public class PagerImpl implements Pager {
             rightEndDisplay = Math.min(PAGINATION_RANGE_SIZE, totalPages);
         }
 
-        return (leftStartDisplay <= currentIndex) && (currentIndex <= rightEndDisplay);
+        return new int[] { leftStartDisplay, rightEndDisplay };
     }
 
 }
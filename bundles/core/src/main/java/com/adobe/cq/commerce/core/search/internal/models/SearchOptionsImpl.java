@@ -15,10 +15,12 @@
 package com.adobe.cq.commerce.core.search.internal.models;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import com.adobe.cq.commerce.core.search.models.SearchOptions;
 import com.adobe.cq.commerce.core.search.models.Sorter;
@@ -43,6 +45,10 @@ public class SearchOptionsImpl implements SearchOptions {
 
     List<SorterKey> sorterKeys = new ArrayList<>();
 
+    boolean aggregationsEnabled = true;
+
+    Set<String> aggregationAttributeCodes = Collections.emptySet();
+
     public SearchOptionsImpl() {
         attributeFilters = new HashMap<>();
     }
@@ -63,6 +69,8 @@ public class SearchOptionsImpl implements SearchOptions {
             searchQuery = searchOptions.getSearchQuery().get();
         }
 
+        this.aggregationsEnabled = searchOptions.isAggregationsEnabled();
+        this.aggregationAttributeCodes = searchOptions.getAggregationAttributeCodes();
     }
 
     @Override
@@ -136,4 +144,22 @@ public class SearchOptionsImpl implements SearchOptions {
     public List<SorterKey> getSorterKeys() {
         return sorterKeys;
     }
+
+    @Override
+    public boolean isAggregationsEnabled() {
+        return aggregationsEnabled;
+    }
+
+    public void setAggregationsEnabled(final boolean aggregationsEnabled) {
+        this.aggregationsEnabled = aggregationsEnabled;
+    }
+
+    @Override
+    public Set<String> getAggregationAttributeCodes() {
+        return aggregationAttributeCodes;
+    }
+
+    public void setAggregationAttributeCodes(final Set<String> aggregationAttributeCodes) {
+        this.aggregationAttributeCodes = aggregationAttributeCodes != null ? aggregationAttributeCodes : Collections.emptySet();
+    }
 }
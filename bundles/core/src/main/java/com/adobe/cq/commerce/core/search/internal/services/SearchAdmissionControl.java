@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.SlingHttpServletRequest;
+
+import com.adobe.cq.commerce.core.components.internal.services.StoreCaches;
+
+/**
+ * Protects the search backend against crawlers enumerating the filter, sort and page combinations of the product listings. The
+ * number of applied filters is capped, and each client can only search a limited number of combinations which were not searched
+ * recently, as those are not cached by the GraphQL client.
+ */
+class SearchAdmissionControl {
+
+    static final int MAX_CLIENTS = 10000;
+    static final int MAX_COMBINATIONS = 10000;
+
+    private final int maxAppliedFilters;
+    private final int maxNewCombinationsPerClient;
+    private final long window;
+    private final String clientIpHeader;
+    private final int trustedProxies;
+
+    // The windows of the least recently seen clients are evicted first, so new clients cannot reset the windows of the active ones
+    private final Map<String, Window> clients = StoreCaches.createLruMap(MAX_CLIENTS);
+
+    // The combinations searched recently are kept in two generations, the oldest generation is dropped when the current one is full
+    private volatile Set<String> recentCombinations = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> previousCombinations = ConcurrentHashMap.newKeySet();
+
+    SearchAdmissionControl(int maxAppliedFilters, int maxNewCombinationsPerClient, long window, String clientIpHeader,
+        int trustedProxies) {
+        this.maxAppliedFilters = maxAppliedFilters;
+        this.maxNewCombinationsPerClient = maxNewCombinationsPerClient;
+        this.window = window;
+        this.clientIpHeader = clientIpHeader;
+        this.trustedProxies = Math.max(1, trustedProxies);
+    }
+
+    /**
+     * @param appliedFilters the number of attribute filters applied to the search
+     * @return <code>true</code> if the search has more filters than allowed
+     */
+    boolean hasTooManyFilters(int appliedFilters) {
+        return maxAppliedFilters > 0 && appliedFilters > maxAppliedFilters;
+    }
+
+    /**
+     * Checks if the client of the request can search the given combination. A combination searched recently is always admitted, a
+     * new combination is admitted if the client did not search too many new combinations during the current window.
+     *
+     * @param request the request of the client
+     * @param combination the key of the combination, for example the products query
+     * @return <code>true</code> if the search is admitted
+     */
+    boolean admit(SlingHttpServletRequest request, String combination) {
+        if (maxNewCombinationsPerClient <= 0) {
+            return true;
+        }
+        if (recentCombinations.contains(combination) || previousCombinations.contains(combination)) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        Window clientWindow = clients.computeIfAbsent(getClientId(request), id -> new Window());
+        if (!clientWindow.acquire(now, window, maxNewCombinationsPerClient)) {
+            return false;
+        }
+
+        addRecentCombination(combination);
+        return true;
+    }
+
+    private void addRecentCombination(String combination) {
+        Set<String> combinations = recentCombinations;
+        combinations.add(combination);
+        if (combinations.size() > MAX_COMBINATIONS / 2) {
+            synchronized (this) {
+                if (recentCombinations == combinations) {
+                    previousCombinations = combinations;
+                    recentCombinations = ConcurrentHashMap.newKeySet();
+                }
+            }
+        }
+    }
+
+    private String getClientId(SlingHttpServletRequest request) {
+        String header = StringUtils.isNotBlank(clientIpHeader) ? request.getHeader(clientIpHeader) : null;
+        String[] addresses = StringUtils.split(header, ',');
+        if (addresses == null || addresses.length == 0) {
+            return request.getRemoteAddr();
+        }
+        // Each proxy appends the address it received the request from, so only the entries added by the trusted proxies can be used.
+        // The entries on the left of those can be set by the client.
+        String clientIp = addresses[Math.max(0, addresses.length - trustedProxies)].trim();
+        return StringUtils.isNotEmpty(clientIp) ? clientIp : request.getRemoteAddr();
+    }
+
+    private static class Window {
+        private long start = Long.MIN_VALUE / 2;
+        private int count;
+
+        synchronized boolean acquire(long now, long window, int max) {
+            if (now - start >= window) {
+                start = now;
+                count = 0;
+            }
+            if (count >= max) {
+                return false;
+            }
+            count++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(name = "CIF Search Results Service configuration")
+public @interface SearchResultsServiceConfiguration {
+
+    int DEFAULT_MAX_APPLIED_FILTERS = 0;
+    int DEFAULT_MAX_NEW_COMBINATIONS_PER_CLIENT = 0;
+    long DEFAULT_RATE_LIMIT_WINDOW = 60;
+    String DEFAULT_CLIENT_IP_HEADER = "X-Forwarded-For";
+    int DEFAULT_TRUSTED_PROXIES = 1;
+
+    @AttributeDefinition(
+        name = "Maximum applied filters",
+        description = "The maximum number of attribute filters applied to a search. Searches with more filters get the unfiltered "
+            + "first page of results. Set to 0 to disable the limit.",
+        type = AttributeType.INTEGER)
+    int maxAppliedFilters() default DEFAULT_MAX_APPLIED_FILTERS;
+
+    @AttributeDefinition(
+        name = "Maximum new filter combinations per client",
+        description = "The maximum number of filter, sort and page combinations not searched recently that a single client can "
+            + "search during the rate limit window. Throttled searches get the unfiltered first page of results. Set to 0 to disable "
+            + "the rate limit.",
+        type = AttributeType.INTEGER)
+    int maxNewCombinationsPerClient() default DEFAULT_MAX_NEW_COMBINATIONS_PER_CLIENT;
+
+    @AttributeDefinition(
+        name = "Rate limit window",
+        description = "The duration in seconds of the rate limit window.",
+        type = AttributeType.LONG)
+    long rateLimitWindow() default DEFAULT_RATE_LIMIT_WINDOW;
+
+    @AttributeDefinition(
+        name = "Client IP header",
+        description = "The HTTP header holding the IP of the client when AEM runs behind a CDN or a load balancer, like "
+            + "X-Forwarded-For or a single-value header set by the CDN like True-Client-IP. The remote address of the request is used "
+            + "if the header is empty or not set.",
+        type = AttributeType.STRING)
+    String clientIpHeader() default DEFAULT_CLIENT_IP_HEADER;
+
+    @AttributeDefinition(
+        name = "Trusted proxies",
+        description = "The number of trusted proxies appending the address they receive the request from to the client IP header. "
+            + "The client IP is the entry added by the first trusted proxy, counted from the end of the header, as the entries before "
+            + "it can be set by the client.",
+        type = AttributeType.INTEGER)
+    int trustedProxies() default DEFAULT_TRUSTED_PROXIES;
+}
@@ -15,12 +15,17 @@
 package com.adobe.cq.commerce.core.search.internal.services;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -32,17 +37,26 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.common.ProductListItemImpl;
+import com.adobe.cq.commerce.core.components.internal.services.IdentifierResolutionService;
+import com.adobe.cq.commerce.core.components.internal.services.StoreCaches;
 import com.adobe.cq.commerce.core.components.models.common.ProductListItem;
 import com.adobe.cq.commerce.core.components.models.retriever.AbstractCategoryRetriever;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.search.internal.converters.AggregationToSearchAggregationConverter;
 import com.adobe.cq.commerce.core.search.internal.converters.ProductToProductListItemConverter;
+import com.adobe.cq.commerce.core.search.internal.models.OverlayParameterMap;
 import com.adobe.cq.commerce.core.search.internal.models.SearchOptionsImpl;
 import com.adobe.cq.commerce.core.search.internal.models.SearchResultsSetImpl;
 import com.adobe.cq.commerce.core.search.internal.models.SorterImpl;
@@ -55,8 +69,10 @@ import com.adobe.cq.commerce.core.search.models.Sorter;
 import com.adobe.cq.commerce.core.search.models.SorterKey;
 import com.adobe.cq.commerce.core.search.services.SearchFilterService;
 import com.adobe.cq.commerce.core.search.services.SearchResultsService;
+import com.adobe.cq.commerce.graphql.client.GraphqlClientConfiguration;
 import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
 import com.adobe.cq.commerce.magento.graphql.Aggregation;
+import com.adobe.cq.commerce.magento.graphql.AggregationQueryDefinition;
 import com.adobe.cq.commerce.magento.graphql.CategoryInterface;
 import com.adobe.cq.commerce.magento.graphql.CategoryTree;
 import com.adobe.cq.commerce.magento.graphql.CategoryTreeQueryDefinition;
@@ -80,15 +96,38 @@ import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 
 @Component(service = SearchResultsService.class)
+@Designate(ocd = SearchResultsServiceConfiguration.class)
 public class SearchResultsServiceImpl implements SearchResultsService {
 
     @Reference
     private SearchFilterService searchFilterService;
     @Reference
     private UrlProvider urlProvider;
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY)
+    private IdentifierResolutionService identifierResolutionService;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SearchResultsServiceImpl.class);
 
+    // The parameters which are not product attributes but are used by the search
+    private static final Set<String> NON_ATTRIBUTE_PARAMETERS = new HashSet<>(Arrays.asList(
+        SearchOptionsImpl.CATEGORY_UID_PARAMETER_ID,
+        SearchOptionsImpl.SEARCH_QUERY_PARAMETER_ID,
+        SearchOptionsImpl.CURRENT_PAGE_PARAMETER_ID,
+        Sorter.PARAMETER_SORT_KEY,
+        Sorter.PARAMETER_SORT_ORDER));
+
+    private SearchAdmissionControl admissionControl = new SearchAdmissionControl(0, 0, 0, null, 1);
+
+    @Activate
+    protected void activate(SearchResultsServiceConfiguration configuration) {
+        admissionControl = new SearchAdmissionControl(
+            configuration.maxAppliedFilters(),
+            configuration.maxNewCombinationsPerClient(),
+            TimeUnit.SECONDS.toMillis(configuration.rateLimitWindow()),
+            configuration.clientIpHeader(),
+            configuration.trustedProxies());
+    }
+
     @Nonnull
     @Override
     public SearchResultsSet performSearch(
@@ -137,10 +176,24 @@ public class SearchResultsServiceImpl implements SearchResultsService {
             return new ImmutablePair<>(null, searchResultsSet);
         }
 
+        // We will use the search filter service to retrieve all of the potential available filters the commerce system
+        // has available for querying against
+
+        List<FilterAttributeMetadata> availableFilters = searchFilterService.retrieveCurrentlyAvailableCommerceFilters(page);
+
+        // Unknown parameters do not change the query but they would be propagated to the pager and sorter links
+        Map<String, String> attributeFilters = removeUnknownFilters(mutableSearchOptions.getAttributeFilters(), availableFilters);
+        mutableSearchOptions.setAttributeFilters(attributeFilters);
+
+        // The search is admitted before querying the category, the category query is the same for all the combinations of a category
+        // and it is also needed by the unfiltered first page
+        Optional<String> categoryQuery = generateCategoryQueryString(categoryRetriever);
+        boolean admitted = admit(mutableSearchOptions, attributeFilters, categoryQuery.orElse(null), resource, request);
+
         // Next we generate the graphql category query and actually query the commerce system
         CategoryTree category = null;
-        if (generateCategoryQueryString(categoryRetriever).isPresent()) {
-            String categoryQueryString = generateCategoryQueryString(categoryRetriever).get();
+        if (categoryQuery.isPresent()) {
+            String categoryQueryString = categoryQuery.get();
             LOGGER.debug("Generated category query string {}", categoryQueryString);
             GraphqlResponse<Query, Error> categoryResponse = magentoGraphqlClient.execute(categoryQueryString);
             Query categoryData = categoryResponse.getData();
@@ -150,18 +203,41 @@ public class SearchResultsServiceImpl implements SearchResultsService {
                 if (CollectionUtils.isNotEmpty(categories)) {
                     category = categories.get(0);
                     mutableSearchOptions.setCategoryUid(category.getUid().toString());
+                    if (identifierResolutionService != null) {
+                        identifierResolutionService.warmCategories(magentoGraphqlClient, Collections.singletonList(category));
+                    }
                 }
             }
         }
 
-        // We will use the search filter service to retrieve all of the potential available filters the commerce system
-        // has available for querying against
-
-        List<FilterAttributeMetadata> availableFilters = searchFilterService.retrieveCurrentlyAvailableCommerceFilters(page);
-        SorterKey currentSorterKey = prepareSorting(mutableSearchOptions, searchResultsSet);
+        // Searches with too many filters or from clients searching too many new combinations get the unfiltered first page, which is
+        // shared by all the clients and thus cached
+        if (!admitted) {
+            LOGGER.debug("Search throttled for {}, returning the unfiltered first page", resource.getPath());
+            Map<String, String> fallbackFilters = new HashMap<>();
+            if (attributeFilters.containsKey(SearchOptionsImpl.CATEGORY_UID_PARAMETER_ID)) {
+                fallbackFilters.put(SearchOptionsImpl.CATEGORY_UID_PARAMETER_ID, attributeFilters.get(
+                    SearchOptionsImpl.CATEGORY_UID_PARAMETER_ID));
+            }
+            mutableSearchOptions.setAttributeFilters(fallbackFilters);
+            mutableSearchOptions.setCurrentPage(1);
+        }
 
-        String productsQueryString = generateProductsQueryString(mutableSearchOptions, availableFilters, productQueryHook,
-            currentSorterKey);
+        // The applied filters are computed once and shared by the sorter links and the query
+        Map<String, String> appliedFilters = Collections.unmodifiableMap(mutableSearchOptions.getAllFilters());
+        SorterKey currentSorterKey = prepareSorting(mutableSearchOptions, appliedFilters, searchResultsSet);
+
+        // The aggregations do not change with the pagination: the first page requests them together with the products, the other
+        // pages request them with a separate query which is the same for all the pages, but only if that query is cached
+        boolean aggregationsEnabled = mutableSearchOptions.isAggregationsEnabled();
+        MagentoGraphqlClient aggregationsClient = aggregationsEnabled && mutableSearchOptions.getCurrentPage() > 1
+            ? getAggregationsClient(page, magentoGraphqlClient)
+            : null;
+        boolean separateAggregationsQuery = aggregationsClient != null;
+
+        GenericProductAttributeFilterInput filterInputs = generateFilterInputs(appliedFilters, availableFilters);
+        String productsQueryString = generateProductsQueryString(mutableSearchOptions, filterInputs, productQueryHook, currentSorterKey,
+            aggregationsEnabled && !separateAggregationsQuery);
         LOGGER.debug("Generated products query string {}", productsQueryString);
         GraphqlResponse<Query, Error> response = magentoGraphqlClient.execute(productsQueryString);
 
@@ -175,14 +251,22 @@ public class SearchResultsServiceImpl implements SearchResultsService {
 
         // Finally we transform the results to something useful and expected by other the Sling Models and wider display layer
         Products products = response.getData().getProducts();
+        if (identifierResolutionService != null) {
+            identifierResolutionService.warmProducts(magentoGraphqlClient, products.getItems());
+        }
         final List<ProductListItem> productListItems = extractProductsFromResponse(
             products.getItems(),
             productPage,
             request,
             resource);
 
-        final List<SearchAggregation> searchAggregations = extractSearchAggregationsFromResponse(products.getAggregations(),
-            mutableSearchOptions.getAllFilters(), availableFilters);
+        List<Aggregation> aggregations = products.getAggregations();
+        if (separateAggregationsQuery) {
+            aggregations = retrieveAggregations(mutableSearchOptions, filterInputs, aggregationsClient);
+        }
+
+        final List<SearchAggregation> searchAggregations = extractSearchAggregationsFromResponse(aggregations,
+            mutableSearchOptions.getAggregationAttributeCodes(), appliedFilters, availableFilters);
 
         searchResultsSet.setTotalResults(products.getTotalCount());
         searchResultsSet.setProductListItems(productListItems);
@@ -191,7 +275,39 @@ public class SearchResultsServiceImpl implements SearchResultsService {
         return new ImmutablePair<>(category, searchResultsSet);
     }
 
-    private SorterKey prepareSorting(SearchOptions searchOptions, SearchResultsSetImpl searchResultsSet) {
+    private Map<String, String> removeUnknownFilters(Map<String, String> filters, List<FilterAttributeMetadata> availableFilters) {
+        Set<String> knownCodes = availableFilters.stream()
+            .map(FilterAttributeMetadata::getAttributeCode)
+            .collect(Collectors.toSet());
+
+        Map<String, String> knownFilters = new HashMap<>();
+        filters.forEach((code, value) -> {
+            if (knownCodes.contains(code) || NON_ATTRIBUTE_PARAMETERS.contains(code)) {
+                knownFilters.put(code, value);
+            } else {
+                LOGGER.debug("Ignoring unknown filter {}", code);
+            }
+        });
+        return knownFilters;
+    }
+
+    private boolean admit(SearchOptions searchOptions, Map<String, String> attributeFilters, String categoryQuery, Resource resource,
+        SlingHttpServletRequest request) {
+        long appliedFilters = attributeFilters.keySet().stream()
+            .filter(code -> !NON_ATTRIBUTE_PARAMETERS.contains(code))
+            .count();
+        if (admissionControl.hasTooManyFilters((int) appliedFilters)) {
+            return false;
+        }
+
+        // The category of a category page is only known by its query at this point
+        String combination = resource.getResourceType() + (categoryQuery != null ? "#" + categoryQuery.hashCode() : "")
+            + new TreeMap<>(searchOptions.getAllFilters()) + searchOptions.getCurrentPage() + "/" + searchOptions.getPageSize();
+        return admissionControl.admit(request, combination);
+    }
+
+    private SorterKey prepareSorting(SearchOptions searchOptions, Map<String, String> appliedFilters,
+        SearchResultsSetImpl searchResultsSet) {
         List<SorterKey> availableSorterKeys = searchOptions.getSorterKeys();
         if (CollectionUtils.isEmpty(availableSorterKeys)) {
             return null;
@@ -200,11 +316,11 @@ public class SearchResultsServiceImpl implements SearchResultsService {
         SorterKey resultSorterKey = null;
 
         SorterKey defaultSorterKey = availableSorterKeys.get(0);
-        String sortKeyParam = searchOptions.getAllFilters().get(Sorter.PARAMETER_SORT_KEY);
+        String sortKeyParam = appliedFilters.get(Sorter.PARAMETER_SORT_KEY);
         if (sortKeyParam == null) {
             sortKeyParam = defaultSorterKey.getName();
         }
-        String sortOrderParam = searchOptions.getAllFilters().get(Sorter.PARAMETER_SORT_ORDER);
+        String sortOrderParam = appliedFilters.get(Sorter.PARAMETER_SORT_ORDER);
         Sorter.Order sortOrder;
         try {
             if (sortOrderParam != null) {
@@ -230,8 +346,6 @@ public class SearchResultsServiceImpl implements SearchResultsService {
         for (SorterKey key : keys) {
             SorterKeyImpl keyImpl = (SorterKeyImpl) key;
 
-            Map<String, String> cParams = new HashMap<>(searchOptions.getAllFilters());
-            cParams.put(Sorter.PARAMETER_SORT_KEY, key.getName());
             Sorter.Order keyOrder = keyImpl.getOrder();
             if (sortKeyParam.equals(key.getName())) {
                 keyImpl.setSelected(true);
@@ -242,26 +356,87 @@ public class SearchResultsServiceImpl implements SearchResultsService {
                 keyOrder = sortOrder;
             }
             keyImpl.setOrder(keyOrder);
-            cParams.put(Sorter.PARAMETER_SORT_ORDER, keyOrder.name().toLowerCase());
-            keyImpl.setCurrentOrderParameters(cParams);
-
-            Map<String, String> oParams = new HashMap<>(searchOptions.getAllFilters());
-            oParams.put(Sorter.PARAMETER_SORT_KEY, key.getName());
-            oParams.put(Sorter.PARAMETER_SORT_ORDER, keyOrder.opposite().name().toLowerCase());
-            keyImpl.setOppositeOrderParameters(oParams);
+            keyImpl.setCurrentOrderParameters(new OverlayParameterMap(appliedFilters, Sorter.PARAMETER_SORT_KEY, key.getName(),
+                Sorter.PARAMETER_SORT_ORDER, keyOrder.name().toLowerCase()));
+            keyImpl.setOppositeOrderParameters(new OverlayParameterMap(appliedFilters, Sorter.PARAMETER_SORT_KEY, key.getName(),
+                Sorter.PARAMETER_SORT_ORDER, keyOrder.opposite().name().toLowerCase()));
         }
 
         return resultSorterKey;
     }
 
-    private String generateProductsQueryString(
+    /**
+     * Returns the GraphQL client using the <code>com.adobe.cq.commerce.core.search.services.SearchResultsService</code> cache name, if
+     * that cache is enabled in the configuration of the client. Otherwise, a separate aggregations query would send one more request
+     * to Magento for each page, so the aggregations are requested with the products instead.
+     *
+     * @param page the page used to configure the GraphQL client
+     * @param magentoGraphqlClient the GraphQL client of the request
+     * @return the GraphQL client or <code>null</code> if the aggregations query would not be cached
+     */
+    private MagentoGraphqlClient getAggregationsClient(final Page page, final MagentoGraphqlClient magentoGraphqlClient) {
+        // Preview requests are not cached
+        if (page == null || StoreCaches.isPreview(magentoGraphqlClient)) {
+            return null;
+        }
+        return Optional.ofNullable(page.adaptTo(Resource.class))
+            .map(r -> new SyntheticResource(r.getResourceResolver(), r.getPath(), SearchResultsService.class.getName()))
+            .map(r -> r.adaptTo(MagentoGraphqlClient.class))
+            .filter(client -> isCacheEnabled(client.getConfiguration(), SearchResultsService.class.getName()))
+            .orElse(null);
+    }
+
+    static boolean isCacheEnabled(GraphqlClientConfiguration configuration, String cacheName) {
+        if (configuration == null || configuration.cacheConfigurations() == null) {
+            return false;
+        }
+        // The cache configurations have the cacheName:enabled:maxSize:ttl format
+        return Arrays.stream(configuration.cacheConfigurations())
+            .map(entry -> StringUtils.split(entry, ':'))
+            .anyMatch(entry -> entry.length == 4 && entry[0].equals(cacheName) && Boolean.parseBoolean(entry[1]));
+    }
+
+    /**
+     * Retrieves the aggregations of the search with an aggregations-only query. This query does not depend on the current page or on
+     * the sorting, so it is cached separately from the products of each page.
+     *
+     * @param searchOptions the search options
+     * @param filterInputs the filters of the search
+     * @param aggregationsClient the GraphQL client caching the aggregations query
+     * @return the aggregations or <code>null</code> if the query failed
+     */
+    private List<Aggregation> retrieveAggregations(
         final SearchOptions searchOptions,
-        final List<FilterAttributeMetadata> availableFilters,
-        final Consumer<ProductInterfaceQuery> productQueryHook,
-        final SorterKey sorterKey) {
+        final GenericProductAttributeFilterInput filterInputs,
+        final MagentoGraphqlClient aggregationsClient) {
+
+        QueryQuery.ProductsArgumentsDefinition searchArgs = productArguments -> {
+            if (searchOptions.getSearchQuery().isPresent()) {
+                productArguments.search(searchOptions.getSearchQuery().get());
+            }
+            productArguments.filter(filterInputs);
+        };
+
+        String aggregationsQueryString = Operations.query(query -> query
+            .products(searchArgs, productsQuery -> productsQuery.aggregations(generateAggregationQuery()))).toString();
+        LOGGER.debug("Generated aggregations query string {}", aggregationsQueryString);
+        GraphqlResponse<Query, Error> response = aggregationsClient.execute(aggregationsQueryString);
+
+        if (CollectionUtils.isNotEmpty(response.getErrors())) {
+            response.getErrors()
+                .forEach(err -> LOGGER.error("An error has occurred: {} ({})", err.getMessage(), err.getCategory()));
+            return null;
+        }
+
+        return response.getData().getProducts().getAggregations();
+    }
+
+    private GenericProductAttributeFilterInput generateFilterInputs(
+        final Map<String, String> appliedFilters,
+        final List<FilterAttributeMetadata> availableFilters) {
         GenericProductAttributeFilterInput filterInputs = new GenericProductAttributeFilterInput();
 
-        searchOptions.getAllFilters().entrySet()
+        appliedFilters.entrySet()
             .stream()
             .filter(field -> availableFilters.stream()
                 .anyMatch(item -> item.getAttributeCode().equals(field.getKey())))
@@ -302,6 +477,15 @@ public class SearchResultsServiceImpl implements SearchResultsService {
                 }
             });
 
+        return filterInputs;
+    }
+
+    private String generateProductsQueryString(
+        final SearchOptions searchOptions,
+        final GenericProductAttributeFilterInput filterInputs,
+        final Consumer<ProductInterfaceQuery> productQueryHook,
+        final SorterKey sorterKey,
+        final boolean aggregationsEnabled) {
         QueryQuery.ProductsArgumentsDefinition searchArgs;
 
         searchArgs = productArguments -> {
@@ -335,21 +519,29 @@ public class SearchResultsServiceImpl implements SearchResultsService {
             }
         };
 
-        ProductsQueryDefinition queryArgs = productsQuery -> productsQuery
-            .totalCount()
-            .items(generateProductQuery(productQueryHook))
-            .aggregations(a -> a
-                .options(ao -> ao
-                    .count()
-                    .label()
-                    .value())
-                .attributeCode()
-                .count()
-                .label());
+        ProductsQueryDefinition queryArgs = productsQuery -> {
+            productsQuery
+                .totalCount()
+                .items(generateProductQuery(productQueryHook));
+            if (aggregationsEnabled) {
+                productsQuery.aggregations(generateAggregationQuery());
+            }
+        };
 
         return Operations.query(query -> query.products(searchArgs, queryArgs)).toString();
     }
 
+    private AggregationQueryDefinition generateAggregationQuery() {
+        return a -> a
+            .options(ao -> ao
+                .count()
+                .label()
+                .value())
+            .attributeCode()
+            .count()
+            .label();
+    }
+
     /**
      * Generates a query string for the category specified in the retriever.
      * 
@@ -431,10 +623,12 @@ public class SearchResultsServiceImpl implements SearchResultsService {
 
         ProductToProductListItemConverter converter = new ProductToProductListItemConverter(productPage, request, urlProvider, resource);
 
-        return products.stream()
+        List<ProductListItem> productListItems = products.stream()
             .map(converter)
             .filter(Objects::nonNull) // the converter returns null if the conversion fails
             .collect(Collectors.toList());
+        ProductListItemImpl.batchUrls(productListItems);
+        return productListItems;
     }
 
     /**
@@ -443,12 +637,14 @@ public class SearchResultsServiceImpl implements SearchResultsService {
      * applied.
      *
      * @param aggregations the response aggregation data
+     * @param attributeCodes the attribute codes of the aggregations to keep, or an empty set to keep all the aggregations
      * @param appliedFilters the currently applied filters
      * @param availableFilters the filters that are available
      * @return enriched {@link SearchAggregation} objects
      */
     private List<SearchAggregation> extractSearchAggregationsFromResponse(
         final List<Aggregation> aggregations,
+        final Set<String> attributeCodes,
         final Map<String, String> appliedFilters,
         final List<FilterAttributeMetadata> availableFilters) {
 
@@ -459,6 +655,7 @@ public class SearchResultsServiceImpl implements SearchResultsService {
         AggregationToSearchAggregationConverter converter = new AggregationToSearchAggregationConverter(appliedFilters, availableFilters);
 
         return aggregations.stream()
+            .filter(aggregation -> attributeCodes.isEmpty() || attributeCodes.contains(aggregation.getAttributeCode()))
             .map(converter)
             .collect(Collectors.toList());
     }
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Immutable prefix index of typeahead suggestions. Every word of the suggestion labels and the product SKUs are indexed as sorted
+ * keys, so a lookup is a binary search for the first key starting with the prefix followed by a scan of the matching keys.
+ * A prefix matches the start of any word of a label, for example "jack" matches "Stellar Solar Jacket".
+ */
+public class SuggestionIndex {
+
+    public static final SuggestionIndex EMPTY = new Builder().build();
+
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+
+    /**
+     * A product or category suggestion with the identifiers needed to build its URL.
+     */
+    public static class Suggestion {
+        private final Type type;
+        private final String label;
+        private final String sku;
+        private final String uid;
+        private final String urlKey;
+        private final String urlPath;
+
+        Suggestion(Type type, String label, String sku, String uid, String urlKey, String urlPath) {
+            this.type = type;
+            this.label = label;
+            this.sku = sku;
+            this.uid = uid;
+            this.urlKey = urlKey;
+            this.urlPath = urlPath;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public String getUid() {
+            return uid;
+        }
+
+        public String getUrlKey() {
+            return urlKey;
+        }
+
+        public String getUrlPath() {
+            return urlPath;
+        }
+    }
+
+    private final Suggestion[] suggestions;
+    private final String[] keys;
+    private final int[] refs;
+
+    private SuggestionIndex(Suggestion[] suggestions, String[] keys, int[] refs) {
+        this.suggestions = suggestions;
+        this.keys = keys;
+        this.refs = refs;
+    }
+
+    /**
+     * @return The number of indexed suggestions.
+     */
+    public int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * Returns the suggestions matching the given prefix. Category suggestions are returned before product suggestions, and each group
+     * is ordered by the matching key and by label.
+     *
+     * @param prefix the prefix typed by the user
+     * @param limit the maximum number of suggestions
+     * @return the matching suggestions
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Suggestion> categories = new ArrayList<>();
+        List<Suggestion> products = new ArrayList<>();
+        BitSet seen = new BitSet(suggestions.length);
+
+        for (int i = lowerBound(normalized); i < keys.length && keys[i].startsWith(normalized); i++) {
+            int ref = refs[i];
+            if (seen.get(ref)) {
+                continue;
+            }
+            seen.set(ref);
+
+            Suggestion suggestion = suggestions[ref];
+            if (suggestion.getType() == Type.CATEGORY) {
+                if (categories.size() < limit) {
+                    categories.add(suggestion);
+                }
+            } else if (products.size() < limit) {
+                products.add(suggestion);
+            }
+            if (categories.size() == limit) {
+                break;
+            }
+        }
+
+        List<Suggestion> results = new ArrayList<>(limit);
+        results.addAll(categories);
+        for (int i = 0; i < products.size() && results.size() < limit; i++) {
+            results.add(products.get(i));
+        }
+        return results;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : StringUtils.stripAccents(value.trim()).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects the suggestions of an index. The builder is not thread-safe.
+     */
+    public static class Builder {
+        private final List<Suggestion> suggestions = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> refs = new ArrayList<>();
+
+        public Builder addProduct(String name, String sku, String urlKey) {
+            if (StringUtils.isBlank(name)) {
+                return this;
+            }
+            int ref = add(new Suggestion(Type.PRODUCT, name, sku, null, urlKey, null));
+            addKey(normalize(sku), ref);
+            return this;
+        }
+
+        public Builder addCategory(String name, String uid, String urlKey, String urlPath) {
+            if (StringUtils.isBlank(name)) {
+                return this;
+            }
+            add(new Suggestion(Type.CATEGORY, name, null, uid, urlKey, urlPath));
+            return this;
+        }
+
+        private int add(Suggestion suggestion) {
+            int ref = suggestions.size();
+            suggestions.add(suggestion);
+
+            // Every word start of the label is a key, so a prefix matches any word of the label
+            String label = normalize(suggestion.getLabel());
+            boolean wordStart = true;
+            for (int i = 0; i < label.length(); i++) {
+                boolean letterOrDigit = Character.isLetterOrDigit(label.charAt(i));
+                if (wordStart && letterOrDigit) {
+                    addKey(label.substring(i), ref);
+                }
+                wordStart = !letterOrDigit;
+            }
+            return ref;
+        }
+
+        private void addKey(String key, int ref) {
+            if (!key.isEmpty()) {
+                keys.add(key);
+                refs.add(ref);
+            }
+        }
+
+        public SuggestionIndex build() {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing((Integer i) -> keys.get(i))
+                .thenComparing(i -> suggestions.get(refs.get(i)).getLabel())
+                .thenComparing(i -> refs.get(i)));
+
+            String[] sortedKeys = new String[order.length];
+            int[] sortedRefs = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedRefs[i] = refs.get(order[i]);
+            }
+            return new SuggestionIndex(suggestions.toArray(new Suggestion[0]), sortedKeys, sortedRefs);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.StoreCaches;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndex.Suggestion;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+import com.adobe.cq.commerce.magento.graphql.CategoryTreeQuery;
+import com.adobe.cq.commerce.magento.graphql.CategoryTreeQueryDefinition;
+import com.adobe.cq.commerce.magento.graphql.Operations;
+import com.adobe.cq.commerce.magento.graphql.ProductAttributeSortInput;
+import com.adobe.cq.commerce.magento.graphql.ProductInterface;
+import com.adobe.cq.commerce.magento.graphql.Products;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.SortEnum;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+
+/**
+ * Keeps an in-memory {@link SuggestionIndex} of the product names, SKUs and category names of each store, so typeahead requests
+ * are answered without querying Magento. The index of a store is built in the background from paginated catalog queries the first
+ * time it is requested and rebuilt when it is older than the configured refresh interval. The previous index keeps answering the
+ * requests until the new one is complete.
+ */
+@Component(service = SuggestionIndexService.class)
+@Designate(ocd = SuggestionIndexServiceConfiguration.class)
+public class SuggestionIndexService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SuggestionIndexService.class);
+
+    private final ConcurrentMap<String, StoreIndex> indexes = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    private int pageSize;
+    private int maxProducts;
+    private int categoryDepth;
+    private long refreshInterval;
+
+    @Activate
+    protected void activate(SuggestionIndexServiceConfiguration configuration) {
+        pageSize = Math.max(1, configuration.pageSize());
+        maxProducts = Math.max(0, configuration.maxProducts());
+        categoryDepth = Math.max(0, configuration.categoryDepth());
+        refreshInterval = TimeUnit.SECONDS.toMillis(configuration.refreshInterval());
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CIF suggestion index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        executor.shutdownNow();
+        indexes.clear();
+    }
+
+    /**
+     * Returns the suggestions of the store of the given GraphQL client. If the index of the store is not built yet, its build is
+     * started and an empty list is returned.
+     *
+     * @param magentoGraphqlClient the GraphQL client of the store
+     * @param prefix the prefix typed by the user
+     * @param limit the maximum number of suggestions
+     * @return the matching suggestions
+     */
+    public List<Suggestion> suggest(MagentoGraphqlClient magentoGraphqlClient, String prefix, int limit) {
+        String storeKey = StoreCaches.getStoreKey(magentoGraphqlClient);
+        StoreIndex storeIndex = indexes.computeIfAbsent(storeKey, key -> new StoreIndex());
+
+        long now = System.currentTimeMillis();
+        if (now - storeIndex.lastBuild > refreshInterval && storeIndex.building.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        storeIndex.index = buildIndex(magentoGraphqlClient);
+                    } catch (RuntimeException x) {
+                        LOGGER.error("Failed to build the suggestion index of store {}", storeKey, x);
+                    } finally {
+                        // A failed build is also retried after the refresh interval, to not flood Magento with catalog queries
+                        storeIndex.lastBuild = System.currentTimeMillis();
+                        storeIndex.building.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException x) {
+                storeIndex.building.set(false);
+            }
+        }
+
+        SuggestionIndex index = storeIndex.index;
+        return index != null ? index.suggest(prefix, limit) : Collections.emptyList();
+    }
+
+    SuggestionIndex buildIndex(MagentoGraphqlClient magentoGraphqlClient) {
+        SuggestionIndex.Builder builder = new SuggestionIndex.Builder();
+        addCategories(magentoGraphqlClient, builder);
+
+        int indexed = 0;
+        int currentPage = 1;
+        int totalPages = 1;
+        while (currentPage <= totalPages && indexed < maxProducts) {
+            int page = currentPage;
+            String queryString = Operations.query(query -> query
+                .products(args -> args
+                    .filter(new GenericProductAttributeFilterInput())
+                    .sort(new ProductAttributeSortInput().setName(SortEnum.ASC))
+                    .pageSize(pageSize)
+                    .currentPage(page),
+                    products -> products
+                        .items(item -> item
+                            .sku()
+                            .name()
+                            .urlKey())
+                        .pageInfo(info -> info.totalPages())))
+                .toString();
+
+            Products products = execute(magentoGraphqlClient, queryString).getProducts();
+            if (products == null || CollectionUtils.isEmpty(products.getItems())) {
+                break;
+            }
+            for (ProductInterface product : products.getItems()) {
+                if (indexed++ < maxProducts) {
+                    builder.addProduct(product.getName(), product.getSku(), product.getUrlKey());
+                }
+            }
+            if (products.getPageInfo() != null && products.getPageInfo().getTotalPages() != null) {
+                totalPages = products.getPageInfo().getTotalPages();
+            }
+            currentPage++;
+        }
+
+        SuggestionIndex index = builder.build();
+        LOGGER.debug("Built a suggestion index with {} entries", index.size());
+        return index;
+    }
+
+    private void addCategories(MagentoGraphqlClient magentoGraphqlClient, SuggestionIndex.Builder builder) {
+        String queryString = Operations.query(query -> query.categoryList(defineCategoriesQuery(categoryDepth))).toString();
+        List<CategoryTree> roots = execute(magentoGraphqlClient, queryString).getCategoryList();
+        if (roots != null) {
+            // The root categories are not shown in the storefront, only their descendants
+            roots.stream()
+                .filter(root -> root != null && root.getChildren() != null)
+                .forEach(root -> root.getChildren().forEach(child -> addCategory(child, builder)));
+        }
+    }
+
+    private void addCategory(CategoryTree category, SuggestionIndex.Builder builder) {
+        if (category == null) {
+            return;
+        }
+        builder.addCategory(category.getName(), category.getUid() != null ? category.getUid().toString() : null, category.getUrlKey(),
+            category.getUrlPath());
+        if (category.getChildren() != null) {
+            category.getChildren().forEach(child -> addCategory(child, builder));
+        }
+    }
+
+    private static CategoryTreeQueryDefinition defineCategoriesQuery(int depth) {
+        if (depth <= 0) {
+            return SuggestionIndexService::defineCategoryFields;
+        } else {
+            return q -> defineCategoryFields(q).children(defineCategoriesQuery(depth - 1));
+        }
+    }
+
+    private static CategoryTreeQuery defineCategoryFields(CategoryTreeQuery query) {
+        return query.uid().name().urlKey().urlPath();
+    }
+
+    private Query execute(MagentoGraphqlClient magentoGraphqlClient, String queryString) {
+        GraphqlResponse<Query, Error> response = magentoGraphqlClient.execute(queryString);
+        if (CollectionUtils.isNotEmpty(response.getErrors())) {
+            response.getErrors()
+                .forEach(err -> LOGGER.error("An error has occurred: {} ({})", err.getMessage(), err.getCategory()));
+            throw new IllegalStateException("The catalog query of the suggestion index failed");
+        }
+        return response.getData();
+    }
+
+    private static class StoreIndex {
+        private final AtomicBoolean building = new AtomicBoolean();
+        private volatile SuggestionIndex index;
+        private volatile long lastBuild = Long.MIN_VALUE / 2;
+    }
+}
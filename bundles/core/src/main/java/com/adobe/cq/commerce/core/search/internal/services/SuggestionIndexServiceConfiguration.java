@@ -0,0 +1,52 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(name = "CIF Search Suggestion Index configuration")
+public @interface SuggestionIndexServiceConfiguration {
+
+    int DEFAULT_PAGE_SIZE = 100;
+    int DEFAULT_MAX_PRODUCTS = 10000;
+    int DEFAULT_CATEGORY_DEPTH = 3;
+    long DEFAULT_REFRESH_INTERVAL = 3600;
+
+    @AttributeDefinition(
+        name = "Page size",
+        description = "The number of products fetched by each catalog query when the index is built.",
+        type = AttributeType.INTEGER)
+    int pageSize() default DEFAULT_PAGE_SIZE;
+
+    @AttributeDefinition(
+        name = "Maximum products",
+        description = "The maximum number of products indexed per store.",
+        type = AttributeType.INTEGER)
+    int maxProducts() default DEFAULT_MAX_PRODUCTS;
+
+    @AttributeDefinition(
+        name = "Category depth",
+        description = "The depth of the category tree indexed per store.",
+        type = AttributeType.INTEGER)
+    int categoryDepth() default DEFAULT_CATEGORY_DEPTH;
+
+    @AttributeDefinition(
+        name = "Refresh interval",
+        description = "The time in seconds after which the index of a store is rebuilt in the background.",
+        type = AttributeType.LONG)
+    long refreshInterval() default DEFAULT_REFRESH_INTERVAL;
+}
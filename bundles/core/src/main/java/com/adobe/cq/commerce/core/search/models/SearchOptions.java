@@ -14,9 +14,11 @@
 
 package com.adobe.cq.commerce.core.search.models;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Represents a set of parameters that can be used to query a product search service. Rather than collecting a bunch of disparate parameters
@@ -56,4 +58,21 @@ public interface SearchOptions {
      * @return The configured sort keys. The first key is the default used for the initial sorting of search results.
      */
     List<SorterKey> getSorterKeys();
+
+    /**
+     * Indicates if the search must compute the aggregations (facets) of the results. Callers which do not render the facets, like
+     * exports or "load more" requests, should disable the aggregations because they are an expensive part of the search.
+     *
+     * @return <code>true</code> if the aggregations are requested, the default
+     */
+    default boolean isAggregationsEnabled() {
+        return true;
+    }
+
+    /**
+     * @return The attribute codes of the aggregations returned by the search, or an empty set to return all the aggregations.
+     */
+    default Set<String> getAggregationAttributeCodes() {
+        return Collections.emptySet();
+    }
 }
@@ -12,7 +12,7 @@
  *
  ******************************************************************************/
 
-@Version("3.0.0")
+@Version("3.1.0")
 package com.adobe.cq.commerce.core.search.models;
 
 import org.osgi.annotation.versioning.Version;
\ No newline at end of file
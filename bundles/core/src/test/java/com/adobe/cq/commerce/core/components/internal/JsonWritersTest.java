@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonWritersTest {
+
+    public static class Item {
+        private final String name;
+
+        Item(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Test
+    public void testWriterPerType() throws IOException {
+        assertThat(JsonWriters.writerFor(Item.class)).isSameAs(JsonWriters.writerFor(Item.class));
+        assertThat(JsonWriters.writeValueAsString(new Item("a"))).isEqualTo("{\"name\":\"a\"}");
+        assertThat(JsonWriters.writeValueAsString(Arrays.asList(new Item("a"), new Item("b"))))
+            .isEqualTo("[{\"name\":\"a\"},{\"name\":\"b\"}]");
+        assertThat(JsonWriters.writeValueAsString(Collections.emptyList())).isEqualTo("[]");
+        assertThat(JsonWriters.writeValueAsString(null)).isEqualTo("null");
+    }
+
+    @Test
+    public void testWriteValueAsProperty() throws IOException {
+        assertThat(JsonWriters.writeValueAsProperty("item-1", new Item("a\"b"))).isEqualTo("{\"item-1\":{\"name\":\"a\\\"b\"}}");
+        assertThat(JsonWriters.writeValueAsProperty("item-1", null)).isEqualTo("{\"item-1\":null}");
+    }
+
+    @Test
+    public void testStreamToWriter() throws IOException {
+        StringWriter out = new StringWriter();
+        out.write("<div data-json='");
+        JsonWriters.writeValueAsProperty(out, "item-1", new Item("a"));
+        out.write("'>");
+
+        assertThat(out.toString()).isEqualTo("<div data-json='{\"item-1\":{\"name\":\"a\"}}'>");
+    }
+}
@@ -34,6 +34,7 @@ import io.wcm.testing.mock.aem.junit.AemContext;
 import io.wcm.testing.mock.aem.junit.AemContextCallback;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 public class DataLayerComponentTest {
@@ -65,6 +66,20 @@ public class DataLayerComponentTest {
         }
     }
 
+    static class TestContextComponent extends DataLayerComponent implements Component {
+        private final DataLayerContext dataLayerContext;
+
+        public TestContextComponent(Resource resource, DataLayerContext dataLayerContext) {
+            this.resource = resource;
+            this.dataLayerContext = dataLayerContext;
+        }
+
+        @Override
+        protected DataLayerContext getDataLayerContext() {
+            return dataLayerContext;
+        }
+    }
+
     static class TestProductComponent extends DataLayerComponent implements Component {
 
         public TestProductComponent(Resource resource) {
@@ -163,4 +178,18 @@ public class DataLayerComponentTest {
         String jsonResult = testItemComponent.getData().getJson();
         assertEquals(mapper.readTree(expected), mapper.readTree(jsonResult));
     }
+
+    @Test
+    public void testConfigResolvedOncePerPage() {
+        Resource itemResource = Mockito.spy(context.resourceResolver().getResource(PAGE + ITEM_RESOURCE_RELATIVE_PATH));
+        Mockito.when(itemResource.adaptTo(ConfigurationBuilder.class)).thenReturn(mockConfigBuilder);
+        DataLayerContext dataLayerContext = context.request().adaptTo(DataLayerContext.class);
+
+        assertNotNull(new TestContextComponent(testResource, dataLayerContext).getData());
+        assertNotNull(new TestContextComponent(testResource, dataLayerContext).getData());
+        assertNotNull(new TestContextComponent(itemResource, dataLayerContext).getData());
+
+        Mockito.verify(mockConfigBuilder, Mockito.times(1)).asValueMap();
+        Mockito.verify(itemResource, Mockito.never()).adaptTo(ConfigurationBuilder.class);
+    }
 }
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.datalayer;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataLayerIdsTest {
+
+    @Test
+    public void testGenerateId() {
+        String path = "/content/venia/us/en/jcr:content/root/responsivegrid/productlist";
+        String expected = "productlist-" + DigestUtils.sha256Hex(path).substring(0, 10);
+
+        assertThat(DataLayerIds.generateComponentId("core/cif/components/commerce/productlist", path)).isEqualTo(expected);
+        assertThat(DataLayerIds.generateId("productlist", path)).isEqualTo(expected);
+        assertThat(DataLayerIds.generateId("product", "MJ01")).isEqualTo("product-" + DigestUtils.sha256Hex("MJ01").substring(0, 10));
+    }
+
+    @Test
+    public void testBoundedHashes() {
+        for (int i = 0; i <= DataLayerIds.MAX_HASHES; i++) {
+            DataLayerIds.hash("sku-" + i);
+        }
+        assertThat(DataLayerIds.size()).isLessThanOrEqualTo(DataLayerIds.MAX_HASHES);
+        assertThat(DataLayerIds.hash("sku-1")).isEqualTo(DigestUtils.sha256Hex("sku-1").substring(0, 10));
+    }
+}
@@ -11,27 +11,29 @@
  *    governing permissions and limitations under the License.
  *
  ******************************************************************************/
-package com.adobe.cq.commerce.core.components.internal.models.v1.experiencefragment;
 
-import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
-import com.adobe.cq.commerce.core.components.models.retriever.AbstractProductRetriever;
-import com.adobe.cq.commerce.magento.graphql.ProductInterfaceQueryDefinition;
+package com.adobe.cq.commerce.core.components.internal.models.v1;
 
-class ProductRetriever extends AbstractProductRetriever {
+import java.io.IOException;
 
-    ProductRetriever(MagentoGraphqlClient client) {
-        super(client);
-    }
+import org.junit.Test;
+
+import com.adobe.cq.commerce.magento.graphql.Query;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
-    @Override
-    protected ProductInterfaceQueryDefinition generateProductQuery() {
-        return q -> {
-            q.sku();
+public class UtilsTest {
+
+    @Test
+    public void testPlaceholderQueryParsedOnce() throws IOException {
+        Query query = Utils.getPlaceholderQuery("product-component-placeholder-data.json");
+
+        assertThat(query.getProducts().getItems()).isNotEmpty();
+        assertThat(Utils.getPlaceholderQuery("product-component-placeholder-data.json")).isSameAs(query);
+    }
 
-            // Apply product query hook
-            if (productQueryHook != null) {
-                productQueryHook.accept(q);
-            }
-        };
+    @Test(expected = IOException.class)
+    public void testMissingPlaceholderData() throws IOException {
+        Utils.getPlaceholderQuery("missing-placeholder-data.json");
     }
-}
\ No newline at end of file
+}
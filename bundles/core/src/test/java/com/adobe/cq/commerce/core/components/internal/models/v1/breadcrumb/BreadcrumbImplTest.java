@@ -31,10 +31,13 @@ import org.apache.sling.xss.XSSAPI;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.internal.util.reflection.Whitebox;
 
 import com.adobe.cq.commerce.core.MockLaunch;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeIndex;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
 import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
 import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
 import com.adobe.cq.commerce.core.components.services.ComponentsConfiguration;
@@ -42,6 +45,7 @@ import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.components.services.UrlProvider.ProductIdentifierType;
 import com.adobe.cq.commerce.core.components.testing.Utils;
 import com.adobe.cq.commerce.graphql.client.GraphqlClient;
+import com.adobe.cq.commerce.graphql.client.GraphqlRequest;
 import com.adobe.cq.commerce.magento.graphql.CategoryInterface;
 import com.adobe.cq.commerce.magento.graphql.CategoryTree;
 import com.adobe.cq.launches.api.Launch;
@@ -59,7 +63,14 @@ import io.wcm.testing.mock.aem.junit.AemContext;
 import io.wcm.testing.mock.aem.junit.AemContextCallback;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class BreadcrumbImplTest {
@@ -91,6 +102,7 @@ public class BreadcrumbImplTest {
     }
 
     private static final String BREADCRUMB_RELATIVE_PATH = "/jcr:content/root/responsivegrid/breadcrumb";
+    private static final String CATEGORY_BREADCRUMB_RESULT = "graphql/magento-graphql-category-breadcrumb-result.json";
 
     private Resource breadcrumbResource;
     private BreadcrumbImpl breadcrumbModel;
@@ -205,7 +217,7 @@ public class BreadcrumbImplTest {
 
     @Test
     public void testCategoryPage() throws Exception {
-        graphqlClient = Utils.setupGraphqlClientWithHttpResponseFrom("graphql/magento-graphql-category-breadcrumb-result.json");
+        graphqlClient = Utils.setupGraphqlClientWithHttpResponseFrom(CATEGORY_BREADCRUMB_RESULT);
         prepareModel("/content/venia/us/en/products/category-page");
 
         MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
@@ -226,7 +238,7 @@ public class BreadcrumbImplTest {
 
     @Test
     public void testCategorySpecificPage() throws Exception {
-        graphqlClient = Utils.setupGraphqlClientWithHttpResponseFrom("graphql/magento-graphql-category-breadcrumb-result.json");
+        graphqlClient = Utils.setupGraphqlClientWithHttpResponseFrom(CATEGORY_BREADCRUMB_RESULT);
         prepareModel("/content/venia/us/en/products/category-page/category-specific-page");
 
         // We set the EDIT mode to see the page specific URL
@@ -244,6 +256,112 @@ public class BreadcrumbImplTest {
         assertThat(product.isActive()).isTrue();
     }
 
+    private CategoryTreeService registerCategoryTree() {
+        // The root category is configured on the catalog page
+        Resource catalogPageResource = context.resourceResolver().getResource("/content/venia/us/en/products/jcr:content");
+        catalogPageResource.adaptTo(ModifiableValueMap.class).put("magentoRootCategoryId", "Mg==");
+
+        CategoryTree root = new CategoryTree().setUid(new ID("Mg==")).setName("Default Category").setChildren(Arrays.asList(
+            new CategoryTree().setUid(new ID("MTI=")).setName("Men").setUrlKey("men").setUrlPath("men").setChildren(Arrays.asList(
+                new CategoryTree().setUid(new ID("MTM=")).setName("Tops").setUrlKey("tops-men").setUrlPath("men/tops-men")
+                    .setChildren(Arrays.asList(
+                        new CategoryTree().setUid(new ID("MTg=")).setName("Tanks").setUrlKey("tanks-men").setUrlPath(
+                            "men/tops-men/tanks-men")))))));
+
+        CategoryTreeService categoryTreeService = mock(CategoryTreeService.class);
+        when(categoryTreeService.getCachedTree(any(), eq("Mg=="))).thenReturn(CategoryTreeIndex.build(root));
+        context.registerService(CategoryTreeService.class, categoryTreeService);
+        return categoryTreeService;
+    }
+
+    @Test
+    public void testCategoryPageFromCategoryTree() throws Exception {
+        graphqlClient = Mockito.spy(Utils.setupGraphqlClientWithHttpResponseFrom(CATEGORY_BREADCRUMB_RESULT));
+        prepareModel("/content/venia/us/en/products/category-page");
+        CategoryTreeService categoryTreeService = registerCategoryTree();
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("MTg=");
+
+        breadcrumbModel = context.request().adaptTo(BreadcrumbImpl.class);
+        List<NavigationItem> items = (List<NavigationItem>) breadcrumbModel.getItems();
+        assertThat(items.stream().map(i -> i.getTitle())).containsExactly("en", "Men", "Tops", "Tanks");
+
+        NavigationItem tanksCategory = items.get(3);
+        assertThat(tanksCategory.getURL()).isEqualTo("/content/venia/us/en/products/category-page.MTg%3D.html");
+        assertThat(tanksCategory.isActive()).isTrue();
+
+        // The breadcrumbs are not queried, and no other tree is fetched
+        verify(graphqlClient, never()).execute(any(), any(), any(), any());
+        verify(categoryTreeService, never()).getTree(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testCategoryPageWithoutCachedCategoryTree() throws Exception {
+        graphqlClient = Mockito.spy(Utils.setupGraphqlClientWithHttpResponseFrom(CATEGORY_BREADCRUMB_RESULT));
+        prepareModel("/content/venia/us/en/products/category-page");
+        Resource catalogPageResource = context.resourceResolver().getResource("/content/venia/us/en/products/jcr:content");
+        catalogPageResource.adaptTo(ModifiableValueMap.class).put("magentoRootCategoryId", "Mg==");
+        CategoryTreeService categoryTreeService = mock(CategoryTreeService.class);
+        context.registerService(CategoryTreeService.class, categoryTreeService);
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("MTM=");
+
+        breadcrumbModel = context.request().adaptTo(BreadcrumbImpl.class);
+        List<NavigationItem> items = (List<NavigationItem>) breadcrumbModel.getItems();
+        assertThat(items.stream().map(i -> i.getTitle())).containsExactly("en", "Men", "Tops");
+
+        // Without tree cached for the navigation, the breadcrumbs are queried and no tree is fetched
+        verify(graphqlClient, times(1)).execute(any(), any(), any(), any());
+        verify(categoryTreeService, never()).getTree(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testCategoryPageFromCategoryTreeOfSubCategory() throws Exception {
+        graphqlClient = Mockito.spy(Utils.setupGraphqlClientWithHttpResponseFrom(CATEGORY_BREADCRUMB_RESULT));
+        prepareModel("/content/venia/us/en/products/category-page");
+
+        // The root of the tree is not the root category of the store, so the tree does not have all the parents of the category
+        Resource catalogPageResource = context.resourceResolver().getResource("/content/venia/us/en/products/jcr:content");
+        catalogPageResource.adaptTo(ModifiableValueMap.class).put("magentoRootCategoryId", "MTI=");
+        CategoryTree root = new CategoryTree().setUid(new ID("MTI=")).setName("Men").setUrlKey("men").setUrlPath("men").setChildren(
+            Arrays.asList(new CategoryTree().setUid(new ID("MTM=")).setName("Tops").setUrlKey("tops-men").setUrlPath("men/tops-men")));
+        CategoryTreeService categoryTreeService = mock(CategoryTreeService.class);
+        when(categoryTreeService.getCachedTree(any(), eq("MTI="))).thenReturn(CategoryTreeIndex.build(root));
+        context.registerService(CategoryTreeService.class, categoryTreeService);
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("MTM=");
+
+        breadcrumbModel = context.request().adaptTo(BreadcrumbImpl.class);
+        List<NavigationItem> items = (List<NavigationItem>) breadcrumbModel.getItems();
+        assertThat(items.stream().map(i -> i.getTitle())).containsExactly("en", "Men", "Tops");
+
+        // The breadcrumbs are queried
+        verify(graphqlClient, times(1)).execute(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testProductPageWithCategoryTree() throws Exception {
+        graphqlClient = Mockito.spy(Utils.setupGraphqlClientWithHttpResponseFrom("graphql/magento-graphql-product-breadcrumb-result.json"));
+        prepareModel("/content/venia/us/en/products/product-page");
+        CategoryTreeService categoryTreeService = registerCategoryTree();
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("tiberius-gym-tank");
+
+        breadcrumbModel = context.request().adaptTo(BreadcrumbImpl.class);
+        List<NavigationItem> items = (List<NavigationItem>) breadcrumbModel.getItems();
+        assertThat(items.stream().map(i -> i.getTitle())).containsExactly("en", "Men", "Tops", "Tiberius Gym Tank");
+
+        // The breadcrumbs of the product are taken from the product query shared by the components of the page
+        ArgumentCaptor<GraphqlRequest> captor = ArgumentCaptor.forClass(GraphqlRequest.class);
+        verify(graphqlClient, times(1)).execute(captor.capture(), any(), any(), any());
+        assertThat(captor.getValue().getQuery()).startsWith("{products(filter:{url_key:{eq:\"tiberius-gym-tank\"}})");
+        verifyZeroInteractions(categoryTreeService);
+    }
+
     @Test
     public void testProductPageWithCatalogPage() throws Exception {
         graphqlClient = Utils.setupGraphqlClientWithHttpResponseFrom("graphql/magento-graphql-product-breadcrumb-result.json");
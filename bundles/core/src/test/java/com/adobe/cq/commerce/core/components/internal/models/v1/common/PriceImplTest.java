@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.models.v1.common;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.adobe.cq.commerce.core.components.internal.models.v1.Utils;
+import com.adobe.cq.commerce.magento.graphql.CurrencyEnum;
+import com.adobe.cq.commerce.magento.graphql.Money;
+import com.adobe.cq.commerce.magento.graphql.PriceRange;
+import com.adobe.cq.commerce.magento.graphql.ProductDiscount;
+import com.adobe.cq.commerce.magento.graphql.ProductPrice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceImplTest {
+
+    private static ProductPrice price(double regular, double discount) {
+        return new ProductPrice()
+            .setRegularPrice(new Money().setValue(regular).setCurrency(CurrencyEnum.USD))
+            .setFinalPrice(new Money().setValue(regular - discount).setCurrency(CurrencyEnum.USD))
+            .setDiscount(new ProductDiscount().setAmountOff(discount).setPercentOff(discount * 100 / regular));
+    }
+
+    @Test
+    public void testSinglePrice() {
+        PriceImpl price = new PriceImpl(new PriceRange().setMinimumPrice(price(20, 0)), Locale.US);
+
+        assertThat(price.isRange()).isFalse();
+        assertThat(price.isDiscounted()).isFalse();
+        assertThat(price.getFormattedFinalPrice()).isEqualTo("$20.00");
+        assertThat(price.getFormattedFinalPriceMax()).isEmpty();
+    }
+
+    @Test
+    public void testDiscountedRange() {
+        PriceImpl price = new PriceImpl(new PriceRange().setMinimumPrice(price(20, 5)).setMaximumPrice(price(40, 5)), Locale.US);
+
+        assertThat(price.isRange()).isTrue();
+        assertThat(price.isDiscounted()).isTrue();
+        assertThat(price.getFormattedFinalPrice()).isEqualTo("$15.00");
+        assertThat(price.getFormattedFinalPriceMax()).isEqualTo("$35.00");
+        assertThat(price.getFormattedDiscountAmount()).isEqualTo("$5.00");
+    }
+
+    @Test
+    public void testSameMinimumAndMaximumPrice() {
+        PriceImpl price = new PriceImpl(new PriceRange().setMinimumPrice(price(20, 0)).setMaximumPrice(price(20, 0)), Locale.US);
+
+        assertThat(price.isRange()).isFalse();
+        assertThat(price.getFinalPriceMax()).isNaN();
+    }
+
+    @Test
+    public void testPriceFormatterPerThread() throws InterruptedException {
+        assertThat(Utils.getPriceFormatter(Locale.US, "EUR")).isSameAs(Utils.getPriceFormatter(Locale.US, "EUR"));
+        assertThat(Utils.getPriceFormatter(Locale.US, "EUR")).isNotSameAs(Utils.getPriceFormatter(Locale.US, "USD"));
+        assertThat(Utils.getPriceFormatter(Locale.US, "EUR").format(12.5)).isEqualTo("€12.50");
+
+        Object[] otherThreadFormatter = new Object[1];
+        Thread thread = new Thread(() -> otherThreadFormatter[0] = Utils.getPriceFormatter(Locale.US, "EUR"));
+        thread.start();
+        thread.join();
+        assertThat(otherThreadFormatter[0]).isNotNull().isNotSameAs(Utils.getPriceFormatter(Locale.US, "EUR"));
+    }
+}
@@ -9,6 +9,10 @@
 
 package com.adobe.cq.commerce.core.components.internal.models.v1.common;
 
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
 import org.junit.Assert;
 import org.junit.Before;
@@ -17,6 +21,7 @@ import org.mockito.Mockito;
 
 import com.adobe.cq.commerce.core.components.models.common.CommerceIdentifier;
 import com.adobe.cq.commerce.core.components.models.common.ProductListItem;
+import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.wcm.core.components.models.datalayer.ComponentData;
 import com.day.cq.wcm.api.Page;
 
@@ -56,6 +61,29 @@ public class ProductListItemTest {
         Assert.assertNotNull("Component data retrieved successfully", productListItem.getSomeData());
     }
 
+    @Test
+    public void testBatchUrls() {
+        SlingHttpServletRequest request = Mockito.mock(SlingHttpServletRequest.class);
+        UrlProvider urlProvider = Mockito.mock(UrlProvider.class);
+        Mockito.when(urlProvider.toProductUrls(Mockito.eq(request), Mockito.eq(productPage), Mockito.anyList()))
+            .thenReturn(Arrays.asList("/product-1.html", "/product-2.html"));
+
+        List<ProductListItem> items = Arrays.asList(
+            new ProductListItemImpl("sku-1", "product-1", "Product 1", null, null, productPage, null, request, urlProvider, "", false),
+            new ProductListItemImpl(new CommerceIdentifierImpl("sku-3", CommerceIdentifier.IdentifierType.SKU,
+                CommerceIdentifier.EntityType.PRODUCT), "", productPage),
+            new ProductListItemImpl("sku-2", "product-2", "Product 2", null, null, productPage, null, request, urlProvider, "", false));
+        ProductListItemImpl.batchUrls(items);
+
+        Assert.assertEquals("/product-2.html", items.get(2).getURL());
+        Assert.assertEquals("", items.get(1).getURL());
+        Assert.assertEquals("/product-1.html", items.get(0).getURL());
+
+        // The URLs of all the items are generated with a single call
+        Mockito.verify(urlProvider, Mockito.times(1)).toProductUrls(Mockito.any(), Mockito.any(), Mockito.anyList());
+        Mockito.verify(urlProvider, Mockito.never()).toProductUrl(Mockito.any(), Mockito.any(), Mockito.anyMap());
+    }
+
     private class TestInheritedItemImpl extends ProductListItemImpl {
 
         public TestInheritedItemImpl(CommerceIdentifier identifier, String parentId, Page productPage) {
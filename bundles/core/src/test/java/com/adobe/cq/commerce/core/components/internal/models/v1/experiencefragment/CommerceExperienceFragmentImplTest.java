@@ -15,6 +15,7 @@
 package com.adobe.cq.commerce.core.components.internal.models.v1.experiencefragment;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import javax.jcr.Session;
 
@@ -33,6 +34,9 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.mockito.internal.util.reflection.Whitebox;
 
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.ExperienceFragmentIndexService;
+import com.adobe.cq.commerce.core.components.internal.services.IdentifierResolutionService;
 import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
 import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
 import com.adobe.cq.commerce.core.components.models.experiencefragment.CommerceExperienceFragment;
@@ -45,6 +49,7 @@ import com.adobe.cq.commerce.graphql.client.GraphqlClient;
 import com.adobe.cq.commerce.graphql.client.GraphqlClientConfiguration;
 import com.adobe.cq.commerce.graphql.client.HttpMethod;
 import com.adobe.cq.commerce.graphql.client.impl.GraphqlClientImpl;
+import com.adobe.cq.commerce.magento.graphql.SimpleProduct;
 import com.adobe.cq.commerce.magento.graphql.gson.QueryDeserializer;
 import com.day.cq.wcm.api.LanguageManager;
 import com.day.cq.wcm.api.Page;
@@ -55,7 +60,10 @@ import com.google.common.collect.ImmutableMap;
 import io.wcm.testing.mock.aem.junit.AemContext;
 import io.wcm.testing.mock.aem.junit.AemContextCallback;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CommerceExperienceFragmentImplTest {
@@ -82,6 +90,7 @@ public class CommerceExperienceFragmentImplTest {
         " AND node.[" + CommerceExperienceFragment.PN_FRAGMENT_LOCATION + "] %s";
 
     private LanguageManager languageManager;
+    private HttpClient httpClient;
 
     private AemContext createContext(String contentPath) {
         return new AemContext(
@@ -112,7 +121,7 @@ public class CommerceExperienceFragmentImplTest {
         slingBindings.put(WCMBindingsConstants.NAME_CURRENT_PAGE, page);
         slingBindings.setResource(xfResource);
 
-        HttpClient httpClient = mock(HttpClient.class);
+        httpClient = mock(HttpClient.class);
         GraphqlClient graphqlClient = Mockito.spy(new GraphqlClientImpl());
 
         GraphqlClientConfiguration graphqlClientConfiguration = mock(GraphqlClientConfiguration.class);
@@ -125,11 +134,11 @@ public class CommerceExperienceFragmentImplTest {
         Utils.setupHttpResponse("graphql/magento-graphql-xf1-category-uid.json", httpClient, HttpStatus.SC_OK,
             "1\"}}){uid}}");
         Utils.setupHttpResponse("graphql/magento-graphql-xf1-product.json", httpClient, HttpStatus.SC_OK,
-            "1\"}}){items{__typename,sku}}}");
+            "1\"}}){items{__typename,sku");
         Utils.setupHttpResponse("graphql/magento-graphql-xf2-category-uid.json", httpClient, HttpStatus.SC_OK,
             "2\"}}){uid}}");
         Utils.setupHttpResponse("graphql/magento-graphql-xf2-product.json", httpClient, HttpStatus.SC_OK,
-            "2\"}}){items{__typename,sku}}}");
+            "2\"}}){items{__typename,sku");
 
         ValueMap mockConfig = new ValueMapDecorator(ImmutableMap.of("cq:graphqlClient", "default", "magentoStore",
             "my-store", "enableUIDSupport", "true"));
@@ -215,6 +224,23 @@ public class CommerceExperienceFragmentImplTest {
         verifyFragmentResourceIsNull(XF_ROOT, "sku-xf3", null, "location-xf2");
     }
 
+    @Test
+    public void testQueryValuesAreEscaped() throws IOException {
+        setup(PRODUCT_PAGE, RESOURCE_XF2);
+        setupUrlProvider(ProductIdentifierType.SKU);
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("sku') OR ('a'='a");
+
+        XFMockQueryResultHandler queryHandler = mockJcrQueryResult(SITE_XF_ROOT, null, null, null);
+        CommerceExperienceFragmentImpl cxf = context.request().adaptTo(CommerceExperienceFragmentImpl.class);
+        Assert.assertNotNull(cxf);
+
+        // The quotes of the SKU cannot end the string literals of the query
+        String expectedQuery = buildQuery(SITE_XF_ROOT, "sku'') OR (''a''=''a", null, "location-xf2");
+        Assert.assertEquals(expectedQuery, queryHandler.getQuery().getStatement());
+    }
+
     @Test
     public void testFragmentOnProductPageWhenProductNotFound() throws IOException {
         setup(PRODUCT_PAGE, RESOURCE_XF1);
@@ -274,6 +300,25 @@ public class CommerceExperienceFragmentImplTest {
         verifyFragmentResourceIsNull(XF_ROOT, null, null, null);
     }
 
+    @Test
+    public void testFragmentOnProductPageWithResolvedUrlKey() throws IOException {
+        setup(PRODUCT_PAGE, RESOURCE_XF1);
+
+        // The url_key to SKU mapping was already received by another component
+        IdentifierResolutionService identifierResolutionService = context.registerInjectActivateService(
+            new IdentifierResolutionService());
+        MagentoGraphqlClient magentoGraphqlClient = context.request().adaptTo(MagentoGraphqlClient.class);
+        identifierResolutionService.warmProducts(magentoGraphqlClient, Collections.singletonList(new SimpleProduct().setSku("sku-xf1")
+            .setUrlKey("url-key-xf1")));
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("url-key-xf1");
+
+        verifyFragment(SITE_XF_ROOT, "sku-xf1", null, null, "xf-1-uid",
+            "/content/experience-fragments/mysite/page/xf-1-uid/master/jcr:content");
+        verify(httpClient, never()).execute(any());
+    }
+
     @Test
     public void testUIDSupportWithURLPathSelector() throws IOException {
         setup(CATEGORY_PAGE, RESOURCE_XF2);
@@ -286,6 +331,51 @@ public class CommerceExperienceFragmentImplTest {
             "/content/experience-fragments/mysite/page/xf-2-uid/master/jcr:content");
     }
 
+    @Test
+    public void testFragmentsAreFoundWithIndex() throws IOException {
+        setup(PRODUCT_PAGE, RESOURCE_XF2);
+        setupUrlProvider(ProductIdentifierType.SKU);
+        context.registerService(ExperienceFragmentIndexService.class, new ExperienceFragmentIndexService());
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("sku-xf2");
+
+        // No query result handler is registered, so the fragment can only be found in the index
+        CommerceExperienceFragmentImpl cxf = context.request().adaptTo(CommerceExperienceFragmentImpl.class);
+        Assert.assertNotNull(cxf);
+        Assert.assertEquals("xf-2-uid", cxf.getName());
+        Assert.assertEquals("/content/experience-fragments/mysite/page/xf-2-uid/master/jcr:content",
+            cxf.getExperienceFragmentResource().getPath());
+    }
+
+    @Test
+    public void testCategoryFragmentsAreFoundWithIndex() throws IOException {
+        setup(CATEGORY_PAGE, RESOURCE_XF1);
+        context.registerService(ExperienceFragmentIndexService.class, new ExperienceFragmentIndexService());
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("uid1");
+
+        CommerceExperienceFragmentImpl cxf = context.request().adaptTo(CommerceExperienceFragmentImpl.class);
+        Assert.assertNotNull(cxf);
+        Assert.assertEquals("xf-1-uid", cxf.getName());
+        Assert.assertEquals("/content/experience-fragments/mysite/page/xf-1-uid/master/jcr:content",
+            cxf.getExperienceFragmentResource().getPath());
+    }
+
+    @Test
+    public void testFragmentsOfAnotherLocationAreNotFoundWithIndex() throws IOException {
+        setup(CATEGORY_PAGE, RESOURCE_XF1);
+        context.registerService(ExperienceFragmentIndexService.class, new ExperienceFragmentIndexService());
+
+        MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
+        requestPathInfo.setSelectorString("uid2");
+
+        CommerceExperienceFragmentImpl cxf = context.request().adaptTo(CommerceExperienceFragmentImpl.class);
+        Assert.assertNotNull(cxf);
+        Assert.assertNull(cxf.getExperienceFragmentResource());
+    }
+
     private void verifyFragment(String xfRootPath, String productSku, String categoryId, String fragmentLocation, String expectedXFName,
         String expectedXFPath) {
         XFMockQueryResultHandler queryHandler = mockJcrQueryResult(xfRootPath, productSku, categoryId, fragmentLocation);
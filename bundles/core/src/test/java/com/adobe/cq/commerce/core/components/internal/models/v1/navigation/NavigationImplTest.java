@@ -15,6 +15,7 @@
 package com.adobe.cq.commerce.core.components.internal.models.v1.navigation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.util.reflection.Whitebox;
 
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeIndex;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
 import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
 import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
 import com.adobe.cq.commerce.core.components.models.navigation.Navigation;
@@ -47,12 +52,16 @@ import com.shopify.graphql.support.ID;
 import static com.adobe.cq.commerce.core.components.internal.models.v1.navigation.NavigationImpl.DEFAULT_STRUCTURE_DEPTH;
 import static com.adobe.cq.commerce.core.components.internal.models.v1.navigation.NavigationImpl.MAX_STRUCTURE_DEPTH;
 import static com.adobe.cq.commerce.core.components.internal.models.v1.navigation.NavigationImpl.MIN_STRUCTURE_DEPTH;
-import static com.adobe.cq.commerce.core.components.internal.models.v1.navigation.NavigationImpl.PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER;
+import static com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService.PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER;
 import static com.adobe.cq.commerce.core.components.models.navigation.Navigation.PN_SHOW_MAIN_CATEGORIES;
 import static com.adobe.cq.commerce.core.components.models.navigation.Navigation.RT_CATALOG_PAGE;
 import static com.adobe.cq.wcm.core.components.models.Navigation.PN_STRUCTURE_DEPTH;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class NavigationImplTest {
@@ -88,6 +97,9 @@ public class NavigationImplTest {
         Resource categoryPageResource = new SyntheticResource(null, CATEGORY_PAGE_PATH, null);
         when(categoryPage.adaptTo(Resource.class)).thenReturn(categoryPageResource);
         Whitebox.setInternalState(navigation, "currentPage", currentPage);
+        CommercePageContext pageContext = mock(CommercePageContext.class);
+        when(pageContext.getCategoryPage()).thenReturn(categoryPage);
+        Whitebox.setInternalState(navigation, "pageContext", pageContext);
 
         // WCM navigation model
         wcmNavigation = mock(com.adobe.cq.wcm.core.components.internal.models.v1.NavigationImpl.class);
@@ -491,6 +503,75 @@ public class NavigationImplTest {
 
     }
 
+    @Test
+    public void testNavigationCategoriesFromCategoryTreeService() {
+        // the categories of the shared category tree are used as they are, without querying Magento
+
+        initCatalogPage(true, true, false);
+
+        NavigationItem item = mock(NavigationItem.class);
+        when(item.getPath()).thenReturn(CATALOG_PAGE_PATH);
+        navigationItems.add(item);
+
+        CategoryTree root = new CategoryTree().setUid(new ID("4")).setChildren(Arrays.asList(
+            new CategoryTree().setUid(new ID("uid-2")).setName("Category 2").setPosition(2),
+            new CategoryTree().setUid(new ID("uid-1")).setName("Category 1").setPosition(1).setChildren(Arrays.asList(
+                new CategoryTree().setUid(new ID("uid-1-1")).setName("Category 1 1").setPosition(1)))));
+
+        MagentoGraphqlClient magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        CategoryTreeService categoryTreeService = mock(CategoryTreeService.class);
+        when(categoryTreeService.getTree(any(), eq("4"), anyInt())).thenReturn(CategoryTreeIndex.build(root));
+        Whitebox.setInternalState(navigation, "magentoGraphqlClient", magentoGraphqlClient);
+        Whitebox.setInternalState(navigation, "categoryTreeService", categoryTreeService);
+
+        List<com.adobe.cq.commerce.core.components.models.navigation.NavigationItem> items = navigation.getItems();
+        Assert.assertEquals(2, items.size());
+        Assert.assertEquals("Category 1", items.get(0).getTitle());
+        Assert.assertEquals(CATEGORY_PAGE_PATH + ".uid-1.html", items.get(0).getURL());
+        Assert.assertEquals("Category 2", items.get(1).getTitle());
+        Assert.assertEquals(1, items.get(0).getItems().size());
+        Assert.assertEquals("Category 1 1", items.get(0).getItems().get(0).getTitle());
+        Assert.assertTrue(items.get(1).getItems().isEmpty());
+
+        verify(categoryProvider, never()).getChildCategories(any(), any());
+    }
+
+    @Test
+    public void testNavigationCategoriesLoadedOnDemand() {
+        // only the first levels are rendered, the deeper categories are loaded on demand
+
+        initCatalogPage(true, true, false);
+
+        NavigationItem item = mock(NavigationItem.class);
+        when(item.getPath()).thenReturn(CATALOG_PAGE_PATH);
+        navigationItems.add(item);
+
+        CategoryTree root = new CategoryTree().setUid(new ID("4")).setChildren(Arrays.asList(
+            new CategoryTree().setUid(new ID("uid-1")).setName("Category 1").setChildrenCount("1").setChildren(Arrays.asList(
+                new CategoryTree().setUid(new ID("uid-1-1")).setName("Category 1 1").setChildrenCount("1").setChildren(Arrays.asList(
+                    new CategoryTree().setUid(new ID("uid-1-1-1")).setName("Category 1 1 1")))))));
+
+        CategoryTreeService categoryTreeService = mock(CategoryTreeService.class);
+        when(categoryTreeService.getTree(any(), eq("4"), anyInt())).thenReturn(CategoryTreeIndex.build(root));
+        Whitebox.setInternalState(navigation, "magentoGraphqlClient", mock(MagentoGraphqlClient.class));
+        Whitebox.setInternalState(navigation, "categoryTreeService", categoryTreeService);
+        Whitebox.setInternalState(navigation, "resource", new SyntheticResource(null, "/content/header/navigation", null));
+        Whitebox.setInternalState(navigation, "loadChildrenOnDemand", true);
+        Whitebox.setInternalState(navigation, "structureDepth", 4);
+        ResourceResolver resourceResolver = mock(ResourceResolver.class);
+        when(resourceResolver.map(request, "/content/header/navigation")).thenReturn("/header/navigation");
+        when(request.getResourceResolver()).thenReturn(resourceResolver);
+
+        List<com.adobe.cq.commerce.core.components.models.navigation.NavigationItem> items = navigation.getItems();
+        Assert.assertNull(items.get(0).getChildrenURL());
+        com.adobe.cq.commerce.core.components.models.navigation.NavigationItem childItem = items.get(0).getItems().get(0);
+        Assert.assertTrue(childItem.getItems().isEmpty());
+        Assert.assertEquals("/header/navigation.children.json/uid-1-1.json", childItem.getChildrenURL());
+
+        // the whole tree is cached, the NavigationChildrenServlet serves the deeper levels from it
+        verify(categoryTreeService).getTree(any(), eq("4"), eq(4));
+    }
+
     @Test
     public void testNavigationPageBeforeCategory() {
         testNavigationItemOrdering(true);
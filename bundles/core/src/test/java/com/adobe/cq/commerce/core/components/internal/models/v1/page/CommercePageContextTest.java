@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.models.v1.page;
+
+import java.util.Locale;
+
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.adobe.cq.commerce.core.MockExternalizer;
+import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
+import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
+import com.adobe.cq.commerce.core.components.services.UrlProvider;
+import com.day.cq.commons.Externalizer;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.scripting.WCMBindingsConstants;
+import io.wcm.testing.mock.aem.junit.AemContext;
+import io.wcm.testing.mock.aem.junit.AemContextCallback;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CommercePageContextTest {
+
+    @Rule
+    public final AemContext context = new AemContext(
+        (AemContextCallback) context -> {
+            context.load().json("/context/jcr-content.json", "/content");
+
+            UrlProviderImpl urlProvider = new UrlProviderImpl();
+            urlProvider.activate(new MockUrlProviderConfiguration());
+            context.registerService(UrlProvider.class, urlProvider);
+            context.registerService(Externalizer.class, new MockExternalizer());
+        },
+        ResourceResolverType.JCR_MOCK);
+
+    private CommercePageContext adaptRequest(String pagePath) {
+        Page page = context.currentPage(pagePath);
+        context.currentResource(page.getContentResource());
+        SlingBindings slingBindings = (SlingBindings) context.request().getAttribute(SlingBindings.class.getName());
+        slingBindings.put(WCMBindingsConstants.NAME_CURRENT_PAGE, page);
+        return context.request().adaptTo(CommercePageContext.class);
+    }
+
+    @Test
+    public void testPageContext() {
+        context.requestPathInfo().setSelectorString("beaumont-summit-kit");
+        CommercePageContext pageContext = adaptRequest("/content/pageA");
+
+        assertEquals("/content/pageA", pageContext.getCurrentPage().getPath());
+        assertEquals("/content/product-page", pageContext.getProductPage().getPath());
+        assertEquals("/content/category-page", pageContext.getCategoryPage().getPath());
+        assertSame(pageContext.getProductPage(), pageContext.getProductPage());
+        assertEquals(Locale.US, pageContext.getLocale());
+        assertEquals(UrlProvider.ProductIdentifierType.URL_KEY, pageContext.getProductIdentifier().getLeft());
+        assertEquals("beaumont-summit-kit", pageContext.getProductIdentifier().getRight());
+        assertEquals("https://publish" + context.request().getRequestURI(), pageContext.getCanonicalUrl());
+        assertFalse(pageContext.isLaunchPage());
+        assertNull(pageContext.getMagentoGraphqlClient());
+
+        // the model is cached for the request
+        assertSame(pageContext, context.request().adaptTo(CommercePageContext.class));
+    }
+
+    @Test
+    public void testLaunchPage() {
+        CommercePageContext pageContext = adaptRequest("/content/launches/2020/09/14/mylaunch/content/pageA");
+        assertTrue(pageContext.isLaunchPage());
+    }
+
+    @Test
+    public void testPageContextWithoutCurrentPage() {
+        context.currentResource("/content/pageA/jcr:content/root/responsivegrid/productteaser-simple");
+        MockSlingHttpServletRequest request = context.request();
+        CommercePageContext pageContext = request.adaptTo(CommercePageContext.class);
+
+        // the containing page is used when the request is not rendering a page
+        assertEquals("/content/pageA", pageContext.getCurrentPage().getPath());
+    }
+}
@@ -15,7 +15,10 @@
 package com.adobe.cq.commerce.core.components.internal.models.v1.product;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.http.client.HttpClient;
 import org.apache.sling.api.resource.Resource;
@@ -54,6 +57,7 @@ import com.adobe.cq.commerce.magento.graphql.ComplexTextValue;
 import com.adobe.cq.commerce.magento.graphql.ConfigurableProduct;
 import com.adobe.cq.commerce.magento.graphql.ConfigurableProductOptions;
 import com.adobe.cq.commerce.magento.graphql.ConfigurableProductOptionsValues;
+import com.adobe.cq.commerce.magento.graphql.ConfigurableVariant;
 import com.adobe.cq.commerce.magento.graphql.GroupedProduct;
 import com.adobe.cq.commerce.magento.graphql.MediaGalleryInterface;
 import com.adobe.cq.commerce.magento.graphql.ProductInterface;
@@ -67,6 +71,7 @@ import com.day.cq.commons.Externalizer;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.designer.Style;
 import com.day.cq.wcm.scripting.WCMBindingsConstants;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
@@ -290,6 +295,70 @@ public class ProductImplTest {
         }
     }
 
+    @Test
+    public void testVariantMatrix() throws IOException {
+        adaptToProduct();
+        JsonNode matrix = new ObjectMapper().readTree(productModel.getVariantMatrixJson());
+        ConfigurableProduct cp = (ConfigurableProduct) product;
+
+        JsonNode attributes = matrix.get("attributes");
+        Assert.assertEquals(cp.getConfigurableOptions().size(), attributes.size());
+        Assert.assertEquals(cp.getConfigurableOptions().get(0).getAttributeCode(), attributes.get(0).asText());
+
+        JsonNode variants = matrix.get("variants");
+        Assert.assertEquals(cp.getVariants().size(), variants.size());
+        Assert.assertTrue(matrix.get("prices").size() <= variants.size());
+        Assert.assertTrue(matrix.get("assets").size() <= variants.size());
+
+        for (int i = 0; i < variants.size(); i++) {
+            JsonNode row = variants.get(i);
+            SimpleProduct sp = cp.getVariants().get(i).getProduct();
+
+            Assert.assertEquals(sp.getSku(), row.get(0).asText());
+            Assert.assertEquals(sp.getName(), matrix.get("names").get(row.get(2).asInt()).asText());
+            Assert.assertEquals(sp.getDescription().getHtml(), matrix.get("descriptions").get(row.get(3).asInt()).asText());
+            Assert.assertEquals(sp.getMediaGallery().size(), matrix.get("assets").get(row.get(5).asInt()).size());
+            Assert.assertEquals(ProductStockStatus.IN_STOCK.equals(sp.getStockStatus()), row.get(6).asBoolean());
+
+            ConfigurableVariant variant = cp.getVariants().get(i);
+            String combination = cp.getConfigurableOptions()
+                .stream()
+                .map(o -> variant.getAttributes()
+                    .stream()
+                    .filter(a -> o.getAttributeCode().equals(a.getCode()))
+                    .map(a -> String.valueOf(a.getValueIndex()))
+                    .findFirst()
+                    .orElse(""))
+                .collect(Collectors.joining(","));
+            Assert.assertEquals(combination, row.get(8).asText());
+        }
+
+        // The matrix is only built once
+        Assert.assertSame(productModel.getVariantMatrixJson(), productModel.getVariantMatrixJson());
+    }
+
+    @Test
+    public void testVariantMatrixWithSameCombination() {
+        VariantMatrix matrix = new VariantMatrix(Arrays.asList("color", "size"), new ObjectMapper(), html -> html);
+        matrix.addVariant("red-s", "id-1", "Red", null, null, Collections.emptyList(), true, 1, ImmutableMap.of("color", 1, "size", 2));
+        matrix.addVariant("red-s-2", "id-2", "Red", null, null, Collections.emptyList(), true, 1, ImmutableMap.of("color", 1, "size", 2));
+        matrix.addVariant("red", "id-3", "Red", null, null, Collections.emptyList(), true, 1, ImmutableMap.of("color", 1));
+
+        // A variant with the same combination as a previous variant still has its combination
+        List<List<Object>> variants = matrix.getVariants();
+        Assert.assertEquals(3, variants.size());
+        Assert.assertEquals("1,2", variants.get(0).get(8));
+        Assert.assertEquals("1,2", variants.get(1).get(8));
+        Assert.assertEquals("1,", variants.get(2).get(8));
+    }
+
+    @Test
+    public void testVariantMatrixOfSimpleProduct() {
+        adaptToProduct();
+        Whitebox.setInternalState(productModel.getProductRetriever(), "product", new SimpleProduct());
+        Assert.assertNull(productModel.getVariantMatrixJson());
+    }
+
     @Test
     public void testGetVariantAttributes() {
         adaptToProduct();
@@ -87,6 +87,22 @@ public class ProductRetrieverTest {
         Assert.assertTrue(captor.getValue().contains("weight,volume_custom_:volume,staged}}},... on GroupedProduct"));
     }
 
+    @Test
+    public void testExtendedProductQueryAfterFetch() {
+        retriever.fetchProduct();
+        Assert.assertTrue(retriever.isPopulated());
+
+        // A hook added after the product was fetched is applied with another query
+        retriever.extendProductQueryWith(p -> p.staged());
+        Assert.assertFalse(retriever.isPopulated());
+        retriever.fetchProduct();
+
+        final ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(mockClient, times(2)).execute(captor.capture());
+        Assert.assertFalse(captor.getAllValues().get(0).contains("staged"));
+        Assert.assertTrue(captor.getAllValues().get(1).endsWith("staged}}}"));
+    }
+
     @Test
     public void testSkuIdentifierType() {
         retriever.setIdentifier(ProductIdentifierType.SKU, "my-sku");
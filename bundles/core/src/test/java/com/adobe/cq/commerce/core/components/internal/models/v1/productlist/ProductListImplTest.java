@@ -60,6 +60,7 @@ import com.adobe.cq.commerce.core.search.models.SearchAggregation;
 import com.adobe.cq.commerce.core.search.models.SearchResultsSet;
 import com.adobe.cq.commerce.core.search.models.Sorter;
 import com.adobe.cq.commerce.core.search.models.SorterKey;
+import com.adobe.cq.commerce.core.search.services.SearchResultsService;
 import com.adobe.cq.commerce.graphql.client.GraphqlClient;
 import com.adobe.cq.commerce.graphql.client.GraphqlClientConfiguration;
 import com.adobe.cq.commerce.graphql.client.GraphqlRequest;
@@ -483,7 +484,13 @@ public class ProductListImplTest {
     }
 
     @Test
-    public void testPagination() {
+    public void testPagination() throws IOException {
+        // The aggregations of the pages other than the first one are fetched with a separate query when it is cached
+        when(graphqlClient.getConfiguration().cacheConfigurations()).thenReturn(new String[] {
+            SearchResultsService.class.getName() + ":true:100:600" });
+        Utils.setupHttpResponse("graphql/magento-graphql-search-category-result-products.json", httpClient, HttpStatus.SC_OK,
+            "{products(filter");
+
         context.request().getParameterMap().put("page", new String[] { "3" });
         productListModel = context.request().adaptTo(ProductListImpl.class);
         productListModel.getProducts();
@@ -501,6 +508,46 @@ public class ProductListImplTest {
             }
         }
         Assert.assertTrue(productsQuery.contains("currentPage:3"));
+        Assert.assertFalse(productsQuery.contains("aggregations"));
+
+        String aggregationsQuery = requests.stream().map(GraphqlRequest::getQuery).filter(q -> q.startsWith("{products(filter"))
+            .findFirst().get();
+        Assert.assertTrue(aggregationsQuery.contains("aggregations"));
+        Assert.assertFalse(aggregationsQuery.contains("currentPage"));
+        Assert.assertFalse(productListModel.getSearchResultsSet().getAvailableAggregations().isEmpty());
+    }
+
+    @Test
+    public void testLoadMoreProducts() {
+        context.request().getParameterMap().put("page", new String[] { "2" });
+        context.request().getParameterMap().put("category_uid", new String[] { "MTI==" });
+        productListModel = context.request().adaptTo(ProductListImpl.class);
+
+        Collection<ProductListItem> products = productListModel.getLoadMoreProducts();
+        Assert.assertEquals(4, products.size());
+
+        ArgumentCaptor<GraphqlRequest> captor = ArgumentCaptor.forClass(GraphqlRequest.class);
+        verify(graphqlClient, atLeastOnce()).execute(captor.capture(), any(), any(), any());
+
+        // Only the products query is executed, without aggregations and without the category query
+        List<GraphqlRequest> requests = captor.getAllValues();
+        Assert.assertTrue(requests.stream().noneMatch(r -> r.getQuery().startsWith("{categoryList")));
+        String productsQuery = requests.stream().map(GraphqlRequest::getQuery).filter(q -> q.startsWith("{products")).findFirst().get();
+        Assert.assertTrue(productsQuery.contains("currentPage:2"));
+        Assert.assertFalse(productsQuery.contains("aggregations"));
+    }
+
+    @Test
+    public void testLoadMoreProductsWithoutCategoryUid() {
+        adaptToProductList();
+
+        Collection<ProductListItem> products = productListModel.getLoadMoreProducts();
+        Assert.assertEquals(4, products.size());
+
+        // Without the category_uid parameter, the category is fetched first to scope the products query
+        ArgumentCaptor<GraphqlRequest> captor = ArgumentCaptor.forClass(GraphqlRequest.class);
+        verify(graphqlClient, atLeastOnce()).execute(captor.capture(), any(), any(), any());
+        Assert.assertTrue(captor.getAllValues().stream().anyMatch(r -> r.getQuery().startsWith("{categoryList")));
     }
 
     @Test
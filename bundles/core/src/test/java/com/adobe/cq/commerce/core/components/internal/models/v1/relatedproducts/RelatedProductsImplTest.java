@@ -35,6 +35,8 @@ import org.mockito.Mockito;
 import org.mockito.internal.util.reflection.Whitebox;
 
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.models.v1.page.CommercePageContext;
+import com.adobe.cq.commerce.core.components.internal.models.v1.product.ProductRetriever;
 import com.adobe.cq.commerce.core.components.internal.models.v1.relatedproducts.RelatedProductsRetriever.RelationType;
 import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
 import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
@@ -168,6 +170,18 @@ public class RelatedProductsImplTest {
         Assert.assertEquals("h3", relatedProducts.getTitleType()); // titleType is coming from currentStyle
     }
 
+    @Test
+    public void testUpsellProductsFetchedWithPageProduct() throws Exception {
+        setUp(RelationType.UPSELL_PRODUCTS, "graphql/magento-graphql-upsellproducts-result.json", true);
+        ProductRetriever productRetriever = context.request().adaptTo(CommercePageContext.class).getProductRetriever();
+        Assert.assertFalse(productRetriever.isPopulated());
+
+        // The upsell products are fetched with the product of the page
+        assertProducts();
+        Assert.assertTrue(productRetriever.isPopulated());
+        Assert.assertEquals(products.size(), productRetriever.fetchProduct().getUpsellProducts().size());
+    }
+
     @Test
     public void testCrossSellProducts() throws Exception {
         setUp(RelationType.CROSS_SELL_PRODUCTS, "graphql/magento-graphql-crosssellproducts-result.json", true);
@@ -32,6 +32,7 @@ import com.adobe.cq.commerce.graphql.client.GraphqlClientConfiguration;
 import com.adobe.cq.commerce.graphql.client.HttpMethod;
 import com.adobe.cq.launches.api.Launch;
 import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.designer.Style;
 import com.day.cq.wcm.scripting.WCMBindingsConstants;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -140,6 +141,25 @@ public class StoreConfigExporterTest {
         Assert.assertEquals("The custom HTTP headers are correctly parsed", expectedNode, actualNode);
     }
 
+    @Test
+    public void testPriceUrl() {
+        setupWithPage("/content/pageH", HttpMethod.POST);
+        Style style = mock(Style.class);
+        when(style.get(StoreConfigExporterImpl.PN_CLIENT_PRICE_ENDPOINT, false)).thenReturn(true);
+        SlingBindings slingBindings = (SlingBindings) context.request().getAttribute(SlingBindings.class.getName());
+        slingBindings.put(WCMBindingsConstants.NAME_CURRENT_STYLE, style);
+
+        StoreConfigExporterImpl storeConfigExporter = context.request().adaptTo(StoreConfigExporterImpl.class);
+        Assert.assertEquals("/content/pageH/_jcr_content.prices.json", storeConfigExporter.getPriceUrl());
+    }
+
+    @Test
+    public void testPriceUrlNotEnabled() {
+        setupWithPage("/content/pageH", HttpMethod.POST);
+        StoreConfigExporterImpl storeConfigExporter = context.request().adaptTo(StoreConfigExporterImpl.class);
+        Assert.assertNull(storeConfigExporter.getPriceUrl());
+    }
+
     private void setupWithPage(String pagePath, HttpMethod method) {
         Page page = context.pageManager().getPage(pagePath);
         context.request().setResource(page.getContentResource());
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+import com.shopify.graphql.support.ID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CategoryTreeServiceTest {
+
+    private CategoryTreeService service;
+    private CategoryTreeServiceConfiguration configuration;
+    private MagentoGraphqlClient magentoGraphqlClient;
+    private Map<String, String> headers;
+    private AtomicInteger executions;
+    private volatile String menName;
+
+    @Before
+    public void setUp() {
+        configuration = mock(CategoryTreeServiceConfiguration.class);
+        when(configuration.maxTrees()).thenReturn(10);
+        when(configuration.refreshInterval()).thenReturn(3600L);
+
+        service = new CategoryTreeService();
+        service.activate(configuration);
+
+        headers = new HashMap<>();
+        headers.put("Store", "default");
+        executions = new AtomicInteger();
+        menName = "Men";
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        when(magentoGraphqlClient.getHttpHeaders()).thenReturn(headers);
+        when(magentoGraphqlClient.execute(any())).then(invocation -> {
+            executions.incrementAndGet();
+            CategoryTree tops = new CategoryTree().setUid(new ID("MTM=")).setName("Tops").setUrlKey("tops").setUrlPath("women/tops")
+                .setPosition(1);
+            CategoryTree women = new CategoryTree().setUid(new ID("MTI=")).setName("Women").setUrlKey("women").setUrlPath("women")
+                .setPosition(2).setChildren(Collections.singletonList(tops));
+            CategoryTree men = new CategoryTree().setUid(new ID("MTE=")).setName(menName).setUrlKey("men").setUrlPath("men")
+                .setPosition(1);
+            CategoryTree hidden = new CategoryTree().setUid(new ID("MTA=")).setPosition(0);
+            CategoryTree root = new CategoryTree().setUid(new ID("Mg==")).setName("Root")
+                .setChildren(Arrays.asList(women, hidden, men));
+
+            GraphqlResponse<Query, Error> response = new GraphqlResponse<>();
+            response.setData(new Query().setCategoryList(Collections.singletonList(root)));
+            return response;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    @Test
+    public void testTree() {
+        CategoryTreeIndex tree = service.getTree(magentoGraphqlClient, "Mg==", 2);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient).execute(captor.capture());
+        assertThat(captor.getValue()).startsWith("{categoryList(filters:{category_uid:{eq:\"Mg==\"}})");
+
+        // The children without name are skipped and the others are sorted by position
+        CategoryTreeIndex.Node root = tree.getRoot();
+        assertThat(root.getChildren().stream().map(CategoryTreeIndex.Node::getName).collect(Collectors.toList()))
+            .containsExactly("Men", "Women");
+        assertThat(tree.getByUid("MTA=")).isNull();
+
+        CategoryTreeIndex.Node tops = tree.getByUrlPath("women/tops");
+        assertThat(tops.getUid()).isEqualTo("MTM=");
+        assertThat(tops.getLevel()).isEqualTo(2);
+        assertThat(tops.getParent()).isSameAs(tree.getByUid("MTI="));
+        assertThat(tops.getParent().getParent()).isSameAs(root);
+    }
+
+    @Test
+    public void testTreeIsCachedPerStore() {
+        CategoryTreeIndex tree = service.getTree(magentoGraphqlClient, "Mg==", 2);
+        assertThat(service.getTree(magentoGraphqlClient, "Mg==", 2)).isSameAs(tree);
+        verify(magentoGraphqlClient, times(1)).execute(any());
+
+        // Another depth or another store are other trees
+        assertThat(service.getTree(magentoGraphqlClient, "Mg==", 1)).isNotSameAs(tree);
+        headers.put("Store", "other");
+        assertThat(service.getTree(magentoGraphqlClient, "Mg==", 2)).isNotSameAs(tree);
+        verify(magentoGraphqlClient, times(3)).execute(any());
+    }
+
+    @Test
+    public void testCachedTree() {
+        assertThat(service.getCachedTree(magentoGraphqlClient, "Mg==")).isNull();
+
+        // The deepest tree cached for the root is returned, without fetching any tree
+        service.getTree(magentoGraphqlClient, "Mg==", 1);
+        CategoryTreeIndex tree = service.getTree(magentoGraphqlClient, "Mg==", 2);
+        assertThat(service.getCachedTree(magentoGraphqlClient, "Mg==")).isSameAs(tree);
+        assertThat(service.getCachedTree(magentoGraphqlClient, "MTI=")).isNull();
+        headers.put("Store", "other");
+        assertThat(service.getCachedTree(magentoGraphqlClient, "Mg==")).isNull();
+        verify(magentoGraphqlClient, times(2)).execute(any());
+    }
+
+    @Test
+    public void testPreviewIsNotCached() {
+        headers.put("Preview-Version", "1606809684");
+        CategoryTreeIndex tree = service.getTree(magentoGraphqlClient, "Mg==", 2);
+        assertThat(service.getTree(magentoGraphqlClient, "Mg==", 2)).isNotSameAs(tree);
+        verify(magentoGraphqlClient, times(2)).execute(any());
+    }
+
+    @Test
+    public void testRefresh() throws InterruptedException {
+        when(configuration.refreshInterval()).thenReturn(0L);
+        service.deactivate();
+        service.activate(configuration);
+
+        CategoryTreeIndex tree = service.getTree(magentoGraphqlClient, "Mg==", 2);
+        long generation = service.getGeneration();
+        Thread.sleep(1);
+
+        // The expired tree is refreshed in the background, and kept when the categories did not change
+        for (int i = 0; i < 100 && executions.get() < 3; i++) {
+            service.getTree(magentoGraphqlClient, "Mg==", 2);
+            Thread.sleep(10);
+        }
+        assertThat(executions.get()).isGreaterThanOrEqualTo(3);
+        assertThat(service.getTree(magentoGraphqlClient, "Mg==", 2)).isSameAs(tree);
+        assertThat(service.getGeneration()).isEqualTo(generation);
+
+        // A changed tree replaces the previous one
+        menName = "Gentlemen";
+        for (int i = 0; i < 100 && service.getTree(magentoGraphqlClient, "Mg==", 2) == tree; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(service.getTree(magentoGraphqlClient, "Mg==", 2).getByUid("MTE=").getName()).isEqualTo("Gentlemen");
+        assertThat(service.getGeneration()).isGreaterThan(generation);
+    }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.ClientPriceService.ProductPrices;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.ConfigurableProduct;
+import com.adobe.cq.commerce.magento.graphql.ConfigurableVariant;
+import com.adobe.cq.commerce.magento.graphql.CurrencyEnum;
+import com.adobe.cq.commerce.magento.graphql.Money;
+import com.adobe.cq.commerce.magento.graphql.PriceRange;
+import com.adobe.cq.commerce.magento.graphql.ProductPrice;
+import com.adobe.cq.commerce.magento.graphql.Products;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.SimpleProduct;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ClientPriceServiceTest {
+
+    private ClientPriceService service;
+    private MagentoGraphqlClient magentoGraphqlClient;
+    private Map<String, String> headers;
+
+    @Before
+    public void setUp() {
+        ClientPriceServiceConfiguration configuration = mock(ClientPriceServiceConfiguration.class);
+        when(configuration.maxEntries()).thenReturn(100);
+        when(configuration.ttl()).thenReturn(60L);
+        when(configuration.maxSkus()).thenReturn(3);
+
+        service = new ClientPriceService();
+        service.activate(configuration);
+
+        headers = new HashMap<>();
+        headers.put("Store", "default");
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        when(magentoGraphqlClient.getHttpHeaders()).thenReturn(headers);
+        when(magentoGraphqlClient.execute(any())).then(invocation -> {
+            SimpleProduct simple = new SimpleProduct().setSku("SIMPLE").setPriceRange(priceRange(10.0));
+            SimpleProduct variant = new SimpleProduct().setSku("VARIANT").setPriceRange(priceRange(25.0));
+            ConfigurableProduct configurable = new ConfigurableProduct().setSku("CONFIGURABLE")
+                .setPriceRange(priceRange(20.0))
+                .setVariants(Collections.singletonList(new ConfigurableVariant().setProduct(variant)));
+
+            GraphqlResponse<Query, Error> response = new GraphqlResponse<>();
+            response.setData(new Query().setProducts(new Products().setItems(Arrays.asList(simple, configurable))));
+            return response;
+        });
+    }
+
+    private static PriceRange priceRange(double value) {
+        Money money = new Money().setValue(value).setCurrency(CurrencyEnum.USD);
+        return new PriceRange().setMinimumPrice(new ProductPrice().setRegularPrice(money).setFinalPrice(money));
+    }
+
+    @Test
+    public void testPricesAreFetchedWithSingleQuery() {
+        Map<String, ProductPrices> prices = service.getPrices(magentoGraphqlClient, Arrays.asList("SIMPLE", "CONFIGURABLE", "SIMPLE"),
+            true);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient).execute(captor.capture());
+        assertThat(captor.getValue()).startsWith("{products(filter:{sku:{in:[\"SIMPLE\",\"CONFIGURABLE\"]}},pageSize:2)");
+        assertThat(captor.getValue()).contains("variants{product{sku");
+
+        assertThat(prices.keySet()).containsExactly("SIMPLE", "CONFIGURABLE");
+        assertThat(prices.get("SIMPLE").getType()).isEqualTo("SimpleProduct");
+        assertThat(prices.get("SIMPLE").getPrices().get("SIMPLE").getMinimumPrice().getFinalPrice().getValue()).isEqualTo(10.0);
+        assertThat(prices.get("CONFIGURABLE").getType()).isEqualTo("ConfigurableProduct");
+        assertThat(prices.get("CONFIGURABLE").getPrices().keySet()).containsExactly("CONFIGURABLE", "VARIANT");
+    }
+
+    @Test
+    public void testPricesAreCachedPerStore() {
+        service.getPrices(magentoGraphqlClient, Arrays.asList("SIMPLE", "CONFIGURABLE"), false);
+        Map<String, ProductPrices> prices = service.getPrices(magentoGraphqlClient, Collections.singletonList("SIMPLE"), false);
+        assertThat(prices.keySet()).containsExactly("SIMPLE");
+        verify(magentoGraphqlClient, times(1)).execute(any());
+
+        // the products which are not found are cached too
+        assertThat(service.getPrices(magentoGraphqlClient, Collections.singletonList("UNKNOWN"), false)).isEmpty();
+        assertThat(service.getPrices(magentoGraphqlClient, Collections.singletonList("UNKNOWN"), false)).isEmpty();
+        verify(magentoGraphqlClient, times(2)).execute(any());
+
+        // the prices with variants and the prices of another store are cached separately
+        service.getPrices(magentoGraphqlClient, Collections.singletonList("SIMPLE"), true);
+        headers.put("Store", "other");
+        service.getPrices(magentoGraphqlClient, Collections.singletonList("SIMPLE"), false);
+        verify(magentoGraphqlClient, times(4)).execute(any());
+    }
+
+    @Test
+    public void testPricesAreNotCachedForPreview() {
+        headers.put("Preview-Version", "1606809600");
+        service.getPrices(magentoGraphqlClient, Collections.singletonList("SIMPLE"), false);
+        service.getPrices(magentoGraphqlClient, Collections.singletonList("SIMPLE"), false);
+        verify(magentoGraphqlClient, times(2)).execute(any());
+    }
+
+    @Test
+    public void testPricesAreNotCachedOnError() {
+        GraphqlResponse<Query, Error> error = new GraphqlResponse<>();
+        error.setErrors(Collections.singletonList(new Error()));
+        when(magentoGraphqlClient.execute(any())).thenReturn(error);
+
+        assertThat(service.getPrices(magentoGraphqlClient, Collections.singletonList("SIMPLE"), false)).isEmpty();
+        assertThat(service.getPrices(magentoGraphqlClient, Collections.singletonList("SIMPLE"), false)).isEmpty();
+        verify(magentoGraphqlClient, times(2)).execute(any());
+    }
+
+    @Test
+    public void testNumberOfSkusIsLimited() {
+        service.getPrices(magentoGraphqlClient, Arrays.asList("A", "", "B", "C", "D"), false);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient).execute(captor.capture());
+        assertThat(captor.getValue()).contains("in:[\"A\",\"B\",\"C\"]");
+    }
+
+    @Test
+    public void testTtl() {
+        assertThat(service.getTtl()).isEqualTo(60L);
+    }
+}
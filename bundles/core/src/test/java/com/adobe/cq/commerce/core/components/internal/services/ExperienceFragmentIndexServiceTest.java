@@ -0,0 +1,154 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.serviceusermapping.ServiceUserMapped;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.adobe.cq.commerce.core.components.models.experiencefragment.CommerceExperienceFragment;
+import com.google.common.collect.ImmutableMap;
+import io.wcm.testing.mock.aem.junit.AemContext;
+import io.wcm.testing.mock.aem.junit.AemContextCallback;
+
+public class ExperienceFragmentIndexServiceTest {
+
+    private static final String XF_ROOT = "/content/experience-fragments/";
+    private static final String SITE_XF_ROOT = XF_ROOT + "mysite/page";
+    private static final String XF1 = SITE_XF_ROOT + "/xf-1-uid/master/jcr:content";
+    private static final String XF2 = SITE_XF_ROOT + "/xf-2-uid/master/jcr:content";
+
+    @Rule
+    public final AemContext context = new AemContext(
+        (AemContextCallback) context -> context.load().json("/context/jcr-content-experiencefragment.json", "/content"),
+        ResourceResolverType.JCR_MOCK);
+
+    private ExperienceFragmentIndexService service;
+    private ResourceResolver resolver;
+
+    @Before
+    public void setup() {
+        context.registerService(ServiceUserMapped.class, Mockito.mock(ServiceUserMapped.class), ServiceUserMapped.SUBSERVICENAME,
+            ExperienceFragmentIndexService.SUBSERVICE_NAME);
+        service = context.registerInjectActivateService(new ExperienceFragmentIndexService());
+        resolver = context.resourceResolver();
+    }
+
+    @Test
+    public void testProductLookup() {
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1", null), XF1);
+        assertFragments(service.findProductFragments(resolver, XF_ROOT, "sku-xf2", "location-xf2"), XF2);
+
+        // The location must match, and the fragments without location only match a null location
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1", "location-xf2"));
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf2", null));
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf3", null));
+    }
+
+    @Test
+    public void testCategoryLookup() {
+        assertFragments(service.findCategoryFragments(resolver, SITE_XF_ROOT, "uid1", null), XF1);
+        assertFragments(service.findCategoryFragments(resolver, SITE_XF_ROOT, "uid2", "location-xf2"), XF2);
+        assertFragments(service.findCategoryFragments(resolver, SITE_XF_ROOT, "uid2", null));
+    }
+
+    @Test
+    public void testVariantLookup() {
+        context.create().page(SITE_XF_ROOT + "/xf-3/master", "/conf/xf", ImmutableMap.of(
+            CommerceExperienceFragment.PN_CQ_PRODUCTS, new String[] { "sku-xf1#variant-1", "sku-xf1#variant-2", "other" }));
+
+        // The fragments of a product include the fragments of its variants, in the order of the page tree
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1", null), XF1, SITE_XF_ROOT
+            + "/xf-3/master/jcr:content");
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1#variant-2", null), SITE_XF_ROOT
+            + "/xf-3/master/jcr:content");
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1#variant", null));
+    }
+
+    @Test
+    public void testUnknownRoot() {
+        assertFragments(service.findProductFragments(resolver, XF_ROOT + "unknown", "sku-xf1", null));
+    }
+
+    @Test
+    public void testInvalidation() throws PersistenceException {
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1", null), XF1);
+        assertFragments(service.findProductFragments(resolver, XF_ROOT, "sku-xf1", null), XF1);
+
+        resolver.delete(resolver.getResource(SITE_XF_ROOT + "/xf-1-uid"));
+        resolver.commit();
+
+        // The cached index still returns the path, but the removed fragment cannot be resolved anymore
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1", null));
+
+        // A change below another site only invalidates the indexes of the parent roots
+        Assert.assertTrue(service.isCached("/content/experience-fragments"));
+        service.onChange(Collections.singletonList(mockChange(XF_ROOT + "othersite/xf/master/jcr:content")));
+        Assert.assertTrue(service.isCached(SITE_XF_ROOT));
+        Assert.assertFalse(service.isCached("/content/experience-fragments"));
+
+        service.onChange(Collections.singletonList(mockChange(SITE_XF_ROOT + "/xf-1-uid")));
+        Assert.assertFalse(service.isCached(SITE_XF_ROOT));
+
+        // The rebuilt index does not contain the removed fragment anymore
+        assertFragments(service.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1", null));
+        Assert.assertTrue(service.isCached(SITE_XF_ROOT));
+    }
+
+    @Test
+    public void testIndexIsBuiltWithServiceUser() {
+        // The resolver of the request cannot read the root, but it can read the fragment
+        ResourceResolver requestResolver = Mockito.mock(ResourceResolver.class);
+        Resource xf1 = resolver.getResource(XF1);
+        Mockito.when(requestResolver.getResource(XF1)).thenReturn(xf1);
+
+        assertFragments(service.findProductFragments(requestResolver, SITE_XF_ROOT, "sku-xf1", null), XF1);
+        Assert.assertTrue(service.isCached(SITE_XF_ROOT));
+
+        // The fragments that the resolver of the request cannot read are not returned
+        assertFragments(service.findCategoryFragments(requestResolver, SITE_XF_ROOT, "uid2", "location-xf2"));
+    }
+
+    @Test
+    public void testIndexIsNotSharedWithoutServiceUser() {
+        ExperienceFragmentIndexService serviceWithoutFactory = new ExperienceFragmentIndexService();
+        assertFragments(serviceWithoutFactory.findProductFragments(resolver, SITE_XF_ROOT, "sku-xf1", null), XF1);
+        Assert.assertFalse(serviceWithoutFactory.isCached(SITE_XF_ROOT));
+    }
+
+    private ResourceChange mockChange(String path) {
+        ResourceChange change = Mockito.mock(ResourceChange.class);
+        Mockito.when(change.getPath()).thenReturn(path);
+        return change;
+    }
+
+    private void assertFragments(List<Resource> fragments, String... expected) {
+        List<String> paths = fragments.stream().map(Resource::getPath).collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList(expected), paths);
+    }
+}
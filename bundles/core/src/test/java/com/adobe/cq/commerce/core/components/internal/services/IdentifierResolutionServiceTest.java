@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+import com.adobe.cq.commerce.magento.graphql.Products;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.SimpleProduct;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+import com.shopify.graphql.support.ID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdentifierResolutionServiceTest {
+
+    private IdentifierResolutionService service;
+    private MagentoGraphqlClient magentoGraphqlClient;
+    private Map<String, String> headers;
+
+    @Before
+    public void setUp() {
+        IdentifierResolutionServiceConfiguration configuration = mock(IdentifierResolutionServiceConfiguration.class);
+        when(configuration.maxEntries()).thenReturn(100);
+        when(configuration.ttl()).thenReturn(3600L);
+
+        service = new IdentifierResolutionService();
+        service.activate(configuration);
+
+        headers = new HashMap<>();
+        headers.put("Store", "default");
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        when(magentoGraphqlClient.getHttpHeaders()).thenReturn(headers);
+        when(magentoGraphqlClient.execute(any())).then(invocation -> {
+            String query = invocation.getArgumentAt(0, String.class);
+            if (query.startsWith("{categoryList")) {
+                CategoryTree category = new CategoryTree().setUid(new ID("MTI=")).setUrlPath("women/jackets");
+                return response(new Query().setCategoryList(Collections.singletonList(category)));
+            }
+            Products products = new Products().setItems(Arrays.asList(
+                new SimpleProduct().setSku("WJ01").setUrlKey("stellar-solar-jacket"),
+                new SimpleProduct().setSku("WJ02").setUrlKey("josie-yoga-jacket")));
+            return response(new Query().setProducts(products));
+        });
+    }
+
+    private static GraphqlResponse<Query, Error> response(Query query) {
+        GraphqlResponse<Query, Error> response = new GraphqlResponse<>();
+        response.setData(query);
+        return response;
+    }
+
+    @Test
+    public void testGetSkusInBulk() {
+        Map<String, String> skus = service.getSkus(magentoGraphqlClient, Arrays.asList("stellar-solar-jacket", "josie-yoga-jacket",
+            "unknown"));
+        assertThat(skus).containsEntry("stellar-solar-jacket", "WJ01").containsEntry("josie-yoga-jacket", "WJ02").hasSize(2);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(1)).execute(captor.capture());
+        assertThat(captor.getValue()).contains("url_key:{in:[\"stellar-solar-jacket\",\"josie-yoga-jacket\",\"unknown\"]}");
+
+        // The resolved url_keys are cached, the unknown url_key is queried again
+        assertThat(service.getSku(magentoGraphqlClient, "josie-yoga-jacket")).isEqualTo("WJ02");
+        verify(magentoGraphqlClient, times(1)).execute(any());
+        assertThat(service.getSku(magentoGraphqlClient, "unknown")).isNull();
+        verify(magentoGraphqlClient, times(2)).execute(any());
+    }
+
+    @Test
+    public void testGetCategoryUid() {
+        assertThat(service.getCategoryUid(magentoGraphqlClient, "women/jackets")).isEqualTo("MTI=");
+        assertThat(service.getCategoryUid(magentoGraphqlClient, "women/jackets")).isEqualTo("MTI=");
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(1)).execute(captor.capture());
+        assertThat(captor.getValue()).contains("url_path:{in:[\"women/jackets\"]}");
+    }
+
+    @Test
+    public void testWarm() {
+        service.warmProducts(magentoGraphqlClient, Collections.singletonList(new SimpleProduct().setSku("WT01").setUrlKey(
+            "desiree-fitness-tee")));
+        service.warmCategories(magentoGraphqlClient, Collections.singletonList(new CategoryTree().setUid(new ID("MTE=")).setUrlPath(
+            "women")));
+
+        assertThat(service.getSku(magentoGraphqlClient, "desiree-fitness-tee")).isEqualTo("WT01");
+        assertThat(service.getCategoryUid(magentoGraphqlClient, "women")).isEqualTo("MTE=");
+        verify(magentoGraphqlClient, never()).execute(any());
+
+        // The mappings are cached per store
+        headers.put("Store", "other");
+        assertThat(service.getSku(magentoGraphqlClient, "desiree-fitness-tee")).isNull();
+        verify(magentoGraphqlClient, times(1)).execute(any());
+    }
+
+    @Test
+    public void testPreviewIsNotCached() {
+        headers.put("Preview-Version", "1606809684");
+        service.warmProducts(magentoGraphqlClient, Collections.singletonList(new SimpleProduct().setSku("WT01").setUrlKey(
+            "desiree-fitness-tee")));
+        assertThat(service.getSku(magentoGraphqlClient, "desiree-fitness-tee")).isNull();
+
+        assertThat(service.getSku(magentoGraphqlClient, "josie-yoga-jacket")).isEqualTo("WJ02");
+        assertThat(service.getSku(magentoGraphqlClient, "josie-yoga-jacket")).isEqualTo("WJ02");
+        verify(magentoGraphqlClient, times(3)).execute(any());
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ModelMappingServiceTest {
+
+    private ModelMappingService service;
+
+    @Before
+    public void setUp() {
+        ModelMappingServiceConfiguration configuration = mock(ModelMappingServiceConfiguration.class);
+        when(configuration.parallelThreshold()).thenReturn(10);
+        when(configuration.poolSize()).thenReturn(2);
+        when(configuration.queueSize()).thenReturn(4);
+
+        service = new ModelMappingService();
+        service.activate(configuration);
+    }
+
+    @After
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    @Test
+    public void testSmallListMappedByRequestThread() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> mapped = service.map(range(9), i -> {
+            threads.add(Thread.currentThread().getName());
+            return i * 2;
+        });
+
+        assertThat(mapped).containsExactlyElementsOf(range(9).stream().map(i -> i * 2).collect(Collectors.toList()));
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+        assertThat(service.getSequentialMappings()).isEqualTo(1);
+        assertThat(service.getParallelMappings()).isZero();
+    }
+
+    @Test
+    public void testLargeListMappedInOrder() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<String> mapped = service.map(range(100), i -> {
+            threads.add(Thread.currentThread().getName());
+            return "item-" + i;
+        });
+
+        assertThat(mapped).containsExactlyElementsOf(range(100).stream().map(i -> "item-" + i).collect(Collectors.toList()));
+        assertThat(threads).contains(Thread.currentThread().getName());
+        assertThat(threads.stream().filter(name -> name.startsWith("CIF model mapping")).count()).isBetween(1L, 2L);
+        assertThat(service.getParallelMappings()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMapperException() {
+        try {
+            service.map(range(100), i -> {
+                if (i == 99) {
+                    throw new IllegalArgumentException("Item " + i);
+                }
+                return i;
+            });
+            fail("The exception of the mapper is not thrown");
+        } catch (IllegalArgumentException e) {
+            assertThat(e).hasMessage("Item 99");
+        }
+    }
+
+    @Test
+    public void testQueuedSlicesMappedByRequestThread() throws InterruptedException {
+        // The threads of the pool are busy, so the slices are queued
+        CountDownLatch busy = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Whitebox.getInternalState(service, "executor");
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                busy.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        busy.await();
+
+        try {
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            List<Integer> mapped = service.map(range(100), i -> {
+                threads.add(Thread.currentThread().getName());
+                return i;
+            });
+
+            assertThat(mapped).containsExactlyElementsOf(range(100));
+            assertThat(threads).containsExactly(Thread.currentThread().getName());
+            assertThat(service.getCallerRunsSlices()).isEqualTo(2);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testWithoutPool() {
+        ModelMappingServiceConfiguration configuration = mock(ModelMappingServiceConfiguration.class);
+        when(configuration.parallelThreshold()).thenReturn(10);
+        when(configuration.poolSize()).thenReturn(0);
+        ModelMappingService sequential = new ModelMappingService();
+        sequential.activate(configuration);
+
+        assertThat(sequential.map(range(100), i -> i + 1)).hasSize(100).startsWith(1, 2, 3);
+        assertThat(sequential.getSequentialMappings()).isEqualTo(1);
+        sequential.deactivate();
+    }
+
+    /**
+     * Maps lists for 200 concurrent requests: the pool stays bounded and the request threads map the slices the pool cannot take.
+     */
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ExecutorService requests = Executors.newFixedThreadPool(200);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int r = 0; r < 200; r++) {
+                results.add(requests.submit(() -> service.map(range(200), i -> {
+                    threads.add(Thread.currentThread().getName());
+                    return i;
+                })));
+            }
+            for (Future<List<Integer>> result : results) {
+                assertThat(result.get()).containsExactlyElementsOf(range(200));
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+
+        assertThat(threads.stream().filter(name -> name.startsWith("CIF model mapping")).count()).isLessThanOrEqualTo(2L);
+        assertThat(service.getParallelMappings()).isEqualTo(200);
+        assertThat(service.getCallerRunsSlices()).isPositive();
+    }
+
+    private static List<Integer> range(int size) {
+        return Collections.unmodifiableList(IntStream.range(0, size).boxed().collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PathIndexCacheTest {
+
+    private final PathIndexCache<String> cache = new PathIndexCache<>(2);
+
+    @Test
+    public void testIndexIsCached() {
+        Assert.assertEquals("a", cache.get("/content/a", () -> "a"));
+        Assert.assertEquals("a", cache.get("/content/a", () -> "b"));
+        Assert.assertTrue(cache.contains("/content/a"));
+    }
+
+    @Test
+    public void testMaxIndexes() {
+        cache.get("/content/a", () -> "a");
+        cache.get("/content/b", () -> "b");
+        cache.get("/content/c", () -> "c");
+        Assert.assertFalse(cache.contains("/content/a"));
+        Assert.assertTrue(cache.contains("/content/b"));
+        Assert.assertTrue(cache.contains("/content/c"));
+
+        // an evicted root is not invalidated anymore
+        cache.invalidate("/content/a");
+        Assert.assertTrue(cache.contains("/content/b"));
+    }
+
+    @Test
+    public void testInvalidation() {
+        cache.get("/content/site/a", () -> "a");
+        cache.get("/content/site/ab", () -> "ab");
+
+        // a change below a root or of a sibling with the same prefix
+        cache.invalidate("/content/site/a/page/jcr:content");
+        Assert.assertFalse(cache.contains("/content/site/a"));
+        Assert.assertTrue(cache.contains("/content/site/ab"));
+
+        // a change of a parent of the root
+        cache.invalidate("/content/site");
+        Assert.assertFalse(cache.contains("/content/site/ab"));
+    }
+
+    @Test
+    public void testChangeDuringBuild() {
+        // the index built before the change is returned but not cached
+        Assert.assertEquals("stale", cache.get("/content/a", () -> {
+            cache.invalidate("/content/a/page");
+            return "stale";
+        }));
+        Assert.assertFalse(cache.contains("/content/a"));
+
+        Assert.assertEquals("fresh", cache.get("/content/a", () -> "fresh"));
+        Assert.assertTrue(cache.contains("/content/a"));
+    }
+
+    @Test
+    public void testIndexWhichCannotBeBuilt() {
+        Assert.assertNull(cache.get("/content/a", () -> null));
+        Assert.assertFalse(cache.contains("/content/a"));
+    }
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.serviceusermapping.ServiceUserMapped;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.adobe.cq.commerce.core.components.services.UrlProvider.ParamsBuilder;
+import com.google.common.collect.Sets;
+import io.wcm.testing.mock.aem.junit.AemContext;
+import io.wcm.testing.mock.aem.junit.AemContextCallback;
+
+public class SpecificPageIndexServiceTest {
+
+    @Rule
+    public final AemContext context = new AemContext(
+        (AemContextCallback) context -> context.load().json("/context/jcr-page-filter.json", "/content"),
+        ResourceResolverType.JCR_MOCK);
+
+    private SpecificPageIndexService service;
+    private Resource productPage;
+    private Resource categoryPage;
+
+    @Before
+    public void setup() {
+        context.registerService(ServiceUserMapped.class, Mockito.mock(ServiceUserMapped.class), ServiceUserMapped.SUBSERVICENAME,
+            SpecificPageIndexService.SUBSERVICE_NAME);
+        service = context.registerInjectActivateService(new SpecificPageIndexService());
+        productPage = context.resourceResolver().getResource("/content/product-page");
+        categoryPage = context.resourceResolver().getResource("/content/category-page");
+    }
+
+    @Test
+    public void testSelectorLookup() {
+        assertSpecificPage("/content/product-page/sub-page-2", productPage, Collections.singleton("productId2"), null);
+        assertSpecificPage("/content/product-page/sub-page/nested-page", productPage, Collections.singleton("productId1.1"), null);
+        assertSpecificPage("/content/category-page/sub-page", categoryPage, Collections.singleton("category-uid-2"), null);
+        Assert.assertNull(service.toSpecificPage(productPage, Collections.singleton("unknown"), null, null));
+    }
+
+    @Test
+    public void testLookupMatchesUrlProvider() {
+        Set<Set<String>> lookups = Sets.newHashSet(
+            Collections.singleton("productId1"),
+            Collections.singleton("category-uid-1"),
+            Sets.newHashSet("productId2", "productId1.1"),
+            Sets.newHashSet("category-uid-2", "category-uid-1.1"));
+
+        for (Set<String> selectors : lookups) {
+            for (Resource page : new Resource[] { productPage, categoryPage }) {
+                Resource expected = UrlProviderImpl.toSpecificPage(page, selectors);
+                Resource actual = service.toSpecificPage(page, selectors, null, null);
+                Assert.assertEquals(expected != null ? expected.getPath() : null, actual != null ? actual.getPath() : null);
+            }
+        }
+    }
+
+    @Test
+    public void testUrlPathLookup() {
+        Map<String, String> params = new ParamsBuilder().uid("MTE=").urlPath("men/tops/shirts").map();
+        assertSpecificPage("/content/category-page/sub-page-with-urlpath", categoryPage, Collections.singleton("MTE="), params);
+
+        // The specific page does not include the sub-categories
+        params = new ParamsBuilder().uid("MTE=").urlPath("women/tops/shirts").map();
+        Assert.assertNull(service.toSpecificPage(categoryPage, Collections.singleton("MTE="), null, params));
+
+        // The url_path of a specific page only matches its sub-categories
+        params = new ParamsBuilder().uid("MTE=").urlPath("men/tops").map();
+        Assert.assertNull(service.toSpecificPage(categoryPage, Collections.singleton("MTE="), null, params));
+    }
+
+    @Test
+    public void testHasSpecificPages() {
+        Assert.assertTrue(service.hasSpecificPages(productPage));
+        Assert.assertTrue(service.hasSpecificPages(categoryPage));
+        Assert.assertFalse(service.hasSpecificPages(context.resourceResolver().getResource("/content/catalog-page")));
+    }
+
+    @Test
+    public void testInvalidation() throws PersistenceException {
+        Set<String> selectors = Collections.singleton("productId2");
+        assertSpecificPage("/content/product-page/sub-page-2", productPage, selectors, null);
+
+        ResourceResolver resolver = context.resourceResolver();
+        resolver.delete(resolver.getResource("/content/product-page/sub-page-2"));
+        resolver.commit();
+
+        // The cached index still returns the path, but the removed page cannot be resolved anymore
+        Assert.assertNull(service.toSpecificPage(productPage, selectors, null, null));
+
+        // A change below another generic page does not invalidate the index
+        service.onChange(Collections.singletonList(mockChange("/content/category-page/sub-page/jcr:content")));
+        Assert.assertTrue(service.isCached("/content/product-page"));
+
+        service.onChange(Collections.singletonList(mockChange("/content/product-page/sub-page-2")));
+        Assert.assertFalse(service.isCached("/content/product-page"));
+
+        // The rebuilt index does not contain the removed page anymore
+        Assert.assertTrue(service.hasSpecificPages(productPage));
+        Assert.assertNull(service.toSpecificPage(productPage, selectors, null, null));
+    }
+
+    @Test
+    public void testIndexIsBuiltWithServiceUser() {
+        // The first request comes from a user who cannot read the specific pages
+        Resource restrictedPage = Mockito.mock(Resource.class);
+        Mockito.when(restrictedPage.getPath()).thenReturn("/content/product-page");
+        Mockito.when(restrictedPage.getResourceResolver()).thenReturn(context.resourceResolver());
+        Assert.assertTrue(service.hasSpecificPages(restrictedPage));
+
+        // The shared index contains the specific pages for the other users
+        assertSpecificPage("/content/product-page/sub-page-2", productPage, Collections.singleton("productId2"), null);
+    }
+
+    @Test
+    public void testIndexWithoutServiceUser() {
+        service = new SpecificPageIndexService();
+        assertSpecificPage("/content/product-page/sub-page-2", productPage, Collections.singleton("productId2"), null);
+        Assert.assertFalse(service.isCached("/content/product-page"));
+    }
+
+    private ResourceChange mockChange(String path) {
+        ResourceChange change = Mockito.mock(ResourceChange.class);
+        Mockito.when(change.getPath()).thenReturn(path);
+        return change;
+    }
+
+    private void assertSpecificPage(String expected, Resource page, Set<String> selectors, Map<String, String> params) {
+        Resource specificPage = service.toSpecificPage(page, selectors, null, params);
+        Assert.assertNotNull(specificPage);
+        Assert.assertEquals(expected, specificPage.getPath());
+    }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.graphql.client.GraphqlClientConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StoreCachesTest {
+
+    private static MagentoGraphqlClient mockClient(String identifier, Map<String, String> headers) {
+        GraphqlClientConfiguration configuration = mock(GraphqlClientConfiguration.class);
+        when(configuration.identifier()).thenReturn(identifier);
+        MagentoGraphqlClient magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        when(magentoGraphqlClient.getConfiguration()).thenReturn(configuration);
+        when(magentoGraphqlClient.getHttpHeaders()).thenReturn(headers);
+        return magentoGraphqlClient;
+    }
+
+    @Test
+    public void testStoreKey() {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Store", "default");
+        headers.put("customHeader", "value1");
+        String key = StoreCaches.getStoreKey(mockClient("default", headers));
+
+        // The custom HTTP headers of the configuration are part of the key
+        Map<String, String> otherHeaders = new HashMap<>(headers);
+        otherHeaders.put("customHeader", "value2");
+        assertThat(StoreCaches.getStoreKey(mockClient("default", otherHeaders))).isNotEqualTo(key);
+        assertThat(StoreCaches.getStoreKey(mockClient("other", headers))).isNotEqualTo(key);
+        assertThat(StoreCaches.getStoreKey(mockClient("default", new HashMap<>(headers)))).isEqualTo(key);
+    }
+
+    @Test
+    public void testIsPreview() {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Store", "default");
+        assertThat(StoreCaches.isPreview(mockClient("default", headers))).isFalse();
+
+        headers.put(StoreCaches.PREVIEW_VERSION_HEADER, "1606809684");
+        assertThat(StoreCaches.isPreview(mockClient("default", headers))).isTrue();
+    }
+
+    @Test
+    public void testLruMap() {
+        Map<String, Integer> map = StoreCaches.createLruMap(2);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.get("a");
+        map.put("c", 3);
+
+        // The least recently used entry is evicted
+        assertThat(map).containsOnlyKeys("a", "c");
+        assertThat(StoreCaches.createLruMap(-1)).isEmpty();
+    }
+}
@@ -14,7 +14,8 @@
 
 package com.adobe.cq.commerce.core.components.internal.services;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -178,6 +179,37 @@ public class UrlProviderImplTest {
         Assert.assertEquals("/content/product-page/sub-page/nested-page.productId1.1.html#variantSku", url);
     }
 
+    @Test
+    public void testProductUrls() {
+        Page page = context.currentPage("/content/product-page");
+        request.setAttribute(WCMMode.class.getName(), WCMMode.EDIT);
+
+        List<Map<String, String>> params = Arrays.asList(
+            new ParamsBuilder().urlKey("beaumont-summit-kit").map(),
+            new ParamsBuilder().urlKey("productId2").variantSku("variantSku").map(),
+            new ParamsBuilder().urlKey("productId1.1").map());
+
+        List<String> urls = urlProvider.toProductUrls(request, page, params);
+        Assert.assertEquals(Arrays.asList(
+            "/content/product-page.beaumont-summit-kit.html",
+            "/content/product-page/sub-page-2.productId2.html#variantSku",
+            "/content/product-page/sub-page/nested-page.productId1.1.html"), urls);
+    }
+
+    @Test
+    public void testCategoryUrlsPublish() {
+        Page page = context.currentPage("/content/category-page");
+        request.setAttribute(WCMMode.class.getName(), WCMMode.DISABLED);
+
+        List<Map<String, String>> params = Arrays.asList(
+            new ParamsBuilder().uid("category-uid-1.1").map(),
+            new ParamsBuilder().uid("MTE=").urlPath("men/tops/shirts").map());
+
+        // The specific pages are only used in the author environment
+        List<String> urls = urlProvider.toCategoryUrls(request, page, params);
+        Assert.assertEquals(Arrays.asList("/content/category-page.category-uid-1.1.html", "/content/category-page.MTE%3D.html"), urls);
+    }
+
     @Test
     public void testProductIdentifierParsingInSelector() {
         MockRequestPathInfo requestPathInfo = (MockRequestPathInfo) context.request().getRequestPathInfo();
@@ -205,22 +237,4 @@ public class UrlProviderImplTest {
         Assert.assertEquals(ProductIdentifierType.SKU, id.getLeft());
         Assert.assertEquals("MJ01", id.getRight());
     }
-
-    @Test
-    public void testStringSubstitutor() {
-        Map<String, String> params = new HashMap<>();
-
-        // empty params, valid prefix & suffix
-        UrlProviderImpl.StringSubstitutor sub = new UrlProviderImpl.StringSubstitutor(params, "${", "}");
-        Assert.assertEquals("Wrong substitution", "${test}", sub.replace("${test}"));
-
-        // valid params, no prefix & suffix
-        params.put("test", "value");
-        sub = new UrlProviderImpl.StringSubstitutor(params, null, null);
-        Assert.assertEquals("Wrong substitution", "${value}-value", sub.replace("${test}-test"));
-
-        // valid params, prefix & suffix
-        sub = new UrlProviderImpl.StringSubstitutor(params, "${", "}");
-        Assert.assertEquals("Wrong substitution", "value-value", sub.replace("${test}-${test}"));
-    }
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.services;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UrlTemplateTest {
+
+    @Test
+    public void testVariables() {
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "/content/page");
+        params.put("test", "value");
+
+        Assert.assertEquals("/content/page.value-value.html", UrlTemplate.compile("${page}.${test}-${test}.html").render(params, null));
+        Assert.assertEquals("/content/page.value.html", UrlTemplate.compile("{{page}}.{{test}}.html").render(params, null));
+
+        // The ${var} format is not used when the template contains {{
+        Assert.assertEquals("${test}.value", UrlTemplate.compile("${test}.{{test}}").render(params, null));
+
+        // Unterminated variable
+        Assert.assertEquals("value.{{test", UrlTemplate.compile("{{test}}.{{test").render(params, null));
+        Assert.assertEquals("no-variables", UrlTemplate.compile("no-variables").render(params, null));
+    }
+
+    @Test
+    public void testMissingVariables() {
+        Map<String, String> params = Collections.singletonMap("test", "value");
+        List<String> missing = new ArrayList<>();
+
+        Assert.assertEquals("${other}-value", UrlTemplate.compile("${other}-${test}").render(params, missing));
+        Assert.assertEquals(Collections.singletonList("other"), missing);
+    }
+
+    @Test
+    public void testAnchor() {
+        UrlTemplate template = UrlTemplate.compile("{{page}}.{{url_key}}.html#{{variant_sku}}");
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "/content/page");
+        params.put("url_key", "key");
+        List<String> missing = new ArrayList<>();
+
+        Assert.assertEquals("/content/page.key.html", template.render(params, missing));
+        Assert.assertTrue(missing.isEmpty());
+
+        params.put("variant_sku", "sku");
+        Assert.assertEquals("/content/page.key.html#sku", template.render(params, missing));
+    }
+
+    @Test
+    public void testEncoding() throws UnsupportedEncodingException {
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "/content/page with space");
+
+        String[] values = { "simple-value_1.2*", "men/tops", "a b+c", "MTE=", "é€ & ü", "😀/x", "a%2Fb?c#d" };
+        UrlTemplate template = UrlTemplate.compile("{{page}}.{{value}}.html");
+        for (String value : values) {
+            params.put("value", value);
+            String expected = URLEncoder.encode(value.replace("/", "_"), StandardCharsets.UTF_8.name());
+            Assert.assertEquals("/content/page with space." + expected + ".html", template.render(params, null));
+        }
+    }
+}
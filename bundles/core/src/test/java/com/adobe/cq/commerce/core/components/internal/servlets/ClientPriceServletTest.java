@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.ClientPriceService;
+import com.adobe.cq.commerce.core.components.internal.services.ClientPriceServiceConfiguration;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.CurrencyEnum;
+import com.adobe.cq.commerce.magento.graphql.Money;
+import com.adobe.cq.commerce.magento.graphql.PriceRange;
+import com.adobe.cq.commerce.magento.graphql.ProductDiscount;
+import com.adobe.cq.commerce.magento.graphql.ProductPrice;
+import com.adobe.cq.commerce.magento.graphql.Products;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.SimpleProduct;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ClientPriceServletTest {
+
+    @Rule
+    public final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private ClientPriceServlet servlet;
+    private MagentoGraphqlClient magentoGraphqlClient;
+    private MockSlingHttpServletRequest request;
+    private MockSlingHttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        ClientPriceServiceConfiguration configuration = mock(ClientPriceServiceConfiguration.class);
+        when(configuration.maxEntries()).thenReturn(100);
+        when(configuration.ttl()).thenReturn(30L);
+        when(configuration.maxSkus()).thenReturn(100);
+        ClientPriceService clientPriceService = new ClientPriceService() {
+            {
+                activate(configuration);
+            }
+        };
+
+        servlet = new ClientPriceServlet();
+        Whitebox.setInternalState(servlet, "clientPriceService", clientPriceService);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Store", "default");
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        when(magentoGraphqlClient.getHttpHeaders()).thenReturn(headers);
+        when(magentoGraphqlClient.execute(any())).then(invocation -> {
+            Money regular = new Money().setValue(20.0).setCurrency(CurrencyEnum.USD);
+            Money sale = new Money().setValue(15.0).setCurrency(CurrencyEnum.USD);
+            ProductPrice price = new ProductPrice().setRegularPrice(regular).setFinalPrice(sale)
+                .setDiscount(new ProductDiscount().setAmountOff(5.0).setPercentOff(25.0));
+            SimpleProduct product = new SimpleProduct().setSku("MJ01").setPriceRange(new PriceRange().setMinimumPrice(price));
+
+            GraphqlResponse<Query, Error> graphqlResponse = new GraphqlResponse<>();
+            graphqlResponse.setData(new Query().setProducts(new Products().setItems(Collections.singletonList(product))));
+            return graphqlResponse;
+        });
+        context.registerAdapter(SlingHttpServletRequest.class, MagentoGraphqlClient.class, magentoGraphqlClient);
+
+        request = context.request();
+        response = context.response();
+    }
+
+    @Test
+    public void testPrices() throws IOException {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("sku", new String[] { "MJ01", "MJ02" });
+        request.setParameterMap(parameters);
+
+        servlet.doGet(request, response);
+
+        Assert.assertEquals("application/json;charset=UTF-8", response.getContentType());
+        Assert.assertEquals("max-age=30", response.getHeader("Cache-Control"));
+
+        JsonNode json = new ObjectMapper().readTree(response.getOutputAsString());
+        Assert.assertTrue(json.has("MJ01"));
+        Assert.assertEquals(1, json.size());
+
+        JsonNode price = json.get("MJ01").get("MJ01");
+        Assert.assertEquals("SimpleProduct", price.get("__typename").asText());
+        JsonNode minimumPrice = price.get("minimum_price");
+        Assert.assertEquals(20.0, minimumPrice.get("regular_price").get("value").asDouble(), 0);
+        Assert.assertEquals("USD", minimumPrice.get("regular_price").get("currency").asText());
+        Assert.assertEquals(15.0, minimumPrice.get("final_price").get("value").asDouble(), 0);
+        Assert.assertEquals(25.0, minimumPrice.get("discount").get("percent_off").asDouble(), 0);
+        Assert.assertNull(price.get("maximum_price"));
+    }
+
+    @Test
+    public void testNoSkus() throws IOException {
+        servlet.doGet(request, response);
+
+        Assert.assertEquals("{}", response.getOutputAsString());
+        verify(magentoGraphqlClient, never()).execute(any());
+    }
+}
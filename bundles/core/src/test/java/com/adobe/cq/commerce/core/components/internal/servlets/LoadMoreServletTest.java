@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.models.factory.ModelFactory;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import com.adobe.cq.commerce.core.components.internal.models.v1.productlist.ProductListImpl;
+import com.adobe.cq.commerce.core.components.models.common.Price;
+import com.adobe.cq.commerce.core.components.models.common.ProductListItem;
+import com.adobe.cq.commerce.core.components.models.productlist.ProductList;
+import com.adobe.cq.commerce.core.components.models.searchresults.SearchResults;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LoadMoreServletTest {
+
+    @Rule
+    public final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private LoadMoreServlet servlet;
+    private ModelFactory modelFactory;
+    private MockSlingHttpServletRequest request;
+    private MockSlingHttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        servlet = new LoadMoreServlet();
+        modelFactory = mock(ModelFactory.class);
+        Whitebox.setInternalState(servlet, "modelFactory", modelFactory);
+
+        request = context.request();
+        response = context.response();
+    }
+
+    @Test
+    public void testProductListItems() throws IOException {
+        Resource resource = context.create().resource("/content/page/jcr:content/productlist", "sling:resourceType",
+            ProductListImpl.RESOURCE_TYPE);
+        request.setResource(resource);
+
+        Price price = mock(Price.class);
+        when(price.getCurrency()).thenReturn("USD");
+        when(price.getRegularPrice()).thenReturn(20.0);
+        when(price.getFinalPrice()).thenReturn(15.0);
+        when(price.getFinalPriceMax()).thenReturn(null);
+        when(price.isDiscounted()).thenReturn(true);
+        when(price.isRange()).thenReturn(false);
+
+        ProductListItem item = mock(ProductListItem.class);
+        when(item.getSKU()).thenReturn("MJ01");
+        when(item.getSlug()).thenReturn("beaumont-summit-kit");
+        when(item.getTitle()).thenReturn("Beaumont Summit Kit");
+        when(item.getURL()).thenReturn("/content/product-page.beaumont-summit-kit.html");
+        when(item.getImageURL()).thenReturn("https://example.com/image.jpg");
+        when(item.isStaged()).thenReturn(false);
+        when(item.getPriceRange()).thenReturn(price);
+
+        ProductListImpl productList = mock(ProductListImpl.class);
+        when(productList.getLoadMoreProducts()).thenReturn(Collections.singletonList(item));
+        when(modelFactory.getModelFromWrappedRequest(any(), eq(resource), eq(ProductList.class))).thenReturn(productList);
+
+        servlet.doGet(request, response);
+
+        Assert.assertEquals("application/json;charset=UTF-8", response.getContentType());
+        JsonNode json = new ObjectMapper().readTree(response.getOutputAsString());
+        Assert.assertTrue(json.isArray());
+        Assert.assertEquals(1, json.size());
+
+        JsonNode product = json.get(0);
+        Assert.assertEquals("MJ01", product.get("sku").asText());
+        Assert.assertEquals("beaumont-summit-kit", product.get("slug").asText());
+        Assert.assertEquals("Beaumont Summit Kit", product.get("title").asText());
+        Assert.assertEquals("/content/product-page.beaumont-summit-kit.html", product.get("url").asText());
+        Assert.assertEquals("https://example.com/image.jpg", product.get("imageURL").asText());
+        Assert.assertFalse(product.get("staged").asBoolean());
+
+        JsonNode priceNode = product.get("price");
+        Assert.assertEquals("USD", priceNode.get("currency").asText());
+        Assert.assertEquals(20.0, priceNode.get("regularPrice").asDouble(), 0);
+        Assert.assertEquals(15.0, priceNode.get("finalPrice").asDouble(), 0);
+        Assert.assertFalse(priceNode.has("finalPriceMax"));
+        Assert.assertTrue(priceNode.get("discounted").asBoolean());
+        Assert.assertFalse(priceNode.get("range").asBoolean());
+    }
+
+    @Test
+    public void testModelNotFound() throws IOException {
+        Resource resource = context.create().resource("/content/page/jcr:content/searchresults", "sling:resourceType",
+            "core/cif/components/commerce/searchresults/v1/searchresults");
+        request.setResource(resource);
+        when(modelFactory.getModelFromWrappedRequest(any(), eq(resource), eq(SearchResults.class))).thenReturn(null);
+
+        servlet.doGet(request, response);
+
+        Assert.assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+    }
+}
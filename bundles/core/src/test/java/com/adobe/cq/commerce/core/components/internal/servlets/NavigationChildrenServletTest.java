@@ -0,0 +1,194 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.apache.sling.testing.mock.sling.servlet.MockRequestPathInfo;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeIndex;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
+import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
+import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
+import com.adobe.cq.commerce.core.components.models.navigation.Navigation;
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.shopify.graphql.support.ID;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NavigationChildrenServletTest {
+
+    private static final String NAVIGATION_PATH = "/content/pageA/jcr:content/root/navigation";
+    private static final String SITE_ROOT = "/content/site";
+    private static final String NAVIGATION_RESOURCE_TYPE = "core/cif/components/structure/navigation/v1/navigation";
+
+    @Rule
+    public final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private NavigationChildrenServlet servlet;
+    private CategoryTreeService categoryTreeService;
+    private MagentoGraphqlClient magentoGraphqlClient;
+    private MockSlingHttpServletRequest request;
+    private MockSlingHttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        context.load().json("/context/jcr-content.json", "/content");
+
+        UrlProviderImpl urlProvider = new UrlProviderImpl();
+        urlProvider.activate(new MockUrlProviderConfiguration());
+        categoryTreeService = mock(CategoryTreeService.class);
+
+        servlet = new NavigationChildrenServlet();
+        Whitebox.setInternalState(servlet, "categoryTreeService", categoryTreeService);
+        Whitebox.setInternalState(servlet, "urlProvider", urlProvider);
+
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        context.registerAdapter(SlingHttpServletRequest.class, MagentoGraphqlClient.class, magentoGraphqlClient);
+
+        // The root category is only set on the catalog page below the navigation root, like in the sites
+        context.create().page(SITE_ROOT, "/conf/site", ImmutableMap.of("cq:cifCategoryPage", "/content/category-page"));
+        context.create().page(SITE_ROOT + "/en", "/conf/site", ImmutableMap.of("navRoot", true));
+        context.create().page(SITE_ROOT + "/en/about", "/conf/site", ImmutableMap.of());
+        context.create().page(SITE_ROOT + "/en/products", "/conf/site", ImmutableMap.of("sling:resourceType", Navigation.RT_CATALOG_PAGE,
+            CategoryTreeService.PN_MAGENTO_ROOT_CATEGORY_IDENTIFIER, "Mg=="));
+        Resource resource = context.create().resource(NAVIGATION_PATH, "sling:resourceType", NAVIGATION_RESOURCE_TYPE,
+            "structureDepth", 3, "navigationRoot", SITE_ROOT + "/en");
+        request = context.request();
+        request.setResource(resource);
+        response = context.response();
+
+        CategoryTree root = new CategoryTree().setUid(new ID("Mg==")).setChildren(Arrays.asList(
+            new CategoryTree().setUid(new ID("MTI=")).setName("Jackets").setChildrenCount("2").setChildren(Arrays.asList(
+                new CategoryTree().setUid(new ID("MTQ=")).setName("Rain Jackets").setUrlKey("rain").setPosition(2),
+                new CategoryTree().setUid(new ID("MTM=")).setName("Down Jackets").setUrlKey("down").setPosition(1)
+                    .setChildrenCount("2")))));
+        when(categoryTreeService.getTree(eq(magentoGraphqlClient), eq("Mg=="), anyInt())).thenReturn(CategoryTreeIndex.build(root));
+    }
+
+    @Test
+    public void testChildren() throws IOException {
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSuffix("/MTI=.json");
+
+        servlet.doGet(request, response);
+
+        Assert.assertEquals("application/json;charset=UTF-8", response.getContentType());
+        JsonNode json = new ObjectMapper().readTree(response.getOutputAsString());
+        Assert.assertEquals(2, json.size());
+
+        JsonNode down = json.get(0);
+        Assert.assertEquals("Down Jackets", down.get("title").asText());
+        Assert.assertEquals("/content/category-page.MTM%3D.html", down.get("url").asText());
+        Assert.assertEquals("/content/pageA/_jcr_content/root/navigation.children.json/MTM=.json", down.get("childrenUrl").asText());
+
+        JsonNode rain = json.get(1);
+        Assert.assertEquals("Rain Jackets", rain.get("title").asText());
+        Assert.assertFalse(rain.has("childrenUrl"));
+
+        // the children are served from the tree of the navigation
+        verify(categoryTreeService).getTree(magentoGraphqlClient, "Mg==", 3);
+    }
+
+    @Test
+    public void testNavigationInExperienceFragment() throws IOException {
+        // The experience fragment has no category page, the category page is the one of the catalog page
+        context.create().page("/content/experience-fragments/header/master", "/conf/site", ImmutableMap.of());
+        Resource resource = context.create().resource("/content/experience-fragments/header/master/jcr:content/root/navigation",
+            "sling:resourceType", NAVIGATION_RESOURCE_TYPE, "structureDepth", 3, "navigationRoot", SITE_ROOT + "/en");
+        request.setResource(resource);
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSuffix("/MTI=.json");
+
+        servlet.doGet(request, response);
+
+        JsonNode json = new ObjectMapper().readTree(response.getOutputAsString());
+        Assert.assertEquals(2, json.size());
+        Assert.assertEquals("/content/category-page.MTM%3D.html", json.get(0).get("url").asText());
+        Assert.assertEquals("/content/experience-fragments/header/master/_jcr_content/root/navigation.children.json/MTM=.json",
+            json.get(0).get("childrenUrl").asText());
+    }
+
+    @Test
+    public void testNoCatalogPage() throws IOException {
+        request.getResource().adaptTo(ModifiableValueMap.class).put("navigationRoot", SITE_ROOT + "/en/about");
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSuffix("/MTI=.json");
+
+        servlet.doGet(request, response);
+
+        Assert.assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        verify(categoryTreeService, never()).getTree(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testLastLevel() throws IOException {
+        request.getResource().adaptTo(ModifiableValueMap.class).put("structureDepth", 2);
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSuffix("/MTI=.json");
+
+        servlet.doGet(request, response);
+
+        JsonNode json = new ObjectMapper().readTree(response.getOutputAsString());
+        Assert.assertEquals(2, json.size());
+        Assert.assertFalse(json.get(0).has("childrenUrl"));
+    }
+
+    @Test
+    public void testInvalidSuffix() throws IOException {
+        for (String suffix : new String[] { null, "/.json" }) {
+            ((MockRequestPathInfo) request.getRequestPathInfo()).setSuffix(suffix);
+            MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+            servlet.doGet(request, response);
+            Assert.assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        }
+        verify(categoryTreeService, never()).getTree(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testCategoryNotInNavigation() throws IOException {
+        // categories outside of the tree of the navigation, or below its last level, are not served
+        request.getResource().adaptTo(ModifiableValueMap.class).put("structureDepth", 2);
+        for (String suffix : new String[] { "/MTU=.json", "/MTM=.json" }) {
+            ((MockRequestPathInfo) request.getRequestPathInfo()).setSuffix(suffix);
+            MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+            servlet.doGet(request, response);
+            Assert.assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        }
+        verify(categoryTreeService, times(2)).getTree(magentoGraphqlClient, "Mg==", 2);
+    }
+}
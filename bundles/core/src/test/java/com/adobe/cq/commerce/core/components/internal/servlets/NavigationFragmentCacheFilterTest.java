@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.CategoryTreeService;
+import com.day.cq.wcm.api.WCMMode;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NavigationFragmentCacheFilterTest {
+
+    private static final String NAVIGATION_PATH = "/content/pageB/jcr:content/root/navigation";
+    private static final String PAGE_URL = "/content/pageB/pageC.html";
+    private static final String MARKUP = "<nav><div class=\"categoryTree__root\">"
+        + "<ul class=\"categoryTree__tree\" data-parent=\"\" data-id=\"root\">"
+        + "<li class=\"cmp-navigation__item\"><a href=\"" + PAGE_URL + "\">C</a></li></ul></div></nav>";
+
+    @Rule
+    public final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private NavigationFragmentCacheFilter filter;
+    private CategoryTreeService categoryTreeService;
+    private MagentoGraphqlClient magentoGraphqlClient;
+    private Map<String, String> httpHeaders;
+    private FilterChain chain;
+
+    @Before
+    public void setUp() throws IOException, ServletException {
+        context.load().json("/context/jcr-content.json", "/content");
+        context.create().resource(NAVIGATION_PATH, "sling:resourceType", NavigationFragmentCacheFilter.RESOURCE_TYPE);
+
+        categoryTreeService = mock(CategoryTreeService.class);
+        filter = new NavigationFragmentCacheFilter();
+        Whitebox.setInternalState(filter, "categoryTreeService", categoryTreeService);
+
+        httpHeaders = new HashMap<>(Collections.singletonMap("Store", "default"));
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        when(magentoGraphqlClient.getHttpHeaders()).thenReturn(httpHeaders);
+        context.registerAdapter(SlingHttpServletRequest.class, MagentoGraphqlClient.class, magentoGraphqlClient);
+
+        // The navigation is active for the page of the request URI
+        chain = mock(FilterChain.class);
+        doAnswer(invocation -> {
+            ServletRequest request = invocation.getArgumentAt(0, ServletRequest.class);
+            String uri = ((SlingHttpServletRequest) request).getRequestURI();
+            String markup = PAGE_URL.equals(uri) ? MARKUP.replace("item\"", "item" + NavigationFragment.ACTIVE_CLASS + "\"") : MARKUP;
+            invocation.getArgumentAt(1, javax.servlet.ServletResponse.class).getWriter().write(markup);
+            return null;
+        }).when(chain).doFilter(any(), any());
+    }
+
+    private String doFilter(String requestURI) throws IOException, ServletException {
+        return doFilter(requestURI, null);
+    }
+
+    private String doFilter(String requestURI, String authType) throws IOException, ServletException {
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(), context.bundleContext()) {
+            @Override
+            public String getRequestURI() {
+                return requestURI;
+            }
+        };
+        request.setResource(context.resourceResolver().getResource(NAVIGATION_PATH));
+        request.setAuthType(authType);
+        WCMMode.DISABLED.toRequest(request);
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response.getOutputAsString();
+    }
+
+    @Test
+    public void testCachedMarkup() throws IOException, ServletException {
+        Assert.assertEquals(MARKUP, doFilter("/content/pageB.html"));
+        String active = doFilter(PAGE_URL);
+
+        verify(chain, times(1)).doFilter(any(), any());
+        Assert.assertTrue(active.contains("cmp-navigation__item" + NavigationFragment.ACTIVE_CLASS + "\""));
+        Assert.assertEquals(MARKUP.length() + NavigationFragment.ACTIVE_CLASS.length(), active.length());
+    }
+
+    @Test
+    public void testCategoryTreeRefresh() throws IOException, ServletException {
+        doFilter(PAGE_URL);
+        when(categoryTreeService.getGeneration()).thenReturn(1L);
+        doFilter(PAGE_URL);
+        doFilter(PAGE_URL);
+
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+
+    @Test
+    public void testContentChange() throws IOException, ServletException {
+        doFilter(PAGE_URL);
+        filter.onChange(Collections.emptyList());
+        doFilter(PAGE_URL);
+
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+
+    @Test
+    public void testContentChangeWhileRendering() throws IOException, ServletException {
+        // the markup rendered before the change is not cached
+        doAnswer(invocation -> {
+            filter.onChange(Collections.emptyList());
+            invocation.getArgumentAt(1, javax.servlet.ServletResponse.class).getWriter().write(MARKUP);
+            return null;
+        }).when(chain).doFilter(any(), any());
+        doFilter(PAGE_URL);
+        doFilter(PAGE_URL);
+
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+
+    @Test
+    public void testAuthenticatedNotCached() throws IOException, ServletException {
+        doFilter(PAGE_URL, "BASIC");
+        doFilter(PAGE_URL, "BASIC");
+
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+
+    @Test
+    public void testPreviewNotCached() throws IOException, ServletException {
+        httpHeaders.put("Preview-Version", "1606809684");
+        doFilter(PAGE_URL);
+        Assert.assertTrue(doFilter(PAGE_URL).contains(NavigationFragment.ACTIVE_CLASS));
+
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NavigationFragmentTest {
+
+    private static final String ROOT_ID = "/content/venia/us/en.html";
+    private static final String PAGE = "/content/venia/us/en/about.html";
+    private static final String JACKETS = "/content/venia/us/en/products/category-page.MTI%3D.html";
+    private static final String DOWN = "/content/venia/us/en/products/category-page.MTM%3D.html";
+
+    private static String tree(String id, String parent, String... items) {
+        StringBuilder html = new StringBuilder("<ul\n    class=\"categoryTree__tree\"\n    data-parent=\"" + parent + "\"\n    data-id=\""
+            + id + "\"\n>");
+        for (String item : items) {
+            html.append("<li\n    class=\"cmp-navigation__item cmp-navigation__item--level-0\"\n>"
+                + "<span><a class=\"categoryLeaf__root--link\" href=\"" + item + "\" title=\"t\">t</a></span></li>");
+        }
+        return html.append("</ul>").toString();
+    }
+
+    private static String navigation(String activeTree) {
+        return "<nav><div class=\"categoryTree__root\">" + activeTree + "</div><div class=\"categoryTree__root--shadow\">"
+            + tree(ROOT_ID, "", PAGE, JACKETS) + tree(JACKETS, ROOT_ID, DOWN) + "</div></nav>";
+    }
+
+    private static int count(String html, String value) {
+        return html.split(value, -1).length - 1;
+    }
+
+    @Test
+    public void testNoActiveItem() {
+        String html = navigation(tree(ROOT_ID, "", PAGE, JACKETS));
+        NavigationFragment fragment = NavigationFragment.parse(html, 3);
+
+        Assert.assertEquals(3, fragment.getGeneration());
+        Assert.assertEquals(html, fragment.render("/content/venia/us/en/other.html"));
+    }
+
+    @Test
+    public void testActiveClassesAreRemoved() {
+        String html = navigation(tree(ROOT_ID, "", PAGE, JACKETS));
+        String active = html.replace("level-0\"", "level-0" + NavigationFragment.ACTIVE_CLASS + "\"");
+
+        Assert.assertEquals(html, NavigationFragment.parse(active, 0).render("/content/venia/us/en/other.html"));
+    }
+
+    @Test
+    public void testActivePage() {
+        NavigationFragment fragment = NavigationFragment.parse(navigation(tree(ROOT_ID, "", PAGE, JACKETS)), 0);
+
+        String html = fragment.render(PAGE);
+        // the page is active in the visible tree and in the shadow tree
+        Assert.assertEquals(2, count(html, NavigationFragment.ACTIVE_CLASS));
+        Assert.assertTrue(html.contains(NavigationFragment.ACTIVE_CLASS + "\"\n><span><a class=\"categoryLeaf__root--link\" href=\""
+            + PAGE + "\""));
+    }
+
+    @Test
+    public void testActiveSubPage() {
+        NavigationFragment fragment = NavigationFragment.parse(navigation(tree(ROOT_ID, "", PAGE, JACKETS)), 0);
+
+        String html = fragment.render("/content/venia/us/en/about/team.html");
+        Assert.assertEquals(2, count(html, NavigationFragment.ACTIVE_CLASS));
+    }
+
+    @Test
+    public void testActiveCategoryMovesNavigation() {
+        String html = navigation(tree(ROOT_ID, "", PAGE, JACKETS));
+        NavigationFragment fragment = NavigationFragment.parse(html, 0);
+
+        String rendered = fragment.render(DOWN);
+        // the navigation of the jackets is visible
+        String visible = rendered.substring(0, rendered.indexOf("categoryTree__root--shadow"));
+        Assert.assertTrue(visible.contains("data-id=\"" + JACKETS + "\""));
+        Assert.assertFalse(visible.contains("href=\"" + PAGE + "\""));
+        // the down jackets are active in both trees, and the jackets as their parent in the shadow tree
+        Assert.assertEquals(3, count(rendered, NavigationFragment.ACTIVE_CLASS));
+        Assert.assertEquals(html.length() - tree(ROOT_ID, "", PAGE, JACKETS).length() + tree(JACKETS, ROOT_ID, DOWN).length()
+            + 3 * NavigationFragment.ACTIVE_CLASS.length(), rendered.length());
+    }
+}
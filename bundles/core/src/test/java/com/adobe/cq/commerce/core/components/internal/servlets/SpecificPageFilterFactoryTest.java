@@ -31,7 +31,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
 
+import com.adobe.cq.commerce.core.components.internal.services.SpecificPageIndexService;
 import com.day.cq.wcm.api.WCMMode;
 import io.wcm.testing.mock.aem.junit.AemContext;
 import io.wcm.testing.mock.aem.junit.AemContextCallback;
@@ -80,15 +82,58 @@ public class SpecificPageFilterFactoryTest {
         pathInfo.setSelectorString("productId1");
         filter.doFilter(request, null, chain);
 
-        // Check that the request dispatcher adds the extra selector and forwards to the same page
-        ResourcePathMatcher matcher = new ResourcePathMatcher("/content/product-page");
+        // Check that the request is forwarded once, directly to the specific page
+        ResourcePathMatcher matcher = new ResourcePathMatcher("/content/product-page/sub-page");
         RequestDispatcherOptions options = new RequestDispatcherOptions();
-        options.setReplaceSelectors(SpecificPageServlet.SELECTOR + ".productId1");
+        options.setReplaceSelectors("productId1");
 
         Mockito.verify(requestDispatcherFactory).getRequestDispatcher(argThat(matcher), eq(options));
         Mockito.verify(chain, Mockito.times(0)).doFilter(request, null);
     }
 
+    @Test
+    public void testFilterForwardingWithIndexService() throws IOException, ServletException {
+        Whitebox.setInternalState(filter, "specificPageIndexService", new SpecificPageIndexService());
+
+        request.setResource(context.resourceResolver().resolve("/content/category-page"));
+        MockRequestPathInfo pathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        pathInfo.setSelectorString("category-uid-2");
+        filter.doFilter(request, null, chain);
+
+        ResourcePathMatcher matcher = new ResourcePathMatcher("/content/category-page/sub-page");
+        RequestDispatcherOptions options = new RequestDispatcherOptions();
+        options.setReplaceSelectors("category-uid-2");
+
+        Mockito.verify(requestDispatcherFactory).getRequestDispatcher(argThat(matcher), eq(options));
+        Mockito.verify(chain, Mockito.times(0)).doFilter(request, null);
+    }
+
+    @Test
+    public void testFilterNoSpecificPages() throws IOException, ServletException {
+        Whitebox.setInternalState(filter, "specificPageIndexService", new SpecificPageIndexService());
+
+        request.setResource(context.resourceResolver().resolve("/content/catalog-page"));
+        MockRequestPathInfo pathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        pathInfo.setSelectorString("productId1");
+        filter.doFilter(request, null, chain);
+
+        // The page does not have any specific page, so the request is not dispatched
+        Mockito.verify(requestDispatcherFactory, Mockito.times(0)).getRequestDispatcher(any(Resource.class), any());
+        Mockito.verify(chain).doFilter(request, null);
+    }
+
+    @Test
+    public void testFilterNoMatchingSpecificPage() throws IOException, ServletException {
+        request.setResource(context.resourceResolver().resolve("/content/product-page"));
+        MockRequestPathInfo pathInfo = (MockRequestPathInfo) request.getRequestPathInfo();
+        pathInfo.setSelectorString("unknown");
+        filter.doFilter(request, null, chain);
+
+        // No specific page matches, so the generic page is rendered without any forward
+        Mockito.verify(requestDispatcherFactory, Mockito.times(0)).getRequestDispatcher(any(Resource.class), any());
+        Mockito.verify(chain).doFilter(request, null);
+    }
+
     @Test
     public void testFilterNoopWcmmode() throws IOException, ServletException {
         request.setResource(context.resourceResolver().resolve("/content/product-page"));
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+package com.adobe.cq.commerce.core.components.internal.servlets;
+
+import java.io.IOException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.servlethelpers.MockRequestPathInfo;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
+import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndex;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndexService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.wcm.testing.mock.aem.junit.AemContext;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SuggestionServletTest {
+
+    @Rule
+    public final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private SuggestionServlet servlet;
+    private SuggestionIndexService suggestionIndexService;
+    private MagentoGraphqlClient magentoGraphqlClient;
+    private MockSlingHttpServletRequest request;
+    private MockSlingHttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        context.load().json("/context/jcr-content.json", "/content");
+
+        UrlProviderImpl urlProvider = new UrlProviderImpl();
+        urlProvider.activate(new MockUrlProviderConfiguration());
+        suggestionIndexService = mock(SuggestionIndexService.class);
+
+        servlet = new SuggestionServlet();
+        Whitebox.setInternalState(servlet, "suggestionIndexService", suggestionIndexService);
+        Whitebox.setInternalState(servlet, "urlProvider", urlProvider);
+
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        context.registerAdapter(SlingHttpServletRequest.class, MagentoGraphqlClient.class, magentoGraphqlClient);
+
+        Resource resource = context.create().resource("/content/pageA/jcr:content/root/searchbar", "sling:resourceType",
+            "core/cif/components/commerce/searchbar/v1/searchbar");
+        request = context.request();
+        request.setResource(resource);
+        response = context.response();
+    }
+
+    @Test
+    public void testSuggestions() throws IOException {
+        SuggestionIndex index = new SuggestionIndex.Builder()
+            .addProduct("Stellar Solar Jacket", "WJ01", "stellar-solar-jacket")
+            .addCategory("Jackets", "MTI=", "jackets", "women/jackets")
+            .build();
+        when(suggestionIndexService.suggest(eq(magentoGraphqlClient), eq("jack"), anyInt())).thenReturn(index.suggest("jack", 10));
+        ((MockRequestPathInfo) request.getRequestPathInfo()).setSuffix("/jack.json");
+
+        servlet.doGet(request, response);
+
+        Assert.assertEquals("application/json;charset=UTF-8", response.getContentType());
+        JsonNode json = new ObjectMapper().readTree(response.getOutputAsString());
+        Assert.assertEquals(2, json.size());
+
+        JsonNode category = json.get(0);
+        Assert.assertEquals("category", category.get("type").asText());
+        Assert.assertEquals("Jackets", category.get("label").asText());
+        Assert.assertEquals("/content/category-page.MTI%3D.html", category.get("url").asText());
+
+        JsonNode product = json.get(1);
+        Assert.assertEquals("product", product.get("type").asText());
+        Assert.assertEquals("WJ01", product.get("sku").asText());
+        Assert.assertEquals("/content/product-page.stellar-solar-jacket.html", product.get("url").asText());
+    }
+
+    @Test
+    public void testEmptyQuery() throws IOException {
+        servlet.doGet(request, response);
+
+        Assert.assertEquals("[]", response.getOutputAsString());
+        verify(suggestionIndexService, never()).suggest(any(), any(), anyInt());
+    }
+}
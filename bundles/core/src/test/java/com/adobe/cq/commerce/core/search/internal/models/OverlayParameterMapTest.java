@@ -0,0 +1,52 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OverlayParameterMapTest {
+
+    @Test
+    public void testOverlay() {
+        Map<String, String> base = new HashMap<>();
+        base.put("color", "red");
+        base.put("page", "1");
+
+        Map<String, String> expected = new HashMap<>(base);
+        expected.put("page", "2");
+        expected.put("sort_key", "price");
+
+        Map<String, String> overlay = new OverlayParameterMap(base, "page", "2", "sort_key", "price");
+        assertThat(overlay).isEqualTo(expected);
+        assertThat(overlay).hasSize(3);
+        assertThat(overlay.get("page")).isEqualTo("2");
+        assertThat(overlay.get("color")).isEqualTo("red");
+        assertThat(overlay.containsKey("sort_key")).isTrue();
+        assertThat(overlay.containsKey("sort_order")).isFalse();
+
+        // the base map is shared, not modified
+        assertThat(base).hasSize(2).containsEntry("page", "1");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        new OverlayParameterMap(new HashMap<>(), "page", "2").put("page", "3");
+    }
+}
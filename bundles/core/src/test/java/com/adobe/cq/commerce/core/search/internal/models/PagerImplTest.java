@@ -105,6 +105,17 @@ public class PagerImplTest {
             .contains(1, TOTAL_PAGES);
     }
 
+    @Test
+    public void testOnlyDisplayedPagesAreCreated() {
+        PagerImpl pager = new PagerImpl(Collections.singletonMap(PARAMETER_KEY, PARAMETER_VALUE), 100000, 500);
+        assertThat(pager.getPages().stream().map(page -> page.getPageNumber()).collect(Collectors.toList()))
+            .containsExactly(1, 499, 500, 501, 100000);
+        assertThat(pager.getPages().get(2).getParameters()).containsEntry("page", "500").containsEntry(PARAMETER_KEY, PARAMETER_VALUE);
+
+        pager = new PagerImpl(Collections.singletonMap(PARAMETER_KEY, PARAMETER_VALUE), 0, 1);
+        assertThat(pager.getPages()).isEmpty();
+    }
+
     @Test
     public void testHasMorePagesAtBoundary() {
         PagerImpl pager = new PagerImpl(Collections.singletonMap(PARAMETER_KEY, PARAMETER_VALUE), TOTAL_PAGES, 1);
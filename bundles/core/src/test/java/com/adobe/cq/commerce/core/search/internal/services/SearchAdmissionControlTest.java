@@ -0,0 +1,59 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchAdmissionControlTest {
+
+    private static SlingHttpServletRequest mockRequest(String remoteAddr) {
+        SlingHttpServletRequest request = mock(SlingHttpServletRequest.class);
+        when(request.getRemoteAddr()).thenReturn(remoteAddr);
+        return request;
+    }
+
+    @Test
+    public void testNewClientsDoNotResetActiveClients() {
+        SearchAdmissionControl admissionControl = new SearchAdmissionControl(0, 1, 60000, null, 1);
+        SlingHttpServletRequest crawler = mockRequest("192.168.0.1");
+        assertThat(admissionControl.admit(crawler, "combination-0")).isTrue();
+        assertThat(admissionControl.admit(crawler, "combination-1")).isFalse();
+
+        // Fill the windows with other clients, the crawler is still active
+        for (int i = 1; i < SearchAdmissionControl.MAX_CLIENTS; i++) {
+            assertThat(admissionControl.admit(mockRequest("10.0." + (i / 256) + "." + (i % 256)), "other-" + i)).isTrue();
+        }
+        assertThat(admissionControl.admit(crawler, "combination-2")).isFalse();
+
+        // A new client only evicts the window of the least recently seen client
+        assertThat(admissionControl.admit(mockRequest("172.16.0.1"), "new")).isTrue();
+        assertThat(admissionControl.admit(crawler, "combination-3")).isFalse();
+        assertThat(admissionControl.admit(mockRequest("10.0.0.1"), "other-again")).isTrue();
+    }
+
+    @Test
+    public void testDisabled() {
+        SearchAdmissionControl admissionControl = new SearchAdmissionControl(0, 0, 60000, null, 1);
+        assertThat(admissionControl.hasTooManyFilters(100)).isFalse();
+        for (int i = 0; i < 10; i++) {
+            assertThat(admissionControl.admit(mockRequest("192.168.0.1"), "combination-" + i)).isTrue();
+        }
+    }
+}
@@ -18,8 +18,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.testing.mock.sling.ResourceResolverType;
@@ -36,6 +39,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
 import com.adobe.cq.commerce.core.components.internal.services.MockUrlProviderConfiguration;
 import com.adobe.cq.commerce.core.components.internal.services.UrlProviderImpl;
+import com.adobe.cq.commerce.core.components.models.retriever.AbstractCategoryRetriever;
 import com.adobe.cq.commerce.core.components.services.UrlProvider;
 import com.adobe.cq.commerce.core.search.internal.models.FilterAttributeMetadataImpl;
 import com.adobe.cq.commerce.core.search.internal.models.SearchOptionsImpl;
@@ -43,7 +47,11 @@ import com.adobe.cq.commerce.core.search.models.FilterAttributeMetadata;
 import com.adobe.cq.commerce.core.search.models.SearchResultsSet;
 import com.adobe.cq.commerce.core.search.models.Sorter;
 import com.adobe.cq.commerce.core.search.services.SearchFilterService;
+import com.adobe.cq.commerce.core.search.services.SearchResultsService;
+import com.adobe.cq.commerce.graphql.client.GraphqlClientConfiguration;
 import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.Aggregation;
+import com.adobe.cq.commerce.magento.graphql.CategoryFilterInput;
 import com.adobe.cq.commerce.magento.graphql.FilterEqualTypeInput;
 import com.adobe.cq.commerce.magento.graphql.FilterMatchTypeInput;
 import com.adobe.cq.commerce.magento.graphql.FilterRangeTypeInput;
@@ -51,6 +59,7 @@ import com.adobe.cq.commerce.magento.graphql.Products;
 import com.adobe.cq.commerce.magento.graphql.Query;
 import com.adobe.cq.commerce.magento.graphql.gson.Error;
 import com.day.cq.wcm.api.Page;
+import com.google.common.base.Function;
 import io.wcm.testing.mock.aem.junit.AemContext;
 import io.wcm.testing.mock.aem.junit.AemContextCallback;
 
@@ -308,6 +317,229 @@ public class SearchResultsServiceImplTest {
         assertThat(captor.getValue()).contains("created_at,is_returnable_custom_:is_returnable");
     }
 
+    @Test
+    public void testAggregationsDisabled() {
+        searchOptions.setAggregationsEnabled(false);
+
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(1)).execute(captor.capture());
+        assertThat(captor.getValue()).doesNotContain("aggregations");
+    }
+
+    @Test
+    public void testSeparateAggregationsQuery() {
+        MagentoGraphqlClient aggregationsClient = Mockito.mock(MagentoGraphqlClient.class);
+        context.registerAdapter(Resource.class, MagentoGraphqlClient.class,
+            (Function<Resource, MagentoGraphqlClient>) r -> SearchResultsService.class.getName().equals(r.getResourceType())
+                ? aggregationsClient
+                : null);
+
+        Query aggregationsQuery = new Query().setProducts(new Products().setAggregations(Arrays.asList(
+            createAggregation(FILTER_ATTRIBUTE_COLOR_CODE),
+            createAggregation(FILTER_ATTRIBUTE_NAME_CODE))));
+        GraphqlResponse<Query, Error> aggregationsResponse = new GraphqlResponse<>();
+        aggregationsResponse.setData(aggregationsQuery);
+        when(aggregationsClient.execute(any())).thenReturn(aggregationsResponse);
+        GraphqlClientConfiguration configuration = Mockito.mock(GraphqlClientConfiguration.class);
+        when(configuration.cacheConfigurations()).thenReturn(new String[] { SearchResultsService.class.getName() + ":true:100:600" });
+        when(aggregationsClient.getConfiguration()).thenReturn(configuration);
+
+        searchOptions.setCurrentPage(2);
+        searchOptions.addSorterKey("name", "Name", Sorter.Order.DESC);
+        SearchResultsSet searchResultsSet = serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // The products query of the second page does not request the aggregations
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(1)).execute(captor.capture());
+        assertThat(captor.getValue()).contains("currentPage:2").doesNotContain("aggregations");
+
+        // The aggregations query does not depend on the page or on the sorting
+        verify(aggregationsClient, times(1)).execute(captor.capture());
+        String query = captor.getValue();
+        assertThat(query).contains("search:\"pants\"", "color:{eq:\"red\"}", "aggregations");
+        assertThat(query).doesNotContain("currentPage", "sort:", "items");
+
+        assertThat(searchResultsSet.getSearchAggregations()).hasSize(2);
+    }
+
+    @Test
+    public void testAggregationsOfNextPagesWithoutCache() {
+        MagentoGraphqlClient aggregationsClient = Mockito.mock(MagentoGraphqlClient.class);
+        context.registerAdapter(Resource.class, MagentoGraphqlClient.class,
+            (Function<Resource, MagentoGraphqlClient>) r -> SearchResultsService.class.getName().equals(r.getResourceType())
+                ? aggregationsClient
+                : null);
+
+        searchOptions.setCurrentPage(2);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // Without a cache for the aggregations query, the aggregations are requested with the products of the page
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(1)).execute(captor.capture());
+        assertThat(captor.getValue()).contains("currentPage:2", "aggregations");
+        verify(aggregationsClient, Mockito.never()).execute(any());
+    }
+
+    @Test
+    public void testIsCacheEnabled() {
+        GraphqlClientConfiguration configuration = Mockito.mock(GraphqlClientConfiguration.class);
+        assertThat(SearchResultsServiceImpl.isCacheEnabled(configuration, "cache")).isFalse();
+
+        when(configuration.cacheConfigurations()).thenReturn(new String[] { "other:true:10:10", "cache:false:10:10" });
+        assertThat(SearchResultsServiceImpl.isCacheEnabled(configuration, "cache")).isFalse();
+
+        when(configuration.cacheConfigurations()).thenReturn(new String[] { "", "cache:true:10:10" });
+        assertThat(SearchResultsServiceImpl.isCacheEnabled(configuration, "cache")).isTrue();
+        assertThat(SearchResultsServiceImpl.isCacheEnabled(null, "cache")).isFalse();
+    }
+
+    @Test
+    public void testAggregationAttributeCodes() {
+        when(products.getAggregations()).thenReturn(Arrays.asList(
+            createAggregation(FILTER_ATTRIBUTE_COLOR_CODE),
+            createAggregation(FILTER_ATTRIBUTE_NAME_CODE)));
+        searchOptions.setAggregationAttributeCodes(Collections.singleton(FILTER_ATTRIBUTE_COLOR_CODE));
+
+        SearchResultsSet searchResultsSet = serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        assertThat(searchResultsSet.getSearchAggregations()).hasSize(1);
+        assertThat(searchResultsSet.getSearchAggregations().get(0).getIdentifier()).isEqualTo(FILTER_ATTRIBUTE_COLOR_CODE);
+    }
+
+    @Test
+    public void testUnknownParametersAreIgnored() {
+        searchOptions.getAttributeFilters().put("utm_source", "crawler");
+
+        SearchResultsSet searchResultsSet = serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        assertThat(searchResultsSet.getAppliedQueryParameters()).containsKey(FILTER_ATTRIBUTE_COLOR_CODE).doesNotContainKey(
+            "utm_source");
+    }
+
+    @Test
+    public void testTooManyFilters() {
+        serviceUnderTest = context.registerInjectActivateService(new SearchResultsServiceImpl(), "maxAppliedFilters", 2);
+        searchOptions.setAggregationsEnabled(false);
+        searchOptions.setCurrentPage(3);
+        searchOptions.getAttributeFilters().put(SearchOptionsImpl.CATEGORY_UID_PARAMETER_ID, "MTI==");
+
+        SearchResultsSet searchResultsSet = serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // The search falls back to the first page of the category without the other filters
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(1)).execute(captor.capture());
+        assertThat(captor.getValue()).contains("currentPage:1").doesNotContain("color:");
+        assertThat(searchResultsSet.getAppliedQueryParameters()).containsKey(SearchOptionsImpl.CATEGORY_UID_PARAMETER_ID)
+            .doesNotContainKey(FILTER_ATTRIBUTE_COLOR_CODE);
+    }
+
+    @Test
+    public void testRateLimitNewCombinations() {
+        serviceUnderTest = context.registerInjectActivateService(new SearchResultsServiceImpl(), "maxNewCombinationsPerClient", 1);
+        when(request.getRemoteAddr()).thenReturn("10.0.0.254");
+        when(request.getHeader("X-Forwarded-For")).thenReturn("192.168.0.1");
+        searchOptions.setAggregationsEnabled(false);
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+
+        searchOptions.setCurrentPage(2);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // A second new combination of the same client is throttled
+        searchOptions.setCurrentPage(3);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // The entries set by the client before the one added by the trusted proxy are ignored
+        when(request.getHeader("X-Forwarded-For")).thenReturn("10.0.0.1, 192.168.0.1");
+        searchOptions.setCurrentPage(4);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // A combination searched recently is always admitted
+        searchOptions.setCurrentPage(2);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // Another client is not throttled
+        when(request.getHeader("X-Forwarded-For")).thenReturn("10.0.0.1, 192.168.0.2");
+        searchOptions.setCurrentPage(3);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        verify(magentoGraphqlClient, times(5)).execute(captor.capture());
+        assertThat(captor.getAllValues().get(0)).contains("currentPage:2", "color:");
+        assertThat(captor.getAllValues().get(1)).contains("currentPage:1").doesNotContain("color:");
+        assertThat(captor.getAllValues().get(2)).contains("currentPage:1").doesNotContain("color:");
+        assertThat(captor.getAllValues().get(3)).contains("currentPage:2", "color:");
+        assertThat(captor.getAllValues().get(4)).contains("currentPage:3", "color:");
+    }
+
+    @Test
+    public void testRateLimitWithTrustedProxies() {
+        serviceUnderTest = context.registerInjectActivateService(new SearchResultsServiceImpl(), "maxNewCombinationsPerClient", 1,
+            "clientIpHeader", "True-Client-IP", "trustedProxies", 2);
+        when(request.getRemoteAddr()).thenReturn("10.0.0.254");
+        when(request.getHeader("True-Client-IP")).thenReturn("192.168.0.1");
+        searchOptions.setAggregationsEnabled(false);
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+
+        searchOptions.setCurrentPage(2);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // With two trusted proxies, the client IP is the second entry from the end
+        when(request.getHeader("True-Client-IP")).thenReturn("10.0.0.1, 192.168.0.1, 172.16.0.1");
+        searchOptions.setCurrentPage(3);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        // Without header, the remote address identifies the client
+        when(request.getHeader("True-Client-IP")).thenReturn(null);
+        searchOptions.setCurrentPage(4);
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request);
+
+        verify(magentoGraphqlClient, times(3)).execute(captor.capture());
+        assertThat(captor.getAllValues().get(0)).contains("currentPage:2", "color:");
+        assertThat(captor.getAllValues().get(1)).contains("currentPage:1").doesNotContain("color:");
+        assertThat(captor.getAllValues().get(2)).contains("currentPage:4", "color:");
+    }
+
+    @Test
+    public void testRateLimitCategories() {
+        serviceUnderTest = context.registerInjectActivateService(new SearchResultsServiceImpl(), "maxNewCombinationsPerClient", 1);
+        when(request.getRemoteAddr()).thenReturn("192.168.0.1");
+        searchOptions.setAggregationsEnabled(false);
+        searchOptions.setCurrentPage(2);
+
+        // The same filters on two categories are two combinations, which are admitted before querying the categories
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request, null, mockCategoryRetriever("MTI="));
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request, null, mockCategoryRetriever("MTM="));
+        serviceUnderTest.performSearch(searchOptions, resource, productPage, request, null, mockCategoryRetriever("MTI="));
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(6)).execute(captor.capture());
+        List<String> productQueries = captor.getAllValues()
+            .stream()
+            .filter(q -> q.contains("products("))
+            .collect(Collectors.toList());
+        assertThat(productQueries).hasSize(3);
+        assertThat(productQueries.get(0)).contains("currentPage:2", "color:");
+        assertThat(productQueries.get(1)).contains("currentPage:1").doesNotContain("color:");
+        assertThat(productQueries.get(2)).contains("currentPage:2", "color:");
+    }
+
+    private AbstractCategoryRetriever mockCategoryRetriever(String uid) {
+        AbstractCategoryRetriever categoryRetriever = Mockito.mock(AbstractCategoryRetriever.class);
+        when(categoryRetriever.generateCategoryQueryArgs()).thenReturn(Pair.of(
+            args -> args.filters(new CategoryFilterInput().setCategoryUid(new FilterEqualTypeInput().setEq(uid))),
+            category -> category.name()));
+        return categoryRetriever;
+    }
+
+    private Aggregation createAggregation(String attributeCode) {
+        return new Aggregation()
+            .setAttributeCode(attributeCode)
+            .setLabel(attributeCode)
+            .setCount(0)
+            .setOptions(new ArrayList<>());
+    }
+
     private FilterAttributeMetadata createMatchFilterAttributeMetadata(String attributeCode) {
         FilterAttributeMetadataImpl newFilterAttributeMetadata = new FilterAttributeMetadataImpl();
         newFilterAttributeMetadata.setAttributeCode(attributeCode);
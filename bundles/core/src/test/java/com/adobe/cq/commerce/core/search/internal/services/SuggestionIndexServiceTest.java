@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import com.adobe.cq.commerce.core.components.client.MagentoGraphqlClient;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndex.Suggestion;
+import com.adobe.cq.commerce.graphql.client.GraphqlResponse;
+import com.adobe.cq.commerce.magento.graphql.CategoryTree;
+import com.adobe.cq.commerce.magento.graphql.ProductInterface;
+import com.adobe.cq.commerce.magento.graphql.Products;
+import com.adobe.cq.commerce.magento.graphql.Query;
+import com.adobe.cq.commerce.magento.graphql.SearchResultPageInfo;
+import com.adobe.cq.commerce.magento.graphql.SimpleProduct;
+import com.adobe.cq.commerce.magento.graphql.gson.Error;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.shopify.graphql.support.ID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SuggestionIndexServiceTest {
+
+    private SuggestionIndexService service;
+    private MagentoGraphqlClient magentoGraphqlClient;
+
+    @Before
+    public void setUp() {
+        SuggestionIndexServiceConfiguration configuration = mock(SuggestionIndexServiceConfiguration.class);
+        when(configuration.pageSize()).thenReturn(2);
+        when(configuration.maxProducts()).thenReturn(100);
+        when(configuration.categoryDepth()).thenReturn(1);
+        when(configuration.refreshInterval()).thenReturn(3600L);
+
+        service = new SuggestionIndexService();
+        service.activate(configuration);
+        // Build the indexes synchronously
+        Whitebox.setInternalState(service, "executor", MoreExecutors.sameThreadExecutor());
+
+        magentoGraphqlClient = mock(MagentoGraphqlClient.class);
+        when(magentoGraphqlClient.getHttpHeaders()).thenReturn(Collections.singletonMap("Store", "default"));
+        when(magentoGraphqlClient.execute(any())).then(invocation -> {
+            String query = invocation.getArgumentAt(0, String.class);
+            if (query.startsWith("{categoryList")) {
+                CategoryTree jackets = new CategoryTree().setUid(new ID("MTI=")).setName("Jackets").setUrlKey("jackets")
+                    .setUrlPath("women/jackets");
+                CategoryTree women = new CategoryTree().setUid(new ID("MTE=")).setName("Women").setUrlKey("women")
+                    .setUrlPath("women").setChildren(Collections.singletonList(jackets));
+                CategoryTree root = new CategoryTree().setUid(new ID("Mg==")).setName("Default Category")
+                    .setChildren(Collections.singletonList(women));
+                return response(new Query().setCategoryList(Collections.singletonList(root)));
+            }
+            List<ProductInterface> items = new ArrayList<>();
+            if (query.contains("currentPage:1")) {
+                items.add(new SimpleProduct().setSku("WJ01").setName("Stellar Solar Jacket").setUrlKey("stellar-solar-jacket"));
+                items.add(new SimpleProduct().setSku("WJ02").setName("Josie Yoga Jacket").setUrlKey("josie-yoga-jacket"));
+            } else {
+                items.add(new SimpleProduct().setSku("WT01").setName("Desiree Fitness Tee").setUrlKey("desiree-fitness-tee"));
+            }
+            Products products = new Products().setItems(items).setPageInfo(new SearchResultPageInfo().setTotalPages(2));
+            return response(new Query().setProducts(products));
+        });
+    }
+
+    @After
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    private static GraphqlResponse<Query, Error> response(Query query) {
+        GraphqlResponse<Query, Error> response = new GraphqlResponse<>();
+        response.setData(query);
+        return response;
+    }
+
+    @Test
+    public void testBuildIndex() {
+        SuggestionIndex index = service.buildIndex(magentoGraphqlClient);
+
+        // The root category is not indexed
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.suggest("default", 10)).isEmpty();
+        assertThat(index.suggest("women", 10)).extracting(Suggestion::getUid).containsExactly("MTE=");
+        assertThat(index.suggest("tee", 10)).extracting(Suggestion::getSku).containsExactly("WT01");
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(magentoGraphqlClient, times(3)).execute(captor.capture());
+        assertThat(captor.getAllValues().get(1)).contains("pageSize:2", "currentPage:1");
+        assertThat(captor.getAllValues().get(2)).contains("currentPage:2");
+    }
+
+    @Test
+    public void testSuggestBuildsIndexOnce() {
+        List<Suggestion> suggestions = service.suggest(magentoGraphqlClient, "jack", 10);
+        assertThat(suggestions).extracting(Suggestion::getLabel).containsExactly("Jackets", "Josie Yoga Jacket", "Stellar Solar Jacket");
+
+        // The index is reused until the refresh interval expires
+        service.suggest(magentoGraphqlClient, "josie", 10);
+        verify(magentoGraphqlClient, times(3)).execute(any());
+    }
+
+    @Test
+    public void testFailedBuild() {
+        GraphqlResponse<Query, Error> response = new GraphqlResponse<>();
+        response.setErrors(Arrays.asList(new Error()));
+        doReturn(response).when(magentoGraphqlClient).execute(any());
+
+        assertThat(service.suggest(magentoGraphqlClient, "jack", 10)).isEmpty();
+        assertThat(service.suggest(magentoGraphqlClient, "jack", 10)).isEmpty();
+
+        // A failed build is not retried for each request
+        verify(magentoGraphqlClient, times(1)).execute(any());
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ *
+ *    Copyright 2021 Adobe. All rights reserved.
+ *    This file is licensed to you under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License. You may obtain a copy
+ *    of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under
+ *    the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+ *    OF ANY KIND, either express or implied. See the License for the specific language
+ *    governing permissions and limitations under the License.
+ *
+ ******************************************************************************/
+
+package com.adobe.cq.commerce.core.search.internal.services;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndex.Suggestion;
+import com.adobe.cq.commerce.core.search.internal.services.SuggestionIndex.Type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @Before
+    public void setUp() {
+        index = new SuggestionIndex.Builder()
+            .addProduct("Stellar Solar Jacket", "WJ01", "stellar-solar-jacket")
+            .addProduct("Josie Yoga Jacket", "WJ02", "josie-yoga-jacket")
+            .addProduct("Jade Yoga Jacket", "WJ03", "jade-yoga-jacket")
+            .addProduct("Crème Tee", "WT01", "creme-tee")
+            .addProduct(null, "WT02", "no-name")
+            .addCategory("Jackets", "MTI=", "jackets", "women/tops/jackets")
+            .addCategory("Tees", "MTM=", "tees", "women/tops/tees")
+            .build();
+    }
+
+    @Test
+    public void testSize() {
+        assertThat(index.size()).isEqualTo(6);
+        assertThat(SuggestionIndex.EMPTY.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testWordPrefixes() {
+        List<Suggestion> suggestions = index.suggest("jack", 10);
+
+        // Categories come first, each suggestion is returned once even if several of its words match
+        assertThat(suggestions).extracting(Suggestion::getLabel).containsExactly("Jackets", "Jade Yoga Jacket", "Josie Yoga Jacket",
+            "Stellar Solar Jacket");
+        assertThat(suggestions.get(0).getType()).isEqualTo(Type.CATEGORY);
+        assertThat(suggestions.get(0).getUrlPath()).isEqualTo("women/tops/jackets");
+        assertThat(suggestions.get(1).getType()).isEqualTo(Type.PRODUCT);
+        assertThat(suggestions.get(1).getSku()).isEqualTo("WJ03");
+    }
+
+    @Test
+    public void testMultipleWords() {
+        assertThat(index.suggest("Yoga J", 10)).extracting(Suggestion::getSku).containsExactly("WJ03", "WJ02");
+        assertThat(index.suggest("solar jacket", 10)).extracting(Suggestion::getSku).containsExactly("WJ01");
+    }
+
+    @Test
+    public void testSkuAndAccents() {
+        assertThat(index.suggest("wj0", 10)).extracting(Suggestion::getSku).containsExactly("WJ01", "WJ02", "WJ03");
+        assertThat(index.suggest("  CREME ", 10)).extracting(Suggestion::getUrlKey).containsExactly("creme-tee");
+    }
+
+    @Test
+    public void testLimit() {
+        List<String> labels = index.suggest("j", 2).stream().map(Suggestion::getLabel).collect(Collectors.toList());
+        assertThat(labels).containsExactly("Jackets", "Jade Yoga Jacket");
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertThat(index.suggest("pants", 10)).isEmpty();
+        assertThat(index.suggest("", 10)).isEmpty();
+        assertThat(index.suggest(null, 10)).isEmpty();
+        assertThat(index.suggest("jacket", 0)).isEmpty();
+    }
+}
@@ -26,6 +26,8 @@ class CommerceGraphqlApi {
         this.storeView = props.storeView;
         this.method = props.graphqlMethod;
         this.headers = props.headers;
+        this.priceUrl = props.priceUrl;
+        this._priceRequests = [];
     }
 
     async _fetch(url, params) {
@@ -81,6 +83,10 @@ class CommerceGraphqlApi {
      * @returns {Promise<any[]>} Returns a map of skus mapped to their prices. The price is an object containing the currency and value.
      */
     async getProductPrices(skus, includeVariants) {
+        if (this.priceUrl) {
+            return this._getClientPrices(skus, includeVariants);
+        }
+
         let skuQuery = '"' + skus.join('", "') + '"';
 
         const priceQuery = `regular_price {
@@ -162,16 +168,69 @@ class CommerceGraphqlApi {
         }
         return dict;
     }
+
+    /**
+     * Retrieves the prices of the products with the given SKUs from the price servlet of the page.
+     * The prices requested by all the components while the page is loaded are fetched with a single request.
+     *
+     * @param {array} skus  Array of product SKUs.
+     * @returns {Promise<any[]>} Returns a map of skus mapped to their prices, like getProductPrices.
+     */
+    _getClientPrices(skus, includeVariants) {
+        return new Promise((resolve, reject) => {
+            this._priceRequests.push({ skus, includeVariants, resolve, reject });
+            if (this._priceRequests.length === 1) {
+                setTimeout(() => this._fetchClientPrices(), 0);
+            }
+        });
+    }
+
+    async _fetchClientPrices() {
+        const requests = this._priceRequests;
+        this._priceRequests = [];
+
+        const skus = [...new Set([].concat(...requests.map(request => request.skus)))];
+        const includeVariants = requests.some(request => request.includeVariants);
+        let url = this.priceUrl + '?' + skus.map(sku => `sku=${encodeURIComponent(sku)}`).join('&');
+        if (includeVariants) {
+            url += '&variants=true';
+        }
+
+        let prices;
+        try {
+            prices = await this._fetch(url, { method: 'GET' });
+        } catch (err) {
+            requests.forEach(request => request.reject(err));
+            return;
+        }
+
+        // Each component only gets the prices of its products, and of their variants or grouped items if requested
+        for (let request of requests) {
+            let dict = {};
+            for (let sku of request.skus) {
+                let productPrices = prices[sku] || {};
+                if (request.includeVariants) {
+                    Object.assign(dict, productPrices);
+                } else if (productPrices[sku]) {
+                    dict[sku] = productPrices[sku];
+                }
+            }
+            request.resolve(dict);
+        }
+    }
 }
 
 (function() {
     function onDocumentReady() {
-        const { storeView, graphqlEndpoint, graphqlMethod, httpHeaders } = document.querySelector('body').dataset;
+        const { storeView, graphqlEndpoint, graphqlMethod, httpHeaders, priceUrl } = document.querySelector(
+            'body'
+        ).dataset;
         window.CIF.CommerceGraphqlApi = new CommerceGraphqlApi({
             endpoint: graphqlEndpoint,
             storeView,
             graphqlMethod,
-            headers: JSON.parse(httpHeaders)
+            headers: JSON.parse(httpHeaders),
+            priceUrl
         });
     }
 
@@ -31,11 +31,22 @@ class VariantSelector {
             buttons: [],
 
             // List of product variants
-            variantData: []
+            variantData: [],
+
+            // Codes of the variant attributes and variant positions by combination of attribute values
+            attributeCodes: null,
+            variantIndex: null
         };
 
-        // Parse variant data
-        this._state.variantData = JSON.parse(this._element.dataset.variants);
+        // Parse variant data, either from the compact variant matrix or from the list of variants
+        if (this._element.dataset.variantMatrix) {
+            const matrix = JSON.parse(this._element.dataset.variantMatrix);
+            this._state.variantData = VariantSelector.parseVariantMatrix(matrix);
+            this._state.attributeCodes = matrix.attributes;
+            this._state.variantIndex = VariantSelector.indexVariantMatrix(matrix);
+        } else if (this._element.dataset.variants) {
+            this._state.variantData = JSON.parse(this._element.dataset.variants);
+        }
 
         // Add click event handlers to variant selection buttons
         this._state.buttons = this._element.querySelectorAll(VariantSelector.selectors.variantButtons);
@@ -51,6 +62,51 @@ class VariantSelector {
         window.addEventListener('popstate', this._initFromHash.bind(this));
     }
 
+    /**
+     * Expands the variant matrix rendered by the product component into the list of variants. Each variant is a row
+     * with the sku, the id, the positions of the name, description, price and assets in the tables of the matrix, the
+     * stock status, the color and the combination of attribute values.
+     */
+    static parseVariantMatrix(matrix) {
+        return matrix.variants.map(row => {
+            const [sku, id, name, description, price, assets, inStock, color, combination] = row;
+            const variantAttributes = {};
+            const values = combination ? combination.split(',') : [];
+            matrix.attributes.forEach((code, i) => {
+                if (values[i]) {
+                    variantAttributes[code] = Number(values[i]);
+                }
+            });
+
+            return {
+                sku,
+                id,
+                name: matrix.names[name],
+                description: matrix.descriptions[description],
+                priceRange: matrix.prices[price],
+                assets: matrix.assets[assets],
+                inStock,
+                color,
+                variantAttributes
+            };
+        });
+    }
+
+    /**
+     * Returns the positions of the variants of the matrix by combination of attribute values. If several variants have
+     * the same combination, the first one is selected.
+     */
+    static indexVariantMatrix(matrix) {
+        const index = {};
+        matrix.variants.forEach((row, position) => {
+            const combination = row[8];
+            if (!(combination in index)) {
+                index[combination] = position;
+            }
+        });
+        return index;
+    }
+
     /**
      * Select variant from the current location hash. This method will update
      * the internal state and emit a variantchanged event, so all components can
@@ -118,6 +174,13 @@ class VariantSelector {
      * internal state or null if no matching variant exists.
      */
     _findSelectedVariant(sku) {
+        // Look up the variant of the selected attribute values in the index of the variant matrix
+        if (!sku && this._state.variantIndex) {
+            const combination = this._state.attributeCodes.map(code => this._state.attributes[code]).join(',');
+            const position = this._state.variantIndex[combination];
+            return position !== undefined ? this._state.variantData[position] : null;
+        }
+
         // Iterate variants
         for (let variant of this._state.variantData) {
             let match = true;
@@ -30,7 +30,7 @@ class Navigation {
         this.defaultPanelTitle = this.panelTitleElement.textContent;
 
         const backNavigationBinding = this.backNavigation.bind(this);
-        const downNavigationBinding = this.downNavigation.bind(this);
+        this.downNavigationBinding = this.downNavigation.bind(this);
 
         document
             .querySelector(Navigation.selectors.navigationTrigger)
@@ -41,7 +41,7 @@ class Navigation {
         this.backNavigationButton.addEventListener('click', backNavigationBinding);
         document
             .querySelectorAll(Navigation.selectors.downNavigationButton)
-            .forEach(a => a.addEventListener('click', downNavigationBinding));
+            .forEach(a => a.addEventListener('click', this.downNavigationBinding));
 
         this.updateDynamicElements();
 
@@ -119,7 +119,7 @@ class Navigation {
     }
 
     activateNavigation(id) {
-        let navigation = document.querySelector(Navigation.selectors.shadowNavigations + '[data-id="' + id + '"]');
+        let navigation = this.getShadowNavigation(id);
         if (navigation) {
             this.shadowTreeRoot.append(this.getActiveNavigation());
             this.categoryTreeRoot.append(navigation);
@@ -142,8 +142,54 @@ class Navigation {
             target = target.parentElement;
         }
         if (target) {
-            this.activateNavigation(target.dataset.id);
+            let id = target.dataset.id;
+            if (target.dataset.childrenUrl && !this.getShadowNavigation(id)) {
+                return this.loadChildren(target).then(() => this.activateNavigation(id));
+            }
+            this.activateNavigation(id);
+        }
+    }
+
+    getShadowNavigation(id) {
+        return document.querySelector(Navigation.selectors.shadowNavigations + '[data-id="' + id + '"]');
+    }
+
+    loadChildren(button) {
+        let parentId = this.getActiveNavigation().dataset.id;
+        let template = button.closest('li');
+        return fetch(button.dataset.childrenUrl)
+            .then(response => response.json())
+            .then(items => {
+                let navigation = document.createElement('ul');
+                navigation.classList.add('categoryTree__tree');
+                navigation.dataset.parent = parentId;
+                navigation.dataset.id = button.dataset.id;
+                items.forEach(item => navigation.appendChild(this.createItem(template, item)));
+                this.shadowTreeRoot.append(navigation);
+            })
+            .catch(err => console.error('Failed to load the navigation items', err));
+    }
+
+    createItem(template, item) {
+        let element = template.cloneNode(true);
+        element.classList.toggle(Navigation.CSS_CLASS_ITEM_ACTIVE, item.url === window.location.pathname);
+
+        let link = element.querySelector('a');
+        link.href = item.url;
+        link.title = item.title;
+        element.querySelector(Navigation.selectors.itemText).textContent = item.title;
+
+        let button = element.querySelector('button');
+        if (item.childrenUrl) {
+            button.dataset.id = item.url;
+            button.dataset.childrenUrl = item.childrenUrl;
+            button.addEventListener('click', this.downNavigationBinding);
+        } else {
+            let icon = document.createElement('span');
+            icon.classList.add('icon__root');
+            button.replaceWith(icon);
         }
+        return element;
     }
 
     setVisible(element, visible) {
@@ -169,6 +215,7 @@ Navigation.selectors = {
     backNavigationEmpty: '.navigation__header .trigger__root--back--empty',
     closeNavigationButton: '.navigation__header .trigger__root--close',
     downNavigationButton: '.categoryLeaf__root button',
+    itemText: '.categoryLeaf__text',
     navigationMask: 'button.navigation__mask'
 };
 
@@ -176,6 +223,7 @@ Navigation.CSS_CLASS_NAVIGATION_OPEN = 'navigation__root_open';
 Navigation.CSS_CLASS_ICON_ROOT_ACTIVE = 'icon__root--active';
 Navigation.CSS_CLASS_CLICKABLE_ROOT = 'clickable__root';
 Navigation.CSS_CLASS_MASK_ACTIVE = 'navigation__mask_active';
+Navigation.CSS_CLASS_ITEM_ACTIVE = 'cmp-navigation__item--active';
 
 (function() {
     function onDocumentReady() {
@@ -297,4 +297,35 @@ describe('CommerceGraphqlApi', () => {
             });
         });
     }
+
+    it('fetches the prices of several components with a single request to the price servlet', () => {
+        const price = value => ({
+            __typename: 'ConfigurableProduct',
+            minimum_price: { final_price: { value, currency: 'USD' } }
+        });
+        fetchSpy.resolves({
+            'sku-a': { 'sku-a': price(10), 'sku-a-xl': price(12) },
+            'sku-b': { 'sku-b': price(20) }
+        });
+        graphqlApi = new CommerceGraphqlApi({
+            endpoint: '/graphql',
+            storeView: 'default',
+            priceUrl: '/content/page/_jcr_content.prices.json'
+        });
+
+        return Promise.all([
+            graphqlApi.getProductPrices(['sku-a'], true),
+            graphqlApi.getProductPrices(['sku-a', 'sku-b'], false)
+        ]).then(([productPrices, collectionPrices]) => {
+            assert.isTrue(fetchSpy.calledOnce);
+            assert.equal(
+                fetchSpy.firstCall.args[0],
+                '/content/page/_jcr_content.prices.json?sku=sku-a&sku=sku-b&variants=true'
+            );
+
+            assert.hasAllKeys(productPrices, ['sku-a', 'sku-a-xl']);
+            assert.hasAllKeys(collectionPrices, ['sku-a', 'sku-b']);
+            assert.equal(collectionPrices['sku-b'].minimum_price.final_price.value, 20);
+        });
+    });
 });
@@ -309,3 +309,93 @@ describe('Navigation', () => {
         assert.equal(navigation.panelTitleElement.textContent, navigation.defaultPanelTitle);
     });
 });
+
+describe('Navigation with children loaded on demand', () => {
+    let FIRST_ITEM_SELECTOR = '.header__primaryActions aside div.categoryTree__root li:nth-child(1)';
+    var body;
+    var navigationRoot;
+    var fetch;
+
+    beforeEach(() => {
+        body = window.document.querySelector('body');
+        navigationRoot = document.createElement('div');
+        body.insertAdjacentElement('afterbegin', navigationRoot);
+        navigationRoot.insertAdjacentHTML(
+            'afterbegin',
+            `
+                <div class="header__primaryActions">
+                    <button class="navTrigger__root clickable__root"></button>
+                    <button data-role="mask" class="navigation__mask"></button>
+                    <aside class="navigation__root">
+                        <div class="navigation__header">
+                            <button class="trigger__root clickable__root trigger__root--back" type="button"></button>
+                            <h2 class="trigger__root trigger__root--back--empty"></h2>
+                            <h2 class="navHeader__title"><span>Main Menu</span></h2>
+                            <button class="trigger__root clickable__root trigger__root--close" type="button"></button>
+                        </div>
+                        <nav class="navigation__body">
+                            <div class="categoryTree__root">
+                                <ul class="categoryTree__tree" data-id="ROOT_NAVIGATION">
+                                    <li class="cmp-navigation__item cmp-navigation__item--level-">
+                                        <span class="categoryLeaf__root">
+                                            <span class="categoryLeaf__root categoryLeaf__root--box">
+                                                <a class="categoryLeaf__root categoryLeaf__root--link" href="/content/atest/us/en/products/category-page.34.html" title="Bottoms">
+                                                    <span class="categoryLeaf__text">Bottoms</span>
+                                                </a>
+                                                <button class="trigger__root clickable__root" type="button" data-id="/content/atest/us/en/products/category-page.34.html" data-children-url="/content/atest/us/en/_jcr_content/navigation.children.json/MzQ=.json">
+                                                    <span class="icon__root"></span>
+                                                </button>
+                                            </span>
+                                        </span>
+                                    </li>
+                                </ul>
+                            </div>
+                            <div class="categoryTree__root--shadow"></div>
+                        </nav>
+                    </aside>
+                </div>`
+        );
+
+        fetch = sinon.stub(window, 'fetch').resolves({
+            json: () =>
+                Promise.resolve([
+                    {
+                        title: 'Pants & Shorts',
+                        url: '/content/atest/us/en/products/category-page.35.html',
+                        childrenUrl: '/content/atest/us/en/_jcr_content/navigation.children.json/MzU=.json'
+                    },
+                    { title: 'Skirts', url: '/content/atest/us/en/products/category-page.36.html' }
+                ])
+        });
+    });
+
+    afterEach(() => {
+        fetch.restore();
+        body.removeChild(navigationRoot);
+    });
+
+    it('loads the child items when navigating down', () => {
+        var navigation = new Navigation();
+        let button = document.querySelector(FIRST_ITEM_SELECTOR + ' button');
+
+        return navigation.downNavigation({ target: button }).then(() => {
+            assert.isTrue(fetch.calledOnceWith('/content/atest/us/en/_jcr_content/navigation.children.json/MzQ=.json'));
+
+            let items = document.querySelectorAll(Navigation.selectors.activeNavigation + ' li');
+            assert.equal(2, items.length);
+            assert.equal('Pants & Shorts', items[0].querySelector('a span').textContent);
+            assert.equal('/content/atest/us/en/products/category-page.35.html', items[0].querySelector('a').getAttribute('href'));
+            assert.equal(
+                '/content/atest/us/en/_jcr_content/navigation.children.json/MzU=.json',
+                items[0].querySelector('button').dataset.childrenUrl
+            );
+            assert.isNull(items[1].querySelector('button'));
+            assert.equal('block', navigation.backNavigationButton.style.display);
+
+            // the loaded items are kept for the next navigation
+            document.querySelector(Navigation.selectors.backNavigationButton).click();
+            navigation.downNavigation({ target: button });
+            assert.isTrue(fetch.calledOnce);
+        });
+    });
+});
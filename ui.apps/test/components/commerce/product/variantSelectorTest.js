@@ -61,6 +61,13 @@ describe('Product', () => {
             assert.equal(selector._state.buttons.length, 2);
         });
 
+        it('initializes a variantselector component without variant data', () => {
+            delete selectorRoot.dataset.variants;
+            let selector = new VariantSelector({ element: selectorRoot });
+
+            assert.deepEqual(selector._state.variantData, []);
+        });
+
         it('initializes variant from a window location hash', () => {
             window.location.hash = '#red';
 
@@ -150,5 +157,45 @@ describe('Product', () => {
             assert.isTrue(blueButton.classList.contains('tile__root_selected'));
             assert.isFalse(blueButton.classList.contains('swatch__root_selected'));
         });
+
+        it('expands the variants of a variant matrix', () => {
+            const matrix = {
+                attributes: ['color', 'size'],
+                names: ['Jeans'],
+                descriptions: ['<p>Jeans</p>'],
+                prices: [{ final: 10 }],
+                assets: [[{ path: '/jeans.jpg' }]],
+                variants: [
+                    ['red', 'id-red', 0, 0, 0, 0, true, null, '1,2'],
+                    ['blue', 'id-blue', 0, 0, 0, 0, false, null, '3,2'],
+                    ['blue-2', 'id-blue-2', 0, 0, 0, 0, true, null, '3,2']
+                ]
+            };
+            selectorRoot.dataset.variantMatrix = JSON.stringify(matrix);
+
+            let selector = new VariantSelector({ element: selectorRoot });
+
+            assert.equal(selector._state.variantData.length, 3);
+            assert.deepEqual(selector._state.variantData[1], {
+                sku: 'blue',
+                id: 'id-blue',
+                name: 'Jeans',
+                description: '<p>Jeans</p>',
+                priceRange: { final: 10 },
+                assets: [{ path: '/jeans.jpg' }],
+                inStock: false,
+                color: null,
+                variantAttributes: { color: 3, size: 2 }
+            });
+
+            // a variant with the same combination as a previous variant keeps its attributes
+            assert.deepEqual(selector._state.variantData[2].variantAttributes, { color: 3, size: 2 });
+
+            // the first variant of a combination is selected
+            selector._state.attributes = { color: 3, size: 2 };
+            assert.equal(selector._findSelectedVariant().sku, 'blue');
+            selector._state.attributes = { color: 3, size: 1 };
+            assert.isNull(selector._findSelectedVariant());
+        });
     });
 });